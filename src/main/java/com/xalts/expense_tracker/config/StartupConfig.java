@@ -0,0 +1,34 @@
+package com.xalts.expense_tracker.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Keeps beans that do work without being asked for (scheduled tasks,
+     * event listeners) eager when {@code spring.main.lazy-initialization}
+     * is on, since a lazy bean of that kind would silently never run.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> {
+            if (beanType == null) {
+                return false;
+            }
+            AtomicBoolean found = new AtomicBoolean();
+            ReflectionUtils.doWithMethods(beanType, method -> found.set(true), method -> !found.get()
+                    && (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)));
+            return found.get();
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.xalts.expense_tracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Logs time-to-ready and time-to-first-request measured from JVM start
+ * against {@code expense-tracker.startup.target-ms}. With
+ * {@code expense-tracker.startup.report=true} it also logs the slowest
+ * steps of the buffered startup timeline (the full timeline is served by
+ * {@code /actuator/startup}). The latency of the first
+ * {@code expense-tracker.startup.first-requests} requests after ready is
+ * summarized once they have completed, to compare cold and warmed starts.
+ */
+@Component
+public class StartupTimelineReporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimelineReporter.class);
+    private static final int SLOWEST_STEPS = 15;
+
+    private final long targetMillis;
+    private final boolean reportSteps;
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+    private final long[] firstLatencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger filled = new AtomicInteger();
+    // Requests made before ready (warm-up) are not what users see, so they are not counted.
+    private volatile boolean ready;
+
+    public StartupTimelineReporter(@Value("${expense-tracker.startup.target-ms:10000}") long targetMillis,
+                                   @Value("${expense-tracker.startup.report:false}") boolean reportSteps,
+                                   @Value("${expense-tracker.startup.first-requests:100}") int firstRequests) {
+        this.targetMillis = targetMillis;
+        this.reportSteps = reportSteps;
+        this.firstLatencies = new long[firstRequests];
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        ready = true;
+        logger.info("Ready {} ms after JVM start", millisSinceJvmStart());
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (reportSteps && startup instanceof BufferingApplicationStartup buffering) {
+            StartupTimeline timeline = buffering.getBufferedTimeline();
+            logger.info("Slowest startup steps ({} recorded):", timeline.getEvents().size());
+            timeline.getEvents().stream()
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(SLOWEST_STEPS)
+                    .forEach(step -> logger.info("  {} ms  {}", step.getDuration().toMillis(),
+                            describe(step.getStartupStep())));
+        }
+    }
+
+    public void onRequestCompleted(long durationNanos) {
+        if (!ready) {
+            return;
+        }
+        recordLatency(durationNanos);
+        if (firstRequestSeen.get() || !firstRequestSeen.compareAndSet(false, true)) {
+            return;
+        }
+        long elapsed = millisSinceJvmStart();
+        if (elapsed > targetMillis) {
+            logger.warn("First request completed {} ms after JVM start, above the {} ms target", elapsed, targetMillis);
+        } else {
+            logger.info("First request completed {} ms after JVM start (target {} ms)", elapsed, targetMillis);
+        }
+    }
+
+    private void recordLatency(long durationNanos) {
+        int index = recorded.getAndIncrement();
+        if (index >= firstLatencies.length) {
+            return;
+        }
+        firstLatencies[index] = durationNanos;
+        // The request that fills the last slot reports; filled orders the writes before the read.
+        if (filled.incrementAndGet() == firstLatencies.length) {
+            long[] sorted = firstLatencies.clone();
+            Arrays.sort(sorted);
+            logger.info("First {} requests after ready: p50 {} ms, p90 {} ms, p99 {} ms, max {} ms", sorted.length,
+                    millis(sorted, 0.5), millis(sorted, 0.9), millis(sorted, 0.99), millis(sorted, 1.0));
+        }
+    }
+
+    private static String millis(long[] sorted, double quantile) {
+        long nanos = sorted[(int) Math.ceil(quantile * sorted.length) - 1];
+        return String.format("%.1f", nanos / 1e6);
+    }
+
+    private static long millisSinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    private static String describe(StartupStep step) {
+        StringJoiner tags = new StringJoiner(", ", " [", "]").setEmptyValue("");
+        step.getTags().forEach(tag -> tags.add(tag.getKey() + "=" + tag.getValue()));
+        return step.getName() + tags;
+    }
+}
@@ -0,0 +1,234 @@
+package com.xalts.expense_tracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseTombstoneRepository;
+import com.xalts.expense_tracker.repository.SpendingBucketRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import com.xalts.expense_tracker.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Drives the application's own endpoints over loopback HTTP before the
+ * instance reports ready, so the first real requests do not pay for cold
+ * JIT, Hibernate query plans, Jackson serializers, the JWT parser and an
+ * empty connection pool. Runners run after the web server starts but before
+ * the readiness state switches to accepting traffic, so a readiness probe
+ * keeps the instance out of rotation until this returns. The work is bounded
+ * by an iteration count and a time budget, uses a throwaway user that is
+ * removed afterwards, and never fails startup. The user's writes are kept
+ * out of the audit log and event streams. Off by default, since it writes
+ * to the live database; enable it where a cold first minute matters.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final LocalDate START_DATE = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END_DATE = LocalDate.of(2025, 12, 31);
+
+    private final ApplicationContext context;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseTombstoneRepository tombstoneRepository;
+    private final SpendingBucketRepository bucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration timeBudget;
+
+    public WarmupRunner(ApplicationContext context, DataSource dataSource, ObjectMapper objectMapper,
+                        UserRepository userRepository, UserService userService, ExpenseRepository expenseRepository,
+                        ExpenseTombstoneRepository tombstoneRepository, SpendingBucketRepository bucketRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${expense-tracker.warmup.enabled:false}") boolean enabled,
+                        @Value("${expense-tracker.warmup.iterations:300}") int iterations,
+                        @Value("${expense-tracker.warmup.time-budget:20s}") Duration timeBudget) {
+        this.context = context;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.expenseRepository = expenseRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.bucketRepository = bucketRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.timeBudget = timeBudget;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Without a real server (mock MVC tests) there is nothing to warm through.
+        if (!enabled || !(context instanceof WebServerApplicationContext web) || web.getWebServer() == null
+                || web.getWebServer().getPort() <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeBudget.toNanos();
+        fillConnectionPool();
+
+        String email = "warmup-" + UUID.randomUUID() + "@warmup.invalid";
+        Client client = new Client(web.getWebServer().getPort());
+        Map<String, long[]> latencies = new LinkedHashMap<>();
+        int completed = 0;
+        try {
+            String password = UUID.randomUUID().toString();
+            client.send("POST", "/api/auth/register", Map.of("name", "Warm-up", "email", email, "password", password));
+            userRepository.findByEmail(email).ifPresent(user -> userService.markWarmupUser(user.getId()));
+            client.token = client.send("POST", "/api/auth/login", Map.of("email", email, "password", password));
+            while (completed < iterations && System.nanoTime() < deadline) {
+                runIteration(client, completed, latencies);
+                completed++;
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Warm-up stopped after {} iterations: {}", completed, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            removeUser(email);
+        }
+        report(completed, System.nanoTime() - start, latencies);
+    }
+
+    private void runIteration(Client client, int iteration, Map<String, long[]> latencies)
+            throws IOException, InterruptedException {
+        String range = "?startDate=" + START_DATE + "&endDate=" + END_DATE;
+        LocalDate date = START_DATE.plusDays(iteration % 365);
+        Map<String, Object> expense = Map.of("amount", 10 + iteration % 90, "category", iteration % 2 == 0 ? "Food" : "Travel",
+                "description", "Warm-up", "date", date.toString());
+
+        String created = timed(latencies, "create", iteration, () -> client.send("POST", "/api/expenses", expense));
+        long id = objectMapper.readTree(created).get("id").asLong();
+        timed(latencies, "list", iteration, () -> client.send("GET", "/api/expenses?page=0&size=20", null));
+        timed(latencies, "total", iteration, () -> client.send("GET", "/api/expenses/total" + range, null));
+        timed(latencies, "by-category", iteration, () -> client.send("GET", "/api/expenses/by-category" + range, null));
+        timed(latencies, "monthly-report", iteration, () -> client.send("GET",
+                "/api/expenses/report/monthly?year=" + date.getYear() + "&month=" + date.getMonthValue(), null));
+        timed(latencies, "sync", iteration, () -> client.send("GET", "/api/expenses/sync?since=0", null));
+        timed(latencies, "stats", iteration, () -> client.send("GET", "/api/expenses/stats" + range, null));
+        timed(latencies, "dashboard", iteration, () -> client.send("GET", "/api/dashboard" + range
+                + "&widgets=RECENT,TOTAL,BY_CATEGORY,MONTHLY_REPORT", null));
+        timed(latencies, "update", iteration, () -> client.send("PUT", "/api/expenses/" + id, expense));
+        timed(latencies, "delete", iteration, () -> client.send("DELETE", "/api/expenses/" + id, null));
+    }
+
+    /** Opens connections up to the pool's idle target at once, so the pool is full before traffic arrives. */
+    private void fillConnectionPool() {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+        List<Connection> connections = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(hikari.getMinimumIdle(), hikari.getMaximumPoolSize()); i++) {
+                connections.add(hikari.getConnection());
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not fill the connection pool: {}", e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // Returning to the pool; nothing to do if the connection is already broken.
+                }
+            }
+        }
+        logger.info("Connection pool holds {} connections", connections.size());
+    }
+
+    private void removeUser(String email) {
+        try {
+            userRepository.findByEmail(email).ifPresent(user -> transactionTemplate.executeWithoutResult(status -> {
+                expenseRepository.deleteByUserId(user.getId());
+                tombstoneRepository.deleteByUserId(user.getId());
+                bucketRepository.deleteByUserId(user.getId());
+                userRepository.deleteById(user.getId());
+                userService.unmarkWarmupUser(user.getId());
+            }));
+        } catch (RuntimeException e) {
+            logger.warn("Could not remove warm-up user {}: {}", email, e.getMessage());
+        }
+    }
+
+    private void report(int completed, long elapsedNanos, Map<String, long[]> latencies) {
+        logger.info("Warm-up ran {} iterations in {} ms", completed, elapsedNanos / 1_000_000);
+        latencies.forEach((step, nanos) -> logger.info("  {}: first {} ms, last {} ms", step,
+                String.format("%.2f", nanos[0] / 1e6), String.format("%.2f", nanos[1] / 1e6)));
+    }
+
+    private static String timed(Map<String, long[]> latencies, String step, int iteration, Call call)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        String body = call.send();
+        long elapsed = System.nanoTime() - start;
+        long[] firstAndLast = latencies.computeIfAbsent(step, s -> new long[2]);
+        if (iteration == 0) {
+            firstAndLast[0] = elapsed;
+        }
+        firstAndLast[1] = elapsed;
+        return body;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        String send() throws IOException, InterruptedException;
+    }
+
+    private final class Client {
+
+        private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        private final String baseUrl;
+        private String token;
+
+        Client(int port) {
+            this.baseUrl = "http://localhost:" + port;
+        }
+
+        String send(String method, String path, Object body) throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT)
+                    .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .header("Content-Type", "application/json");
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new RuntimeException(method + " " + path + " returned " + response.statusCode());
+            }
+            return response.body();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.xalts.expense_tracker.controller;
+
+import com.xalts.expense_tracker.dto.AnalyticsJobDTO;
+import com.xalts.expense_tracker.dto.AuditEntryDTO;
+import com.xalts.expense_tracker.dto.DeactivatedUserDTO;
+import com.xalts.expense_tracker.dto.DepartmentRequest;
+import com.xalts.expense_tracker.dto.OrgAnalyticsRequest;
+import com.xalts.expense_tracker.dto.PurgeRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunRequest;
+import com.xalts.expense_tracker.dto.UserDepartmentDTO;
+import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final ExpenseTrackerFacade facade;
+
+    public AdminController(ExpenseTrackerFacade facade) {
+        this.facade = facade;
+    }
+
+    @PostMapping("/users/{id}/deactivate")
+    public ResponseEntity<DeactivatedUserDTO> deactivateUser(@PathVariable Long id) {
+        return ResponseEntity.ok(facade.deactivateUser(id));
+    }
+
+    @PutMapping("/users/{id}/department")
+    public ResponseEntity<UserDepartmentDTO> setDepartment(@PathVariable Long id, @Valid @RequestBody DepartmentRequest request) {
+        return ResponseEntity.ok(facade.setUserDepartment(id, request.getDepartment()));
+    }
+
+    @PostMapping("/analytics")
+    public ResponseEntity<AnalyticsJobDTO> submitAnalytics(@Valid @RequestBody OrgAnalyticsRequest request) {
+        return ResponseEntity.accepted().body(facade.submitAnalytics(request));
+    }
+
+    @GetMapping("/analytics/{id}")
+    public ResponseEntity<AnalyticsJobDTO> getAnalyticsJob(@PathVariable String id) {
+        return ResponseEntity.ok(facade.getAnalyticsJob(id));
+    }
+
+    @PostMapping("/analytics/{id}/cancel")
+    public ResponseEntity<AnalyticsJobDTO> cancelAnalyticsJob(@PathVariable String id) {
+        return ResponseEntity.ok(facade.cancelAnalyticsJob(id));
+    }
+
+    @PostMapping("/statements")
+    public ResponseEntity<StatementRunDTO> submitStatementRun(@Valid @RequestBody StatementRunRequest request) {
+        return ResponseEntity.accepted().body(facade.submitStatementRun(request));
+    }
+
+    @GetMapping("/statements/{month}")
+    public ResponseEntity<StatementRunDTO> getStatementRun(@PathVariable YearMonth month,
+                                                           @RequestParam(required = false) String currency) {
+        return ResponseEntity.ok(facade.getStatementRun(month, currency));
+    }
+
+    @PostMapping("/statements/{month}/cancel")
+    public ResponseEntity<StatementRunDTO> cancelStatementRun(@PathVariable YearMonth month,
+                                                              @RequestParam(required = false) String currency) {
+        return ResponseEntity.ok(facade.cancelStatementRun(month, currency));
+    }
+
+    @PostMapping("/purge")
+    public ResponseEntity<PurgeRunDTO> submitPurgeRun() {
+        return ResponseEntity.accepted().body(facade.submitPurgeRun());
+    }
+
+    @GetMapping("/purge")
+    public ResponseEntity<PurgeRunDTO> getPurgeRun() {
+        return ResponseEntity.ok(facade.getPurgeRun());
+    }
+
+    @PostMapping("/purge/cancel")
+    public ResponseEntity<PurgeRunDTO> cancelPurgeRun() {
+        return ResponseEntity.ok(facade.cancelPurgeRun());
+    }
+
+    @GetMapping("/users/{id}/audit")
+    public ResponseEntity<List<AuditEntryDTO>> getAuditLog(
+            @PathVariable Long id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(facade.getAuditLog(id, from, to, limit));
+    }
+}
@@ -0,0 +1,147 @@
+package com.xalts.expense_tracker.controller;
+
+import com.xalts.expense_tracker.entity.Attachment;
+import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Receipt upload and download. Uploads take the raw request body (send the
+ * file as-is with its own {@code Content-Type}) rather than multipart, so
+ * nothing is parsed or buffered on the way to the store. Downloads are
+ * handed to the container's sendfile when it supports it, so the kernel
+ * copies the file to the socket, and otherwise go through
+ * {@link FileChannel#transferTo}. A single byte range is honoured; other
+ * {@code Range} headers get the whole file.
+ */
+@RestController
+@RequestMapping("/api/expenses/{expenseId}/attachments")
+public class AttachmentController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ExpenseTrackerFacade facade;
+
+    public AttachmentController(ExpenseTrackerFacade facade) {
+        this.facade = facade;
+    }
+
+    @PostMapping
+    public ResponseEntity<Attachment> uploadAttachment(
+            @PathVariable Long expenseId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) String filename,
+            HttpServletRequest request) throws IOException {
+        Attachment attachment = facade.uploadAttachment(expenseId, contentType, filename,
+                request.getContentLengthLong(), request.getInputStream());
+        return ResponseEntity.ok(attachment);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Attachment>> getAttachments(@PathVariable Long expenseId) {
+        return ResponseEntity.ok(facade.getAttachments(expenseId));
+    }
+
+    @GetMapping("/{attachmentId}")
+    public void downloadAttachment(@PathVariable Long expenseId, @PathVariable Long attachmentId,
+                                   HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Attachment attachment = facade.getAttachment(expenseId, attachmentId);
+        // Content never changes under an attachment id, so its hash is a strong validator.
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + attachment.getContentHash() + "\"")) {
+            return;
+        }
+        Path file;
+        try {
+            file = facade.getAttachmentFile(attachment).toRealPath();
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Attachment content is missing");
+        }
+
+        long size = attachment.getSize();
+        long start = 0;
+        long end = size - 1;
+        List<HttpRange> ranges = parseRanges(request.getHeader(HttpHeaders.RANGE));
+        if (ranges.size() == 1) {
+            try {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                start = size;
+            }
+            if (start >= size || start > end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+        }
+        long length = end - start + 1;
+        response.setContentType(attachment.getContentType());
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString());
+        if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+            return;
+        }
+        transfer(file, start, length, request, response);
+    }
+
+    @DeleteMapping("/{attachmentId}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long expenseId, @PathVariable Long attachmentId) {
+        facade.deleteAttachment(expenseId, attachmentId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static void transfer(Path file, long start, long length, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file itself once the request returns, without copying it through the JVM.
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static List<HttpRange> parseRanges(String header) {
+        try {
+            return HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored and the whole file sent.
+            return List.of();
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.xalts.expense_tracker.controller;
 
+import com.xalts.expense_tracker.dto.ChangePasswordRequest;
 import com.xalts.expense_tracker.dto.LoginRequest;
 import com.xalts.expense_tracker.dto.RegisterRequest;
 import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
 import com.xalts.expense_tracker.entity.User;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -31,4 +35,19 @@ public class AuthController {
         String token = expenseTrackerFacade.loginUser(request);
         return ResponseEntity.ok(token);
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (!authorization.startsWith("Bearer ")) {
+            throw new RuntimeException("Bearer token required");
+        }
+        expenseTrackerFacade.logoutUser(authorization.substring(7));
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/password")
+    public ResponseEntity<Void> changePassword(@Valid @RequestBody ChangePasswordRequest request) {
+        expenseTrackerFacade.changePassword(request);
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
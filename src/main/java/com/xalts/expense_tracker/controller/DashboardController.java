@@ -0,0 +1,27 @@
+package com.xalts.expense_tracker.controller;
+
+import com.xalts.expense_tracker.dto.DashboardDTO;
+import com.xalts.expense_tracker.dto.DashboardRequest;
+import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    private final ExpenseTrackerFacade facade;
+
+    public DashboardController(ExpenseTrackerFacade facade) {
+        this.facade = facade;
+    }
+
+    /** e.g. {@code ?widgets=RECENT,TOTAL,BY_CATEGORY,MONTHLY_REPORT&startDate=2025-01-01&endDate=2025-01-31} */
+    @GetMapping
+    public ResponseEntity<DashboardDTO> getDashboard(@Valid DashboardRequest request) {
+        return ResponseEntity.ok(facade.getDashboard(request));
+    }
+}
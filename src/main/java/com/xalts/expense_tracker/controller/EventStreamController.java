@@ -0,0 +1,27 @@
+package com.xalts.expense_tracker.controller;
+
+import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+public class EventStreamController {
+
+    private final ExpenseTrackerFacade facade;
+
+    public EventStreamController(ExpenseTrackerFacade facade) {
+        this.facade = facade;
+    }
+
+    @GetMapping(value = "/api/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(
+            @RequestParam(required = false) List<String> range,
+            @RequestParam(required = false) String currency) {
+        return facade.subscribeToEvents(range, currency);
+    }
+}
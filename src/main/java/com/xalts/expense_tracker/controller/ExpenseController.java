@@ -1,7 +1,11 @@
 package com.xalts.expense_tracker.controller;
 
+import com.xalts.expense_tracker.dto.CategoryStatsDTO;
 import com.xalts.expense_tracker.dto.ExpenseDTO;
 import com.xalts.expense_tracker.dto.MonthlyReportDTO;
+import com.xalts.expense_tracker.dto.ReportJobDTO;
+import com.xalts.expense_tracker.dto.ReportJobRequest;
+import com.xalts.expense_tracker.dto.SyncResponseDTO;
 import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
 import com.xalts.expense_tracker.entity.Expense;
 import jakarta.validation.Valid;
@@ -11,7 +15,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -35,6 +41,20 @@ public class ExpenseController {
         return ResponseEntity.ok(expenses);
     }
 
+    @GetMapping("/sync")
+    public ResponseEntity<SyncResponseDTO> sync(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(facade.getChangesSince(since, limit));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CategoryStatsDTO>> getCategoryStats(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate) {
+        return ResponseEntity.ok(facade.getCategoryStats(startDate, endDate));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Expense> updateExpense(@PathVariable Long id, @Valid @RequestBody ExpenseDTO expenseDTO) {
         Expense expense = facade.updateExpense(id, expenseDTO);
@@ -47,27 +67,67 @@ public class ExpenseController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/tags")
+    public ResponseEntity<Map<String, Integer>> getTagCounts() {
+        return ResponseEntity.ok(facade.getTagCounts());
+    }
+
+    @GetMapping("/tagged")
+    public ResponseEntity<List<Expense>> getTaggedExpenses(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(facade.getTaggedExpenses(all, any, none, limit));
+    }
+
+    @GetMapping("/tagged/total")
+    public ResponseEntity<Double> getTaggedTotal(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        return ResponseEntity.ok(facade.getTaggedTotal(all, any, none, startDate, endDate));
+    }
+
     @GetMapping("/total")
     public ResponseEntity<Double> getTotalExpenses(
             @RequestParam LocalDate startDate,
-            @RequestParam LocalDate endDate) {
-        double total = facade.getTotalExpenses(startDate, endDate);
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String currency) {
+        double total = facade.getTotalExpenses(startDate, endDate, currency);
         return ResponseEntity.ok(total);
     }
 
     @GetMapping("/by-category")
     public ResponseEntity<Map<String, Double>> getExpensesByCategory(
             @RequestParam LocalDate startDate,
-            @RequestParam LocalDate endDate) {
-        Map<String, Double> categoryTotals = facade.getExpensesByCategory(startDate, endDate);
+            @RequestParam LocalDate endDate,
+            @RequestParam(required = false) String currency) {
+        Map<String, Double> categoryTotals = facade.getExpensesByCategory(startDate, endDate, currency);
         return ResponseEntity.ok(categoryTotals);
     }
 
     @GetMapping("/report/monthly")
     public ResponseEntity<MonthlyReportDTO> getMonthlyReport(
             @RequestParam int year,
-            @RequestParam int month) {
-        MonthlyReportDTO report = facade.getMonthlyReport(year, month);
+            @RequestParam int month,
+            @RequestParam(required = false) String currency) {
+        MonthlyReportDTO report = facade.getMonthlyReport(year, month, currency);
         return ResponseEntity.ok(report);
     }
+
+    @PostMapping("/report/jobs")
+    public ResponseEntity<ReportJobDTO> submitReportJob(@Valid @RequestBody ReportJobRequest request) {
+        ReportJobDTO job = facade.submitReportJob(request);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/report/jobs/{id}")
+    public CompletableFuture<ResponseEntity<ReportJobDTO>> getReportJob(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") long waitSeconds) {
+        return facade.getReportJob(id, waitSeconds * 1000).thenApply(ResponseEntity::ok);
+    }
 }
\ No newline at end of file
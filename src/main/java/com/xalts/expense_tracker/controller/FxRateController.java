@@ -0,0 +1,36 @@
+package com.xalts.expense_tracker.controller;
+
+import com.xalts.expense_tracker.dto.FxRateDTO;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+
+@RestController
+public class FxRateController {
+
+    private final ExpenseTrackerFacade facade;
+
+    public FxRateController(ExpenseTrackerFacade facade) {
+        this.facade = facade;
+    }
+
+    @GetMapping("/api/fx-rates")
+    public ResponseEntity<Map<String, NavigableMap<LocalDate, Double>>> getFxRates() {
+        return ResponseEntity.ok(facade.getFxRates());
+    }
+
+    @PutMapping("/api/admin/fx-rates")
+    public ResponseEntity<FxRate> saveFxRate(@Valid @RequestBody FxRateDTO fxRateDTO) {
+        FxRate fxRate = facade.saveFxRate(fxRateDTO);
+        return ResponseEntity.ok(fxRate);
+    }
+}
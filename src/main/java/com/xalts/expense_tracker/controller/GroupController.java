@@ -0,0 +1,61 @@
+package com.xalts.expense_tracker.controller;
+
+import com.xalts.expense_tracker.dto.GroupBalanceDTO;
+import com.xalts.expense_tracker.dto.GroupDTO;
+import com.xalts.expense_tracker.dto.GroupExpenseDTO;
+import com.xalts.expense_tracker.dto.GroupMemberRequest;
+import com.xalts.expense_tracker.dto.SettlementDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseGroup;
+import com.xalts.expense_tracker.entity.GroupMember;
+import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/groups")
+public class GroupController {
+
+    private final ExpenseTrackerFacade facade;
+
+    public GroupController(ExpenseTrackerFacade facade) {
+        this.facade = facade;
+    }
+
+    @PostMapping
+    public ResponseEntity<ExpenseGroup> createGroup(@Valid @RequestBody GroupDTO groupDTO) {
+        ExpenseGroup group = facade.createGroup(groupDTO);
+        return ResponseEntity.ok(group);
+    }
+
+    @PostMapping("/{id}/members")
+    public ResponseEntity<GroupMember> addMember(@PathVariable Long id, @Valid @RequestBody GroupMemberRequest request) {
+        GroupMember member = facade.addGroupMember(id, request.getEmail());
+        return ResponseEntity.ok(member);
+    }
+
+    @GetMapping("/{id}/balances")
+    public ResponseEntity<List<GroupBalanceDTO>> getBalances(@PathVariable Long id) {
+        return ResponseEntity.ok(facade.getGroupBalances(id));
+    }
+
+    @PostMapping("/{id}/expenses")
+    public ResponseEntity<Expense> addExpense(@PathVariable Long id, @Valid @RequestBody GroupExpenseDTO groupExpenseDTO) {
+        Expense expense = facade.addGroupExpense(id, groupExpenseDTO);
+        return ResponseEntity.ok(expense);
+    }
+
+    @DeleteMapping("/{id}/expenses/{expenseId}")
+    public ResponseEntity<Void> deleteExpense(@PathVariable Long id, @PathVariable Long expenseId) {
+        facade.deleteGroupExpense(id, expenseId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/settle-up")
+    public ResponseEntity<List<SettlementDTO>> getSettleUp(@PathVariable Long id) {
+        return ResponseEntity.ok(facade.getSettleUp(id));
+    }
+}
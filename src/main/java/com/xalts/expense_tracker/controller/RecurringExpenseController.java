@@ -0,0 +1,66 @@
+package com.xalts.expense_tracker.controller;
+
+import com.xalts.expense_tracker.dto.ExpenseDTO;
+import com.xalts.expense_tracker.dto.RecurringExpenseDTO;
+import com.xalts.expense_tracker.dto.RecurringOccurrenceDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.RecurringExpense;
+import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/expenses/recurring")
+public class RecurringExpenseController {
+
+    private final ExpenseTrackerFacade facade;
+
+    public RecurringExpenseController(ExpenseTrackerFacade facade) {
+        this.facade = facade;
+    }
+
+    @PostMapping
+    public ResponseEntity<RecurringExpense> createRecurringExpense(@Valid @RequestBody RecurringExpenseDTO recurringExpenseDTO) {
+        RecurringExpense recurringExpense = facade.createRecurringExpense(recurringExpenseDTO);
+        return ResponseEntity.ok(recurringExpense);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RecurringExpense>> getRecurringExpenses() {
+        return ResponseEntity.ok(facade.getRecurringExpenses());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<RecurringExpense> updateRecurringExpense(@PathVariable Long id,
+                                                                   @Valid @RequestBody RecurringExpenseDTO recurringExpenseDTO) {
+        RecurringExpense recurringExpense = facade.updateRecurringExpense(id, recurringExpenseDTO);
+        return ResponseEntity.ok(recurringExpense);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRecurringExpense(@PathVariable Long id) {
+        facade.deleteRecurringExpense(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/occurrences")
+    public ResponseEntity<Page<RecurringOccurrenceDTO>> getOccurrences(
+            @RequestParam LocalDate startDate,
+            @RequestParam LocalDate endDate,
+            Pageable pageable) {
+        return ResponseEntity.ok(facade.getRecurringOccurrences(startDate, endDate, pageable));
+    }
+
+    @PutMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<Expense> materializeOccurrence(@PathVariable Long id, @PathVariable LocalDate date,
+                                                         @Valid @RequestBody ExpenseDTO expenseDTO) {
+        Expense expense = facade.materializeOccurrence(id, date, expenseDTO);
+        return ResponseEntity.ok(expense);
+    }
+}
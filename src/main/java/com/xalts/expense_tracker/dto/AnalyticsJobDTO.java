@@ -0,0 +1,22 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/** An organization analytics run; {@code partitionsDone} out of {@code partitions} tracks its progress. */
+@Data
+public class AnalyticsJobDTO {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private String id;
+    private Status status;
+    private OrgAnalyticsRequest request;
+    private int partitions;
+    private int partitionsDone;
+    private OrgAnalyticsDTO result;
+    private String error;
+    private Instant submittedAt;
+    private Instant completedAt;
+}
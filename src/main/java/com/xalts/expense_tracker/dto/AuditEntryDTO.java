@@ -0,0 +1,21 @@
+package com.xalts.expense_tracker.dto;
+
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/** One recorded expense mutation, with the expense as it was after the change or before a delete. */
+@Data
+public class AuditEntryDTO {
+    private Instant timestamp;
+    private Long userId;
+    private Long expenseId;
+    private ChangeType type;
+    private double amount;
+    private String category;
+    private LocalDate date;
+    private String currency;
+    private String description;
+}
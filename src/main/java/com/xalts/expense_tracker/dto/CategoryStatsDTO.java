@@ -0,0 +1,13 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+@Data
+public class CategoryStatsDTO {
+    private String category;
+    private long count;
+    private double median;
+    private double p90;
+    private double p99;
+    private String currency;
+}
@@ -0,0 +1,13 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class ChangePasswordRequest {
+    @NotBlank(message = "Current password is mandatory")
+    private String currentPassword;
+
+    @NotBlank(message = "New password is mandatory")
+    private String newPassword;
+}
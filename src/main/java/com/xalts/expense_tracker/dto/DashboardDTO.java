@@ -0,0 +1,24 @@
+package com.xalts.expense_tracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.xalts.expense_tracker.entity.Expense;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Results of the requested widgets; a widget that failed or ran out of time is absent and listed in {@code errors}. */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardDTO {
+    /** Currency of {@code total} and {@code byCategory}: the requested one, or the base currency. */
+    private String currency;
+    private List<Expense> recent;
+    private Double total;
+    private Map<String, Double> byCategory;
+    private MonthlyReportDTO monthlyReport;
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<DashboardWidget, String> errors = new TreeMap<>();
+}
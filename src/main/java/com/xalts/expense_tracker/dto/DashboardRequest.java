@@ -0,0 +1,33 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+@Data
+public class DashboardRequest {
+    @NotEmpty(message = "At least one widget is required")
+    private List<DashboardWidget> widgets;
+
+    /** Range for the total and by-category widgets. */
+    @NotNull(message = "Start date is mandatory")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is mandatory")
+    private LocalDate endDate;
+
+    /** Month for the monthly report widget; defaults to the month of {@code endDate}. */
+    private YearMonth month;
+
+    private String currency;
+
+    @Min(value = 1, message = "Recent size must be at least 1")
+    @Max(value = 100, message = "Recent size must be at most 100")
+    private int recentSize = 10;
+}
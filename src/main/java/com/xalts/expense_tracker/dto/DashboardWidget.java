@@ -0,0 +1,8 @@
+package com.xalts.expense_tracker.dto;
+
+public enum DashboardWidget {
+    RECENT,
+    TOTAL,
+    BY_CATEGORY,
+    MONTHLY_REPORT
+}
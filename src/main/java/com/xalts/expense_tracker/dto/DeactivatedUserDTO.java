@@ -0,0 +1,13 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class DeactivatedUserDTO {
+    private Long id;
+    private String email;
+    private boolean active;
+    private Instant deactivatedAt;
+}
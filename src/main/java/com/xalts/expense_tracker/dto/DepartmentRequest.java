@@ -0,0 +1,11 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class DepartmentRequest {
+    /** Leave out to clear the department. */
+    @Size(max = 100, message = "Department must be at most 100 characters")
+    private String department;
+}
@@ -1,10 +1,13 @@
 package com.xalts.expense_tracker.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 public class ExpenseDTO {
@@ -17,4 +20,15 @@ public class ExpenseDTO {
     private String category;
 
     private LocalDate date;
+
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+
+    /** Replaces the expense's tags; leave out to keep them on update. */
+    @Size(max = 20, message = "At most 20 tags are allowed")
+    private List<@Pattern(regexp = "[A-Za-z0-9][A-Za-z0-9_.:-]{0,49}",
+            message = "Tags are up to 50 letters, digits or _ . : - characters") String> tags;
+
+    /** Saves the expense even if an identical one exists, listing it in possibleDuplicates instead of rejecting it. */
+    private boolean allowDuplicate;
 }
@@ -0,0 +1,22 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class FxRateDTO {
+    @NotBlank(message = "Currency is mandatory")
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+
+    @NotNull(message = "Effective date is mandatory")
+    private LocalDate effectiveDate;
+
+    @Positive(message = "Rate must be positive")
+    private double rateToBase;
+}
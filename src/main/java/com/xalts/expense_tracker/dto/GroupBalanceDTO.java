@@ -0,0 +1,10 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+@Data
+public class GroupBalanceDTO {
+    private Long userId;
+    private String name;
+    private double balance;
+}
@@ -0,0 +1,15 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class GroupDTO {
+    @NotBlank(message = "Name is mandatory")
+    private String name;
+
+    private List<String> memberEmails = new ArrayList<>();
+}
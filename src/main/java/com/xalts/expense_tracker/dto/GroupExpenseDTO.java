@@ -0,0 +1,23 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A group expense paid by the current user. {@code shares} maps member ids
+ * to percentages (PERCENTAGE) or amounts (EXACT), each of which must be
+ * positive; for EQUAL only its keys are used, and an empty map splits
+ * between all members.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class GroupExpenseDTO extends ExpenseDTO {
+    @NotNull(message = "Split type is mandatory")
+    private SplitType splitType;
+
+    private Map<Long, Double> shares = new LinkedHashMap<>();
+}
@@ -8,4 +8,5 @@ import java.util.Map;
 public class MonthlyReportDTO {
     private double totalExpenses;
     private Map<String, Double> expensesByCategory;
+    private String currency;
 }
@@ -0,0 +1,20 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Company-wide totals over a date range, all in {@code currency}. */
+@Data
+public class OrgAnalyticsDTO {
+    private String currency;
+    private long expenseCount;
+    private double total;
+    /** Category, then month as {@code yyyy-MM}, to total. */
+    private Map<String, Map<String, Double>> byCategoryMonth = new TreeMap<>();
+    private List<SpenderDTO> topSpenders = new ArrayList<>();
+    private Map<String, Double> byDepartment = new TreeMap<>();
+}
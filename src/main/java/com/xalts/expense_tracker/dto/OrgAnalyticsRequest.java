@@ -0,0 +1,26 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class OrgAnalyticsRequest {
+    @NotNull(message = "Start date is mandatory")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is mandatory")
+    private LocalDate endDate;
+
+    /** Currency every amount is converted to; the base currency when left out. */
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+
+    @Min(value = 1, message = "Top spenders must be between 1 and 100")
+    @Max(value = 100, message = "Top spenders must be between 1 and 100")
+    private int topSpenders = 10;
+}
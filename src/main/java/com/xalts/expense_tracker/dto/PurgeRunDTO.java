@@ -0,0 +1,27 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Data
+public class PurgeRunDTO {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED, CANCELLED, INTERRUPTED }
+
+    public enum Phase { RETENTION, DEACTIVATED_USERS, DONE }
+
+    private Status status;
+    private Phase phase;
+    /** Personal expenses dated before this are purged. */
+    private LocalDate cutoff;
+    /** Totals since the run first started, including before any resume. */
+    private long expensesDeleted;
+    private long usersPurged;
+    /** Deletion rate of this process's part of the run, pauses included. */
+    private double rowsPerSecond;
+    private String error;
+    private Instant startedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,13 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class RangeTotalDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String currency;
+    private double total;
+}
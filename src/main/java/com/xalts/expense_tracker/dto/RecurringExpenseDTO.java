@@ -0,0 +1,36 @@
+package com.xalts.expense_tracker.dto;
+
+import com.xalts.expense_tracker.util.Recurrence;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class RecurringExpenseDTO {
+    @Positive(message = "Amount must be positive")
+    private double amount;
+
+    private String description;
+
+    @NotBlank(message = "Category is mandatory")
+    private String category;
+
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+
+    @NotNull(message = "Frequency is mandatory")
+    private Recurrence.Frequency frequency;
+
+    @Min(value = 1, message = "Interval must be at least 1")
+    private int intervalCount = 1;
+
+    @NotNull(message = "Start date is mandatory")
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+}
@@ -0,0 +1,15 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class RecurringOccurrenceDTO {
+    private Long recurringExpenseId;
+    private LocalDate date;
+    private double amount;
+    private String currency;
+    private String description;
+    private String category;
+}
@@ -0,0 +1,19 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class ReportJobDTO {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    private String id;
+    private Status status;
+    private ReportJobRequest request;
+    private Object result;
+    private String error;
+    private Instant submittedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,18 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class ReportJobRequest {
+    @NotNull(message = "Start date is mandatory")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is mandatory")
+    private LocalDate endDate;
+
+    @NotNull(message = "Grouping is mandatory")
+    private ReportGrouping grouping;
+}
@@ -0,0 +1,10 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+@Data
+public class SettlementDTO {
+    private Long fromUserId;
+    private Long toUserId;
+    private double amount;
+}
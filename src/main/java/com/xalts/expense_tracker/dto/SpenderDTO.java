@@ -0,0 +1,12 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+@Data
+public class SpenderDTO {
+    private Long userId;
+    private String name;
+    private String email;
+    private String department;
+    private double total;
+}
@@ -0,0 +1,7 @@
+package com.xalts.expense_tracker.dto;
+
+public enum SplitType {
+    EQUAL,
+    PERCENTAGE,
+    EXACT
+}
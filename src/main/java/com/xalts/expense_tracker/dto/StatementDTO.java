@@ -0,0 +1,17 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/** One user's monthly statement as written by a statement run; a {@link MonthlyReportDTO} with its recipient. */
+@Data
+public class StatementDTO {
+    private Long userId;
+    private String name;
+    private String email;
+    private String month;
+    private String currency;
+    private double totalExpenses;
+    private Map<String, Double> expensesByCategory;
+}
@@ -0,0 +1,22 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class StatementRunDTO {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED, CANCELLED, INTERRUPTED }
+
+    private String month;
+    private String currency;
+    private Status status;
+    /** Users and chunks written so far, counting only the unbroken prefix a resumed run would keep. */
+    private long usersDone;
+    private long chunksDone;
+    private String directory;
+    private String error;
+    private Instant startedAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,17 @@
+package com.xalts.expense_tracker.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.time.YearMonth;
+
+@Data
+public class StatementRunRequest {
+    @NotNull(message = "Month is mandatory")
+    private YearMonth month;
+
+    /** Currency every statement is converted to; the base currency when left out. */
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+}
@@ -0,0 +1,22 @@
+package com.xalts.expense_tracker.dto;
+
+import com.xalts.expense_tracker.entity.Expense;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One batch of changes. Clients apply {@code upserts} and {@code deletedIds},
+ * store {@code version} and ask again while {@code hasMore} is set. When
+ * {@code reset} is set the client is too far behind for deletes to be
+ * reported and must drop its local copy before applying the batch.
+ */
+@Data
+public class SyncResponseDTO {
+    private List<Expense> upserts = new ArrayList<>();
+    private List<Long> deletedIds = new ArrayList<>();
+    private long version;
+    private boolean hasMore;
+    private boolean reset;
+}
@@ -0,0 +1,11 @@
+package com.xalts.expense_tracker.dto;
+
+import lombok.Data;
+
+@Data
+public class UserDepartmentDTO {
+    private Long id;
+    private String name;
+    private String email;
+    private String department;
+}
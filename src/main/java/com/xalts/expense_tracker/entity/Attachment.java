@@ -0,0 +1,47 @@
+package com.xalts.expense_tracker.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A file attached to an expense, such as a receipt. The bytes live in the
+ * content-addressed attachment store under {@code contentHash}, so identical
+ * files uploaded twice are stored once and shared by their rows.
+ */
+@Entity
+@Data
+@Table(indexes = {
+        @Index(columnList = "expenseId"),
+        @Index(columnList = "contentHash")
+})
+public class Attachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long expenseId;
+
+    @JsonIgnore
+    @Column(nullable = false)
+    private Long userId;
+
+    /** Hex SHA-256 of the content. */
+    @Column(nullable = false, length = 64)
+    private String contentHash;
+
+    private long size;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
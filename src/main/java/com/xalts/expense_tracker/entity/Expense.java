@@ -1,13 +1,23 @@
 package com.xalts.expense_tracker.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 
 @Entity
 @Data
+@Table(uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"recurringExpenseId", "occurrenceDate"}),
+        @UniqueConstraint(columnNames = {"user_id", "fingerprint"})},
+        indexes = @Index(columnList = "user_id, changeVersion"))
 public class Expense {
 
     @Id
@@ -24,7 +34,45 @@ public class Expense {
 
     private LocalDate date = LocalDate.now();
 
-    @ManyToOne
+    @Column(length = 3)
+    private String currency;
+
+    private Long recurringExpenseId;
+
+    private LocalDate occurrenceDate;
+
+    private Long groupId;
+
+    /** Position of the latest create or update in the owner's change sequence. */
+    private long changeVersion;
+
+    /** Spending sketch bucket this expense was counted in, so updates and deletes remove exactly what was added. */
+    @JsonIgnore
+    private Integer sketchBucket;
+
+    /** Hash of the normalized amount, currency, date, category and description; null if saved as a duplicate. */
+    @JsonIgnore
+    private Long fingerprint;
+
+    /** Set on creation and update: recent expenses with the same amount dated a few days apart at most. */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> possibleDuplicates;
+
+    /** Set on creation: whether the amount is far above the owner's usual spending in the category. */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean anomalous;
+
+    /** Set when the tags were written or read along with the expense. */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Set<String> tags;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 }
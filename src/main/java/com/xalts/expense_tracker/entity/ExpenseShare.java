@@ -0,0 +1,23 @@
+package com.xalts.expense_tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/** One member's share of a group expense, kept so the balance change can be reversed. */
+@Entity
+@Data
+@Table(indexes = @Index(columnList = "expenseId"))
+public class ExpenseShare {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long expenseId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private long amountCents;
+}
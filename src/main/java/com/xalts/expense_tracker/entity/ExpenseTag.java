@@ -0,0 +1,37 @@
+package com.xalts.expense_tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * One tag on one expense. Queries over tags go through the in-memory tag
+ * index; this table is its source. The database drops an expense's tags
+ * along with the expense, so deletes need no extra statement.
+ */
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"expense_id", "tag"}),
+        indexes = @Index(columnList = "userId"))
+public class ExpenseTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "expense_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Expense expense;
+
+    @Column(nullable = false, length = 50)
+    private String tag;
+}
@@ -0,0 +1,31 @@
+package com.xalts.expense_tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/** Marks a deleted expense so that clients syncing from an older version learn about the delete. */
+@Entity
+@Data
+@Table(indexes = {
+        @Index(columnList = "userId, changeVersion"),
+        @Index(columnList = "deletedAt")
+})
+public class ExpenseTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long expenseId;
+
+    private long changeVersion;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+}
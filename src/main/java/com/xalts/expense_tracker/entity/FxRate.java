@@ -0,0 +1,30 @@
+package com.xalts.expense_tracker.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"currency", "effectiveDate"}))
+public class FxRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Currency is mandatory")
+    @Column(length = 3, nullable = false)
+    private String currency;
+
+    @NotNull(message = "Effective date is mandatory")
+    @Column(nullable = false)
+    private LocalDate effectiveDate;
+
+    @Positive(message = "Rate must be positive")
+    private double rateToBase;
+}
@@ -0,0 +1,28 @@
+package com.xalts.expense_tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Membership of a user in a group together with the member's running net
+ * balance in base currency cents: positive when the group owes the member,
+ * negative when the member owes the group. Balances across a group always
+ * sum to zero.
+ */
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"groupId", "userId"}))
+public class GroupMember {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long groupId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private long balanceCents;
+}
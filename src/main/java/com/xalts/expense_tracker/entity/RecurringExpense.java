@@ -0,0 +1,57 @@
+package com.xalts.expense_tracker.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.xalts.expense_tracker.util.Recurrence;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+@Entity
+@Data
+public class RecurringExpense {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Positive(message = "Amount must be positive")
+    private double amount;
+
+    private String description;
+
+    @NotBlank(message = "Category is mandatory")
+    private String category;
+
+    @Column(length = 3)
+    private String currency;
+
+    @NotNull(message = "Frequency is mandatory")
+    @Enumerated(EnumType.STRING)
+    private Recurrence.Frequency frequency;
+
+    @Min(value = 1, message = "Interval must be at least 1")
+    private int intervalCount = 1;
+
+    @NotNull(message = "Start date is mandatory")
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    public Recurrence toRecurrence() {
+        return new Recurrence(startDate, endDate, frequency, intervalCount);
+    }
+}
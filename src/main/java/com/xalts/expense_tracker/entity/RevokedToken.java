@@ -0,0 +1,36 @@
+package com.xalts.expense_tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A revoked token, or with no {@code tokenId} every token of {@code subject}
+ * issued before {@code revokedAt}. Rows are only needed until
+ * {@code expiresAt}, after which the tokens they cover have expired anyway.
+ */
+@Entity
+@Data
+@Table(indexes = {
+        @Index(columnList = "revokedAt"),
+        @Index(columnList = "expiresAt")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 36)
+    private String tokenId;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,33 @@
+package com.xalts.expense_tracker.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One bucket of a user's spending sketch for a category and month. The
+ * rows for a (user, category, month) together form a
+ * {@link com.xalts.expense_tracker.util.QuantileSketch}; summing counts per
+ * bucket across months merges the monthly sketches.
+ */
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"userId", "category", "monthKey", "bucketIndex"}))
+public class SpendingBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private String category;
+
+    /** Calendar month as {@code yyyyMM}. */
+    private int monthKey;
+
+    private int bucketIndex;
+
+    private long bucketCount;
+}
@@ -8,8 +8,10 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 @Entity
 @Data
@@ -32,8 +34,32 @@ public class User implements UserDetails {
 
     private boolean active = true;
 
+    /** When the account was deactivated; its data is purged once this is past the grace period. */
+    private Instant deactivatedAt;
+
+    private boolean admin;
+
+    /** Used to group spending in organization analytics; optional. */
+    @Column(length = 100)
+    private String department;
+
+    /**
+     * Last change sequence number handed out for this user's expenses. Like
+     * {@code syncFloor}, only the targeted updates in {@code UserRepository}
+     * write it, so saving a stale {@code User} cannot set it back.
+     */
+    @Column(updatable = false)
+    private long syncVersion;
+
+    /** Highest tombstone version removed by compaction; clients older than this must resync from scratch. */
+    @Column(updatable = false)
+    private long syncFloor;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        if (admin) {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
     }
 
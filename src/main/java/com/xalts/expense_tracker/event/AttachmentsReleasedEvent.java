@@ -0,0 +1,7 @@
+package com.xalts.expense_tracker.event;
+
+import java.util.Set;
+
+/** Attachment rows referencing {@code contentHashes} were deleted; files no longer referenced can go. */
+public record AttachmentsReleasedEvent(Set<String> contentHashes) {
+}
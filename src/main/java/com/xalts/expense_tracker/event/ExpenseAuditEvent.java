@@ -0,0 +1,10 @@
+package com.xalts.expense_tracker.event;
+
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
+
+import java.time.LocalDate;
+
+/** An expense was created, updated or deleted; carries its state after the change, or before a delete. */
+public record ExpenseAuditEvent(ChangeType type, Long userId, Long expenseId, double amount, String category,
+                                LocalDate date, String currency, String description) {
+}
@@ -0,0 +1,6 @@
+package com.xalts.expense_tracker.event;
+
+public record ExpenseChangedEvent(Long userId, Long expenseId, ChangeType type) {
+
+    public enum ChangeType { CREATED, UPDATED, DELETED, RECURRING_CHANGED }
+}
@@ -0,0 +1,7 @@
+package com.xalts.expense_tracker.event;
+
+import java.util.List;
+
+/** A purge deleted these expenses of one user in bulk, outside the per-expense write path. */
+public record ExpensesPurgedEvent(Long userId, List<Long> expenseIds) {
+}
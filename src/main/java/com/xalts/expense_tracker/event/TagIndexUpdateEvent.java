@@ -0,0 +1,13 @@
+package com.xalts.expense_tracker.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * An expense was saved or deleted; carries what the tag index keeps about
+ * it. {@code tags} is {@code null} when the write left the tags unchanged.
+ */
+public record TagIndexUpdateEvent(Long userId, Long expenseId, double amount, String currency, LocalDate date,
+                                  Set<String> tags,
+                                  boolean deleted) {
+}
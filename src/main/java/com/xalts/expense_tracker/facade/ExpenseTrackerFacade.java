@@ -1,26 +1,107 @@
 package com.xalts.expense_tracker.facade;
 
+import com.xalts.expense_tracker.dto.AnalyticsJobDTO;
+import com.xalts.expense_tracker.dto.AuditEntryDTO;
+import com.xalts.expense_tracker.dto.CategoryStatsDTO;
+import com.xalts.expense_tracker.dto.ChangePasswordRequest;
+import com.xalts.expense_tracker.dto.DashboardDTO;
+import com.xalts.expense_tracker.dto.DashboardRequest;
+import com.xalts.expense_tracker.dto.DeactivatedUserDTO;
 import com.xalts.expense_tracker.dto.ExpenseDTO;
+import com.xalts.expense_tracker.dto.FxRateDTO;
+import com.xalts.expense_tracker.dto.GroupBalanceDTO;
+import com.xalts.expense_tracker.dto.GroupDTO;
+import com.xalts.expense_tracker.dto.GroupExpenseDTO;
 import com.xalts.expense_tracker.dto.LoginRequest;
 import com.xalts.expense_tracker.dto.MonthlyReportDTO;
+import com.xalts.expense_tracker.dto.OrgAnalyticsRequest;
+import com.xalts.expense_tracker.dto.PurgeRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunRequest;
+import com.xalts.expense_tracker.dto.RecurringExpenseDTO;
+import com.xalts.expense_tracker.dto.RecurringOccurrenceDTO;
 import com.xalts.expense_tracker.dto.RegisterRequest;
+import com.xalts.expense_tracker.dto.ReportJobDTO;
+import com.xalts.expense_tracker.dto.ReportJobRequest;
+import com.xalts.expense_tracker.dto.SettlementDTO;
+import com.xalts.expense_tracker.dto.SyncResponseDTO;
+import com.xalts.expense_tracker.dto.UserDepartmentDTO;
+import com.xalts.expense_tracker.entity.Attachment;
 import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseGroup;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.entity.GroupMember;
+import com.xalts.expense_tracker.entity.RecurringExpense;
 import com.xalts.expense_tracker.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
 
 public interface ExpenseTrackerFacade {
     User registerUser(RegisterRequest request);
 
     String loginUser(LoginRequest request);
+    void logoutUser(String token);
+    void changePassword(ChangePasswordRequest request);
+    DeactivatedUserDTO deactivateUser(Long id);
+    UserDepartmentDTO setUserDepartment(Long id, String department);
+    AnalyticsJobDTO submitAnalytics(OrgAnalyticsRequest request);
+    AnalyticsJobDTO getAnalyticsJob(String jobId);
+    AnalyticsJobDTO cancelAnalyticsJob(String jobId);
+    StatementRunDTO submitStatementRun(StatementRunRequest request);
+    StatementRunDTO getStatementRun(YearMonth month, String currency);
+    StatementRunDTO cancelStatementRun(YearMonth month, String currency);
+
+    PurgeRunDTO submitPurgeRun();
+    PurgeRunDTO getPurgeRun();
+    PurgeRunDTO cancelPurgeRun();
+    List<AuditEntryDTO> getAuditLog(Long userId, Instant from, Instant to, int limit);
     Expense createExpense(ExpenseDTO expenseDTO);
     Page<Expense> getExpenses(Pageable pageable);
+    SyncResponseDTO getChangesSince(long since, int limit);
+    List<CategoryStatsDTO> getCategoryStats(LocalDate startDate, LocalDate endDate);
     Expense updateExpense(Long id, ExpenseDTO expenseDTO);
     void deleteExpense(Long id);
+    Attachment uploadAttachment(Long expenseId, String contentType, String fileName, long contentLength, InputStream body);
+    List<Attachment> getAttachments(Long expenseId);
+    Attachment getAttachment(Long expenseId, Long attachmentId);
+    Path getAttachmentFile(Attachment attachment);
+    void deleteAttachment(Long expenseId, Long attachmentId);
+    Map<String, Integer> getTagCounts();
+    List<Expense> getTaggedExpenses(List<String> all, List<String> any, List<String> none, int limit);
+    double getTaggedTotal(List<String> all, List<String> any, List<String> none, LocalDate startDate, LocalDate endDate);
     double getTotalExpenses(LocalDate startDate, LocalDate endDate);
     Map<String, Double> getExpensesByCategory(LocalDate startDate, LocalDate endDate);
     MonthlyReportDTO getMonthlyReport(int year, int month);
+    double getTotalExpenses(LocalDate startDate, LocalDate endDate, String currency);
+    Map<String, Double> getExpensesByCategory(LocalDate startDate, LocalDate endDate, String currency);
+    MonthlyReportDTO getMonthlyReport(int year, int month, String currency);
+    DashboardDTO getDashboard(DashboardRequest request);
+    Map<String, NavigableMap<LocalDate, Double>> getFxRates();
+    FxRate saveFxRate(FxRateDTO fxRateDTO);
+    ReportJobDTO submitReportJob(ReportJobRequest request);
+    CompletableFuture<ReportJobDTO> getReportJob(String jobId, long waitMillis);
+    RecurringExpense createRecurringExpense(RecurringExpenseDTO recurringExpenseDTO);
+    List<RecurringExpense> getRecurringExpenses();
+    RecurringExpense updateRecurringExpense(Long id, RecurringExpenseDTO recurringExpenseDTO);
+    void deleteRecurringExpense(Long id);
+    Page<RecurringOccurrenceDTO> getRecurringOccurrences(LocalDate startDate, LocalDate endDate, Pageable pageable);
+    Expense materializeOccurrence(Long recurringExpenseId, LocalDate occurrenceDate, ExpenseDTO expenseDTO);
+    ExpenseGroup createGroup(GroupDTO groupDTO);
+    GroupMember addGroupMember(Long groupId, String email);
+    List<GroupBalanceDTO> getGroupBalances(Long groupId);
+    Expense addGroupExpense(Long groupId, GroupExpenseDTO groupExpenseDTO);
+    void deleteGroupExpense(Long groupId, Long expenseId);
+    List<SettlementDTO> getSettleUp(Long groupId);
+    SseEmitter subscribeToEvents(List<String> ranges, String currency);
 }
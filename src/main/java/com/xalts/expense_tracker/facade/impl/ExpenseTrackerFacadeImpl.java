@@ -1,30 +1,107 @@
 package com.xalts.expense_tracker.facade.impl;
 
+import com.xalts.expense_tracker.dto.AnalyticsJobDTO;
+import com.xalts.expense_tracker.dto.AuditEntryDTO;
+import com.xalts.expense_tracker.dto.CategoryStatsDTO;
+import com.xalts.expense_tracker.dto.ChangePasswordRequest;
+import com.xalts.expense_tracker.dto.DashboardDTO;
+import com.xalts.expense_tracker.dto.DashboardRequest;
+import com.xalts.expense_tracker.dto.DeactivatedUserDTO;
 import com.xalts.expense_tracker.dto.ExpenseDTO;
+import com.xalts.expense_tracker.dto.FxRateDTO;
+import com.xalts.expense_tracker.dto.GroupBalanceDTO;
+import com.xalts.expense_tracker.dto.GroupDTO;
+import com.xalts.expense_tracker.dto.GroupExpenseDTO;
 import com.xalts.expense_tracker.dto.LoginRequest;
 import com.xalts.expense_tracker.dto.MonthlyReportDTO;
+import com.xalts.expense_tracker.dto.OrgAnalyticsRequest;
+import com.xalts.expense_tracker.dto.PurgeRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunRequest;
+import com.xalts.expense_tracker.dto.RecurringExpenseDTO;
+import com.xalts.expense_tracker.dto.RecurringOccurrenceDTO;
 import com.xalts.expense_tracker.dto.RegisterRequest;
+import com.xalts.expense_tracker.dto.ReportJobDTO;
+import com.xalts.expense_tracker.dto.ReportJobRequest;
+import com.xalts.expense_tracker.dto.SettlementDTO;
+import com.xalts.expense_tracker.dto.SyncResponseDTO;
+import com.xalts.expense_tracker.dto.UserDepartmentDTO;
 import com.xalts.expense_tracker.facade.ExpenseTrackerFacade;
+import com.xalts.expense_tracker.entity.Attachment;
 import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseGroup;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.entity.GroupMember;
+import com.xalts.expense_tracker.entity.RecurringExpense;
 import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.service.AttachmentService;
+import com.xalts.expense_tracker.service.AuditLogService;
+import com.xalts.expense_tracker.service.DashboardService;
+import com.xalts.expense_tracker.service.EventStreamService;
 import com.xalts.expense_tracker.service.ExpenseService;
+import com.xalts.expense_tracker.service.ExpenseTagService;
+import com.xalts.expense_tracker.service.FxRateService;
+import com.xalts.expense_tracker.service.GroupService;
+import com.xalts.expense_tracker.service.OrgAnalyticsService;
+import com.xalts.expense_tracker.service.RecurringExpenseService;
+import com.xalts.expense_tracker.service.ReportJobService;
+import com.xalts.expense_tracker.service.PurgeService;
+import com.xalts.expense_tracker.service.StatementBatchService;
 import com.xalts.expense_tracker.service.UserService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class ExpenseTrackerFacadeImpl implements ExpenseTrackerFacade {
 
     private final UserService userService;
     private final ExpenseService expenseService;
+    private final ReportJobService reportJobService;
+    private final FxRateService fxRateService;
+    private final RecurringExpenseService recurringExpenseService;
+    private final GroupService groupService;
+    private final EventStreamService eventStreamService;
+    private final AttachmentService attachmentService;
+    private final DashboardService dashboardService;
+    private final ExpenseTagService expenseTagService;
+    private final AuditLogService auditLogService;
+    private final OrgAnalyticsService orgAnalyticsService;
+    private final StatementBatchService statementBatchService;
+    private final PurgeService purgeService;
 
-    public ExpenseTrackerFacadeImpl(UserService userService, ExpenseService expenseService) {
+    public ExpenseTrackerFacadeImpl(UserService userService, ExpenseService expenseService,
+                                    ReportJobService reportJobService, FxRateService fxRateService,
+                                    RecurringExpenseService recurringExpenseService, GroupService groupService,
+                                    EventStreamService eventStreamService, AttachmentService attachmentService,
+                                    DashboardService dashboardService, ExpenseTagService expenseTagService,
+                                    AuditLogService auditLogService, OrgAnalyticsService orgAnalyticsService,
+                                    StatementBatchService statementBatchService, PurgeService purgeService) {
         this.userService = userService;
         this.expenseService = expenseService;
+        this.reportJobService = reportJobService;
+        this.fxRateService = fxRateService;
+        this.recurringExpenseService = recurringExpenseService;
+        this.groupService = groupService;
+        this.eventStreamService = eventStreamService;
+        this.attachmentService = attachmentService;
+        this.dashboardService = dashboardService;
+        this.expenseTagService = expenseTagService;
+        this.auditLogService = auditLogService;
+        this.orgAnalyticsService = orgAnalyticsService;
+        this.statementBatchService = statementBatchService;
+        this.purgeService = purgeService;
     }
 
     @Override
@@ -37,6 +114,76 @@ public class ExpenseTrackerFacadeImpl implements ExpenseTrackerFacade {
         return userService.loginUser(request);
     }
 
+    @Override
+    public void logoutUser(String token) {
+        userService.logoutUser(token);
+    }
+
+    @Override
+    public void changePassword(ChangePasswordRequest request) {
+        userService.changePassword(request);
+    }
+
+    @Override
+    public DeactivatedUserDTO deactivateUser(Long id) {
+        return userService.deactivateUser(id);
+    }
+
+    @Override
+    public UserDepartmentDTO setUserDepartment(Long id, String department) {
+        return userService.setDepartment(id, department);
+    }
+
+    @Override
+    public AnalyticsJobDTO submitAnalytics(OrgAnalyticsRequest request) {
+        return orgAnalyticsService.submit(request);
+    }
+
+    @Override
+    public AnalyticsJobDTO getAnalyticsJob(String jobId) {
+        return orgAnalyticsService.getJob(jobId);
+    }
+
+    @Override
+    public AnalyticsJobDTO cancelAnalyticsJob(String jobId) {
+        return orgAnalyticsService.cancel(jobId);
+    }
+
+    @Override
+    public StatementRunDTO submitStatementRun(StatementRunRequest request) {
+        return statementBatchService.submit(request);
+    }
+
+    @Override
+    public StatementRunDTO getStatementRun(YearMonth month, String currency) {
+        return statementBatchService.getRun(month, currency);
+    }
+
+    @Override
+    public StatementRunDTO cancelStatementRun(YearMonth month, String currency) {
+        return statementBatchService.cancel(month, currency);
+    }
+
+    @Override
+    public PurgeRunDTO submitPurgeRun() {
+        return purgeService.submit();
+    }
+
+    @Override
+    public PurgeRunDTO getPurgeRun() {
+        return purgeService.getRun();
+    }
+
+    @Override
+    public PurgeRunDTO cancelPurgeRun() {
+        return purgeService.cancel();
+    }
+
+    @Override
+    public List<AuditEntryDTO> getAuditLog(Long userId, Instant from, Instant to, int limit) {
+        return auditLogService.query(userId, from, to, limit);
+    }
+
     @Override
     public Expense createExpense(ExpenseDTO expenseDTO) {
         return expenseService.createExpense(expenseDTO);
@@ -47,6 +194,16 @@ public class ExpenseTrackerFacadeImpl implements ExpenseTrackerFacade {
         return expenseService.getExpenses(pageable);
     }
 
+    @Override
+    public SyncResponseDTO getChangesSince(long since, int limit) {
+        return expenseService.getChangesSince(since, limit);
+    }
+
+    @Override
+    public List<CategoryStatsDTO> getCategoryStats(LocalDate startDate, LocalDate endDate) {
+        return expenseService.getCategoryStats(startDate, endDate);
+    }
+
     @Override
     public Expense updateExpense(Long id, ExpenseDTO expenseDTO) {
         return expenseService.updateExpense(id, expenseDTO);
@@ -57,6 +214,48 @@ public class ExpenseTrackerFacadeImpl implements ExpenseTrackerFacade {
         expenseService.deleteExpense(id);
     }
 
+    @Override
+    public Attachment uploadAttachment(Long expenseId, String contentType, String fileName, long contentLength,
+                                       InputStream body) {
+        return attachmentService.upload(expenseId, contentType, fileName, contentLength, body);
+    }
+
+    @Override
+    public List<Attachment> getAttachments(Long expenseId) {
+        return attachmentService.getAttachments(expenseId);
+    }
+
+    @Override
+    public Attachment getAttachment(Long expenseId, Long attachmentId) {
+        return attachmentService.getAttachment(expenseId, attachmentId);
+    }
+
+    @Override
+    public Path getAttachmentFile(Attachment attachment) {
+        return attachmentService.getFile(attachment);
+    }
+
+    @Override
+    public void deleteAttachment(Long expenseId, Long attachmentId) {
+        attachmentService.deleteAttachment(expenseId, attachmentId);
+    }
+
+    @Override
+    public Map<String, Integer> getTagCounts() {
+        return expenseTagService.getTagCounts();
+    }
+
+    @Override
+    public List<Expense> getTaggedExpenses(List<String> all, List<String> any, List<String> none, int limit) {
+        return expenseTagService.findTagged(all, any, none, limit);
+    }
+
+    @Override
+    public double getTaggedTotal(List<String> all, List<String> any, List<String> none, LocalDate startDate,
+                                 LocalDate endDate) {
+        return expenseTagService.getTaggedTotal(all, any, none, startDate, endDate);
+    }
+
     @Override
     public double getTotalExpenses(LocalDate startDate, LocalDate endDate) {
         return expenseService.getTotalExpenses(startDate, endDate);
@@ -71,4 +270,109 @@ public class ExpenseTrackerFacadeImpl implements ExpenseTrackerFacade {
     public MonthlyReportDTO getMonthlyReport(int year, int month) {
         return expenseService.getMonthlyReport(year, month);
     }
+
+    @Override
+    public double getTotalExpenses(LocalDate startDate, LocalDate endDate, String currency) {
+        return expenseService.getTotalExpenses(startDate, endDate, currency);
+    }
+
+    @Override
+    public Map<String, Double> getExpensesByCategory(LocalDate startDate, LocalDate endDate, String currency) {
+        return expenseService.getExpensesByCategory(startDate, endDate, currency);
+    }
+
+    @Override
+    public MonthlyReportDTO getMonthlyReport(int year, int month, String currency) {
+        return expenseService.getMonthlyReport(year, month, currency);
+    }
+
+    @Override
+    public DashboardDTO getDashboard(DashboardRequest request) {
+        return dashboardService.getDashboard(request);
+    }
+
+    @Override
+    public Map<String, NavigableMap<LocalDate, Double>> getFxRates() {
+        return fxRateService.getSnapshot().getRates();
+    }
+
+    @Override
+    public FxRate saveFxRate(FxRateDTO fxRateDTO) {
+        return fxRateService.saveRate(fxRateDTO);
+    }
+
+    @Override
+    public ReportJobDTO submitReportJob(ReportJobRequest request) {
+        return reportJobService.submit(request);
+    }
+
+    @Override
+    public CompletableFuture<ReportJobDTO> getReportJob(String jobId, long waitMillis) {
+        return reportJobService.poll(jobId, waitMillis);
+    }
+
+    @Override
+    public RecurringExpense createRecurringExpense(RecurringExpenseDTO recurringExpenseDTO) {
+        return recurringExpenseService.createRecurringExpense(recurringExpenseDTO);
+    }
+
+    @Override
+    public List<RecurringExpense> getRecurringExpenses() {
+        return recurringExpenseService.getRecurringExpenses();
+    }
+
+    @Override
+    public RecurringExpense updateRecurringExpense(Long id, RecurringExpenseDTO recurringExpenseDTO) {
+        return recurringExpenseService.updateRecurringExpense(id, recurringExpenseDTO);
+    }
+
+    @Override
+    public void deleteRecurringExpense(Long id) {
+        recurringExpenseService.deleteRecurringExpense(id);
+    }
+
+    @Override
+    public Page<RecurringOccurrenceDTO> getRecurringOccurrences(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        return recurringExpenseService.getOccurrences(startDate, endDate, pageable);
+    }
+
+    @Override
+    public Expense materializeOccurrence(Long recurringExpenseId, LocalDate occurrenceDate, ExpenseDTO expenseDTO) {
+        return expenseService.materializeOccurrence(recurringExpenseId, occurrenceDate, expenseDTO);
+    }
+
+    @Override
+    public ExpenseGroup createGroup(GroupDTO groupDTO) {
+        return groupService.createGroup(groupDTO);
+    }
+
+    @Override
+    public GroupMember addGroupMember(Long groupId, String email) {
+        return groupService.addMember(groupId, email);
+    }
+
+    @Override
+    public List<GroupBalanceDTO> getGroupBalances(Long groupId) {
+        return groupService.getBalances(groupId);
+    }
+
+    @Override
+    public Expense addGroupExpense(Long groupId, GroupExpenseDTO groupExpenseDTO) {
+        return groupService.addExpense(groupId, groupExpenseDTO);
+    }
+
+    @Override
+    public void deleteGroupExpense(Long groupId, Long expenseId) {
+        groupService.deleteExpense(groupId, expenseId);
+    }
+
+    @Override
+    public List<SettlementDTO> getSettleUp(Long groupId) {
+        return groupService.getSettleUp(groupId);
+    }
+
+    @Override
+    public SseEmitter subscribeToEvents(List<String> ranges, String currency) {
+        return eventStreamService.subscribe(ranges, currency);
+    }
 }
@@ -0,0 +1,186 @@
+package com.xalts.expense_tracker.filter;
+
+import com.xalts.expense_tracker.util.AdaptiveConcurrencyLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the API. Requests are classified by
+ * priority and admitted against an adaptive concurrency limit; reads
+ * (listing, totals, reports) may only use part of the limit and are turned
+ * away outright while threads queue for a database connection, so they are
+ * shed before writes and auth. Rejected requests get a 503.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final long POOL_SAMPLE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    enum Priority { AUTH, WRITE, READ }
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<Priority, Double> shares = new EnumMap<>(Priority.class);
+    private final int readPendingThreshold;
+    private final long acquireThresholdNanos;
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    private final MeterRegistry meterRegistry;
+    private final Map<Priority, Counter> admitted = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+
+    private volatile HikariPoolMXBean pool;
+    private volatile PoolSample poolSample = new PoolSample(0, 0, 0, 0, 0);
+
+    public AdmissionControlFilter(@Value("${expense-tracker.admission.enabled:true}") boolean enabled,
+                                  @Value("${expense-tracker.admission.initial-limit:50}") int initialLimit,
+                                  @Value("${expense-tracker.admission.min-limit:8}") int minLimit,
+                                  @Value("${expense-tracker.admission.max-limit:400}") int maxLimit,
+                                  @Value("${expense-tracker.admission.latency-tolerance:2.0}") double tolerance,
+                                  @Value("${expense-tracker.admission.window-size:50}") int windowSize,
+                                  @Value("${expense-tracker.admission.read-share:0.6}") double readShare,
+                                  @Value("${expense-tracker.admission.write-share:0.9}") double writeShare,
+                                  @Value("${expense-tracker.admission.read-pending-threshold:1}") int readPendingThreshold,
+                                  @Value("${expense-tracker.admission.acquire-threshold-ms:50}") long acquireThresholdMillis,
+                                  ObjectProvider<DataSource> dataSourceProvider,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, tolerance, windowSize);
+        this.shares.put(Priority.AUTH, 1.0);
+        this.shares.put(Priority.WRITE, writeShare);
+        this.shares.put(Priority.READ, readShare);
+        this.readPendingThreshold = readPendingThreshold;
+        this.acquireThresholdNanos = TimeUnit.MILLISECONDS.toNanos(acquireThresholdMillis);
+        this.dataSourceProvider = dataSourceProvider;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight).register(meterRegistry);
+        Gauge.builder("admission.pool.pending", this, filter -> filter.poolSample.pending()).register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            admitted.put(priority, Counter.builder("admission.decisions")
+                    .tag("priority", tag).tag("outcome", "admitted").register(meterRegistry));
+            rejected.put(priority, Counter.builder("admission.decisions")
+                    .tag("priority", tag).tag("outcome", "rejected").register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Priority priority = classify(request);
+        PoolSample sample = samplePool();
+        boolean shedRead = priority == Priority.READ && sample.pending() >= readPendingThreshold;
+        if (shedRead || !limiter.tryAcquire(shares.get(priority))) {
+            rejected.get(priority).increment();
+            logger.debug("Shedding {} {} ({}, limit {}, in flight {}, pool pending {})", request.getMethod(),
+                    request.getRequestURI(), priority, limiter.getLimit(), limiter.getInFlight(), sample.pending());
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType("text/plain");
+            response.getWriter().write("Server is overloaded, please retry");
+            return;
+        }
+        admitted.get(priority).increment();
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Async requests give their thread back; their latency says nothing about capacity.
+                limiter.release();
+            } else {
+                limiter.release(System.nanoTime() - start, samplePool().isSaturated(acquireThresholdNanos));
+            }
+        }
+    }
+
+    static Priority classify(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/")) {
+            return Priority.AUTH;
+        }
+        return HttpMethod.GET.matches(request.getMethod()) ? Priority.READ : Priority.WRITE;
+    }
+
+    private PoolSample samplePool() {
+        PoolSample previous = poolSample;
+        long now = System.nanoTime();
+        if (previous.sampledAt() != 0 && now - previous.sampledAt() < POOL_SAMPLE_INTERVAL_NANOS) {
+            return previous;
+        }
+        HikariPoolMXBean mxBean = resolvePool();
+        int pending = mxBean != null ? mxBean.getThreadsAwaitingConnection() : 0;
+
+        long acquireCount = 0;
+        long acquireNanos = 0;
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            acquireCount = acquire.count();
+            acquireNanos = (long) acquire.totalTime(TimeUnit.NANOSECONDS);
+        }
+        long deltaCount = acquireCount - previous.acquireCount();
+        long meanAcquireNanos = deltaCount > 0 ? (acquireNanos - previous.acquireNanos()) / deltaCount : 0;
+
+        PoolSample next = new PoolSample(now, pending, acquireCount, acquireNanos, meanAcquireNanos);
+        poolSample = next;
+        return next;
+    }
+
+    private HikariPoolMXBean resolvePool() {
+        HikariPoolMXBean current = pool;
+        if (current != null) {
+            return current;
+        }
+        DataSource dataSource = dataSourceProvider.getIfAvailable();
+        if (dataSource == null) {
+            return null;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                current = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                pool = current;
+            }
+        } catch (SQLException e) {
+            logger.debug("Connection pool metrics unavailable", e);
+        }
+        return current;
+    }
+
+    private record PoolSample(long sampledAt, int pending, long acquireCount, long acquireNanos, long meanAcquireNanos) {
+        boolean isSaturated(long acquireThresholdNanos) {
+            return pending > 0 || meanAcquireNanos > acquireThresholdNanos;
+        }
+    }
+}
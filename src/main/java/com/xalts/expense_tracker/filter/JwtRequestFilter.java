@@ -1,7 +1,10 @@
 package com.xalts.expense_tracker.filter;
 
+import com.xalts.expense_tracker.service.TokenRevocationService;
 import com.xalts.expense_tracker.service.UserService;
+import com.xalts.expense_tracker.util.AuthenticatedUser;
 import com.xalts.expense_tracker.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -22,11 +25,13 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public JwtRequestFilter(@Lazy UserService userService, JwtUtil jwtUtil) {
+    public JwtRequestFilter(@Lazy UserService userService, JwtUtil jwtUtil, TokenRevocationService tokenRevocationService) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -36,21 +41,39 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         String username = null;
         String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+            claims = jwtUtil.extractAllClaims(jwt);
+            username = claims.getSubject();
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+        // Revocation is checked in memory first, so revoked tokens never cost a user lookup.
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenRevocationService.isRevoked(claims)) {
+            UsernamePasswordAuthenticationToken authToken = authenticate(jwt, claims);
+            if (authToken != null) {
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
         chain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UsernamePasswordAuthenticationToken authenticate(String jwt, Claims claims) {
+        // The signature and expiry were verified while parsing. Deactivation and password changes
+        // revoke every token of the user, so the claims can be trusted without reading the user row.
+        Long userId = jwtUtil.extractUserId(claims);
+        if (userId != null) {
+            return new UsernamePasswordAuthenticationToken(new AuthenticatedUser(userId, claims.getSubject()),
+                    null, jwtUtil.extractAuthorities(claims));
+        }
+        // Tokens issued before user ids were embedded still need the lookup until they expire.
+        UserDetails userDetails = userService.loadUserByUsername(claims.getSubject());
+        if (userDetails.isEnabled() && jwtUtil.validateToken(jwt, userDetails)) {
+            return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        }
+        return null;
+    }
+}
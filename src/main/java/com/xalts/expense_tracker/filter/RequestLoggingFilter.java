@@ -1,5 +1,6 @@
 package com.xalts.expense_tracker.filter;
 
+import com.xalts.expense_tracker.config.StartupTimelineReporter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,10 +17,21 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
 
+    private final StartupTimelineReporter startupTimelineReporter;
+
+    public RequestLoggingFilter(StartupTimelineReporter startupTimelineReporter) {
+        this.startupTimelineReporter = startupTimelineReporter;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         logger.info("Incoming request: {} {}", request.getMethod(), request.getRequestURI());
-        filterChain.doFilter(request, response);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            startupTimelineReporter.onRequestCompleted(System.nanoTime() - start);
+        }
     }
-}
\ No newline at end of file
+}
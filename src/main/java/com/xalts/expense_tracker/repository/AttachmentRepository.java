@@ -0,0 +1,20 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+    List<Attachment> findByExpenseId(Long expenseId);
+
+    List<Attachment> findByExpenseIdIn(Collection<Long> expenseIds);
+
+    List<Attachment> findByExpenseIdAndUserIdOrderById(Long expenseId, Long userId);
+
+    Optional<Attachment> findByIdAndExpenseIdAndUserId(Long id, Long expenseId, Long userId);
+
+    boolean existsByContentHash(String contentHash);
+}
@@ -0,0 +1,7 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.ExpenseGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ExpenseGroupRepository extends JpaRepository<ExpenseGroup, Long> {
+}
@@ -5,16 +5,92 @@ import com.xalts.expense_tracker.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     Page<Expense> findByUser(User user, Pageable pageable);
 
+    List<Expense> findByUserOrderByDateDescIdDesc(User user, Pageable pageable);
+
+    List<Expense> findByUserAndChangeVersionGreaterThanOrderByChangeVersion(User user, long changeVersion, Pageable pageable);
+
+    @Query("SELECT e.id FROM Expense e WHERE e.user = :user AND e.changeVersion = 0 ORDER BY e.id")
+    List<Long> findUnversionedIds(User user, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Expense e SET e.changeVersion = :changeVersion WHERE e.id = :id")
+    int setChangeVersion(Long id, long changeVersion);
+
+    @Query("SELECT e FROM Expense e WHERE e.user = :user AND e.sketchBucket IS NULL ORDER BY e.id")
+    List<Expense> findUnsketched(User user, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Expense e SET e.sketchBucket = :sketchBucket WHERE e.id IN :ids AND e.sketchBucket IS NULL")
+    int setSketchBucket(Collection<Long> ids, int sketchBucket);
+
     List<Expense> findByUserAndDateBetween(User user, LocalDate startDate, LocalDate endDate);
 
+    @Query("SELECT e.id, e.amount, e.currency, e.date FROM Expense e WHERE e.user.id = :userId ORDER BY e.id")
+    List<Object[]> findIdAmountCurrencyAndDateByUserId(Long userId);
+
     @Query("SELECT e.category, SUM(e.amount) FROM Expense e WHERE e.user = :user AND e.date BETWEEN :startDate AND :endDate GROUP BY e.category")
     List<Object[]> findTotalByCategoryForUser(User user, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT e.currency, e.date, SUM(e.amount) FROM Expense e WHERE e.user = :user AND e.date BETWEEN :startDate AND :endDate GROUP BY e.currency, e.date")
+    List<Object[]> findTotalByCurrencyAndDateForUser(User user, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT e.category, e.currency, e.date, SUM(e.amount) FROM Expense e WHERE e.user = :user AND e.date BETWEEN :startDate AND :endDate GROUP BY e.category, e.currency, e.date")
+    List<Object[]> findTotalByCategoryCurrencyAndDateForUser(User user, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT e.recurringExpenseId, e.occurrenceDate FROM Expense e WHERE e.user = :user AND e.recurringExpenseId IS NOT NULL AND e.occurrenceDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findMaterializedOccurrences(User user, LocalDate startDate, LocalDate endDate);
+
+    boolean existsByRecurringExpenseIdAndOccurrenceDate(Long recurringExpenseId, LocalDate occurrenceDate);
+
+    @Query("SELECT MIN(e.id), MAX(e.id) FROM Expense e")
+    List<Object[]> findIdRange();
+
+    /** Totals within one primary-key range, for organization analytics to aggregate range by range. */
+    @Query("SELECT u.id, u.department, e.category, e.currency, e.date, SUM(e.amount), COUNT(e) FROM Expense e JOIN e.user u "
+            + "WHERE e.id BETWEEN :fromId AND :toId AND e.date BETWEEN :startDate AND :endDate "
+            + "GROUP BY u.id, u.department, e.category, e.currency, e.date")
+    List<Object[]> findTotalsInIdRange(long fromId, long toId, LocalDate startDate, LocalDate endDate);
+
+    /** Totals of many users at once, for statement runs to cover a chunk of users per query. */
+    @Query("SELECT e.user.id, e.category, e.currency, e.date, SUM(e.amount) FROM Expense e "
+            + "WHERE e.user.id IN :userIds AND e.date BETWEEN :startDate AND :endDate "
+            + "GROUP BY e.user.id, e.category, e.currency, e.date")
+    List<Object[]> findTotalsForUsers(Collection<Long> userIds, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT e.recurringExpenseId, e.occurrenceDate FROM Expense e WHERE e.user.id IN :userIds AND e.recurringExpenseId IS NOT NULL AND e.occurrenceDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findMaterializedOccurrencesForUsers(Collection<Long> userIds, LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.user.id = :userId")
+    int deleteByUserId(Long userId);
+
+    /**
+     * Personal, non-recurring expenses within one primary-key range dated before the cutoff,
+     * as (id, userId, category, date, sketchBucket).
+     */
+    @Query("SELECT e.id, e.user.id, e.category, e.date, e.sketchBucket FROM Expense e "
+            + "WHERE e.id BETWEEN :fromId AND :toId AND e.date < :cutoff AND e.groupId IS NULL "
+            + "AND e.recurringExpenseId IS NULL")
+    List<Object[]> findPurgeableInIdRange(long fromId, long toId, LocalDate cutoff);
+
+    /** The first of a user's personal expenses by id, as (id, userId, category, date, sketchBucket). */
+    @Query("SELECT e.id, e.user.id, e.category, e.date, e.sketchBucket FROM Expense e "
+            + "WHERE e.user.id = :userId AND e.groupId IS NULL ORDER BY e.id")
+    List<Object[]> findPersonalByUserId(Long userId, Pageable pageable);
+
+    boolean existsByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,12 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.ExpenseShare;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long> {
+    List<ExpenseShare> findByExpenseId(Long expenseId);
+
+    void deleteByExpenseId(Long expenseId);
+}
@@ -0,0 +1,20 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.ExpenseTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ExpenseTagRepository extends JpaRepository<ExpenseTag, Long> {
+    @Query("SELECT t.expense.id, t.tag FROM ExpenseTag t WHERE t.userId = :userId")
+    List<Object[]> findExpenseIdAndTagByUserId(Long userId);
+
+    @Query("SELECT DISTINCT t.userId FROM ExpenseTag t")
+    List<Long> findTaggingUserIds();
+
+    @Modifying
+    @Query("DELETE FROM ExpenseTag t WHERE t.expense.id = :expenseId")
+    int deleteByExpenseId(Long expenseId);
+}
@@ -0,0 +1,25 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.ExpenseTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ExpenseTombstoneRepository extends JpaRepository<ExpenseTombstone, Long> {
+    List<ExpenseTombstone> findByUserIdAndChangeVersionGreaterThanOrderByChangeVersion(Long userId, long changeVersion, Pageable pageable);
+
+    @Query("SELECT t.userId, MAX(t.changeVersion) FROM ExpenseTombstone t WHERE t.deletedAt < :cutoff GROUP BY t.userId")
+    List<Object[]> findMaxVersionByUserDeletedBefore(Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteByDeletedAtBefore(Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseTombstone t WHERE t.userId = :userId")
+    int deleteByUserId(Long userId);
+}
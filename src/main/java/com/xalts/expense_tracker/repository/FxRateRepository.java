@@ -0,0 +1,11 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+    Optional<FxRate> findByCurrencyAndEffectiveDate(String currency, LocalDate effectiveDate);
+}
@@ -0,0 +1,23 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.GroupMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface GroupMemberRepository extends JpaRepository<GroupMember, Long> {
+    List<GroupMember> findByGroupId(Long groupId);
+
+    boolean existsByGroupIdAndUserId(Long groupId, Long userId);
+
+    long countByGroupIdAndUserIdIn(Long groupId, Collection<Long> userIds);
+
+    boolean existsByUserId(Long userId);
+
+    @Modifying
+    @Query("UPDATE GroupMember m SET m.balanceCents = m.balanceCents + :deltaCents WHERE m.groupId = :groupId AND m.userId = :userId")
+    int adjustBalance(Long groupId, Long userId, long deltaCents);
+}
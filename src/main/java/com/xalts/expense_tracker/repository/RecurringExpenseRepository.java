@@ -0,0 +1,25 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.RecurringExpense;
+import com.xalts.expense_tracker.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+    List<RecurringExpense> findByUserOrderByStartDate(User user);
+
+    @Query("SELECT r FROM RecurringExpense r WHERE r.user = :user AND r.startDate <= :endDate AND (r.endDate IS NULL OR r.endDate >= :startDate) ORDER BY r.id")
+    List<RecurringExpense> findOverlapping(User user, LocalDate startDate, LocalDate endDate);
+
+    @Query("SELECT r FROM RecurringExpense r WHERE r.user.id IN :userIds AND r.startDate <= :endDate AND (r.endDate IS NULL OR r.endDate >= :startDate) ORDER BY r.id")
+    List<RecurringExpense> findOverlappingForUsers(Collection<Long> userIds, LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM RecurringExpense r WHERE r.user.id = :userId")
+    int deleteByUserId(Long userId);
+}
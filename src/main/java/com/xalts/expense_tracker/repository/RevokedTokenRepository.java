@@ -0,0 +1,18 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    List<RevokedToken> findByRevokedAtGreaterThanEqualAndIdGreaterThanOrderById(Instant revokedAt, Long id, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :cutoff")
+    int deleteByExpiresAtBefore(Instant cutoff);
+}
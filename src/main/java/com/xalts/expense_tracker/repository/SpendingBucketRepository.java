@@ -0,0 +1,28 @@
+package com.xalts.expense_tracker.repository;
+
+import com.xalts.expense_tracker.entity.SpendingBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface SpendingBucketRepository extends JpaRepository<SpendingBucket, Long> {
+
+    /** Atomically adds {@code delta} to a bucket, creating it on first use. */
+    @Modifying
+    @Query(value = "INSERT INTO spending_bucket (user_id, category, month_key, bucket_index, bucket_count) "
+            + "VALUES (:userId, :category, :monthKey, :bucketIndex, :delta) "
+            + "ON DUPLICATE KEY UPDATE bucket_count = bucket_count + :delta", nativeQuery = true)
+    int increment(Long userId, String category, int monthKey, int bucketIndex, long delta);
+
+    @Query("SELECT b.category, b.bucketIndex, SUM(b.bucketCount) FROM SpendingBucket b WHERE b.userId = :userId AND b.monthKey BETWEEN :fromMonth AND :toMonth GROUP BY b.category, b.bucketIndex HAVING SUM(b.bucketCount) > 0")
+    List<Object[]> findMergedByCategory(Long userId, int fromMonth, int toMonth);
+
+    @Query("SELECT b.bucketIndex, SUM(b.bucketCount) FROM SpendingBucket b WHERE b.userId = :userId AND b.category = :category AND b.monthKey BETWEEN :fromMonth AND :toMonth GROUP BY b.bucketIndex HAVING SUM(b.bucketCount) > 0")
+    List<Object[]> findMerged(Long userId, String category, int fromMonth, int toMonth);
+
+    @Modifying
+    @Query("DELETE FROM SpendingBucket b WHERE b.userId = :userId")
+    int deleteByUserId(Long userId);
+}
@@ -1,10 +1,38 @@
 package com.xalts.expense_tracker.repository;
 
 import com.xalts.expense_tracker.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    /** The next page of active users after {@code afterId} by id, as (id, name, email), for keyset walks. */
+    @Query("SELECT u.id, u.name, u.email FROM User u WHERE u.id > :afterId AND u.active = true ORDER BY u.id")
+    List<Object[]> findActiveAfter(long afterId, Pageable pageable);
+
+    /** Ids of users after {@code afterId} deactivated before {@code cutoff}, or at an unrecorded time, for keyset walks. */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId AND u.active = false "
+            + "AND (u.deactivatedAt IS NULL OR u.deactivatedAt < :cutoff) ORDER BY u.id")
+    List<Long> findDeactivatedAfter(long afterId, Instant cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE User u SET u.syncVersion = u.syncVersion + :count WHERE u.id = :id")
+    int incrementSyncVersion(Long id, long count);
+
+    @Query("SELECT u.syncVersion FROM User u WHERE u.id = :id")
+    long findSyncVersion(Long id);
+
+    @Query("SELECT u.syncFloor FROM User u WHERE u.id = :id")
+    long findSyncFloor(Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.syncFloor = :floor WHERE u.id = :id AND u.syncFloor < :floor")
+    int raiseSyncFloor(Long id, long floor);
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.Attachment;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.AttachmentsReleasedEvent;
+import com.xalts.expense_tracker.repository.AttachmentRepository;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Receipts and other files attached to expenses. Rows hold the metadata and
+ * the content hash; the bytes are in {@link AttachmentStore}. A file is
+ * deleted once the last row referencing its hash is gone, after the
+ * deleting transaction commits.
+ */
+@Service
+public class AttachmentService {
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final String DEFAULT_FILE_NAME = "attachment";
+
+    private final AttachmentRepository attachmentRepository;
+    private final ExpenseRepository expenseRepository;
+    private final UserService userService;
+    private final AttachmentStore attachmentStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long maxSize;
+    private final Set<MediaType> allowedTypes;
+
+    public AttachmentService(AttachmentRepository attachmentRepository, ExpenseRepository expenseRepository,
+                             UserService userService, AttachmentStore attachmentStore,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${expense-tracker.attachments.max-size:10MB}") DataSize maxSize,
+                             @Value("${expense-tracker.attachments.allowed-types:image/jpeg,image/png,image/webp,image/heic,application/pdf}")
+                             List<String> allowedTypes) {
+        this.attachmentRepository = attachmentRepository;
+        this.expenseRepository = expenseRepository;
+        this.userService = userService;
+        this.attachmentStore = attachmentStore;
+        this.eventPublisher = eventPublisher;
+        this.maxSize = maxSize.toBytes();
+        this.allowedTypes = allowedTypes.stream().map(MediaType::parseMediaType).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Streams {@code body} into the store and attaches it to the expense.
+     * The body is read before any database work, so a slow upload does not
+     * hold a connection; ownership is checked before anything is recorded.
+     * {@code contentLength} is the declared length, or -1 if unknown.
+     */
+    public Attachment upload(Long expenseId, String contentType, String fileName, long contentLength, InputStream body) {
+        MediaType type = requireAllowedType(contentType);
+        if (contentLength > maxSize) {
+            throw new RuntimeException("Attachment exceeds the limit of " + maxSize + " bytes");
+        }
+        AttachmentStore.Staged staged = attachmentStore.stage(Channels.newChannel(body), maxSize);
+        try {
+            User user = userService.getCurrentUser();
+            Expense expense = expenseRepository.findById(expenseId)
+                    .orElseThrow(() -> new RuntimeException("Expense not found"));
+            if (!expense.getUser().getId().equals(user.getId())) {
+                throw new RuntimeException("Unauthorized access to expense");
+            }
+            Attachment attachment = new Attachment();
+            attachment.setExpenseId(expenseId);
+            attachment.setUserId(user.getId());
+            attachment.setContentHash(staged.contentHash());
+            attachment.setSize(staged.size());
+            attachment.setContentType(type.getType() + "/" + type.getSubtype());
+            attachment.setFileName(sanitizeFileName(fileName));
+            attachment.setCreatedAt(Instant.now());
+            return attachmentStore.commit(staged, () -> attachmentRepository.save(attachment));
+        } finally {
+            attachmentStore.discard(staged);
+        }
+    }
+
+    public List<Attachment> getAttachments(Long expenseId) {
+        return attachmentRepository.findByExpenseIdAndUserIdOrderById(expenseId, userService.getCurrentUser().getId());
+    }
+
+    public Attachment getAttachment(Long expenseId, Long attachmentId) {
+        return attachmentRepository.findByIdAndExpenseIdAndUserId(attachmentId, expenseId, userService.getCurrentUser().getId())
+                .orElseThrow(() -> new RuntimeException("Attachment not found"));
+    }
+
+    public Path getFile(Attachment attachment) {
+        return attachmentStore.resolve(attachment.getContentHash());
+    }
+
+    @Transactional
+    public void deleteAttachment(Long expenseId, Long attachmentId) {
+        Attachment attachment = getAttachment(expenseId, attachmentId);
+        attachmentRepository.delete(attachment);
+        eventPublisher.publishEvent(new AttachmentsReleasedEvent(Set.of(attachment.getContentHash())));
+    }
+
+    /** Deletes the expense's attachment rows as part of deleting the expense; files go after the commit. */
+    @Transactional
+    public void deleteForExpense(Long expenseId) {
+        List<Attachment> attachments = attachmentRepository.findByExpenseId(expenseId);
+        if (attachments.isEmpty()) {
+            return;
+        }
+        attachmentRepository.deleteAllInBatch(attachments);
+        eventPublisher.publishEvent(new AttachmentsReleasedEvent(attachments.stream()
+                .map(Attachment::getContentHash).collect(Collectors.toUnmodifiableSet())));
+    }
+
+    /** Deletes the attachment rows of expenses being purged in bulk; files go after the commit. */
+    @Transactional
+    public void deleteForExpenses(Collection<Long> expenseIds) {
+        List<Attachment> attachments = attachmentRepository.findByExpenseIdIn(expenseIds);
+        if (attachments.isEmpty()) {
+            return;
+        }
+        attachmentRepository.deleteAllInBatch(attachments);
+        eventPublisher.publishEvent(new AttachmentsReleasedEvent(attachments.stream()
+                .map(Attachment::getContentHash).collect(Collectors.toUnmodifiableSet())));
+    }
+
+    /** Removes files that no row references any more; runs only once the deletes are committed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAttachmentsReleased(AttachmentsReleasedEvent event) {
+        for (String contentHash : event.contentHashes()) {
+            attachmentStore.deleteIfUnreferenced(contentHash, () -> attachmentRepository.existsByContentHash(contentHash));
+        }
+    }
+
+    private MediaType requireAllowedType(String contentType) {
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            throw new RuntimeException("Invalid content type: " + contentType);
+        }
+        if (allowedTypes.stream().noneMatch(allowed -> allowed.includes(type)) || type.isWildcardSubtype()) {
+            throw new RuntimeException("Unsupported attachment type: " + type.getType() + "/" + type.getSubtype());
+        }
+        return type;
+    }
+
+    private static String sanitizeFileName(String fileName) {
+        if (fileName == null) {
+            return DEFAULT_FILE_NAME;
+        }
+        // Keep only the last path segment and drop control characters; the name is echoed in response headers.
+        String name = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1)
+                .replaceAll("\\p{Cntrl}", "").strip();
+        if (name.isEmpty()) {
+            return DEFAULT_FILE_NAME;
+        }
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(0, MAX_FILE_NAME_LENGTH) : name;
+    }
+}
@@ -0,0 +1,186 @@
+package com.xalts.expense_tracker.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed file store for attachments. A file lives at
+ * {@code objects/<first two hex digits>/<sha-256>} under the configured
+ * directory, so identical uploads share one file. Uploads are staged: the
+ * body is written to a temporary file in one pass while it is hashed, then
+ * moved into place atomically. Placing a file and recording a reference to
+ * it happen under a lock per hash, as do the reference check and delete of
+ * cleanup, so a file is never removed between an upload finding it and that
+ * upload's reference being committed.
+ */
+@Component
+public class AttachmentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentStore.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path objects;
+    private final Path staging;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public AttachmentStore(@Value("${expense-tracker.attachments.directory:attachments}") String directory) {
+        Path root = Path.of(directory).toAbsolutePath();
+        this.objects = root.resolve("objects");
+        this.staging = root.resolve("tmp");
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            Files.createDirectories(objects);
+            Files.createDirectories(staging);
+            // Left behind by uploads that were cut off by a crash or restart.
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(staging)) {
+                for (Path leftover : leftovers) {
+                    Files.deleteIfExists(leftover);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not prepare attachment directory " + objects.getParent(), e);
+        }
+    }
+
+    /**
+     * Writes {@code source} to a staging file, hashing it on the way, and
+     * fails once more than {@code maxBytes} arrive. The staged file must be
+     * passed to {@link #commit} or {@link #discard}.
+     */
+    public Staged stage(ReadableByteChannel source, long maxBytes) {
+        Path file;
+        try {
+            file = Files.createTempFile(staging, "upload-", ".part");
+        } catch (IOException e) {
+            throw new RuntimeException("Could not store attachment", e);
+        }
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long size = 0;
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxBytes) {
+                    throw new RuntimeException("Attachment exceeds the limit of " + maxBytes + " bytes");
+                }
+                buffer.mark();
+                digest.update(buffer);
+                buffer.reset();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            // The row will point at this file once committed; make sure the bytes are on disk first.
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            throw e instanceof RuntimeException runtime ? runtime : new RuntimeException("Could not store attachment", e);
+        }
+        return new Staged(file, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    /**
+     * Moves a staged file into place, or drops it if the same content is
+     * already stored, then runs {@code reference} to record the reference
+     * while no cleanup of this hash can run. If {@code reference} fails, a
+     * file this call placed is removed again.
+     */
+    public <T> T commit(Staged staged, Supplier<T> reference) {
+        Path target = resolve(staged.contentHash());
+        synchronized (lock(staged.contentHash())) {
+            boolean placed = false;
+            try {
+                if (Files.exists(target)) {
+                    Files.delete(staged.file());
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(staged.file(), target, StandardCopyOption.ATOMIC_MOVE);
+                    placed = true;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not store attachment", e);
+            }
+            try {
+                return reference.get();
+            } catch (RuntimeException e) {
+                if (placed) {
+                    delete(target);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /** Deletes a staged file that was not committed; does nothing after a commit. */
+    public void discard(Staged staged) {
+        delete(staged.file());
+    }
+
+    /** Deletes the file for {@code contentHash} unless {@code referenced} says a row still points at it. */
+    public boolean deleteIfUnreferenced(String contentHash, BooleanSupplier referenced) {
+        synchronized (lock(contentHash)) {
+            if (referenced.getAsBoolean()) {
+                return false;
+            }
+            return delete(resolve(contentHash));
+        }
+    }
+
+    public Path resolve(String contentHash) {
+        if (!contentHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + contentHash);
+        }
+        return objects.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+
+    private Object lock(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), locks.length)];
+    }
+
+    private static boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete attachment file {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Staged(Path file, String contentHash, long size) {
+    }
+}
@@ -0,0 +1,245 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.AuditEntryDTO;
+import com.xalts.expense_tracker.event.ExpenseAuditEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
+import com.xalts.expense_tracker.util.AuditSegment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only history of expense creates, updates and deletes, kept in
+ * memory-mapped segment files under the configured directory instead of
+ * the database. Each committed change appends one record to the active
+ * segment without taking a lock; a full segment is sealed with its
+ * per-user index and a new one started. Records are forced to disk every
+ * {@code fsync-batch} appends and on a fixed interval, so at most that
+ * much history is lost if the machine goes down. A JVM crash alone loses
+ * only the appends it interrupted: the pages belong to the OS, and
+ * recovery steps over unfinished records to the complete ones after them.
+ */
+@Service
+public class AuditLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogService.class);
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int fsyncBatch;
+    private final Clock clock;
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+    private final AtomicInteger unsynced = new AtomicInteger();
+    private volatile AuditSegment active;
+
+    @Autowired
+    public AuditLogService(@Value("${expense-tracker.audit.directory:audit}") String directory,
+                           @Value("${expense-tracker.audit.segment-size:64MB}") DataSize segmentSize,
+                           @Value("${expense-tracker.audit.fsync-batch:100}") int fsyncBatch) {
+        this(directory, segmentSize, fsyncBatch, Clock.systemUTC());
+    }
+
+    AuditLogService(String directory, DataSize segmentSize, int fsyncBatch, Clock clock) {
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.segmentSize = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.fsyncBatch = fsyncBatch;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+            files.sort(Comparator.comparing(Path::getFileName));
+            for (Path file : files) {
+                segments.add(AuditSegment.open(file));
+            }
+            AuditSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            active = last != null && !last.isSealed() ? last : startSegment();
+            logger.info("Audit log at {}: {} segments", directory, segments.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open audit log in " + directory, e);
+        }
+    }
+
+    /** Records a committed change; a write that rolled back never reaches the log. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseAudit(ExpenseAuditEvent event) {
+        try {
+            append(clock.millis(), event.userId(), encode(event));
+        } catch (RuntimeException e) {
+            logger.error("Could not record {} of expense {} in the audit log", event.type(), event.expenseId(), e);
+        }
+    }
+
+    /**
+     * The recorded changes to {@code userId}'s expenses between the two
+     * instants, inclusive, oldest first. Only segments whose time range and
+     * user index match are read, and within them only that user's records.
+     */
+    public List<AuditEntryDTO> query(Long userId, Instant from, Instant to, int limit) {
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        if (toMillis < fromMillis) {
+            throw new RuntimeException("End must not be before start");
+        }
+        if (limit < 1) {
+            throw new RuntimeException("Limit must be positive");
+        }
+        List<AuditEntryDTO> entries = new ArrayList<>();
+        for (AuditSegment segment : segments) {
+            if (entries.size() >= limit) {
+                break;
+            }
+            if (segment.mayContain(userId, fromMillis, toMillis)) {
+                for (AuditSegment.Entry entry : segment.read(userId, fromMillis, toMillis)) {
+                    entries.add(decode(entry));
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(AuditEntryDTO::getTimestamp));
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    @Scheduled(fixedDelayString = "${expense-tracker.audit.fsync-interval:1000}")
+    public void syncPending() {
+        if (unsynced.get() > 0) {
+            sync();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sync();
+    }
+
+    void append(long timestamp, long userId, byte[] body) {
+        if (body.length + 64 > segmentSize) {
+            throw new RuntimeException("Audit record of " + body.length + " bytes does not fit in a segment");
+        }
+        while (true) {
+            AuditSegment segment = active;
+            if (segment.append(timestamp, userId, body) >= 0) {
+                break;
+            }
+            roll(segment);
+        }
+        if (unsynced.incrementAndGet() >= fsyncBatch && fsyncBatch > 0) {
+            sync();
+        }
+    }
+
+    private void sync() {
+        unsynced.set(0);
+        active.force();
+    }
+
+    /** Replaces {@code full} as the active segment, unless another writer already has. */
+    private synchronized void roll(AuditSegment full) {
+        if (active != full) {
+            return;
+        }
+        try {
+            full.seal();
+            active = startSegment();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not roll audit segment " + full.getFile(), e);
+        }
+    }
+
+    private AuditSegment startSegment() throws IOException {
+        long sequence = segments.size();
+        Path file;
+        do {
+            file = directory.resolve(String.format("%016d%s", sequence++, SEGMENT_SUFFIX));
+        } while (Files.exists(file));
+        AuditSegment segment = AuditSegment.create(file, segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    private static byte[] encode(ExpenseAuditEvent event) {
+        byte[] type = utf8(event.type().name());
+        byte[] category = utf8(event.category());
+        byte[] currency = utf8(event.currency());
+        byte[] description = utf8(event.description());
+        ByteBuffer body = ByteBuffer.allocate(8 + 8 + 8 + 16 + length(type) + length(category) + length(currency)
+                + length(description));
+        body.putLong(event.expenseId());
+        body.putDouble(event.amount());
+        body.putLong(event.date() != null ? event.date().toEpochDay() : Long.MIN_VALUE);
+        putString(body, type);
+        putString(body, category);
+        putString(body, currency);
+        putString(body, description);
+        return body.array();
+    }
+
+    private static AuditEntryDTO decode(AuditSegment.Entry entry) {
+        ByteBuffer body = ByteBuffer.wrap(entry.body());
+        AuditEntryDTO dto = new AuditEntryDTO();
+        dto.setTimestamp(Instant.ofEpochMilli(entry.timestamp()));
+        dto.setUserId(entry.userId());
+        dto.setExpenseId(body.getLong());
+        dto.setAmount(body.getDouble());
+        long epochDay = body.getLong();
+        dto.setDate(epochDay != Long.MIN_VALUE ? LocalDate.ofEpochDay(epochDay) : null);
+        dto.setType(ChangeType.valueOf(getString(body)));
+        dto.setCategory(getString(body));
+        dto.setCurrency(getString(body));
+        dto.setDescription(getString(body));
+        return dto;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int length(byte[] value) {
+        return value != null ? value.length : 0;
+    }
+
+    private static void putString(ByteBuffer body, byte[] value) {
+        body.putInt(value != null ? value.length : -1);
+        if (value != null) {
+            body.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        body.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
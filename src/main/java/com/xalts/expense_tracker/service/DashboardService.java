@@ -0,0 +1,136 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.DashboardDTO;
+import com.xalts.expense_tracker.dto.DashboardRequest;
+import com.xalts.expense_tracker.dto.DashboardWidget;
+import com.xalts.expense_tracker.dto.MonthlyReportDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the dashboard's widgets in one request. The user is resolved once
+ * and each widget's query runs concurrently on a bounded worker pool, so
+ * the response takes about as long as the slowest widget rather than the
+ * sum of them. All widgets share one deadline; a widget that fails, runs
+ * past the deadline or finds the pool full is left out and reported in
+ * {@code errors}, and the others are still returned.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private final ExpenseService expenseService;
+    private final UserService userService;
+    private final FxRateService fxRateService;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+
+    public DashboardService(ExpenseService expenseService, UserService userService, FxRateService fxRateService,
+                            @Value("${expense-tracker.dashboard.workers:4}") int workers,
+                            @Value("${expense-tracker.dashboard.queue-capacity:200}") int queueCapacity,
+                            @Value("${expense-tracker.dashboard.timeout:2s}") Duration timeout) {
+        this.expenseService = expenseService;
+        this.userService = userService;
+        this.fxRateService = fxRateService;
+        this.timeout = timeout;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public DashboardDTO getDashboard(DashboardRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        User user = userService.getCurrentUser();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        String currency = request.getCurrency() != null
+                ? FxRateService.normalize(request.getCurrency()) : fxRateService.getBaseCurrency();
+        DashboardDTO dashboard = new DashboardDTO();
+        dashboard.setCurrency(currency);
+
+        Map<DashboardWidget, Future<?>> parts = new EnumMap<>(DashboardWidget.class);
+        for (DashboardWidget widget : new LinkedHashSet<>(request.getWidgets())) {
+            try {
+                parts.put(widget, executor.submit(() -> load(widget, user, request, currency)));
+            } catch (RejectedExecutionException e) {
+                dashboard.getErrors().put(widget, "Too busy, please retry");
+            }
+        }
+
+        for (Map.Entry<DashboardWidget, Future<?>> part : parts.entrySet()) {
+            DashboardWidget widget = part.getKey();
+            Future<?> future = part.getValue();
+            try {
+                set(dashboard, widget, future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                // A widget still queued never starts; one already running finishes but is not waited for.
+                future.cancel(false);
+                dashboard.getErrors().put(widget, "Timed out");
+            } catch (ExecutionException e) {
+                logger.debug("Dashboard widget {} failed for user {}", widget, user.getId(), e.getCause());
+                dashboard.getErrors().put(widget, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                parts.values().forEach(pending -> pending.cancel(false));
+                throw new RuntimeException("Dashboard request interrupted");
+            }
+        }
+        return dashboard;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Object load(DashboardWidget widget, User user, DashboardRequest request, String currency) {
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        return switch (widget) {
+            case RECENT -> expenseService.getRecentExpenses(user, request.getRecentSize());
+            case TOTAL -> expenseService.getTotalExpenses(user, startDate, endDate, currency);
+            case BY_CATEGORY -> expenseService.getExpensesByCategory(user, startDate, endDate, currency);
+            case MONTHLY_REPORT -> {
+                YearMonth month = request.getMonth() != null ? request.getMonth() : YearMonth.from(endDate);
+                yield expenseService.getMonthlyReport(user, month.getYear(), month.getMonthValue(), currency);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void set(DashboardDTO dashboard, DashboardWidget widget, Object value) {
+        switch (widget) {
+            case RECENT -> dashboard.setRecent((List<Expense>) value);
+            case TOTAL -> dashboard.setTotal((Double) value);
+            case BY_CATEGORY -> dashboard.setByCategory((Map<String, Double>) value);
+            case MONTHLY_REPORT -> dashboard.setMonthlyReport((MonthlyReportDTO) value);
+        }
+    }
+}
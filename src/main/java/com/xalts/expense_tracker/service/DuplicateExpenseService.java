@@ -0,0 +1,171 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.event.ExpenseAuditEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
+import com.xalts.expense_tracker.event.ExpensesPurgedEvent;
+import com.xalts.expense_tracker.util.FingerprintWindow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Catches duplicate expenses as they are written. Each expense has a
+ * fingerprint of its normalized amount, currency, date, category and
+ * description. The fingerprints of each user's recent writes are kept in a
+ * {@link FingerprintWindow}, so checking a new expense is an in-memory
+ * lookup. An identical expense is rejected unless the caller asks to keep
+ * it, and expenses with the same amount dated within {@code near-days} are
+ * reported as possible duplicates. The window only covers recent writes
+ * since startup. The unique (user, fingerprint) constraint on the table
+ * catches exact duplicates of anything older.
+ */
+@Service
+public class DuplicateExpenseService {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int windowSize;
+    private final int nearDays;
+    private final int maxUsers;
+    private final Map<Long, FingerprintWindow> windows = new ConcurrentHashMap<>();
+
+    public DuplicateExpenseService(@Value("${expense-tracker.duplicates.window-size:256}") int windowSize,
+                                   @Value("${expense-tracker.duplicates.near-days:3}") int nearDays,
+                                   @Value("${expense-tracker.duplicates.max-users:10000}") int maxUsers) {
+        this.windowSize = windowSize;
+        this.nearDays = nearDays;
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Sets the fingerprint and possible duplicates of an expense about to be
+     * saved, and rejects it if it is identical to another recent expense.
+     * With {@code allowDuplicate} set it is kept and gets no fingerprint, so
+     * the database constraint does not reject it either, even when the
+     * expense it duplicates has left the window.
+     */
+    public void screen(Expense expense, boolean allowDuplicate) {
+        long fingerprint = fingerprint(expense.getAmount(), expense.getCurrency(), expense.getDate(),
+                expense.getCategory(), expense.getDescription());
+        long excludedId = expense.getId() != null ? expense.getId() : -1;
+        long exact = -1;
+        long[] near = new long[0];
+        FingerprintWindow window = windows.get(expense.getUser().getId());
+        if (window != null) {
+            synchronized (window) {
+                exact = window.exactMatch(fingerprint, excludedId);
+                near = window.nearMatches(amountKey(expense.getAmount(), expense.getCurrency()),
+                        (int) expense.getDate().toEpochDay(), nearDays, excludedId);
+            }
+        }
+        if (exact >= 0 && !allowDuplicate) {
+            throw new RuntimeException("Duplicate of expense " + exact);
+        }
+        expense.setFingerprint(allowDuplicate ? null : fingerprint);
+        List<Long> possibleDuplicates = new ArrayList<>(near.length);
+        for (long id : near) {
+            possibleDuplicates.add(id);
+        }
+        expense.setPossibleDuplicates(possibleDuplicates.isEmpty() ? null : possibleDuplicates);
+    }
+
+    /** Applies a committed write to the owner's window, so a rolled-back write is never matched against. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseAudit(ExpenseAuditEvent event) {
+        if (event.type() == ChangeType.DELETED) {
+            FingerprintWindow window = windows.get(event.userId());
+            if (window != null) {
+                synchronized (window) {
+                    window.remove(event.expenseId());
+                }
+            }
+            return;
+        }
+        FingerprintWindow window = window(event.userId());
+        synchronized (window) {
+            window.put(event.expenseId(),
+                    fingerprint(event.amount(), event.currency(), event.date(), event.category(), event.description()),
+                    amountKey(event.amount(), event.currency()), (int) event.date().toEpochDay());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesPurged(ExpensesPurgedEvent event) {
+        FingerprintWindow window = windows.get(event.userId());
+        if (window != null) {
+            synchronized (window) {
+                event.expenseIds().forEach(window::remove);
+            }
+        }
+    }
+
+    /**
+     * Hash of the fields that make two expenses the same purchase: the amount
+     * in cents, the currency, the date, and the category and description
+     * ignoring case and whitespace.
+     */
+    public static long fingerprint(double amount, String currency, LocalDate date, String category,
+                                   String description) {
+        long hash = amountKey(amount, currency);
+        hash = hash(hash, date.toEpochDay());
+        hash = hash(hash, normalizeText(category));
+        return hash(hash, normalizeText(description));
+    }
+
+    private static long amountKey(double amount, String currency) {
+        long hash = hash(FNV_OFFSET, Math.round(amount * 100));
+        return hash(hash, currency != null ? currency : "");
+    }
+
+    private static String normalizeText(String text) {
+        return text != null ? WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT) : "";
+    }
+
+    /** 64-bit FNV-1a over the value's bytes. */
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    /** 64-bit FNV-1a over the string's chars, then a separator so adjacent fields cannot run together. */
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return (hash ^ 0x1f) * FNV_PRIME;
+    }
+
+    private FingerprintWindow window(Long userId) {
+        FingerprintWindow window = windows.get(userId);
+        if (window == null) {
+            evictIfFull();
+            window = windows.computeIfAbsent(userId, id -> new FingerprintWindow(windowSize));
+        }
+        return window;
+    }
+
+    private void evictIfFull() {
+        Iterator<Long> userIds = windows.keySet().iterator();
+        while (windows.size() >= maxUsers && userIds.hasNext()) {
+            userIds.next();
+            userIds.remove();
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.RangeTotalDTO;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-user Server-Sent Events streams. Idle streams are parked servlet
+ * async requests, so they hold a socket but no thread. Publishing only
+ * appends to a subscriber's bounded buffer; a small pool drains buffers
+ * that have pending events, and a separate bounded pool computes
+ * subscribed totals once per burst of changes, so database work never
+ * waits behind socket writes. A subscriber whose buffer fills up, or
+ * whose client stops reading for longer than {@code send-timeout}, is
+ * disconnected rather than slowing everyone else down, and it can
+ * reconnect and re-read state.
+ */
+@Service
+public class EventStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamService.class);
+
+    private final ExpenseService expenseService;
+    private final UserService userService;
+    private final FxRateService fxRateService;
+    private final Duration timeout;
+    private final int bufferSize;
+    private final int maxRanges;
+    private final int maxStreamsPerUser;
+    private final Duration sendTimeout;
+    private final ExecutorService executor;
+    private final ExecutorService totalsExecutor;
+    private final Map<Long, UserStreams> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final Counter dropped;
+
+    public EventStreamService(ExpenseService expenseService, UserService userService, FxRateService fxRateService,
+                              MeterRegistry meterRegistry,
+                              @Value("${expense-tracker.events.timeout:30m}") Duration timeout,
+                              @Value("${expense-tracker.events.buffer-size:32}") int bufferSize,
+                              @Value("${expense-tracker.events.max-ranges:10}") int maxRanges,
+                              @Value("${expense-tracker.events.max-streams-per-user:10}") int maxStreamsPerUser,
+                              @Value("${expense-tracker.events.workers:4}") int workers,
+                              @Value("${expense-tracker.events.totals-workers:2}") int totalsWorkers,
+                              @Value("${expense-tracker.events.totals-queue-size:100}") int totalsQueueSize,
+                              @Value("${expense-tracker.events.send-timeout:5s}") Duration sendTimeout) {
+        this.expenseService = expenseService;
+        this.userService = userService;
+        this.fxRateService = fxRateService;
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        this.maxRanges = maxRanges;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.sendTimeout = sendTimeout;
+        // Unbounded, but holds at most one drain per subscriber.
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                daemonThreads("event-stream-"));
+        this.totalsExecutor = new ThreadPoolExecutor(totalsWorkers, totalsWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(totalsQueueSize), daemonThreads("event-totals-"));
+        Gauge.builder("events.subscribers", count, AtomicInteger::get).register(meterRegistry);
+        this.dropped = Counter.builder("events.dropped").description("Streams closed because the client fell behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for the current user. {@code ranges} are ISO-8601 date
+     * intervals ({@code 2025-01-01/2025-01-31}) whose totals are pushed on
+     * connect and after every change, in {@code currency} or the base
+     * currency when none is given.
+     */
+    public SseEmitter subscribe(List<String> ranges, String currency) {
+        User user = userService.getCurrentUser();
+        List<LocalDate[]> parsed = parseRanges(ranges);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(user, emitter, parsed,
+                currency != null ? FxRateService.normalize(currency) : fxRateService.getBaseCurrency(),
+                new ArrayBlockingQueue<>(bufferSize));
+        subscribers.compute(user.getId(), (id, streams) -> {
+            UserStreams current = streams != null ? streams : new UserStreams();
+            if (current.subscribers.size() >= maxStreamsPerUser) {
+                throw new RuntimeException("Too many open event streams");
+            }
+            current.subscribers.add(subscriber);
+            return current;
+        });
+        count.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        offer(subscriber, SseEmitter.event().comment("connected"));
+        if (!parsed.isEmpty()) {
+            try {
+                totalsExecutor.execute(() -> pushTotals(subscriber));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Skipping initial totals for user {}: totals queue is full", user.getId());
+            }
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        UserStreams streams = subscribers.get(event.userId());
+        if (streams == null) {
+            return;
+        }
+        for (Subscriber subscriber : streams.subscribers) {
+            offer(subscriber, SseEmitter.event().name("expense").data(event));
+        }
+        // Coalesce: one recomputation covers every change that arrives before it starts.
+        if (streams.pendingTotals.compareAndSet(false, true)) {
+            try {
+                totalsExecutor.execute(() -> {
+                    streams.pendingTotals.set(false);
+                    streams.subscribers.stream().filter(subscriber -> !subscriber.ranges.isEmpty())
+                            .forEach(this::pushTotals);
+                });
+            } catch (RejectedExecutionException e) {
+                streams.pendingTotals.set(false);
+                logger.warn("Skipping totals for user {}: totals queue is full", event.userId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${expense-tracker.events.heartbeat-interval:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(streams ->
+                streams.subscribers.forEach(subscriber -> offer(subscriber, SseEmitter.event().comment("keepalive"))));
+    }
+
+    /**
+     * Drops subscribers whose current send has been blocked for longer than
+     * {@code send-timeout}, and completes their streams so nothing more is
+     * queued for a client that stopped reading. The blocked worker is not
+     * interrupted, since it may have moved on to another stream by now and a
+     * servlet write does not reliably observe interrupts; the container's
+     * write timeout fails the send and frees it.
+     */
+    @Scheduled(fixedDelayString = "${expense-tracker.events.send-check-interval:1000}")
+    public void expireStalledSends() {
+        long now = System.nanoTime();
+        subscribers.values().forEach(streams -> streams.subscribers.forEach(subscriber -> {
+            long started = subscriber.sendStartedAt;
+            if (started != 0 && now - started > sendTimeout.toNanos()) {
+                dropped.increment();
+                logger.info("Closing event stream for user {}: send blocked for over {}", subscriber.user.getId(),
+                        sendTimeout);
+                remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }));
+    }
+
+    public int getSubscriberCount() {
+        return count.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(streams -> streams.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        executor.shutdownNow();
+        totalsExecutor.shutdownNow();
+    }
+
+    private void pushTotals(Subscriber subscriber) {
+        List<RangeTotalDTO> totals = new ArrayList<>(subscriber.ranges.size());
+        try {
+            for (LocalDate[] range : subscriber.ranges) {
+                RangeTotalDTO total = new RangeTotalDTO();
+                total.setStartDate(range[0]);
+                total.setEndDate(range[1]);
+                total.setCurrency(subscriber.currency);
+                total.setTotal(expenseService.getTotalExpenses(subscriber.user, range[0], range[1], subscriber.currency));
+                totals.add(total);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not compute totals for user {}: {}", subscriber.user.getId(), e.getMessage());
+            return;
+        }
+        offer(subscriber, SseEmitter.event().name("totals").data(totals));
+    }
+
+    private void offer(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.buffer.offer(event)) {
+            dropped.increment();
+            logger.info("Closing event stream for user {}: client is not keeping up", subscriber.user.getId());
+            remove(subscriber);
+            subscriber.emitter.complete();
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed.get() && (event = subscriber.buffer.poll()) != null) {
+                subscriber.sendStartedAt = System.nanoTime();
+                subscriber.emitter.send(event);
+                subscriber.sendStartedAt = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            remove(subscriber);
+            return;
+        } finally {
+            subscriber.sendStartedAt = 0;
+            subscriber.draining.set(false);
+        }
+        // An event may have been added after the last poll but before the flag was cleared.
+        if (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        count.decrementAndGet();
+        subscriber.buffer.clear();
+        // The user's pending-totals flag lives in the same entry, so it goes with the last subscriber.
+        subscribers.computeIfPresent(subscriber.user.getId(), (id, streams) -> {
+            streams.subscribers.remove(subscriber);
+            return streams.subscribers.isEmpty() ? null : streams;
+        });
+    }
+
+    private List<LocalDate[]> parseRanges(List<String> ranges) {
+        if (ranges == null || ranges.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (ranges.size() > maxRanges) {
+            throw new RuntimeException("At most " + maxRanges + " ranges can be subscribed");
+        }
+        List<LocalDate[]> parsed = new ArrayList<>(ranges.size());
+        for (String range : ranges) {
+            String[] bounds = range.split("/");
+            try {
+                LocalDate start = LocalDate.parse(bounds[0].trim());
+                LocalDate end = LocalDate.parse(bounds[bounds.length - 1].trim());
+                if (bounds.length != 2 || end.isBefore(start)) {
+                    throw new RuntimeException("Invalid range: " + range);
+                }
+                parsed.add(new LocalDate[]{start, end});
+            } catch (DateTimeParseException e) {
+                throw new RuntimeException("Invalid range: " + range);
+            }
+        }
+        return parsed;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class UserStreams {
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean pendingTotals = new AtomicBoolean();
+    }
+
+    private static final class Subscriber {
+        final User user;
+        final SseEmitter emitter;
+        final List<LocalDate[]> ranges;
+        final String currency;
+        final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        /** {@link System#nanoTime()} when the send in progress started, or 0 when idle. */
+        volatile long sendStartedAt;
+
+        Subscriber(User user, SseEmitter emitter, List<LocalDate[]> ranges, String currency,
+                   BlockingQueue<SseEmitter.SseEventBuilder> buffer) {
+            this.user = user;
+            this.emitter = emitter;
+            this.ranges = ranges;
+            this.currency = currency;
+            this.buffer = buffer;
+        }
+    }
+}
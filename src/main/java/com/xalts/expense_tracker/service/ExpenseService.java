@@ -1,46 +1,129 @@
 package com.xalts.expense_tracker.service;
 
+import com.xalts.expense_tracker.dto.CategoryStatsDTO;
 import com.xalts.expense_tracker.dto.ExpenseDTO;
 import com.xalts.expense_tracker.dto.MonthlyReportDTO;
+import com.xalts.expense_tracker.dto.SyncResponseDTO;
 import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.RecurringExpense;
 import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseAuditEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
 import com.xalts.expense_tracker.repository.ExpenseRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class ExpenseService {
 
     private final ExpenseRepository expenseRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FxRateService fxRateService;
+    private final RecurringExpenseService recurringExpenseService;
+    private final SyncService syncService;
+    private final SpendingStatsService spendingStatsService;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final AttachmentService attachmentService;
+    private final ExpenseTagService expenseTagService;
+    private final DuplicateExpenseService duplicateExpenseService;
 
-    public ExpenseService(ExpenseRepository expenseRepository, UserService userService) {
+    public ExpenseService(ExpenseRepository expenseRepository, UserService userService,
+                          ApplicationEventPublisher eventPublisher, FxRateService fxRateService,
+                          RecurringExpenseService recurringExpenseService, SyncService syncService,
+                          SpendingStatsService spendingStatsService, GroupCommitExecutor groupCommitExecutor,
+                          AttachmentService attachmentService, ExpenseTagService expenseTagService,
+                          DuplicateExpenseService duplicateExpenseService) {
         this.expenseRepository = expenseRepository;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.fxRateService = fxRateService;
+        this.recurringExpenseService = recurringExpenseService;
+        this.syncService = syncService;
+        this.spendingStatsService = spendingStatsService;
+        this.groupCommitExecutor = groupCommitExecutor;
+        this.attachmentService = attachmentService;
+        this.expenseTagService = expenseTagService;
+        this.duplicateExpenseService = duplicateExpenseService;
     }
 
+    /** Runs in its own transaction, which concurrent creations may share when group commit is enabled. */
     public Expense createExpense(ExpenseDTO expenseDTO) {
         User user = userService.getCurrentUser();
-        Expense expense = new Expense();
-        expense.setAmount(expenseDTO.getAmount());
-        expense.setDescription(expenseDTO.getDescription());
-        expense.setCategory(expenseDTO.getCategory());
-        expense.setDate(expenseDTO.getDate() != null ? expenseDTO.getDate() : LocalDate.now());
-        expense.setUser(user);
-        return expenseRepository.save(expense);
+        // Validated and screened before queueing, so a rejected expense never fails the batch it would have joined.
+        Expense screened = newExpense(user, expenseDTO);
+        duplicateExpenseService.screen(screened, expenseDTO.isAllowDuplicate());
+        // The entity is built inside the unit because a failed group commit runs it again.
+        try {
+            return groupCommitExecutor.submit(user.getId(), () -> {
+                Expense expense = newExpense(user, expenseDTO);
+                expense.setFingerprint(screened.getFingerprint());
+                expense.setPossibleDuplicates(screened.getPossibleDuplicates());
+                return saveNewExpense(user, expense);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // An identical expense older than the duplicate window; the fingerprint constraint caught it.
+            throw new RuntimeException("Duplicate of an existing expense", e);
+        }
+    }
+
+    /**
+     * Turns one virtual occurrence of a recurring expense into a real expense
+     * with the given details. The row remembers the definition and original
+     * date so recurring totals stop counting that occurrence.
+     */
+    @Transactional
+    public Expense materializeOccurrence(Long recurringExpenseId, LocalDate occurrenceDate, ExpenseDTO expenseDTO) {
+        User user = userService.getCurrentUser();
+        RecurringExpense recurringExpense = recurringExpenseService.getOwned(user, recurringExpenseId);
+        if (!recurringExpense.toRecurrence().isOccurrence(occurrenceDate)) {
+            throw new RuntimeException("Date is not an occurrence of the recurring expense");
+        }
+        if (expenseRepository.existsByRecurringExpenseIdAndOccurrenceDate(recurringExpenseId, occurrenceDate)) {
+            throw new RuntimeException("Occurrence already materialized");
+        }
+        Expense expense = newExpense(user, expenseDTO);
+        if (expenseDTO.getDate() == null) {
+            expense.setDate(occurrenceDate);
+        }
+        expense.setRecurringExpenseId(recurringExpenseId);
+        expense.setOccurrenceDate(occurrenceDate);
+        return saveNewExpense(user, expense);
+    }
+
+    public SyncResponseDTO getChangesSince(long since, int limit) {
+        return syncService.changesSince(userService.getCurrentUser(), since, limit);
+    }
+
+    public List<CategoryStatsDTO> getCategoryStats(LocalDate startDate, LocalDate endDate) {
+        return spendingStatsService.getCategoryStats(userService.getCurrentUser(), startDate, endDate);
     }
 
+    /**
+     * The user's stored expenses, including edited recurring occurrences.
+     * Virtual occurrences are not stored and have no end, so they are not
+     * listed here but by {@link RecurringExpenseService#getOccurrences} for a
+     * date range; the totals and reports count both.
+     */
     public Page<Expense> getExpenses(Pageable pageable) {
         User user = userService.getCurrentUser();
         return expenseRepository.findByUser(user, pageable);
     }
 
+    @Transactional
     public Expense updateExpense(Long id, ExpenseDTO expenseDTO) {
         User user = userService.getCurrentUser();
         Expense expense = expenseRepository.findById(id)
@@ -48,13 +131,31 @@ public class ExpenseService {
         if (!expense.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Unauthorized access to expense");
         }
+        requireNotGroupExpense(expense);
+        spendingStatsService.forget(expense);
         expense.setAmount(expenseDTO.getAmount());
         expense.setDescription(expenseDTO.getDescription());
         expense.setCategory(expenseDTO.getCategory());
         expense.setDate(expenseDTO.getDate() != null ? expenseDTO.getDate() : LocalDate.now());
-        return expenseRepository.save(expense);
+        expense.setCurrency(resolveCurrency(expenseDTO.getCurrency()));
+        expense.setChangeVersion(syncService.nextVersion(user));
+        duplicateExpenseService.screen(expense, expenseDTO.isAllowDuplicate());
+        Expense saved;
+        try {
+            spendingStatsService.record(expense);
+            saved = expenseRepository.save(expense);
+            // Flushed here, if the sketch update has not already, so a fingerprint clash is reported as a
+            // duplicate rather than failing the commit.
+            expenseRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Duplicate of an existing expense", e);
+        }
+        expenseTagService.updated(saved, ExpenseTagService.normalize(expenseDTO.getTags()));
+        publishChange(ChangeType.UPDATED, user.getId(), saved);
+        return saved;
     }
 
+    @Transactional
     public void deleteExpense(Long id) {
         User user = userService.getCurrentUser();
         Expense expense = expenseRepository.findById(id)
@@ -62,35 +163,176 @@ public class ExpenseService {
         if (!expense.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Unauthorized access to expense");
         }
+        requireNotGroupExpense(expense);
+        spendingStatsService.forget(expense);
         expenseRepository.deleteById(id);
+        attachmentService.deleteForExpense(id);
+        expenseTagService.deleted(user.getId(), id);
+        syncService.recordDeletion(user, id);
+        publishChange(ChangeType.DELETED, user.getId(), expense);
     }
 
+    /**
+     * Saves an expense paid by {@code payer} on behalf of a group; shares and
+     * balances are the caller's concern. The full amount counts towards the
+     * payer's own aggregates, as for any other expense of theirs.
+     */
+    @Transactional
+    public Expense createGroupExpense(User payer, Long groupId, ExpenseDTO expenseDTO) {
+        Expense expense = newExpense(payer, expenseDTO);
+        expense.setGroupId(groupId);
+        return saveNewExpense(payer, expense);
+    }
+
+    @Transactional
+    public void deleteGroupExpense(User payer, Expense expense) {
+        spendingStatsService.forget(expense);
+        expenseRepository.deleteById(expense.getId());
+        attachmentService.deleteForExpense(expense.getId());
+        expenseTagService.deleted(payer.getId(), expense.getId());
+        syncService.recordDeletion(payer, expense.getId());
+        publishChange(ChangeType.DELETED, payer.getId(), expense);
+    }
 
     public double getTotalExpenses(LocalDate startDate, LocalDate endDate) {
-        User user = userService.getCurrentUser();
-        List<Expense> expenses = expenseRepository.findByUserAndDateBetween(user, startDate, endDate);
-        return expenses.stream().mapToDouble(Expense::getAmount).sum();
+        return getTotalExpenses(userService.getCurrentUser(), startDate, endDate);
+    }
+
+    /** The user's total in the base currency, each expense converted at its own date's rate. */
+    public double getTotalExpenses(User user, LocalDate startDate, LocalDate endDate) {
+        return getTotalExpenses(user, startDate, endDate, fxRateService.getBaseCurrency());
+    }
+
+    public double getTotalExpenses(LocalDate startDate, LocalDate endDate, String currency) {
+        return getTotalExpenses(userService.getCurrentUser(), startDate, endDate, currency);
+    }
+
+    public double getTotalExpenses(User user, LocalDate startDate, LocalDate endDate, String currency) {
+        String target = resolveCurrency(currency);
+        FxRateSnapshot snapshot = fxRateService.getSnapshot();
+        double total = 0;
+        for (Object[] result : expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate)) {
+            total += convert(snapshot, ((Number) result[2]).doubleValue(), (String) result[0], (LocalDate) result[1], target);
+        }
+        return total + recurringExpenseService.getVirtualTotal(user, startDate, endDate, target, snapshot);
     }
 
     public Map<String, Double> getExpensesByCategory(LocalDate startDate, LocalDate endDate) {
-        User user = userService.getCurrentUser();
-        List<Object[]> results = expenseRepository.findTotalByCategoryForUser(user, startDate, endDate);
+        return getExpensesByCategory(userService.getCurrentUser(), startDate, endDate);
+    }
+
+    /** The user's totals per category in the base currency. */
+    public Map<String, Double> getExpensesByCategory(User user, LocalDate startDate, LocalDate endDate) {
+        return getExpensesByCategory(user, startDate, endDate, fxRateService.getBaseCurrency());
+    }
+
+    public Map<String, Double> getExpensesByCategory(LocalDate startDate, LocalDate endDate, String currency) {
+        return getExpensesByCategory(userService.getCurrentUser(), startDate, endDate, currency);
+    }
+
+    public Map<String, Double> getExpensesByCategory(User user, LocalDate startDate, LocalDate endDate, String currency) {
+        String target = resolveCurrency(currency);
+        FxRateSnapshot snapshot = fxRateService.getSnapshot();
         Map<String, Double> categoryTotals = new HashMap<>();
-        for (Object[] result : results) {
-            categoryTotals.put((String) result[0], ((Number) result[1]).doubleValue());
+        for (Object[] result : expenseRepository.findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate)) {
+            double converted = convert(snapshot, ((Number) result[3]).doubleValue(), (String) result[1], (LocalDate) result[2], target);
+            categoryTotals.merge((String) result[0], converted, Double::sum);
         }
+        recurringExpenseService.getVirtualByCategory(user, startDate, endDate, target, snapshot)
+                .forEach((category, amount) -> categoryTotals.merge(category, amount, Double::sum));
         return categoryTotals;
     }
 
+    /** The user's totals per month ({@code yyyy-MM}) in the base currency. */
+    public Map<String, Double> getExpensesByMonth(User user, LocalDate startDate, LocalDate endDate) {
+        String target = fxRateService.getBaseCurrency();
+        FxRateSnapshot snapshot = fxRateService.getSnapshot();
+        Map<String, Double> monthlyTotals = new TreeMap<>();
+        for (Object[] result : expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate)) {
+            LocalDate date = (LocalDate) result[1];
+            double converted = convert(snapshot, ((Number) result[2]).doubleValue(), (String) result[0], date, target);
+            monthlyTotals.merge(YearMonth.from(date).toString(), converted, Double::sum);
+        }
+        recurringExpenseService.getVirtualByMonth(user, startDate, endDate, target, snapshot)
+                .forEach((month, amount) -> monthlyTotals.merge(month, amount, Double::sum));
+        return monthlyTotals;
+    }
+
     public MonthlyReportDTO getMonthlyReport(int year, int month) {
-        User user = userService.getCurrentUser();
+        return getMonthlyReport(userService.getCurrentUser(), year, month, null);
+    }
+
+    public MonthlyReportDTO getMonthlyReport(int year, int month, String currency) {
+        return getMonthlyReport(userService.getCurrentUser(), year, month, currency);
+    }
+
+    /** The month's report in {@code currency}, or in the base currency when none is given. */
+    public MonthlyReportDTO getMonthlyReport(User user, int year, int month, String currency) {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
-        double totalExpenses = getTotalExpenses(startDate, endDate);
-        Map<String, Double> expensesByCategory = getExpensesByCategory(startDate, endDate);
+        String target = resolveCurrency(currency);
+        Map<String, Double> expensesByCategory = getExpensesByCategory(user, startDate, endDate, target);
         MonthlyReportDTO report = new MonthlyReportDTO();
-        report.setTotalExpenses(totalExpenses);
+        report.setTotalExpenses(expensesByCategory.values().stream().mapToDouble(Double::doubleValue).sum());
         report.setExpensesByCategory(expensesByCategory);
+        report.setCurrency(target);
         return report;
     }
+
+    /** The user's latest expenses by date, newest first, without the count query a page would need. */
+    public List<Expense> getRecentExpenses(User user, int limit) {
+        return expenseRepository.findByUserOrderByDateDescIdDesc(user, PageRequest.of(0, limit));
+    }
+
+    private Expense newExpense(User user, ExpenseDTO expenseDTO) {
+        Expense expense = new Expense();
+        expense.setAmount(expenseDTO.getAmount());
+        expense.setDescription(expenseDTO.getDescription());
+        expense.setCategory(expenseDTO.getCategory());
+        expense.setDate(expenseDTO.getDate() != null ? expenseDTO.getDate() : LocalDate.now());
+        expense.setCurrency(resolveCurrency(expenseDTO.getCurrency()));
+        expense.setUser(user);
+        expense.setTags(ExpenseTagService.normalize(expenseDTO.getTags()));
+        return expense;
+    }
+
+    private Expense saveNewExpense(User user, Expense expense) {
+        expense.setChangeVersion(syncService.nextVersion(user));
+        // Judge the amount against history before it becomes part of that history.
+        expense.setAnomalous(spendingStatsService.isAnomalous(expense));
+        spendingStatsService.record(expense);
+        Expense saved = expenseRepository.save(expense);
+        expenseTagService.created(saved);
+        publishChange(ChangeType.CREATED, user.getId(), saved);
+        return saved;
+    }
+
+    private void publishChange(ChangeType type, Long userId, Expense expense) {
+        // Warm-up traffic is synthetic; keep it out of the audit log and off event streams.
+        if (userService.isWarmupUser(userId)) {
+            return;
+        }
+        eventPublisher.publishEvent(new ExpenseChangedEvent(userId, expense.getId(), type));
+        eventPublisher.publishEvent(new ExpenseAuditEvent(type, userId, expense.getId(), expense.getAmount(),
+                expense.getCategory(), expense.getDate(), expense.getCurrency(), expense.getDescription()));
+    }
+
+    private static void requireNotGroupExpense(Expense expense) {
+        // Group expenses carry member balances, which only GroupService keeps consistent.
+        if (expense.getGroupId() != null) {
+            throw new RuntimeException("Group expenses must be changed through their group");
+        }
+    }
+
+    private String resolveCurrency(String currency) {
+        return currency != null ? FxRateService.normalize(currency) : fxRateService.getBaseCurrency();
+    }
+
+    private static double convert(FxRateSnapshot snapshot, double amount, String currency, LocalDate date, String target) {
+        // Rows are pre-aggregated per (currency, day), so this runs once per group rather than once per expense.
+        if (target.equals(currency) || (currency == null && target.equals(snapshot.getBaseCurrency()))) {
+            return amount;
+        }
+        return snapshot.convert(amount, currency, target, date);
+    }
 }
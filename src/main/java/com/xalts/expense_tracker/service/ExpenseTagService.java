@@ -0,0 +1,292 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseTag;
+import com.xalts.expense_tracker.event.ExpensesPurgedEvent;
+import com.xalts.expense_tracker.event.TagIndexUpdateEvent;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseTagRepository;
+import com.xalts.expense_tracker.util.CompressedBitmap;
+import com.xalts.expense_tracker.util.TagIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tags on expenses and tag-filtered queries over them. Tags are stored in
+ * {@link ExpenseTag} rows; queries are answered from a per-user
+ * {@link TagIndex} built from those rows on first use and kept current by
+ * the events {@link ExpenseService} publishes on every write, so filtering
+ * and totalling by tag read no expenses from the database.
+ */
+@Service
+public class ExpenseTagService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseTagService.class);
+
+    private final ExpenseTagRepository tagRepository;
+    private final ExpenseRepository expenseRepository;
+    private final UserService userService;
+    private final FxRateService fxRateService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxIndexedUsers;
+    private final boolean preload;
+    private final Map<Long, IndexHolder> indexes = new ConcurrentHashMap<>();
+
+    public ExpenseTagService(ExpenseTagRepository tagRepository, ExpenseRepository expenseRepository,
+                             UserService userService, FxRateService fxRateService,
+                             ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${expense-tracker.tags.max-indexed-users:10000}") int maxIndexedUsers,
+                             @Value("${expense-tracker.tags.preload:false}") boolean preload) {
+        this.tagRepository = tagRepository;
+        this.expenseRepository = expenseRepository;
+        this.userService = userService;
+        this.fxRateService = fxRateService;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxIndexedUsers = maxIndexedUsers;
+        this.preload = preload;
+    }
+
+    /** Trimmed, lower-cased and de-duplicated; {@code null} stays {@code null}. */
+    public static Set<String> normalize(Collection<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        Set<String> normalized = new TreeSet<>();
+        for (String tag : tags) {
+            if (tag != null && !tag.isBlank()) {
+                normalized.add(tag.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return normalized;
+    }
+
+    /** Stores the tags set on a just-saved expense; call inside the transaction that saved it. */
+    public void created(Expense expense) {
+        saveTags(expense, expense.getTags());
+        publish(expense, expense.getTags());
+    }
+
+    /** Replaces an updated expense's tags unless {@code tags} is {@code null}; call inside the update's transaction. */
+    public void updated(Expense expense, Set<String> tags) {
+        if (tags != null) {
+            tagRepository.deleteByExpenseId(expense.getId());
+            saveTags(expense, tags);
+            expense.setTags(tags);
+        }
+        publish(expense, tags);
+    }
+
+    /** The rows go with the expense through the foreign key; only the index needs telling. */
+    public void deleted(Long userId, Long expenseId) {
+        eventPublisher.publishEvent(new TagIndexUpdateEvent(userId, expenseId, 0, null, null, null, true));
+    }
+
+    /** Number of the current user's expenses carrying each tag. */
+    public Map<String, Integer> getTagCounts() {
+        IndexHolder holder = holder(userService.getCurrentUser().getId());
+        synchronized (holder) {
+            return holder.index.tagCounts();
+        }
+    }
+
+    /**
+     * The current user's expenses carrying all tags in {@code all}, at least
+     * one in {@code any} and none in {@code none}, most recently created
+     * first.
+     */
+    public List<Expense> findTagged(Collection<String> all, Collection<String> any, Collection<String> none,
+                                    int limit) {
+        Set<String> allTags = normalizeFilter(all);
+        Set<String> anyTags = normalizeFilter(any);
+        Set<String> noneTags = normalizeFilter(none);
+        requirePositiveFilter(allTags, anyTags);
+        if (limit < 1) {
+            throw new RuntimeException("Limit must be positive");
+        }
+        IndexHolder holder = holder(userService.getCurrentUser().getId());
+        List<Long> ids = new ArrayList<>();
+        synchronized (holder) {
+            for (long id : holder.index.expenseIds(holder.index.match(allTags, anyTags, noneTags), limit)) {
+                ids.add(id);
+            }
+        }
+        List<Expense> expenses = new ArrayList<>(expenseRepository.findAllById(ids));
+        expenses.sort(Comparator.comparing(Expense::getId).reversed());
+        synchronized (holder) {
+            for (Expense expense : expenses) {
+                expense.setTags(holder.index.tagsOf(expense.getId()));
+            }
+        }
+        return expenses;
+    }
+
+    /**
+     * Sum of the amounts of matching expenses dated within the range, in
+     * the base currency, like the total without a currency.
+     */
+    public double getTaggedTotal(Collection<String> all, Collection<String> any, Collection<String> none,
+                                 LocalDate startDate, LocalDate endDate) {
+        Set<String> allTags = normalizeFilter(all);
+        Set<String> anyTags = normalizeFilter(any);
+        Set<String> noneTags = normalizeFilter(none);
+        requirePositiveFilter(allTags, anyTags);
+        LocalDate start = startDate != null ? startDate : LocalDate.MIN;
+        LocalDate end = endDate != null ? endDate : LocalDate.MAX;
+        if (end.isBefore(start)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        String base = fxRateService.getBaseCurrency();
+        FxRateSnapshot snapshot = fxRateService.getSnapshot();
+        IndexHolder holder = holder(userService.getCurrentUser().getId());
+        synchronized (holder) {
+            return holder.index.total(holder.index.match(allTags, anyTags, noneTags), start, end,
+                    (amount, currency, date) -> snapshot.convert(amount, currency, base, date));
+        }
+    }
+
+    /** Applies a committed write to the owner's index if it is loaded; unloaded indexes read it when built. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagIndexUpdate(TagIndexUpdateEvent event) {
+        IndexHolder holder = indexes.get(event.userId());
+        if (holder == null) {
+            return;
+        }
+        synchronized (holder) {
+            if (holder.index == null) {
+                return;
+            }
+            if (event.deleted()) {
+                holder.index.remove(event.expenseId());
+            } else {
+                holder.index.put(event.expenseId(), event.amount(), event.currency(), event.date(), event.tags());
+            }
+        }
+    }
+
+    /** The tag rows went with the expenses through the foreign key; only a loaded index needs telling. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesPurged(ExpensesPurgedEvent event) {
+        IndexHolder holder = indexes.get(event.userId());
+        if (holder == null) {
+            return;
+        }
+        synchronized (holder) {
+            if (holder.index != null) {
+                event.expenseIds().forEach(holder.index::remove);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadIndexes() {
+        if (!preload) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Long> userIds = tagRepository.findTaggingUserIds();
+        for (Long userId : userIds.subList(0, Math.min(userIds.size(), maxIndexedUsers))) {
+            holder(userId);
+        }
+        logger.info("Built tag indexes for {} users in {} ms", indexes.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private IndexHolder holder(Long userId) {
+        IndexHolder holder = indexes.get(userId);
+        if (holder == null) {
+            evictIfFull();
+            holder = indexes.computeIfAbsent(userId, id -> new IndexHolder());
+        }
+        synchronized (holder) {
+            if (holder.index == null) {
+                holder.index = load(userId);
+            }
+        }
+        return holder;
+    }
+
+    private void evictIfFull() {
+        Iterator<Long> userIds = indexes.keySet().iterator();
+        while (indexes.size() >= maxIndexedUsers && userIds.hasNext()) {
+            userIds.next();
+            userIds.remove();
+        }
+    }
+
+    private TagIndex load(Long userId) {
+        long start = System.nanoTime();
+        // One snapshot for both reads, so no tag refers to an expense the first read missed.
+        TagIndex index = readOnlyTransaction.execute(status -> {
+            TagIndex built = new TagIndex();
+            for (Object[] row : expenseRepository.findIdAmountCurrencyAndDateByUserId(userId)) {
+                built.put((Long) row[0], (Double) row[1], (String) row[2], (LocalDate) row[3], null);
+            }
+            for (Object[] row : tagRepository.findExpenseIdAndTagByUserId(userId)) {
+                built.addTag((Long) row[0], (String) row[1]);
+            }
+            return built;
+        });
+        logger.debug("Built tag index for user {}: {} expenses, {} bytes in {} ms", userId, index.size(),
+                index.memoryBytes(), (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    private void saveTags(Expense expense, Set<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return;
+        }
+        List<ExpenseTag> rows = new ArrayList<>();
+        for (String tag : tags) {
+            ExpenseTag row = new ExpenseTag();
+            row.setUserId(expense.getUser().getId());
+            row.setExpense(expense);
+            row.setTag(tag);
+            rows.add(row);
+        }
+        tagRepository.saveAll(rows);
+    }
+
+    private void publish(Expense expense, Set<String> tags) {
+        eventPublisher.publishEvent(new TagIndexUpdateEvent(expense.getUser().getId(), expense.getId(),
+                expense.getAmount(), expense.getCurrency(), expense.getDate(), tags, false));
+    }
+
+    private static Set<String> normalizeFilter(Collection<String> tags) {
+        return tags != null ? normalize(tags) : Set.of();
+    }
+
+    private static void requirePositiveFilter(Set<String> all, Set<String> any) {
+        // Without a tag to match, a filter would be a slow way of listing every expense.
+        if (all.isEmpty() && any.isEmpty()) {
+            throw new RuntimeException("At least one tag to match is required");
+        }
+    }
+
+    /** Built at most once per user under its own lock, which also guards every read and update. */
+    private static final class IndexHolder {
+        private TagIndex index;
+    }
+}
@@ -0,0 +1,62 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.FxRateDTO;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.repository.FxRateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the FX rate table as an immutable {@link FxRateSnapshot}. Writers
+ * and the periodic refresh build a new snapshot and swap it in, so readers
+ * never see a partially updated table and never take a lock.
+ */
+@Service
+public class FxRateService {
+
+    private final FxRateRepository fxRateRepository;
+    private final String baseCurrency;
+    private final AtomicReference<FxRateSnapshot> snapshot = new AtomicReference<>();
+
+    public FxRateService(FxRateRepository fxRateRepository,
+                         @Value("${expense-tracker.fx.base-currency:USD}") String baseCurrency) {
+        this.fxRateRepository = fxRateRepository;
+        this.baseCurrency = normalize(baseCurrency);
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public FxRateSnapshot getSnapshot() {
+        FxRateSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    public FxRate saveRate(FxRateDTO fxRateDTO) {
+        String currency = normalize(fxRateDTO.getCurrency());
+        FxRate fxRate = fxRateRepository.findByCurrencyAndEffectiveDate(currency, fxRateDTO.getEffectiveDate())
+                .orElseGet(FxRate::new);
+        fxRate.setCurrency(currency);
+        fxRate.setEffectiveDate(fxRateDTO.getEffectiveDate());
+        fxRate.setRateToBase(fxRateDTO.getRateToBase());
+        FxRate saved = fxRateRepository.save(fxRate);
+        reload();
+        return saved;
+    }
+
+    @Scheduled(fixedDelayString = "${expense-tracker.fx.refresh-interval:300000}")
+    public FxRateSnapshot reload() {
+        FxRateSnapshot next = new FxRateSnapshot(baseCurrency, fxRateRepository.findAll());
+        snapshot.set(next);
+        return next;
+    }
+
+    public static String normalize(String currency) {
+        return currency != null ? currency.trim().toUpperCase(Locale.ROOT) : null;
+    }
+}
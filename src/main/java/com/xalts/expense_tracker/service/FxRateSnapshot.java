@@ -0,0 +1,71 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.FxRate;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+
+/**
+ * Immutable view of the FX rate table. Each rate is the number of base
+ * currency units per unit of the currency and applies from its effective
+ * date until the next rate for that currency.
+ */
+public final class FxRateSnapshot {
+
+    private final String baseCurrency;
+    private final Map<String, NavigableMap<LocalDate, Double>> rates;
+
+    public FxRateSnapshot(String baseCurrency, List<FxRate> fxRates) {
+        Map<String, NavigableMap<LocalDate, Double>> byCurrency = new HashMap<>();
+        for (FxRate fxRate : fxRates) {
+            byCurrency.computeIfAbsent(fxRate.getCurrency(), currency -> new TreeMap<>())
+                    .put(fxRate.getEffectiveDate(), fxRate.getRateToBase());
+        }
+        byCurrency.replaceAll((currency, series) -> Collections.unmodifiableNavigableMap(series));
+        this.baseCurrency = baseCurrency;
+        this.rates = Collections.unmodifiableMap(byCurrency);
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public Map<String, NavigableMap<LocalDate, Double>> getRates() {
+        return rates;
+    }
+
+    public double rateToBase(String currency, LocalDate date) {
+        if (currency == null || currency.equals(baseCurrency)) {
+            return 1.0;
+        }
+        NavigableMap<LocalDate, Double> series = rates.get(currency);
+        Map.Entry<LocalDate, Double> entry = series != null ? series.floorEntry(date) : null;
+        if (entry == null) {
+            throw new RuntimeException("No FX rate for " + currency + " on " + date);
+        }
+        return entry.getValue();
+    }
+
+    /** Effective dates of {@code currency} rates that take over strictly after {@code from} and no later than {@code to}. */
+    public NavigableSet<LocalDate> changePoints(String currency, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, Double> series = currency != null ? rates.get(currency) : null;
+        if (series == null || !from.isBefore(to)) {
+            return Collections.emptyNavigableSet();
+        }
+        return series.navigableKeySet().subSet(from, false, to, true);
+    }
+
+    public double convert(double amount, String fromCurrency, String toCurrency, LocalDate date) {
+        String from = fromCurrency != null ? fromCurrency : baseCurrency;
+        if (from.equals(toCurrency)) {
+            return amount;
+        }
+        return amount * rateToBase(from, date) / rateToBase(toCurrency, date);
+    }
+}
@@ -0,0 +1,195 @@
+package com.xalts.expense_tracker.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs small write units in a transaction, optionally group-committing
+ * concurrent ones. With {@code expense-tracker.group-commit.enabled} on,
+ * submitted units are queued and a single writer runs up to
+ * {@code batch-size} of them in one transaction, so they share one commit
+ * (and one log flush on the database) instead of paying for one each. The
+ * writer takes whatever is queued and waits at most {@code max-delay} for
+ * more, which bounds the latency added to any one caller. Units run in
+ * order of their key so concurrent batches lock rows in the same order.
+ * If a batch fails, its units are retried one transaction each, so every
+ * caller gets its own result or its own error; a unit may therefore run
+ * twice and must build its entities afresh on every call. Since a retry
+ * costs the whole batch, callers validate before submitting and leave
+ * units only the writes, whose failures are rare.
+ */
+@Component
+public class GroupCommitExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitExecutor.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Unit<?>> queue;
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommitExecutor(PlatformTransactionManager transactionManager, EntityManager entityManager,
+                               @Value("${expense-tracker.group-commit.enabled:false}") boolean enabled,
+                               @Value("${expense-tracker.group-commit.batch-size:100}") int batchSize,
+                               @Value("${expense-tracker.group-commit.max-delay:2ms}") Duration maxDelay,
+                               @Value("${expense-tracker.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "group-commit");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Group commit enabled: up to {} writes per transaction, waiting at most {} us",
+                batchSize, maxDelayNanos / 1000);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            // The writer empties the queue before it exits, so no caller is left waiting.
+            writer.join();
+        }
+    }
+
+    /**
+     * Runs {@code work} in a transaction and returns its result, or throws
+     * what it threw. {@code key} orders units within a batch; use the id of
+     * the row the unit locks first.
+     */
+    public <T> T submit(long key, Supplier<T> work) {
+        Unit<T> unit = new Unit<>(key, work);
+        // Disabled, stopping or saturated: write on the caller's thread rather than queue without bound.
+        // A unit that raced with shutdown and is still queued is taken back, since the writer may be gone.
+        if (!running || !queue.offer(unit) || (!running && queue.remove(unit))) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        try {
+            return unit.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void writeLoop() {
+        List<Unit<?>> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                } catch (Throwable t) {
+                    // Never leave callers waiting, and keep the writer alive for the next batch.
+                    batch.forEach(unit -> unit.result.completeExceptionally(t));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Unit<?>> batch) throws InterruptedException {
+        Unit<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            Unit<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Unit<?>> batch) {
+        batch.sort(Comparator.comparingLong(Unit::key));
+        List<Object> results = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Unit<?> unit : batch) {
+                    results.add(unit.work().get());
+                    // Otherwise every query's auto-flush dirty-checks all earlier units' entities too.
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // One bad unit must not fail the others; retry each alone so every caller gets its own outcome.
+            logger.debug("Group commit of {} writes failed, retrying individually: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeAlone);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+
+    private <T> void writeAlone(Unit<T> unit) {
+        try {
+            unit.result.complete(transactionTemplate.execute(status -> unit.work().get()));
+        } catch (RuntimeException e) {
+            unit.result.completeExceptionally(e);
+        }
+    }
+
+    private record Unit<T>(long key, Supplier<T> work, CompletableFuture<T> result) {
+
+        Unit(long key, Supplier<T> work) {
+            this(key, work, new CompletableFuture<>());
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object value) {
+            result.complete((T) value);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.GroupBalanceDTO;
+import com.xalts.expense_tracker.dto.GroupDTO;
+import com.xalts.expense_tracker.dto.GroupExpenseDTO;
+import com.xalts.expense_tracker.dto.SettlementDTO;
+import com.xalts.expense_tracker.dto.SplitType;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseGroup;
+import com.xalts.expense_tracker.entity.ExpenseShare;
+import com.xalts.expense_tracker.entity.GroupMember;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseGroupRepository;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseShareRepository;
+import com.xalts.expense_tracker.repository.GroupMemberRepository;
+import com.xalts.expense_tracker.util.SettleUp;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shared expenses between group members. Every write adjusts the affected
+ * members' stored balances in place, so reading balances or settling up
+ * never has to revisit the group's expense history. Balances are kept in
+ * base currency cents so that splits are exact and always sum to zero.
+ * <p>
+ * The whole bill is stored as one expense of the payer's, so the payer's
+ * personal totals, reports and statements count all of it and the other
+ * members' count none of it; each member's share shows only in the group
+ * balances and settle-up.
+ */
+@Service
+public class GroupService {
+
+    private final ExpenseGroupRepository groupRepository;
+    private final GroupMemberRepository memberRepository;
+    private final ExpenseShareRepository shareRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseService expenseService;
+    private final UserService userService;
+    private final FxRateService fxRateService;
+
+    public GroupService(ExpenseGroupRepository groupRepository, GroupMemberRepository memberRepository,
+                        ExpenseShareRepository shareRepository, ExpenseRepository expenseRepository,
+                        ExpenseService expenseService, UserService userService, FxRateService fxRateService) {
+        this.groupRepository = groupRepository;
+        this.memberRepository = memberRepository;
+        this.shareRepository = shareRepository;
+        this.expenseRepository = expenseRepository;
+        this.expenseService = expenseService;
+        this.userService = userService;
+        this.fxRateService = fxRateService;
+    }
+
+    @Transactional
+    public ExpenseGroup createGroup(GroupDTO groupDTO) {
+        User user = userService.getCurrentUser();
+        ExpenseGroup group = new ExpenseGroup();
+        group.setName(groupDTO.getName());
+        ExpenseGroup saved = groupRepository.save(group);
+        Set<Long> memberIds = new LinkedHashSet<>();
+        memberIds.add(user.getId());
+        for (String email : groupDTO.getMemberEmails()) {
+            memberIds.add(userService.getUserByEmail(email).getId());
+        }
+        memberIds.forEach(memberId -> memberRepository.save(newMember(saved.getId(), memberId)));
+        return saved;
+    }
+
+    @Transactional
+    public GroupMember addMember(Long groupId, String email) {
+        requireMembership(groupId, userService.getCurrentUser());
+        User member = userService.getUserByEmail(email);
+        if (memberRepository.existsByGroupIdAndUserId(groupId, member.getId())) {
+            throw new RuntimeException("User is already a member of the group");
+        }
+        return memberRepository.save(newMember(groupId, member.getId()));
+    }
+
+    public List<GroupBalanceDTO> getBalances(Long groupId) {
+        requireMembership(groupId, userService.getCurrentUser());
+        List<GroupMember> members = memberRepository.findByGroupId(groupId);
+        Map<Long, User> users = userService.getUsers(members.stream().map(GroupMember::getUserId).toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<GroupBalanceDTO> balances = new ArrayList<>();
+        for (GroupMember member : members) {
+            GroupBalanceDTO balance = new GroupBalanceDTO();
+            balance.setUserId(member.getUserId());
+            User user = users.get(member.getUserId());
+            balance.setName(user != null ? user.getName() : null);
+            balance.setBalance(member.getBalanceCents() / 100.0);
+            balances.add(balance);
+        }
+        balances.sort(Comparator.comparing(GroupBalanceDTO::getUserId));
+        return balances;
+    }
+
+    @Transactional
+    public Expense addExpense(Long groupId, GroupExpenseDTO expenseDTO) {
+        User payer = userService.getCurrentUser();
+        requireMembership(groupId, payer);
+        LocalDate date = expenseDTO.getDate() != null ? expenseDTO.getDate() : LocalDate.now();
+        String currency = expenseDTO.getCurrency() != null
+                ? FxRateService.normalize(expenseDTO.getCurrency()) : fxRateService.getBaseCurrency();
+        long totalCents = toCents(fxRateService.getSnapshot()
+                .convert(expenseDTO.getAmount(), currency, fxRateService.getBaseCurrency(), date));
+        Map<Long, Long> shares = split(groupId, expenseDTO, totalCents);
+
+        Expense expense = expenseService.createGroupExpense(payer, groupId, expenseDTO);
+        Map<Long, Long> deltas = new HashMap<>();
+        deltas.put(payer.getId(), totalCents);
+        List<ExpenseShare> rows = new ArrayList<>(shares.size());
+        shares.forEach((userId, cents) -> {
+            ExpenseShare share = new ExpenseShare();
+            share.setExpenseId(expense.getId());
+            share.setUserId(userId);
+            share.setAmountCents(cents);
+            rows.add(share);
+            deltas.merge(userId, -cents, Long::sum);
+        });
+        shareRepository.saveAll(rows);
+        applyDeltas(groupId, deltas);
+        return expense;
+    }
+
+    @Transactional
+    public void deleteExpense(Long groupId, Long expenseId) {
+        User payer = userService.getCurrentUser();
+        requireMembership(groupId, payer);
+        Expense expense = expenseRepository.findById(expenseId)
+                .filter(candidate -> groupId.equals(candidate.getGroupId()))
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        if (!expense.getUser().getId().equals(payer.getId())) {
+            throw new RuntimeException("Unauthorized access to expense");
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        long totalCents = 0;
+        for (ExpenseShare share : shareRepository.findByExpenseId(expenseId)) {
+            deltas.merge(share.getUserId(), share.getAmountCents(), Long::sum);
+            totalCents += share.getAmountCents();
+        }
+        deltas.merge(payer.getId(), -totalCents, Long::sum);
+        shareRepository.deleteByExpenseId(expenseId);
+        applyDeltas(groupId, deltas);
+        expenseService.deleteGroupExpense(payer, expense);
+    }
+
+    public List<SettlementDTO> getSettleUp(Long groupId) {
+        requireMembership(groupId, userService.getCurrentUser());
+        Map<Long, Long> balances = new HashMap<>();
+        for (GroupMember member : memberRepository.findByGroupId(groupId)) {
+            balances.put(member.getUserId(), member.getBalanceCents());
+        }
+        List<SettlementDTO> settlements = new ArrayList<>();
+        for (SettleUp.Transfer transfer : SettleUp.transfers(balances)) {
+            SettlementDTO settlement = new SettlementDTO();
+            settlement.setFromUserId(transfer.from());
+            settlement.setToUserId(transfer.to());
+            settlement.setAmount(transfer.amountCents() / 100.0);
+            settlements.add(settlement);
+        }
+        return settlements;
+    }
+
+    /** Each participant's share in cents; the shares always add up to {@code totalCents}. */
+    private Map<Long, Long> split(Long groupId, GroupExpenseDTO expenseDTO, long totalCents) {
+        Map<Long, Double> requested = new TreeMap<>(expenseDTO.getShares());
+        if (expenseDTO.getSplitType() != SplitType.EQUAL) {
+            // A negative share would let the others' shares exceed the whole bill.
+            for (Double share : requested.values()) {
+                if (share == null || !(share > 0) || share.isInfinite()) {
+                    throw new RuntimeException("Shares must be positive");
+                }
+            }
+        }
+        if (requested.isEmpty()) {
+            if (expenseDTO.getSplitType() != SplitType.EQUAL) {
+                throw new RuntimeException("Shares are required for " + expenseDTO.getSplitType() + " splits");
+            }
+            memberRepository.findByGroupId(groupId).forEach(member -> requested.put(member.getUserId(), 1.0));
+        } else if (memberRepository.countByGroupIdAndUserIdIn(groupId, requested.keySet()) != requested.size()) {
+            throw new RuntimeException("Shares must only include group members");
+        }
+
+        switch (expenseDTO.getSplitType()) {
+            case EQUAL -> requested.replaceAll((userId, weight) -> 1.0);
+            case PERCENTAGE -> {
+                double percentages = requested.values().stream().mapToDouble(Double::doubleValue).sum();
+                if (Math.abs(percentages - 100.0) > 0.01) {
+                    throw new RuntimeException("Percentages must add up to 100");
+                }
+            }
+            case EXACT -> {
+                long allocated = requested.values().stream().mapToLong(GroupService::toCents).sum();
+                if (allocated != toCents(expenseDTO.getAmount())) {
+                    throw new RuntimeException("Exact shares must add up to the expense amount");
+                }
+            }
+        }
+        // EXACT shares are apportioned too, since the total may have been converted to base currency.
+        return apportion(requested, totalCents);
+    }
+
+    /**
+     * Largest-remainder apportionment of {@code totalCents} by weight, so
+     * rounding never creates or loses a cent. Ties go to the lower user id.
+     */
+    static Map<Long, Long> apportion(Map<Long, Double> weights, long totalCents) {
+        BigDecimal totalWeight = BigDecimal.ZERO;
+        for (double weight : weights.values()) {
+            totalWeight = totalWeight.add(BigDecimal.valueOf(weight));
+        }
+        Map<Long, Long> shares = new TreeMap<>();
+        Map<Long, BigDecimal> remainders = new TreeMap<>();
+        long allocated = 0;
+        for (Map.Entry<Long, Double> entry : new TreeMap<>(weights).entrySet()) {
+            BigDecimal exact = BigDecimal.valueOf(totalCents).multiply(BigDecimal.valueOf(entry.getValue()))
+                    .divide(totalWeight, 9, RoundingMode.HALF_EVEN);
+            long floor = exact.setScale(0, RoundingMode.FLOOR).longValueExact();
+            shares.put(entry.getKey(), floor);
+            remainders.put(entry.getKey(), exact.subtract(BigDecimal.valueOf(floor)));
+            allocated += floor;
+        }
+        List<Long> byRemainder = remainders.entrySet().stream()
+                .sorted(Map.Entry.<Long, BigDecimal>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .toList();
+        for (int i = 0; allocated < totalCents; i++, allocated++) {
+            shares.merge(byRemainder.get(i % byRemainder.size()), 1L, Long::sum);
+        }
+        return shares;
+    }
+
+    private void applyDeltas(Long groupId, Map<Long, Long> deltas) {
+        deltas.forEach((userId, delta) -> {
+            if (delta != 0) {
+                memberRepository.adjustBalance(groupId, userId, delta);
+            }
+        });
+    }
+
+    private void requireMembership(Long groupId, User user) {
+        if (!memberRepository.existsByGroupIdAndUserId(groupId, user.getId())) {
+            throw new RuntimeException("Group not found");
+        }
+    }
+
+    private static GroupMember newMember(Long groupId, Long userId) {
+        GroupMember member = new GroupMember();
+        member.setGroupId(groupId);
+        member.setUserId(userId);
+        return member;
+    }
+
+    private static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,349 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.AnalyticsJobDTO;
+import com.xalts.expense_tracker.dto.AnalyticsJobDTO.Status;
+import com.xalts.expense_tracker.dto.OrgAnalyticsDTO;
+import com.xalts.expense_tracker.dto.OrgAnalyticsRequest;
+import com.xalts.expense_tracker.dto.SpenderDTO;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Company-wide spending rollups for admins. A run splits the expense table
+ * into primary-key ranges and aggregates them as a fork-join task tree: each
+ * leaf runs one grouped query over its range, reduces the rows to partial
+ * totals and hands them up to be merged. Leaves run on a dedicated pool but
+ * only {@code db-concurrency} of them query at a time, so a run cannot take
+ * every connection. Runs are asynchronous jobs that report how many ranges
+ * are done and stop at the next range once cancelled. Totals cover stored
+ * expenses; virtual recurring occurrences are per-user projections and are
+ * left out.
+ */
+@Service
+public class OrgAnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrgAnalyticsService.class);
+    private static final String NO_DEPARTMENT = "Unassigned";
+
+    private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final FxRateService fxRateService;
+    private final long partitionSize;
+    private final int maxRunning;
+    private final Duration resultTtl;
+    private final Semaphore queryPermits;
+    private final ForkJoinPool pool;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    public OrgAnalyticsService(ExpenseRepository expenseRepository, UserRepository userRepository,
+                               FxRateService fxRateService,
+                               @Value("${expense-tracker.analytics.parallelism:4}") int parallelism,
+                               @Value("${expense-tracker.analytics.db-concurrency:2}") int dbConcurrency,
+                               @Value("${expense-tracker.analytics.partition-size:50000}") long partitionSize,
+                               @Value("${expense-tracker.analytics.max-running:2}") int maxRunning,
+                               @Value("${expense-tracker.analytics.result-ttl:30m}") Duration resultTtl) {
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.fxRateService = fxRateService;
+        this.partitionSize = partitionSize;
+        this.maxRunning = maxRunning;
+        this.resultTtl = resultTtl;
+        this.queryPermits = new Semaphore(dbConcurrency);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("analytics-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public AnalyticsJobDTO submit(OrgAnalyticsRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        String currency = request.getCurrency() != null
+                ? FxRateService.normalize(request.getCurrency()) : fxRateService.getBaseCurrency();
+        if (running.incrementAndGet() > maxRunning) {
+            running.decrementAndGet();
+            throw new RuntimeException("Too many analytics runs in progress");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), copyOf(request), currency);
+        jobs.put(job.id, job);
+        pool.execute(() -> run(job));
+        return job.toDTO();
+    }
+
+    public AnalyticsJobDTO getJob(String jobId) {
+        return find(jobId).toDTO();
+    }
+
+    /** Stops the run before its next range; ranges already querying finish first. */
+    public AnalyticsJobDTO cancel(String jobId) {
+        Job job = find(jobId);
+        job.cancelled = true;
+        return job.toDTO();
+    }
+
+    @Scheduled(fixedDelayString = "${expense-tracker.analytics.cleanup-interval:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> job.expiresAt != null && job.expiresAt.isBefore(now));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private Job find(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Analytics job not found");
+        }
+        return job;
+    }
+
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        long start = System.nanoTime();
+        Status outcome = Status.FAILED;
+        try {
+            List<Object[]> bounds = expenseRepository.findIdRange();
+            Partial totals = new Partial();
+            if (!bounds.isEmpty() && bounds.get(0)[0] != null) {
+                long minId = ((Number) bounds.get(0)[0]).longValue();
+                long maxId = ((Number) bounds.get(0)[1]).longValue();
+                job.partitions = (int) Math.min(Integer.MAX_VALUE, (maxId - minId) / partitionSize + 1);
+                totals = new RangeTask(job, fxRateService.getSnapshot(), minId, 0, job.partitions).invoke();
+            }
+            job.result = toResult(job, totals);
+            outcome = Status.COMPLETED;
+            logger.info("Analytics job {} aggregated {} ranges in {} ms", job.id, job.partitions,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (CancellationException e) {
+            outcome = Status.CANCELLED;
+        } catch (RuntimeException e) {
+            logger.warn("Analytics job {} failed", job.id, e);
+            job.error = e.getMessage();
+        } finally {
+            running.decrementAndGet();
+            job.completedAt = Instant.now();
+            job.expiresAt = job.completedAt.plus(resultTtl);
+            // Last, so a poller that sees the final status also sees everything else.
+            job.status = outcome;
+        }
+    }
+
+    private Partial aggregate(Job job, FxRateSnapshot snapshot, long fromId, long toId) {
+        if (job.cancelled) {
+            throw new CancellationException();
+        }
+        try {
+            ForkJoinPool.managedBlock(new PermitBlocker());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        Partial partial = new Partial();
+        try {
+            if (job.cancelled) {
+                throw new CancellationException();
+            }
+            OrgAnalyticsRequest request = job.request;
+            for (Object[] row : expenseRepository.findTotalsInIdRange(fromId, toId, request.getStartDate(),
+                    request.getEndDate())) {
+                LocalDate date = (LocalDate) row[4];
+                double amount = snapshot.convert(((Number) row[5]).doubleValue(), (String) row[3], job.currency, date);
+                partial.add((Long) row[0], (String) row[1], (String) row[2], YearMonth.from(date), amount,
+                        ((Number) row[6]).longValue());
+            }
+        } finally {
+            queryPermits.release();
+        }
+        job.partitionsDone.incrementAndGet();
+        return partial;
+    }
+
+    private OrgAnalyticsDTO toResult(Job job, Partial totals) {
+        OrgAnalyticsDTO result = new OrgAnalyticsDTO();
+        result.setCurrency(job.currency);
+        result.setExpenseCount(totals.count);
+        result.setTotal(totals.total);
+        totals.byCategoryMonth.forEach((category, months) -> {
+            Map<String, Double> byMonth = new TreeMap<>();
+            months.forEach((month, amount) -> byMonth.put(month.toString(), amount));
+            result.getByCategoryMonth().put(category, byMonth);
+        });
+        result.getByDepartment().putAll(totals.byDepartment);
+        List<Map.Entry<Long, Double>> top = totals.byUser.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(job.request.getTopSpenders())
+                .toList();
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(top.stream().map(Map.Entry::getKey).toList())
+                .forEach(user -> users.put(user.getId(), user));
+        for (Map.Entry<Long, Double> entry : top) {
+            SpenderDTO spender = new SpenderDTO();
+            spender.setUserId(entry.getKey());
+            spender.setTotal(entry.getValue());
+            User user = users.get(entry.getKey());
+            if (user != null) {
+                spender.setName(user.getName());
+                spender.setEmail(user.getEmail());
+                spender.setDepartment(user.getDepartment());
+            }
+            result.getTopSpenders().add(spender);
+        }
+        return result;
+    }
+
+    private static OrgAnalyticsRequest copyOf(OrgAnalyticsRequest request) {
+        OrgAnalyticsRequest copy = new OrgAnalyticsRequest();
+        copy.setStartDate(request.getStartDate());
+        copy.setEndDate(request.getEndDate());
+        copy.setCurrency(request.getCurrency());
+        copy.setTopSpenders(request.getTopSpenders());
+        return copy;
+    }
+
+    /** Partitions {@code [first, last)} of ranges of {@code partitionSize} ids starting at {@code minId}. */
+    private class RangeTask extends RecursiveTask<Partial> {
+        private final Job job;
+        private final FxRateSnapshot snapshot;
+        private final long minId;
+        private final int first;
+        private final int last;
+
+        RangeTask(Job job, FxRateSnapshot snapshot, long minId, int first, int last) {
+            this.job = job;
+            this.snapshot = snapshot;
+            this.minId = minId;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (last - first == 1) {
+                long fromId = minId + first * partitionSize;
+                return aggregate(job, snapshot, fromId, fromId + partitionSize - 1);
+            }
+            int middle = (first + last) >>> 1;
+            RangeTask left = new RangeTask(job, snapshot, minId, first, middle);
+            left.fork();
+            Partial right = new RangeTask(job, snapshot, minId, middle, last).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /** Waits for a query permit, letting the pool add a worker meanwhile so other ranges keep splitting. */
+    private class PermitBlocker implements ForkJoinPool.ManagedBlocker {
+        private boolean acquired;
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (!acquired) {
+                queryPermits.acquire();
+                acquired = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (!acquired) {
+                acquired = queryPermits.tryAcquire();
+            }
+            return acquired;
+        }
+    }
+
+    private static class Partial {
+        final Map<String, Map<YearMonth, Double>> byCategoryMonth = new HashMap<>();
+        final Map<Long, Double> byUser = new HashMap<>();
+        final Map<String, Double> byDepartment = new HashMap<>();
+        long count;
+        double total;
+
+        void add(Long userId, String department, String category, YearMonth month, double amount, long expenses) {
+            byCategoryMonth.computeIfAbsent(category, c -> new HashMap<>()).merge(month, amount, Double::sum);
+            byUser.merge(userId, amount, Double::sum);
+            byDepartment.merge(department != null ? department : NO_DEPARTMENT, amount, Double::sum);
+            count += expenses;
+            total += amount;
+        }
+
+        Partial merge(Partial other) {
+            other.byCategoryMonth.forEach((category, months) -> {
+                Map<YearMonth, Double> mine = byCategoryMonth.computeIfAbsent(category, c -> new HashMap<>());
+                months.forEach((month, amount) -> mine.merge(month, amount, Double::sum));
+            });
+            other.byUser.forEach((userId, amount) -> byUser.merge(userId, amount, Double::sum));
+            other.byDepartment.forEach((department, amount) -> byDepartment.merge(department, amount, Double::sum));
+            count += other.count;
+            total += other.total;
+            return this;
+        }
+    }
+
+    private static class Job {
+        final String id;
+        final OrgAnalyticsRequest request;
+        final String currency;
+        final Instant submittedAt = Instant.now();
+        final AtomicInteger partitionsDone = new AtomicInteger();
+        volatile int partitions;
+        volatile boolean cancelled;
+        volatile Status status = Status.PENDING;
+        volatile OrgAnalyticsDTO result;
+        volatile String error;
+        volatile Instant completedAt;
+        volatile Instant expiresAt;
+
+        Job(String id, OrgAnalyticsRequest request, String currency) {
+            this.id = id;
+            this.request = request;
+            this.currency = currency;
+        }
+
+        AnalyticsJobDTO toDTO() {
+            AnalyticsJobDTO dto = new AnalyticsJobDTO();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setRequest(request);
+            dto.setPartitions(partitions);
+            dto.setPartitionsDone(partitionsDone.get());
+            dto.setResult(result);
+            dto.setError(error);
+            dto.setSubmittedAt(submittedAt);
+            dto.setCompletedAt(completedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.PurgeRunDTO;
+import com.xalts.expense_tracker.dto.PurgeRunDTO.Phase;
+import com.xalts.expense_tracker.dto.PurgeRunDTO.Status;
+import com.xalts.expense_tracker.event.ExpensesPurgedEvent;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseTombstoneRepository;
+import com.xalts.expense_tracker.repository.GroupMemberRepository;
+import com.xalts.expense_tracker.repository.RecurringExpenseRepository;
+import com.xalts.expense_tracker.repository.SpendingBucketRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes personal expenses dated past the retention horizon, then
+ * everything belonging to users deactivated longer than the grace period.
+ * Expenses go in small chunks, each in its own short transaction: a range
+ * of {@code chunk-size} primary keys for the retention pass, and the next
+ * {@code chunk-size} expenses of one user for deactivated users. Between
+ * chunks that deleted anything the run sleeps for {@code pause}, then
+ * waits while requests queue for a database connection or, if a
+ * {@code replica-lag-query} is configured, while replicas are more than
+ * {@code max-replica-lag} behind. Group expenses are left alone, since
+ * they belong to the group's balances as much as to their payer, and so
+ * are materialized recurring occurrences: each one stands in for its
+ * definition's virtual occurrence, which would count again once the row
+ * was gone.
+ * <p>
+ * Progress is checkpointed in the configured directory after every chunk.
+ * A run that stopped part-way resumes from there with the same cutoffs,
+ * on startup or when submitted again. The checkpoint is a local file and
+ * runs take no lock in the database, so only one instance may run purges;
+ * the schedule and resume on startup are off unless configured.
+ */
+@Service
+public class PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeService.class);
+    private static final String CHECKPOINT_FILE = "checkpoint.properties";
+    private static final int USER_PAGE_SIZE = 100;
+
+    private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final RecurringExpenseRepository recurringExpenseRepository;
+    private final ExpenseTombstoneRepository tombstoneRepository;
+    private final SpendingBucketRepository bucketRepository;
+    private final GroupMemberRepository memberRepository;
+    private final AttachmentService attachmentService;
+    private final SpendingStatsService spendingStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    private final TransactionTemplate chunkTransaction;
+    private final Path directory;
+    private final Period retention;
+    private final Duration deactivatedGrace;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Duration backoff;
+    private final String replicaLagQuery;
+    private final Duration maxReplicaLag;
+    private final boolean resumeOnStartup;
+    private final Clock clock;
+    private final ExecutorService runner;
+
+    private volatile Run current;
+    private volatile HikariPoolMXBean pool;
+
+    @Autowired
+    public PurgeService(ExpenseRepository expenseRepository, UserRepository userRepository,
+                        RecurringExpenseRepository recurringExpenseRepository,
+                        ExpenseTombstoneRepository tombstoneRepository, SpendingBucketRepository bucketRepository,
+                        GroupMemberRepository memberRepository, AttachmentService attachmentService,
+                        SpendingStatsService spendingStatsService, ApplicationEventPublisher eventPublisher,
+                        ObjectProvider<DataSource> dataSourceProvider, PlatformTransactionManager transactionManager,
+                        @Value("${expense-tracker.purge.directory:purge}") String directory,
+                        @Value("${expense-tracker.purge.retention:7y}") Period retention,
+                        @Value("${expense-tracker.purge.deactivated-grace:30d}") Duration deactivatedGrace,
+                        @Value("${expense-tracker.purge.chunk-size:1000}") int chunkSize,
+                        @Value("${expense-tracker.purge.chunk-timeout:5s}") Duration chunkTimeout,
+                        @Value("${expense-tracker.purge.pause:50ms}") Duration pause,
+                        @Value("${expense-tracker.purge.backoff:500ms}") Duration backoff,
+                        @Value("${expense-tracker.purge.replica-lag-query:}") String replicaLagQuery,
+                        @Value("${expense-tracker.purge.max-replica-lag:5s}") Duration maxReplicaLag,
+                        @Value("${expense-tracker.purge.resume-on-startup:false}") boolean resumeOnStartup) {
+        this(expenseRepository, userRepository, recurringExpenseRepository, tombstoneRepository, bucketRepository,
+                memberRepository, attachmentService, spendingStatsService, eventPublisher, dataSourceProvider,
+                transactionManager, directory, retention, deactivatedGrace, chunkSize, chunkTimeout, pause, backoff,
+                replicaLagQuery, maxReplicaLag, resumeOnStartup, Clock.systemUTC());
+    }
+
+    PurgeService(ExpenseRepository expenseRepository, UserRepository userRepository,
+                 RecurringExpenseRepository recurringExpenseRepository, ExpenseTombstoneRepository tombstoneRepository,
+                 SpendingBucketRepository bucketRepository, GroupMemberRepository memberRepository,
+                 AttachmentService attachmentService, SpendingStatsService spendingStatsService,
+                 ApplicationEventPublisher eventPublisher, ObjectProvider<DataSource> dataSourceProvider,
+                 PlatformTransactionManager transactionManager, String directory, Period retention,
+                 Duration deactivatedGrace, int chunkSize, Duration chunkTimeout, Duration pause, Duration backoff,
+                 String replicaLagQuery, Duration maxReplicaLag, boolean resumeOnStartup, Clock clock) {
+        this.expenseRepository = expenseRepository;
+        this.userRepository = userRepository;
+        this.recurringExpenseRepository = recurringExpenseRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.bucketRepository = bucketRepository;
+        this.memberRepository = memberRepository;
+        this.attachmentService = attachmentService;
+        this.spendingStatsService = spendingStatsService;
+        this.eventPublisher = eventPublisher;
+        this.dataSourceProvider = dataSourceProvider;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setTimeout((int) Math.max(1, chunkTimeout.toSeconds()));
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.retention = retention;
+        this.deactivatedGrace = deactivatedGrace;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.backoff = backoff;
+        this.replicaLagQuery = replicaLagQuery;
+        this.maxReplicaLag = maxReplicaLag;
+        this.resumeOnStartup = resumeOnStartup;
+        this.clock = clock;
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a purge, or resumes the last one if it did not finish. A run
+     * already queued or in progress is returned as is.
+     */
+    public PurgeRunDTO submit() {
+        return start().toDTO();
+    }
+
+    public PurgeRunDTO getRun() {
+        Run run = current;
+        if (run != null) {
+            return run.toDTO();
+        }
+        // A run of an earlier process is known only by its checkpoint.
+        Properties checkpoint = readCheckpoint();
+        if (checkpoint == null) {
+            throw new RuntimeException("Purge run not found");
+        }
+        return fromCheckpoint(checkpoint).toDTO();
+    }
+
+    /** Stops the run after its current chunk; submitting again resumes it. */
+    public PurgeRunDTO cancel() {
+        Run run = current;
+        if (run == null) {
+            throw new RuntimeException("Purge run not found");
+        }
+        run.cancelled = true;
+        return run.toDTO();
+    }
+
+    @Scheduled(cron = "${expense-tracker.purge.cron:-}")
+    public void purgeScheduled() {
+        start();
+    }
+
+    /** Picks up a run a crash or shutdown left unfinished; a cancelled run waits to be submitted again. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        try {
+            Properties checkpoint = readCheckpoint();
+            if (checkpoint != null && !Boolean.parseBoolean(checkpoint.getProperty("complete"))
+                    && !Boolean.parseBoolean(checkpoint.getProperty("cancelled"))) {
+                logger.info("Resuming purge run in {}", directory);
+                start();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not resume purge run in {}", directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private synchronized Run start() {
+        Run existing = current;
+        if (existing != null && (existing.status == Status.PENDING || existing.status == Status.RUNNING)) {
+            return existing;
+        }
+        Properties checkpoint = readCheckpoint();
+        Run run;
+        if (checkpoint != null && !Boolean.parseBoolean(checkpoint.getProperty("complete"))) {
+            run = fromCheckpoint(checkpoint);
+            run.cancelled = false;
+            run.status = Status.PENDING;
+        } else {
+            run = new Run();
+            run.cutoff = retention.isZero() ? null : LocalDate.now(clock).minus(retention);
+            run.deactivatedBefore = clock.instant().minus(deactivatedGrace);
+            run.phase = run.cutoff != null ? Phase.RETENTION : Phase.DEACTIVATED_USERS;
+        }
+        current = run;
+        runner.execute(() -> run(run));
+        return run;
+    }
+
+    private void run(Run run) {
+        run.status = Status.RUNNING;
+        run.startedAt = clock.instant();
+        run.startNanos = System.nanoTime();
+        Status outcome = Status.FAILED;
+        try {
+            Files.createDirectories(directory);
+            if (run.phase == Phase.RETENTION) {
+                if (run.maxExpenseId < 0) {
+                    List<Object[]> range = expenseRepository.findIdRange();
+                    Object max = range.isEmpty() ? null : range.get(0)[1];
+                    run.maxExpenseId = max != null ? ((Number) max).longValue() : 0;
+                }
+                writeCheckpoint(run);
+                purgeExpired(run);
+                if (!run.cancelled) {
+                    synchronized (run) {
+                        run.phase = Phase.DEACTIVATED_USERS;
+                    }
+                }
+            }
+            if (run.phase == Phase.DEACTIVATED_USERS && !run.cancelled) {
+                writeCheckpoint(run);
+                purgeDeactivatedUsers(run);
+                if (!run.cancelled) {
+                    synchronized (run) {
+                        run.phase = Phase.DONE;
+                    }
+                }
+            }
+            writeCheckpoint(run);
+            outcome = run.cancelled ? Status.CANCELLED : Status.COMPLETED;
+            logger.info("Purge run {}: {} expenses and {} users purged so far, {} rows/s", outcome.name().toLowerCase(),
+                    run.expensesDeleted, run.usersPurged, String.format("%.1f", run.rowsPerSecond()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = Status.INTERRUPTED;
+        } catch (Exception e) {
+            logger.error("Purge run failed", e);
+            run.error = e.getMessage();
+        } finally {
+            run.endNanos = System.nanoTime();
+            run.completedAt = clock.instant();
+            run.status = outcome;
+        }
+    }
+
+    /** Walks the primary key up to the highest id seen at the start; later inserts wait for the next run. */
+    private void purgeExpired(Run run) throws IOException, InterruptedException {
+        while (!run.cancelled && run.lastExpenseId < run.maxExpenseId) {
+            long fromId = run.lastExpenseId + 1;
+            long toId = Math.min(run.lastExpenseId + chunkSize, run.maxExpenseId);
+            int deleted = chunkTransaction.execute(status ->
+                    delete(expenseRepository.findPurgeableInIdRange(fromId, toId, run.cutoff)));
+            synchronized (run) {
+                run.lastExpenseId = toId;
+                run.deleted(deleted);
+            }
+            writeCheckpoint(run);
+            if (deleted > 0) {
+                throttle(run);
+            }
+        }
+    }
+
+    private void purgeDeactivatedUsers(Run run) throws IOException, InterruptedException {
+        while (!run.cancelled) {
+            List<Long> userIds = userRepository.findDeactivatedAfter(run.lastUserId, run.deactivatedBefore,
+                    PageRequest.of(0, USER_PAGE_SIZE));
+            if (userIds.isEmpty()) {
+                return;
+            }
+            for (Long userId : userIds) {
+                if (!purgeUser(run, userId)) {
+                    return;
+                }
+                synchronized (run) {
+                    run.lastUserId = userId;
+                    run.usersPurged++;
+                }
+                writeCheckpoint(run);
+            }
+        }
+    }
+
+    /**
+     * Deletes the user's personal expenses chunk by chunk, then the rest of
+     * their data, and the account itself unless group records still refer
+     * to it. Returns false if the run was cancelled before the user was done.
+     */
+    private boolean purgeUser(Run run, Long userId) throws IOException, InterruptedException {
+        while (true) {
+            if (run.cancelled) {
+                return false;
+            }
+            int deleted = chunkTransaction.execute(status ->
+                    delete(expenseRepository.findPersonalByUserId(userId, PageRequest.of(0, chunkSize))));
+            if (deleted == 0) {
+                break;
+            }
+            synchronized (run) {
+                run.deleted(deleted);
+            }
+            writeCheckpoint(run);
+            throttle(run);
+        }
+        boolean removed = Boolean.TRUE.equals(chunkTransaction.execute(status -> {
+            recurringExpenseRepository.deleteByUserId(userId);
+            tombstoneRepository.deleteByUserId(userId);
+            bucketRepository.deleteByUserId(userId);
+            if (expenseRepository.existsByUserId(userId) || memberRepository.existsByUserId(userId)) {
+                return false;
+            }
+            userRepository.deleteById(userId);
+            return true;
+        }));
+        if (!removed) {
+            logger.info("Kept deactivated user {}: group records still refer to the account", userId);
+        }
+        return true;
+    }
+
+    /**
+     * Deletes one chunk of expenses, given as (id, userId, category, date,
+     * sketchBucket) rows, with their attachments, tags and sketch counts.
+     * The owners' sync floors move past the purge, so their clients resync
+     * instead of keeping the deleted expenses without tombstones.
+     */
+    private int delete(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        Map<Long, List<Long>> idsByUser = new LinkedHashMap<>();
+        Map<SketchKey, Long> sketchCounts = new HashMap<>();
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            Long userId = (Long) row[1];
+            ids.add(id);
+            idsByUser.computeIfAbsent(userId, key -> new ArrayList<>()).add(id);
+            if (row[4] != null) {
+                sketchCounts.merge(new SketchKey(userId, (String) row[2], YearMonth.from((LocalDate) row[3]),
+                        (Integer) row[4]), 1L, Long::sum);
+            }
+        }
+        attachmentService.deleteForExpenses(ids);
+        int deleted = expenseRepository.deleteByIdIn(ids);
+        sketchCounts.forEach((key, count) -> spendingStatsService.forget(key.userId(), key.category(),
+                key.month().atDay(1), key.bucket(), count));
+        idsByUser.forEach((userId, userExpenseIds) -> {
+            userRepository.incrementSyncVersion(userId, 1);
+            userRepository.raiseSyncFloor(userId, userRepository.findSyncVersion(userId));
+            eventPublisher.publishEvent(new ExpensesPurgedEvent(userId, userExpenseIds));
+        });
+        return deleted;
+    }
+
+    /** Sleeps for {@code pause}, then for as long as the pool has waiters or the replicas lag. */
+    private void throttle(Run run) throws InterruptedException {
+        if (!pause.isZero()) {
+            Thread.sleep(pause.toMillis());
+        }
+        while (!run.cancelled && (poolHasWaiters() || replicasLag())) {
+            Thread.sleep(backoff.toMillis());
+        }
+    }
+
+    private boolean poolHasWaiters() {
+        HikariPoolMXBean mxBean = resolvePool();
+        return mxBean != null && mxBean.getThreadsAwaitingConnection() > 0;
+    }
+
+    /**
+     * Whether the configured query reports more than {@code max-replica-lag}
+     * seconds of lag. No row or a null value counts as lagging, as MySQL
+     * reports a stopped replica that way.
+     */
+    private boolean replicasLag() {
+        if (replicaLagQuery == null || replicaLagQuery.isBlank()) {
+            return false;
+        }
+        DataSource dataSource = dataSourceProvider.getIfAvailable();
+        if (dataSource == null) {
+            return false;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(replicaLagQuery)) {
+            if (!result.next()) {
+                return true;
+            }
+            double seconds = result.getDouble(1);
+            return result.wasNull() || seconds * 1000 > maxReplicaLag.toMillis();
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not read replica lag: " + e.getMessage(), e);
+        }
+    }
+
+    private HikariPoolMXBean resolvePool() {
+        HikariPoolMXBean resolved = pool;
+        if (resolved != null) {
+            return resolved;
+        }
+        DataSource dataSource = dataSourceProvider.getIfAvailable();
+        if (dataSource == null) {
+            return null;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                resolved = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                pool = resolved;
+            }
+        } catch (SQLException e) {
+            logger.debug("Connection pool metrics unavailable", e);
+        }
+        return resolved;
+    }
+
+    private void writeCheckpoint(Run run) throws IOException {
+        Properties checkpoint = new Properties();
+        synchronized (run) {
+            checkpoint.setProperty("cutoff", run.cutoff != null ? run.cutoff.toString() : "");
+            checkpoint.setProperty("deactivatedBefore", run.deactivatedBefore.toString());
+            checkpoint.setProperty("phase", run.phase.name());
+            checkpoint.setProperty("maxExpenseId", Long.toString(run.maxExpenseId));
+            checkpoint.setProperty("lastExpenseId", Long.toString(run.lastExpenseId));
+            checkpoint.setProperty("lastUserId", Long.toString(run.lastUserId));
+            checkpoint.setProperty("expensesDeleted", Long.toString(run.expensesDeleted));
+            checkpoint.setProperty("usersPurged", Long.toString(run.usersPurged));
+            checkpoint.setProperty("complete", Boolean.toString(run.phase == Phase.DONE));
+            checkpoint.setProperty("cancelled", Boolean.toString(run.cancelled));
+        }
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path temp = file.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            checkpoint.store(out, null);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Properties readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            checkpoint.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read purge checkpoint " + file, e);
+        }
+        return checkpoint;
+    }
+
+    private static Run fromCheckpoint(Properties checkpoint) {
+        Run run = new Run();
+        String cutoff = checkpoint.getProperty("cutoff");
+        run.cutoff = cutoff != null && !cutoff.isEmpty() ? LocalDate.parse(cutoff) : null;
+        run.deactivatedBefore = Instant.parse(checkpoint.getProperty("deactivatedBefore"));
+        run.phase = Phase.valueOf(checkpoint.getProperty("phase"));
+        run.maxExpenseId = Long.parseLong(checkpoint.getProperty("maxExpenseId"));
+        run.lastExpenseId = Long.parseLong(checkpoint.getProperty("lastExpenseId"));
+        run.lastUserId = Long.parseLong(checkpoint.getProperty("lastUserId"));
+        run.expensesDeleted = Long.parseLong(checkpoint.getProperty("expensesDeleted"));
+        run.usersPurged = Long.parseLong(checkpoint.getProperty("usersPurged"));
+        run.cancelled = Boolean.parseBoolean(checkpoint.getProperty("cancelled"));
+        if (Boolean.parseBoolean(checkpoint.getProperty("complete"))) {
+            run.status = Status.COMPLETED;
+        } else {
+            run.status = run.cancelled ? Status.CANCELLED : Status.INTERRUPTED;
+        }
+        return run;
+    }
+
+    private record SketchKey(Long userId, String category, YearMonth month, int bucket) {
+    }
+
+    private static class Run {
+        LocalDate cutoff;
+        Instant deactivatedBefore;
+        Phase phase;
+        /** Highest expense id when the retention pass started; -1 until then. */
+        long maxExpenseId = -1;
+        long lastExpenseId;
+        long lastUserId;
+        long expensesDeleted;
+        long usersPurged;
+        long deletedThisRun;
+        volatile long startNanos;
+        volatile long endNanos;
+        volatile boolean cancelled;
+        volatile Status status = Status.PENDING;
+        volatile String error;
+        volatile Instant startedAt;
+        volatile Instant completedAt;
+
+        void deleted(int count) {
+            expensesDeleted += count;
+            deletedThisRun += count;
+        }
+
+        synchronized double rowsPerSecond() {
+            if (startNanos == 0) {
+                return 0;
+            }
+            double seconds = ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1e9;
+            return seconds > 0 ? deletedThisRun / seconds : 0;
+        }
+
+        synchronized PurgeRunDTO toDTO() {
+            PurgeRunDTO dto = new PurgeRunDTO();
+            dto.setStatus(status);
+            dto.setPhase(phase);
+            dto.setCutoff(cutoff);
+            dto.setExpensesDeleted(expensesDeleted);
+            dto.setUsersPurged(usersPurged);
+            dto.setRowsPerSecond(rowsPerSecond());
+            dto.setError(error);
+            dto.setStartedAt(startedAt);
+            dto.setCompletedAt(completedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.RecurringExpenseDTO;
+import com.xalts.expense_tracker.dto.RecurringOccurrenceDTO;
+import com.xalts.expense_tracker.entity.RecurringExpense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.RecurringExpenseRepository;
+import com.xalts.expense_tracker.util.Recurrence;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Recurring expense definitions and their virtual occurrences. Totals over
+ * a range multiply each definition's amount by an arithmetic occurrence
+ * count (split at FX rate changes when converting), so their cost does not
+ * depend on how many occurrences fall in the range. Occurrences the user
+ * edited exist as real {@code Expense} rows carrying the definition id and
+ * original date, and are left out of the virtual figures.
+ */
+@Service
+public class RecurringExpenseService {
+
+    private final RecurringExpenseRepository recurringExpenseRepository;
+    private final ExpenseRepository expenseRepository;
+    private final UserService userService;
+    private final FxRateService fxRateService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RecurringExpenseService(RecurringExpenseRepository recurringExpenseRepository,
+                                   ExpenseRepository expenseRepository, UserService userService,
+                                   FxRateService fxRateService, ApplicationEventPublisher eventPublisher) {
+        this.recurringExpenseRepository = recurringExpenseRepository;
+        this.expenseRepository = expenseRepository;
+        this.userService = userService;
+        this.fxRateService = fxRateService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public RecurringExpense createRecurringExpense(RecurringExpenseDTO dto) {
+        User user = userService.getCurrentUser();
+        RecurringExpense recurringExpense = new RecurringExpense();
+        recurringExpense.setUser(user);
+        apply(recurringExpense, dto);
+        RecurringExpense saved = recurringExpenseRepository.save(recurringExpense);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(user.getId(), null, ChangeType.RECURRING_CHANGED));
+        return saved;
+    }
+
+    public List<RecurringExpense> getRecurringExpenses() {
+        return recurringExpenseRepository.findByUserOrderByStartDate(userService.getCurrentUser());
+    }
+
+    public RecurringExpense updateRecurringExpense(Long id, RecurringExpenseDTO dto) {
+        User user = userService.getCurrentUser();
+        RecurringExpense recurringExpense = getOwned(user, id);
+        apply(recurringExpense, dto);
+        RecurringExpense saved = recurringExpenseRepository.save(recurringExpense);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(user.getId(), null, ChangeType.RECURRING_CHANGED));
+        return saved;
+    }
+
+    public void deleteRecurringExpense(Long id) {
+        User user = userService.getCurrentUser();
+        recurringExpenseRepository.delete(getOwned(user, id));
+        eventPublisher.publishEvent(new ExpenseChangedEvent(user.getId(), null, ChangeType.RECURRING_CHANGED));
+    }
+
+    public RecurringExpense getOwned(User user, Long id) {
+        RecurringExpense recurringExpense = recurringExpenseRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Recurring expense not found"));
+        if (!recurringExpense.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Unauthorized access to recurring expense");
+        }
+        return recurringExpense;
+    }
+
+    public double getVirtualTotal(User user, LocalDate startDate, LocalDate endDate, String currency, FxRateSnapshot snapshot) {
+        double total = 0;
+        for (double categoryTotal : getVirtualByCategory(user, startDate, endDate, currency, snapshot).values()) {
+            total += categoryTotal;
+        }
+        return total;
+    }
+
+    public Map<String, Double> getVirtualByCategory(User user, LocalDate startDate, LocalDate endDate,
+                                                    String currency, FxRateSnapshot snapshot) {
+        List<RecurringExpense> definitions = recurringExpenseRepository.findOverlapping(user, startDate, endDate);
+        if (definitions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<LocalDate>> materialized = findMaterialized(user, startDate, endDate);
+        Map<String, Double> totals = new HashMap<>();
+        for (RecurringExpense definition : definitions) {
+            double amount = virtualAmount(definition, startDate, endDate, currency, snapshot, materialized);
+            if (amount != 0) {
+                totals.merge(definition.getCategory(), amount, Double::sum);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * {@link #getVirtualByCategory(User, LocalDate, LocalDate, String, FxRateSnapshot)}
+     * for many users with two queries in all, keyed by user id; users without
+     * virtual occurrences in the range are left out.
+     */
+    public Map<Long, Map<String, Double>> getVirtualByUserAndCategory(Collection<Long> userIds, LocalDate startDate,
+                                                                      LocalDate endDate, String currency,
+                                                                      FxRateSnapshot snapshot) {
+        List<RecurringExpense> definitions = recurringExpenseRepository.findOverlappingForUsers(userIds, startDate,
+                endDate);
+        if (definitions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<LocalDate>> materialized = new HashMap<>();
+        for (Object[] row : expenseRepository.findMaterializedOccurrencesForUsers(userIds, startDate, endDate)) {
+            materialized.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((LocalDate) row[1]);
+        }
+        Map<Long, Map<String, Double>> totals = new HashMap<>();
+        for (RecurringExpense definition : definitions) {
+            double amount = virtualAmount(definition, startDate, endDate, currency, snapshot, materialized);
+            if (amount != 0) {
+                totals.computeIfAbsent(definition.getUser().getId(), id -> new HashMap<>())
+                        .merge(definition.getCategory(), amount, Double::sum);
+            }
+        }
+        return totals;
+    }
+
+    public Map<String, Double> getVirtualByMonth(User user, LocalDate startDate, LocalDate endDate, String currency,
+                                                 FxRateSnapshot snapshot) {
+        List<RecurringExpense> definitions = recurringExpenseRepository.findOverlapping(user, startDate, endDate);
+        if (definitions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<LocalDate>> materialized = findMaterialized(user, startDate, endDate);
+        Map<String, Double> totals = new TreeMap<>();
+        for (RecurringExpense definition : definitions) {
+            Recurrence recurrence = definition.toRecurrence();
+            LocalDate from = startDate.isAfter(definition.getStartDate()) ? startDate : definition.getStartDate();
+            LocalDate to = definition.getEndDate() != null && definition.getEndDate().isBefore(endDate)
+                    ? definition.getEndDate() : endDate;
+            for (YearMonth month = YearMonth.from(from); !month.atDay(1).isAfter(to); month = month.plusMonths(1)) {
+                LocalDate monthStart = month.atDay(1).isBefore(from) ? from : month.atDay(1);
+                LocalDate monthEnd = month.atEndOfMonth().isAfter(to) ? to : month.atEndOfMonth();
+                double amount = convertedSum(definition, monthStart, monthEnd, currency, snapshot);
+                if (amount != 0) {
+                    totals.merge(month.toString(), amount, Double::sum);
+                }
+            }
+            for (LocalDate date : edited(definition, recurrence, materialized)) {
+                totals.merge(YearMonth.from(date).toString(),
+                        -snapshot.convert(definition.getAmount(), definition.getCurrency(), currency, date), Double::sum);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Virtual occurrences of all the user's definitions in {@code [startDate, endDate]},
+     * ordered by date. Only the occurrences up to the end of the requested page
+     * are generated.
+     */
+    public Page<RecurringOccurrenceDTO> getOccurrences(LocalDate startDate, LocalDate endDate, Pageable pageable) {
+        User user = userService.getCurrentUser();
+        List<RecurringExpense> definitions = recurringExpenseRepository.findOverlapping(user, startDate, endDate);
+        Map<Long, List<LocalDate>> materialized = findMaterialized(user, startDate, endDate);
+        Set<String> skipped = new HashSet<>();
+        long total = 0;
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Comparator
+                .comparing((Cursor cursor) -> cursor.date)
+                .thenComparing(cursor -> cursor.definition.getId()));
+        for (RecurringExpense definition : definitions) {
+            Recurrence recurrence = definition.toRecurrence();
+            List<LocalDate> edited = edited(definition, recurrence, materialized);
+            edited.forEach(date -> skipped.add(definition.getId() + "@" + date));
+            total += recurrence.count(startDate, endDate) - edited.size();
+            Cursor cursor = new Cursor(definition, recurrence, startDate, endDate);
+            if (cursor.date != null) {
+                cursors.add(cursor);
+            }
+        }
+
+        List<RecurringOccurrenceDTO> content = new ArrayList<>();
+        long position = 0;
+        long pageEnd = pageable.getOffset() + pageable.getPageSize();
+        while (!cursors.isEmpty() && position < pageEnd) {
+            Cursor cursor = cursors.poll();
+            if (!skipped.contains(cursor.definition.getId() + "@" + cursor.date)) {
+                if (position >= pageable.getOffset()) {
+                    content.add(toOccurrence(cursor.definition, cursor.date));
+                }
+                position++;
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private double virtualAmount(RecurringExpense definition, LocalDate startDate, LocalDate endDate, String currency,
+                                 FxRateSnapshot snapshot, Map<Long, List<LocalDate>> materialized) {
+        double amount = convertedSum(definition, startDate, endDate, currency, snapshot);
+        for (LocalDate date : edited(definition, definition.toRecurrence(), materialized)) {
+            amount -= snapshot.convert(definition.getAmount(), definition.getCurrency(), currency, date);
+        }
+        return amount;
+    }
+
+    private double convertedSum(RecurringExpense definition, LocalDate startDate, LocalDate endDate,
+                                String currency, FxRateSnapshot snapshot) {
+        Recurrence recurrence = definition.toRecurrence();
+        String from = definition.getCurrency();
+        if (currency.equals(from) || (from == null && currency.equals(snapshot.getBaseCurrency()))) {
+            return definition.getAmount() * recurrence.count(startDate, endDate);
+        }
+        LocalDate lo = startDate.isAfter(definition.getStartDate()) ? startDate : definition.getStartDate();
+        LocalDate hi = definition.getEndDate() != null && definition.getEndDate().isBefore(endDate)
+                ? definition.getEndDate() : endDate;
+        if (lo.isAfter(hi)) {
+            return 0;
+        }
+        // The conversion factor only changes where either currency gets a new rate.
+        TreeSet<LocalDate> breaks = new TreeSet<>(snapshot.changePoints(from, lo, hi));
+        breaks.addAll(snapshot.changePoints(currency, lo, hi));
+        double sum = 0;
+        LocalDate segmentStart = lo;
+        for (LocalDate next : breaks) {
+            sum += segmentSum(definition, recurrence, segmentStart, next.minusDays(1), currency, snapshot);
+            segmentStart = next;
+        }
+        return sum + segmentSum(definition, recurrence, segmentStart, hi, currency, snapshot);
+    }
+
+    private static double segmentSum(RecurringExpense definition, Recurrence recurrence, LocalDate from, LocalDate to,
+                                     String currency, FxRateSnapshot snapshot) {
+        long count = recurrence.count(from, to);
+        if (count == 0) {
+            return 0;
+        }
+        return snapshot.convert(definition.getAmount(), definition.getCurrency(), currency, from) * count;
+    }
+
+    private Map<Long, List<LocalDate>> findMaterialized(User user, LocalDate startDate, LocalDate endDate) {
+        Map<Long, List<LocalDate>> materialized = new HashMap<>();
+        for (Object[] row : expenseRepository.findMaterializedOccurrences(user, startDate, endDate)) {
+            materialized.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((LocalDate) row[1]);
+        }
+        return materialized;
+    }
+
+    /**
+     * Materialized dates that are still occurrences of the definition; rows left
+     * behind by an edit that moved the schedule no longer hide anything.
+     */
+    private static List<LocalDate> edited(RecurringExpense definition, Recurrence recurrence,
+                                          Map<Long, List<LocalDate>> materialized) {
+        List<LocalDate> dates = materialized.getOrDefault(definition.getId(), List.of());
+        return dates.stream().filter(recurrence::isOccurrence).toList();
+    }
+
+    private void apply(RecurringExpense recurringExpense, RecurringExpenseDTO dto) {
+        if (dto.getEndDate() != null && dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        recurringExpense.setAmount(dto.getAmount());
+        recurringExpense.setDescription(dto.getDescription());
+        recurringExpense.setCategory(dto.getCategory());
+        recurringExpense.setCurrency(dto.getCurrency() != null
+                ? FxRateService.normalize(dto.getCurrency()) : fxRateService.getBaseCurrency());
+        recurringExpense.setFrequency(dto.getFrequency());
+        recurringExpense.setIntervalCount(dto.getIntervalCount());
+        recurringExpense.setStartDate(dto.getStartDate());
+        recurringExpense.setEndDate(dto.getEndDate());
+    }
+
+    private static RecurringOccurrenceDTO toOccurrence(RecurringExpense definition, LocalDate date) {
+        RecurringOccurrenceDTO occurrence = new RecurringOccurrenceDTO();
+        occurrence.setRecurringExpenseId(definition.getId());
+        occurrence.setDate(date);
+        occurrence.setAmount(definition.getAmount());
+        occurrence.setCurrency(definition.getCurrency());
+        occurrence.setDescription(definition.getDescription());
+        occurrence.setCategory(definition.getCategory());
+        return occurrence;
+    }
+
+    private static class Cursor {
+        final RecurringExpense definition;
+        final Recurrence recurrence;
+        final LocalDate last;
+        long index;
+        LocalDate date;
+
+        Cursor(RecurringExpense definition, Recurrence recurrence, LocalDate startDate, LocalDate endDate) {
+            this.definition = definition;
+            this.recurrence = recurrence;
+            LocalDate end = recurrence.getEnd();
+            this.last = end != null && end.isBefore(endDate) ? end : endDate;
+            this.index = recurrence.firstIndexOnOrAfter(startDate);
+            LocalDate first = recurrence.occurrence(index);
+            this.date = first.isAfter(last) ? null : first;
+        }
+
+        boolean advance() {
+            index++;
+            date = recurrence.occurrence(index);
+            return !date.isAfter(last);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.ReportJobDTO;
+import com.xalts.expense_tracker.dto.ReportJobDTO.Status;
+import com.xalts.expense_tracker.dto.ReportJobRequest;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent;
+import com.xalts.expense_tracker.event.ExpensesPurgedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs report specs on a bounded worker pool so long-range reports don't
+ * hold a request thread. Identical in-flight specs from the same user share
+ * one job, finished results are cached per user for a TTL, and any change
+ * to the user's expenses, including a retention purge, drops their cached
+ * results. Results are converted at the rates current when they ran, and a
+ * later FX rate change is picked up only once they expire.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+    private static final long MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final ExpenseService expenseService;
+    private final UserService userService;
+    private final int perUserLimit;
+    private final Duration resultTtl;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, UserJobs> users = new ConcurrentHashMap<>();
+
+    public ReportJobService(ExpenseService expenseService, UserService userService,
+                            @Value("${expense-tracker.report-jobs.workers:4}") int workers,
+                            @Value("${expense-tracker.report-jobs.queue-capacity:100}") int queueCapacity,
+                            @Value("${expense-tracker.report-jobs.per-user-limit:2}") int perUserLimit,
+                            @Value("${expense-tracker.report-jobs.result-ttl:10m}") Duration resultTtl) {
+        this.expenseService = expenseService;
+        this.userService = userService;
+        this.perUserLimit = perUserLimit;
+        this.resultTtl = resultTtl;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ReportJobDTO submit(ReportJobRequest request) {
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        User user = userService.getCurrentUser();
+        ReportJobRequest spec = copyOf(request);
+        while (true) {
+            UserJobs userJobs = users.computeIfAbsent(user.getId(), id -> new UserJobs());
+            synchronized (userJobs) {
+                // evictExpired may have dropped the entry between the lookup and the lock.
+                if (users.get(user.getId()) == userJobs) {
+                    return submit(user, spec, userJobs);
+                }
+            }
+        }
+    }
+
+    public CompletableFuture<ReportJobDTO> poll(String jobId, long waitMillis) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userService.getCurrentUser().getId())) {
+            throw new RuntimeException("Report job not found");
+        }
+        long wait = Math.max(0, Math.min(waitMillis, MAX_WAIT_MILLIS));
+        if (wait == 0 || job.done.isDone()) {
+            return CompletableFuture.completedFuture(job.toDTO());
+        }
+        return job.done.copy()
+                .completeOnTimeout(null, wait, TimeUnit.MILLISECONDS)
+                .handle((ignored, ex) -> job.toDTO());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpensesPurged(ExpensesPurgedEvent event) {
+        invalidate(event.userId());
+    }
+
+    @Scheduled(fixedDelayString = "${expense-tracker.report-jobs.cleanup-interval:60000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        jobs.values().removeIf(job -> job.expiresAt != null && job.expiresAt.isBefore(now));
+        users.forEach((userId, userJobs) -> {
+            synchronized (userJobs) {
+                userJobs.completed.values().removeIf(job -> job.expiresAt.isBefore(now));
+                if (userJobs.completed.isEmpty() && userJobs.running == 0) {
+                    users.remove(userId, userJobs);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Caller holds the lock on {@code userJobs}, which is the user's current entry. */
+    private ReportJobDTO submit(User user, ReportJobRequest spec, UserJobs userJobs) {
+        Job cached = userJobs.completed.get(spec);
+        if (cached != null && cached.expiresAt.isAfter(Instant.now())) {
+            return cached.toDTO();
+        }
+        Job inFlight = userJobs.inFlight.get(spec);
+        if (inFlight != null) {
+            return inFlight.toDTO();
+        }
+        if (userJobs.running >= perUserLimit) {
+            throw new RuntimeException("Too many report jobs in progress");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), user.getId(), spec, userJobs.generation.get());
+        try {
+            executor.execute(() -> run(job, user, userJobs));
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Report queue is full, please retry later");
+        }
+        userJobs.running++;
+        userJobs.inFlight.put(spec, job);
+        jobs.put(job.id, job);
+        return job.toDTO();
+    }
+
+    private void invalidate(Long userId) {
+        UserJobs userJobs = users.get(userId);
+        if (userJobs == null) {
+            return;
+        }
+        synchronized (userJobs) {
+            userJobs.generation.incrementAndGet();
+            userJobs.completed.clear();
+            // Jobs already running may have read stale data; let them finish but stop sharing them.
+            userJobs.inFlight.clear();
+        }
+    }
+
+    private void run(Job job, User user, UserJobs userJobs) {
+        job.status = Status.RUNNING;
+        try {
+            ReportJobRequest spec = job.spec;
+            job.result = switch (spec.getGrouping()) {
+                case TOTAL -> expenseService.getTotalExpenses(user, spec.getStartDate(), spec.getEndDate());
+                case CATEGORY -> expenseService.getExpensesByCategory(user, spec.getStartDate(), spec.getEndDate());
+                case MONTH -> expenseService.getExpensesByMonth(user, spec.getStartDate(), spec.getEndDate());
+            };
+            job.status = Status.COMPLETED;
+        } catch (RuntimeException e) {
+            logger.warn("Report job {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+        }
+        job.completedAt = Instant.now();
+        job.expiresAt = job.completedAt.plus(resultTtl);
+
+        synchronized (userJobs) {
+            userJobs.running--;
+            userJobs.inFlight.remove(job.spec, job);
+            if (job.status == Status.COMPLETED && job.generation == userJobs.generation.get()) {
+                userJobs.completed.put(job.spec, job);
+            }
+        }
+        job.done.complete(null);
+    }
+
+    private static ReportJobRequest copyOf(ReportJobRequest request) {
+        ReportJobRequest copy = new ReportJobRequest();
+        copy.setStartDate(request.getStartDate());
+        copy.setEndDate(request.getEndDate());
+        copy.setGrouping(request.getGrouping());
+        return copy;
+    }
+
+    private static class UserJobs {
+        final AtomicLong generation = new AtomicLong();
+        final Map<ReportJobRequest, Job> inFlight = new ConcurrentHashMap<>();
+        final Map<ReportJobRequest, Job> completed = new ConcurrentHashMap<>();
+        int running;
+    }
+
+    private static class Job {
+        final String id;
+        final Long userId;
+        final ReportJobRequest spec;
+        final long generation;
+        final Instant submittedAt = Instant.now();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        volatile Status status = Status.PENDING;
+        volatile Object result;
+        volatile String error;
+        volatile Instant completedAt;
+        volatile Instant expiresAt;
+
+        Job(String id, Long userId, ReportJobRequest spec, long generation) {
+            this.id = id;
+            this.userId = userId;
+            this.spec = spec;
+            this.generation = generation;
+        }
+
+        ReportJobDTO toDTO() {
+            ReportJobDTO dto = new ReportJobDTO();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setRequest(copyOf(spec));
+            dto.setResult(result);
+            dto.setError(error);
+            dto.setSubmittedAt(submittedAt);
+            dto.setCompletedAt(completedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.CategoryStatsDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.SpendingBucketRepository;
+import com.xalts.expense_tracker.util.QuantileSketch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-category spending distributions from quantile sketches kept per
+ * (user, category, month). Expense writes adjust a single sketch bucket, and
+ * a query over several months merges the monthly sketches in the database by
+ * summing bucket counts, so neither path reads individual expenses. Amounts
+ * are sketched in base currency; months are the unit of range queries.
+ */
+@Service
+public class SpendingStatsService {
+
+    private static final int BACKFILL_BATCH = 1000;
+
+    private final SpendingBucketRepository bucketRepository;
+    private final ExpenseRepository expenseRepository;
+    private final FxRateService fxRateService;
+    private final int lookbackMonths;
+    private final long minSamples;
+    private final double anomalyFactor;
+
+    public SpendingStatsService(SpendingBucketRepository bucketRepository, ExpenseRepository expenseRepository,
+                                FxRateService fxRateService,
+                                @Value("${expense-tracker.stats.lookback-months:6}") int lookbackMonths,
+                                @Value("${expense-tracker.stats.min-samples:20}") long minSamples,
+                                @Value("${expense-tracker.stats.anomaly-factor:3.0}") double anomalyFactor) {
+        this.bucketRepository = bucketRepository;
+        this.expenseRepository = expenseRepository;
+        this.fxRateService = fxRateService;
+        this.lookbackMonths = lookbackMonths;
+        this.minSamples = minSamples;
+        this.anomalyFactor = anomalyFactor;
+    }
+
+    /** Counts a new or updated expense and remembers its bucket on the entity; the caller saves it. */
+    @Transactional
+    public void record(Expense expense) {
+        int bucket = QuantileSketch.bucketOf(toBase(expense));
+        expense.setSketchBucket(bucket);
+        bucketRepository.increment(expense.getUser().getId(), expense.getCategory(), monthKey(expense.getDate()), bucket, 1);
+    }
+
+    /** Removes an expense from its sketch; call before changing its category, date or amount. */
+    @Transactional
+    public void forget(Expense expense) {
+        if (expense.getSketchBucket() == null) {
+            return;
+        }
+        bucketRepository.increment(expense.getUser().getId(), expense.getCategory(), monthKey(expense.getDate()),
+                expense.getSketchBucket(), -1);
+        expense.setSketchBucket(null);
+    }
+
+    /** Removes {@code count} expenses of one sketch bucket at once, for expenses deleted in bulk. */
+    @Transactional
+    public void forget(Long userId, String category, LocalDate date, int sketchBucket, long count) {
+        bucketRepository.increment(userId, category, monthKey(date), sketchBucket, -count);
+    }
+
+    /**
+     * Whether {@code expense} is more than {@code anomaly-factor} times the
+     * owner's p90 for its category over the lookback window. Users with too
+     * little history in the category are never flagged.
+     */
+    public boolean isAnomalous(Expense expense) {
+        LocalDate date = expense.getDate();
+        QuantileSketch sketch = new QuantileSketch();
+        for (Object[] row : bucketRepository.findMerged(expense.getUser().getId(), expense.getCategory(),
+                monthKey(date.minusMonths(lookbackMonths)), monthKey(date))) {
+            sketch.add(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        return sketch.getCount() >= minSamples && toBase(expense) > sketch.quantile(0.9) * anomalyFactor;
+    }
+
+    /** Distributions for the calendar months overlapping {@code [startDate, endDate]}. */
+    @Transactional
+    public List<CategoryStatsDTO> getCategoryStats(User user, LocalDate startDate, LocalDate endDate) {
+        backfill(user);
+        Map<String, QuantileSketch> sketches = new TreeMap<>();
+        for (Object[] row : bucketRepository.findMergedByCategory(user.getId(), monthKey(startDate), monthKey(endDate))) {
+            sketches.computeIfAbsent((String) row[0], category -> new QuantileSketch())
+                    .add(((Number) row[1]).intValue(), ((Number) row[2]).longValue());
+        }
+        List<CategoryStatsDTO> stats = new ArrayList<>(sketches.size());
+        sketches.forEach((category, sketch) -> {
+            CategoryStatsDTO dto = new CategoryStatsDTO();
+            dto.setCategory(category);
+            dto.setCount(sketch.getCount());
+            dto.setMedian(round(sketch.quantile(0.5)));
+            dto.setP90(round(sketch.quantile(0.9)));
+            dto.setP99(round(sketch.quantile(0.99)));
+            dto.setCurrency(fxRateService.getBaseCurrency());
+            stats.add(dto);
+        });
+        return stats;
+    }
+
+    /** Sketches expenses written before sketches existed, once per user. */
+    private void backfill(User user) {
+        List<Expense> expenses;
+        while (!(expenses = expenseRepository.findUnsketched(user, PageRequest.of(0, BACKFILL_BATCH))).isEmpty()) {
+            Map<SketchKey, List<Long>> byBucket = new HashMap<>();
+            for (Expense expense : expenses) {
+                SketchKey key = new SketchKey(expense.getCategory(), monthKey(expense.getDate()),
+                        QuantileSketch.bucketOf(toBase(expense)));
+                byBucket.computeIfAbsent(key, k -> new ArrayList<>()).add(expense.getId());
+            }
+            byBucket.forEach((key, ids) -> {
+                // Only rows still unsketched are counted; a concurrent update has already counted the rest.
+                int claimed = expenseRepository.setSketchBucket(ids, key.bucket());
+                if (claimed > 0) {
+                    bucketRepository.increment(user.getId(), key.category(), key.month(), key.bucket(), claimed);
+                }
+            });
+        }
+    }
+
+    private double toBase(Expense expense) {
+        try {
+            return fxRateService.getSnapshot().convert(expense.getAmount(), expense.getCurrency(),
+                    fxRateService.getBaseCurrency(), expense.getDate());
+        } catch (RuntimeException e) {
+            // No rate for the currency yet; count the expense at face value rather than fail the write.
+            return expense.getAmount();
+        }
+    }
+
+    static int monthKey(LocalDate date) {
+        return date.getYear() * 100 + date.getMonthValue();
+    }
+
+    private static double round(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    private record SketchKey(String category, int month, int bucket) {
+    }
+}
@@ -0,0 +1,505 @@
+package com.xalts.expense_tracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xalts.expense_tracker.dto.StatementDTO;
+import com.xalts.expense_tracker.dto.StatementRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunDTO.Status;
+import com.xalts.expense_tracker.dto.StatementRunRequest;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Month-end statements for every active user, written to gzipped JSON-lines
+ * files for downstream mailing. A run walks users by id in chunks of
+ * {@code chunk-size}. Each chunk's statements come from three grouped
+ * queries over the whole chunk, and the chunk is written to its own file,
+ * named after its first user id. Up to {@code parallelism} chunks are
+ * computed at once. The run pauses while requests are waiting for a
+ * database connection, so it does not starve online traffic.
+ * <p>
+ * Progress is checkpointed in the run's directory as the last user id
+ * below which every chunk is written. A run that stopped part-way, for
+ * example in a crash, resumes from there, and files of chunks finished
+ * out of order beyond it are written again. The checkpoint is local and
+ * runs take no lock in the database, so only one instance may run
+ * statements; the schedule and resume on startup are off unless configured.
+ */
+@Service
+public class StatementBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBatchService.class);
+    private static final String CHECKPOINT_FILE = "checkpoint.properties";
+    private static final String CHUNK_PREFIX = "statements-";
+    private static final String CHUNK_SUFFIX = ".jsonl.gz";
+
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final RecurringExpenseService recurringExpenseService;
+    private final FxRateService fxRateService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path directory;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration pause;
+    private final Duration backoff;
+    private final boolean resumeOnStartup;
+    private final ExecutorService runner;
+    private final ExecutorService workers;
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    private volatile HikariPoolMXBean pool;
+
+    public StatementBatchService(UserRepository userRepository, ExpenseRepository expenseRepository,
+                                 RecurringExpenseService recurringExpenseService, FxRateService fxRateService,
+                                 ObjectMapper objectMapper, ObjectProvider<DataSource> dataSourceProvider,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${expense-tracker.statements.directory:statements}") String directory,
+                                 @Value("${expense-tracker.statements.chunk-size:500}") int chunkSize,
+                                 @Value("${expense-tracker.statements.parallelism:2}") int parallelism,
+                                 @Value("${expense-tracker.statements.pause:0ms}") Duration pause,
+                                 @Value("${expense-tracker.statements.backoff:200ms}") Duration backoff,
+                                 @Value("${expense-tracker.statements.resume-on-startup:false}") boolean resumeOnStartup) {
+        this.userRepository = userRepository;
+        this.expenseRepository = expenseRepository;
+        this.recurringExpenseService = recurringExpenseService;
+        this.fxRateService = fxRateService;
+        this.objectMapper = objectMapper;
+        this.dataSourceProvider = dataSourceProvider;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.directory = Path.of(directory).toAbsolutePath();
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.pause = pause;
+        this.backoff = backoff;
+        this.resumeOnStartup = resumeOnStartup;
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statement-run");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "statement-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts or resumes the run for a month and currency. Runs execute one
+     * at a time in submission order. Submitting a run that is already queued
+     * or running returns it, and a completed run is not repeated; remove its
+     * directory to generate it again.
+     */
+    public StatementRunDTO submit(StatementRunRequest request) {
+        String currency = request.getCurrency() != null
+                ? FxRateService.normalize(request.getCurrency()) : fxRateService.getBaseCurrency();
+        return start(request.getMonth(), currency).toDTO();
+    }
+
+    public StatementRunDTO getRun(YearMonth month, String currency) {
+        return find(month, currency).toDTO();
+    }
+
+    /** Stops the run before its next chunk; chunks already being written finish, and the checkpoint keeps them. */
+    public StatementRunDTO cancel(YearMonth month, String currency) {
+        Run run = find(month, currency);
+        run.cancelled = true;
+        return run.toDTO();
+    }
+
+    /** Statements for the month just ended, in the base currency. */
+    @Scheduled(cron = "${expense-tracker.statements.cron:-}")
+    public void generatePreviousMonth() {
+        start(YearMonth.now().minusMonths(1), fxRateService.getBaseCurrency());
+    }
+
+    /** Picks up runs a crash or shutdown left unfinished; cancelled runs wait to be submitted again. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!resumeOnStartup || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path runDirectory : stream) {
+                Properties checkpoint = readCheckpoint(runDirectory);
+                if (checkpoint != null && !Boolean.parseBoolean(checkpoint.getProperty("complete"))
+                        && !Boolean.parseBoolean(checkpoint.getProperty("cancelled"))) {
+                    logger.info("Resuming statement run in {}", runDirectory);
+                    start(YearMonth.parse(checkpoint.getProperty("month")), checkpoint.getProperty("currency"));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not resume statement runs in {}", directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private synchronized Run start(YearMonth month, String currency) {
+        String key = key(month, currency);
+        Run existing = runs.get(key);
+        if (existing != null && (existing.status == Status.PENDING || existing.status == Status.RUNNING)) {
+            return existing;
+        }
+        Run run = new Run(month, currency, directory.resolve(key));
+        Properties checkpoint = readCheckpoint(run.directory);
+        if (checkpoint != null && Boolean.parseBoolean(checkpoint.getProperty("complete"))) {
+            return fromCheckpoint(run, checkpoint);
+        }
+        runs.put(key, run);
+        runner.execute(() -> run(run));
+        return run;
+    }
+
+    private Run find(YearMonth month, String currency) {
+        String normalized = currency != null ? FxRateService.normalize(currency) : fxRateService.getBaseCurrency();
+        Run run = runs.get(key(month, normalized));
+        if (run != null) {
+            return run;
+        }
+        // Runs of an earlier process are known only by their checkpoint.
+        Run previous = new Run(month, normalized, directory.resolve(key(month, normalized)));
+        Properties checkpoint = readCheckpoint(previous.directory);
+        if (checkpoint == null) {
+            throw new RuntimeException("Statement run not found");
+        }
+        return fromCheckpoint(previous, checkpoint);
+    }
+
+    private void run(Run run) {
+        run.status = Status.RUNNING;
+        run.startedAt = Instant.now();
+        long start = System.nanoTime();
+        Status outcome = Status.FAILED;
+        Semaphore slots = new Semaphore(parallelism);
+        try {
+            Files.createDirectories(run.directory);
+            Properties checkpoint = readCheckpoint(run.directory);
+            if (checkpoint != null) {
+                synchronized (run) {
+                    run.lastUserId = Long.parseLong(checkpoint.getProperty("lastUserId"));
+                    run.usersDone = Long.parseLong(checkpoint.getProperty("usersDone"));
+                    run.chunksDone = Long.parseLong(checkpoint.getProperty("chunksDone"));
+                }
+                logger.info("Statement run {} resumes after user {}", run.directory.getFileName(), run.lastUserId);
+            }
+            deleteChunksAfter(run.directory, run.lastUserId);
+            FxRateSnapshot snapshot = fxRateService.getSnapshot();
+            long afterId = run.lastUserId;
+            while (true) {
+                slots.acquire();
+                // Checked once a slot is free, so a chunk that just failed stops the next one.
+                if (run.cancelled || run.failure != null) {
+                    slots.release();
+                    break;
+                }
+                throttle(run);
+                List<Object[]> users = userRepository.findActiveAfter(afterId, PageRequest.of(0, chunkSize));
+                if (users.isEmpty()) {
+                    slots.release();
+                    break;
+                }
+                Chunk chunk = new Chunk(users);
+                afterId = chunk.lastUserId;
+                synchronized (run) {
+                    run.pending.put(chunk.firstUserId, chunk);
+                }
+                workers.execute(() -> {
+                    try {
+                        write(run, chunk, snapshot);
+                        completed(run, chunk);
+                    } catch (IOException | RuntimeException e) {
+                        run.failure = e;
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            // Wait for the chunks still being written.
+            slots.acquire(parallelism);
+            if (run.failure != null) {
+                throw run.failure;
+            }
+            if (run.cancelled) {
+                synchronized (run) {
+                    writeCheckpoint(run, false);
+                }
+                outcome = Status.CANCELLED;
+            } else {
+                synchronized (run) {
+                    writeCheckpoint(run, true);
+                }
+                outcome = Status.COMPLETED;
+                logger.info("Statement run {} wrote {} statements in {} chunks in {} ms", run.directory.getFileName(),
+                        run.usersDone, run.chunksDone, (System.nanoTime() - start) / 1_000_000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = Status.INTERRUPTED;
+        } catch (Exception e) {
+            logger.error("Statement run {} failed", run.directory.getFileName(), e);
+            run.error = e.getMessage();
+        } finally {
+            run.completedAt = Instant.now();
+            run.status = outcome;
+        }
+    }
+
+    /** Holds off the next chunk by {@code pause}, and for as long as requests queue for a connection. */
+    private void throttle(Run run) throws InterruptedException {
+        if (!pause.isZero()) {
+            Thread.sleep(pause.toMillis());
+        }
+        HikariPoolMXBean mxBean = resolvePool();
+        while (!run.cancelled && mxBean != null && mxBean.getThreadsAwaitingConnection() > 0) {
+            Thread.sleep(backoff.toMillis());
+        }
+    }
+
+    private void write(Run run, Chunk chunk, FxRateSnapshot snapshot) throws IOException {
+        LocalDate startDate = run.month.atDay(1);
+        LocalDate endDate = run.month.atEndOfMonth();
+        Map<Long, Map<String, Double>> byUser = readOnlyTransaction.execute(status -> {
+            Map<Long, Map<String, Double>> totals = new HashMap<>();
+            for (Object[] row : expenseRepository.findTotalsForUsers(chunk.userIds, startDate, endDate)) {
+                double amount = snapshot.convert(((Number) row[4]).doubleValue(), (String) row[2], run.currency,
+                        (LocalDate) row[3]);
+                totals.computeIfAbsent((Long) row[0], id -> new TreeMap<>()).merge((String) row[1], amount, Double::sum);
+            }
+            recurringExpenseService.getVirtualByUserAndCategory(chunk.userIds, startDate, endDate, run.currency,
+                    snapshot).forEach((userId, categories) -> categories.forEach((category, amount) ->
+                    totals.computeIfAbsent(userId, id -> new TreeMap<>()).merge(category, amount, Double::sum)));
+            return totals;
+        });
+        Path target = run.directory.resolve(chunkFileName(chunk.firstUserId));
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            for (Object[] user : chunk.users) {
+                Map<String, Double> categories = byUser.getOrDefault((Long) user[0], new TreeMap<>());
+                StatementDTO statement = new StatementDTO();
+                statement.setUserId((Long) user[0]);
+                statement.setName((String) user[1]);
+                statement.setEmail((String) user[2]);
+                statement.setMonth(run.month.toString());
+                statement.setCurrency(run.currency);
+                statement.setTotalExpenses(categories.values().stream().mapToDouble(Double::doubleValue).sum());
+                statement.setExpensesByCategory(categories);
+                out.write(objectMapper.writeValueAsBytes(statement));
+                out.write('\n');
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** Advances the checkpoint past every chunk now written without a gap before it. */
+    private void completed(Run run, Chunk chunk) throws IOException {
+        synchronized (run) {
+            chunk.done = true;
+            boolean advanced = false;
+            while (!run.pending.isEmpty() && run.pending.firstEntry().getValue().done) {
+                Chunk done = run.pending.pollFirstEntry().getValue();
+                run.lastUserId = done.lastUserId;
+                run.usersDone += done.users.size();
+                run.chunksDone++;
+                advanced = true;
+            }
+            if (advanced) {
+                writeCheckpoint(run, false);
+            }
+        }
+    }
+
+    private void writeCheckpoint(Run run, boolean complete) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("month", run.month.toString());
+        checkpoint.setProperty("currency", run.currency);
+        checkpoint.setProperty("lastUserId", Long.toString(run.lastUserId));
+        checkpoint.setProperty("usersDone", Long.toString(run.usersDone));
+        checkpoint.setProperty("chunksDone", Long.toString(run.chunksDone));
+        checkpoint.setProperty("complete", Boolean.toString(complete));
+        checkpoint.setProperty("cancelled", Boolean.toString(run.cancelled));
+        Path file = run.directory.resolve(CHECKPOINT_FILE);
+        Path temp = file.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            checkpoint.store(out, null);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Properties readCheckpoint(Path runDirectory) {
+        Path file = runDirectory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            checkpoint.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read statement checkpoint " + file, e);
+        }
+        return checkpoint;
+    }
+
+    /** Removes partial files and chunks past the checkpoint, which the resumed run may split differently. */
+    private static void deleteChunksAfter(Path runDirectory, long lastUserId) throws IOException {
+        List<Path> stale = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(runDirectory, CHUNK_PREFIX + "*")) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(CHUNK_SUFFIX)) {
+                    stale.add(file);
+                } else {
+                    String firstUserId = name.substring(CHUNK_PREFIX.length(), name.length() - CHUNK_SUFFIX.length());
+                    if (Long.parseLong(firstUserId) > lastUserId) {
+                        stale.add(file);
+                    }
+                }
+            }
+        }
+        for (Path file : stale) {
+            Files.delete(file);
+        }
+    }
+
+    private HikariPoolMXBean resolvePool() {
+        HikariPoolMXBean current = pool;
+        if (current != null) {
+            return current;
+        }
+        DataSource dataSource = dataSourceProvider.getIfAvailable();
+        if (dataSource == null) {
+            return null;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                current = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                pool = current;
+            }
+        } catch (SQLException e) {
+            logger.debug("Connection pool metrics unavailable", e);
+        }
+        return current;
+    }
+
+    private static Run fromCheckpoint(Run run, Properties checkpoint) {
+        run.lastUserId = Long.parseLong(checkpoint.getProperty("lastUserId"));
+        run.usersDone = Long.parseLong(checkpoint.getProperty("usersDone"));
+        run.chunksDone = Long.parseLong(checkpoint.getProperty("chunksDone"));
+        if (Boolean.parseBoolean(checkpoint.getProperty("complete"))) {
+            run.status = Status.COMPLETED;
+        } else {
+            run.status = Boolean.parseBoolean(checkpoint.getProperty("cancelled")) ? Status.CANCELLED : Status.INTERRUPTED;
+        }
+        return run;
+    }
+
+    private static String key(YearMonth month, String currency) {
+        return month + "-" + currency;
+    }
+
+    private static String chunkFileName(long firstUserId) {
+        // Zero-padded so the files list in user order.
+        return String.format("%s%019d%s", CHUNK_PREFIX, firstUserId, CHUNK_SUFFIX);
+    }
+
+    private static class Chunk {
+        final List<Object[]> users;
+        final List<Long> userIds = new ArrayList<>();
+        final long firstUserId;
+        final long lastUserId;
+        boolean done;
+
+        Chunk(List<Object[]> users) {
+            this.users = users;
+            users.forEach(user -> userIds.add((Long) user[0]));
+            this.firstUserId = userIds.get(0);
+            this.lastUserId = userIds.get(userIds.size() - 1);
+        }
+    }
+
+    private static class Run {
+        final YearMonth month;
+        final String currency;
+        final Path directory;
+        /** Chunks handed to workers and not yet covered by the checkpoint, by first user id. */
+        final TreeMap<Long, Chunk> pending = new TreeMap<>();
+        long lastUserId;
+        long usersDone;
+        long chunksDone;
+        volatile boolean cancelled;
+        volatile Exception failure;
+        volatile Status status = Status.PENDING;
+        volatile String error;
+        volatile Instant startedAt;
+        volatile Instant completedAt;
+
+        Run(YearMonth month, String currency, Path directory) {
+            this.month = month;
+            this.currency = currency;
+            this.directory = directory;
+        }
+
+        synchronized StatementRunDTO toDTO() {
+            StatementRunDTO dto = new StatementRunDTO();
+            dto.setMonth(month.toString());
+            dto.setCurrency(currency);
+            dto.setStatus(status);
+            dto.setUsersDone(usersDone);
+            dto.setChunksDone(chunksDone);
+            dto.setDirectory(directory.toString());
+            dto.setError(error);
+            dto.setStartedAt(startedAt);
+            dto.setCompletedAt(completedAt);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.SyncResponseDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseTombstone;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseTombstoneRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Per-user change sequence for delta sync. Every expense write takes the
+ * next number from the user's counter; the counter row stays locked until
+ * the writing transaction commits, so a client that has seen version N
+ * never misses a change numbered N or below. Deletes leave a tombstone
+ * carrying their number, and tombstones older than the retention window
+ * are compacted away.
+ */
+@Service
+public class SyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+    private static final int BACKFILL_BATCH = 1000;
+
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseTombstoneRepository tombstoneRepository;
+    private final Duration tombstoneRetention;
+    private final int maxBatchSize;
+    private final Clock clock;
+
+    @Autowired
+    public SyncService(UserRepository userRepository, ExpenseRepository expenseRepository,
+                       ExpenseTombstoneRepository tombstoneRepository,
+                       @Value("${expense-tracker.sync.tombstone-retention:30d}") Duration tombstoneRetention,
+                       @Value("${expense-tracker.sync.max-batch-size:1000}") int maxBatchSize) {
+        this(userRepository, expenseRepository, tombstoneRepository, tombstoneRetention, maxBatchSize, Clock.systemUTC());
+    }
+
+    SyncService(UserRepository userRepository, ExpenseRepository expenseRepository,
+                ExpenseTombstoneRepository tombstoneRepository, Duration tombstoneRetention,
+                int maxBatchSize, Clock clock) {
+        this.userRepository = userRepository;
+        this.expenseRepository = expenseRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.tombstoneRetention = tombstoneRetention;
+        this.maxBatchSize = maxBatchSize;
+        this.clock = clock;
+    }
+
+    @Transactional
+    public long nextVersion(User user) {
+        return reserve(user, 1);
+    }
+
+    @Transactional
+    public void recordDeletion(User user, Long expenseId) {
+        ExpenseTombstone tombstone = new ExpenseTombstone();
+        tombstone.setUserId(user.getId());
+        tombstone.setExpenseId(expenseId);
+        tombstone.setChangeVersion(nextVersion(user));
+        tombstone.setDeletedAt(clock.instant());
+        tombstoneRepository.save(tombstone);
+    }
+
+    @Transactional
+    public SyncResponseDTO changesSince(User user, long since, int limit) {
+        backfill(user);
+        int batchSize = Math.max(1, Math.min(limit, maxBatchSize));
+        long current = userRepository.findSyncVersion(user.getId());
+        SyncResponseDTO response = new SyncResponseDTO();
+        if (since > 0 && since < userRepository.findSyncFloor(user.getId())) {
+            response.setReset(true);
+            since = 0;
+        }
+
+        PageRequest window = PageRequest.of(0, batchSize + 1);
+        List<Expense> expenses = expenseRepository
+                .findByUserAndChangeVersionGreaterThanOrderByChangeVersion(user, since, window);
+        // After a reset the client starts from nothing, so deletes are irrelevant.
+        List<ExpenseTombstone> tombstones = since == 0 ? List.of() : tombstoneRepository
+                .findByUserIdAndChangeVersionGreaterThanOrderByChangeVersion(user.getId(), since, window);
+
+        int e = 0;
+        int t = 0;
+        long version = since;
+        while (e + t < batchSize && (e < expenses.size() || t < tombstones.size())) {
+            boolean takeExpense = t >= tombstones.size()
+                    || (e < expenses.size() && expenses.get(e).getChangeVersion() < tombstones.get(t).getChangeVersion());
+            if (takeExpense) {
+                Expense expense = expenses.get(e++);
+                response.getUpserts().add(expense);
+                version = expense.getChangeVersion();
+            } else {
+                ExpenseTombstone tombstone = tombstones.get(t++);
+                response.getDeletedIds().add(tombstone.getExpenseId());
+                version = tombstone.getChangeVersion();
+            }
+        }
+        boolean hasMore = e < expenses.size() || t < tombstones.size();
+        response.setHasMore(hasMore);
+        response.setVersion(hasMore ? version : Math.max(version, current));
+        return response;
+    }
+
+    /** Removes tombstones past the retention window and raises each affected user's sync floor. */
+    @Scheduled(fixedDelayString = "${expense-tracker.sync.compaction-interval:3600000}")
+    @Transactional
+    public int compactTombstones() {
+        Instant cutoff = clock.instant().minus(tombstoneRetention);
+        for (Object[] row : tombstoneRepository.findMaxVersionByUserDeletedBefore(cutoff)) {
+            userRepository.raiseSyncFloor((Long) row[0], ((Number) row[1]).longValue());
+        }
+        int removed = tombstoneRepository.deleteByDeletedAtBefore(cutoff);
+        if (removed > 0) {
+            logger.info("Compacted {} expense tombstones older than {}", removed, cutoff);
+        }
+        return removed;
+    }
+
+    private long reserve(User user, int count) {
+        userRepository.incrementSyncVersion(user.getId(), count);
+        return userRepository.findSyncVersion(user.getId()) - count + 1;
+    }
+
+    /** Numbers expenses written before versioning existed, once per user. */
+    private void backfill(User user) {
+        List<Long> ids;
+        while (!(ids = expenseRepository.findUnversionedIds(user, PageRequest.of(0, BACKFILL_BATCH))).isEmpty()) {
+            long version = reserve(user, ids.size());
+            for (Long id : ids) {
+                expenseRepository.setChangeVersion(id, version++);
+            }
+        }
+    }
+}
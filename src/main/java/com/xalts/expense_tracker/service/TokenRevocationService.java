@@ -0,0 +1,134 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.RevokedToken;
+import com.xalts.expense_tracker.repository.RevokedTokenRepository;
+import com.xalts.expense_tracker.util.JwtUtil;
+import com.xalts.expense_tracker.util.TokenDenylist;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked tokens, checked on every authenticated request without touching
+ * the database. Single tokens (logout) go into a {@link TokenDenylist};
+ * "every token of this user" revocations (password change, deactivation)
+ * are kept as a per-user issued-before cutoff. Both are persisted, and every
+ * instance polls the table so a revocation made on one instance reaches
+ * the others within the refresh interval.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final int LOAD_BATCH = 10_000;
+    private static final Duration TOKEN_LIFETIME = Duration.ofMillis(JwtUtil.EXPIRATION_TIME);
+    // Re-read a little history on each poll so rows committed late by another instance are not missed.
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Clock clock;
+    private final TokenDenylist denylist = new TokenDenylist(Duration.ofHours(1));
+    private final Map<String, Instant> revokedBefore = new ConcurrentHashMap<>();
+    private Instant polledAt;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this(revokedTokenRepository, Clock.systemUTC());
+    }
+
+    TokenRevocationService(RevokedTokenRepository revokedTokenRepository, Clock clock) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void load() {
+        refresh();
+        logger.info("Loaded {} revoked tokens and {} user-wide revocations", denylist.size(), revokedBefore.size());
+    }
+
+    public boolean isRevoked(Claims claims) {
+        Instant cutoff = revokedBefore.get(claims.getSubject());
+        if (cutoff != null && claims.getIssuedAt() != null && claims.getIssuedAt().toInstant().isBefore(cutoff)) {
+            return true;
+        }
+        return claims.getId() != null
+                && denylist.contains(UUID.fromString(claims.getId()), claims.getExpiration().getTime());
+    }
+
+    @Transactional
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            throw new RuntimeException("Token has no id and cannot be revoked");
+        }
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(claims.getId());
+        revokedToken.setSubject(claims.getSubject());
+        revokedToken.setRevokedAt(clock.instant());
+        revokedToken.setExpiresAt(claims.getExpiration().toInstant());
+        apply(revokedTokenRepository.save(revokedToken));
+    }
+
+    /** Revokes every token issued to {@code subject} so far. */
+    @Transactional
+    public void revokeAll(String subject) {
+        Instant now = clock.instant();
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setSubject(subject);
+        revokedToken.setRevokedAt(now);
+        revokedToken.setExpiresAt(now.plus(TOKEN_LIFETIME));
+        apply(revokedTokenRepository.save(revokedToken));
+    }
+
+    /** Picks up revocations made by other instances and forgets entries whose tokens have expired. */
+    @Scheduled(fixedDelayString = "${expense-tracker.auth.revocation-refresh-interval:5000}")
+    public synchronized void refresh() {
+        Instant now = clock.instant();
+        Instant since = polledAt != null ? polledAt.minus(POLL_OVERLAP) : now.minus(TOKEN_LIFETIME);
+        long afterId = 0;
+        List<RevokedToken> batch;
+        while (!(batch = revokedTokenRepository.findByRevokedAtGreaterThanEqualAndIdGreaterThanOrderById(
+                since, afterId, PageRequest.of(0, LOAD_BATCH))).isEmpty()) {
+            batch.forEach(this::apply);
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        polledAt = now;
+        denylist.expire(now.toEpochMilli());
+        revokedBefore.values().removeIf(cutoff -> cutoff.plus(TOKEN_LIFETIME).isBefore(now));
+    }
+
+    @Scheduled(fixedDelayString = "${expense-tracker.auth.revocation-purge-interval:3600000}")
+    @Transactional
+    public int purgeExpired() {
+        int removed = revokedTokenRepository.deleteByExpiresAtBefore(clock.instant());
+        if (removed > 0) {
+            logger.info("Purged {} expired token revocations", removed);
+        }
+        return removed;
+    }
+
+    private void apply(RevokedToken revokedToken) {
+        if (revokedToken.getTokenId() != null) {
+            denylist.add(UUID.fromString(revokedToken.getTokenId()), revokedToken.getExpiresAt().toEpochMilli());
+            return;
+        }
+        // Issued-at claims have whole-second precision, so tokens issued in the revoking second are revoked too.
+        Instant cutoff = revokedToken.getRevokedAt().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        revokedBefore.merge(revokedToken.getSubject(), cutoff, (a, b) -> a.isAfter(b) ? a : b);
+    }
+}
@@ -1,16 +1,28 @@
 package com.xalts.expense_tracker.service;
 
+import com.xalts.expense_tracker.dto.ChangePasswordRequest;
+import com.xalts.expense_tracker.dto.DeactivatedUserDTO;
 import com.xalts.expense_tracker.dto.LoginRequest;
 import com.xalts.expense_tracker.dto.RegisterRequest;
+import com.xalts.expense_tracker.dto.UserDepartmentDTO;
 import com.xalts.expense_tracker.entity.User;
 import com.xalts.expense_tracker.repository.UserRepository;
+import com.xalts.expense_tracker.util.AuthenticatedUser;
 import com.xalts.expense_tracker.util.JwtUtil;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class UserService implements UserDetailsService {
@@ -18,11 +30,15 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final Set<Long> warmupUserIds = ConcurrentHashMap.newKeySet();
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                       TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     public User registerUser(RegisterRequest request) {
@@ -39,9 +55,57 @@ public class UserService implements UserDetailsService {
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid password");
         }
+        if (!user.isActive()) {
+            throw new RuntimeException("Account is deactivated");
+        }
         return jwtUtil.generateToken(user);
     }
 
+    public void logoutUser(String token) {
+        tokenRevocationService.revoke(jwtUtil.extractAllClaims(token));
+    }
+
+    /** Changes the current user's password and revokes every token issued before the change. */
+    @Transactional
+    public void changePassword(ChangePasswordRequest request) {
+        User user = getCurrentUser();
+        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+            throw new RuntimeException("Invalid password");
+        }
+        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        userRepository.save(user);
+        tokenRevocationService.revokeAll(user.getEmail());
+    }
+
+    @Transactional
+    public DeactivatedUserDTO deactivateUser(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setActive(false);
+        user.setDeactivatedAt(Instant.now());
+        User saved = userRepository.save(user);
+        tokenRevocationService.revokeAll(user.getEmail());
+        DeactivatedUserDTO deactivated = new DeactivatedUserDTO();
+        deactivated.setId(saved.getId());
+        deactivated.setEmail(saved.getEmail());
+        deactivated.setActive(saved.isActive());
+        deactivated.setDeactivatedAt(saved.getDeactivatedAt());
+        return deactivated;
+    }
+
+    public UserDepartmentDTO setDepartment(Long id, String department) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setDepartment(department != null && !department.isBlank() ? department.trim() : null);
+        User saved = userRepository.save(user);
+        UserDepartmentDTO updated = new UserDepartmentDTO();
+        updated.setId(saved.getId());
+        updated.setName(saved.getName());
+        updated.setEmail(saved.getEmail());
+        updated.setDepartment(saved.getDepartment());
+        return updated;
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByEmail(username)
@@ -49,8 +113,38 @@ public class UserService implements UserDetailsService {
     }
 
     public User getCurrentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(username)
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // Token principals carry the id, so a reference stands in for the entity and
+        // is only loaded if something reads more than its id.
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return userRepository.getReferenceById(principal.id());
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        return userRepository.findByEmail(authentication.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
-}
\ No newline at end of file
+
+    public User getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found: " + email));
+    }
+
+    public List<User> getUsers(Collection<Long> ids) {
+        return userRepository.findAllById(ids);
+    }
+
+    /** Marks the startup warm-up's throwaway account, whose synthetic writes are not recorded as changes. */
+    public void markWarmupUser(Long id) {
+        warmupUserIds.add(id);
+    }
+
+    public void unmarkWarmupUser(Long id) {
+        warmupUserIds.remove(id);
+    }
+
+    public boolean isWarmupUser(Long id) {
+        return warmupUserIds.contains(id);
+    }
+}
@@ -0,0 +1,116 @@
+package com.xalts.expense_tracker.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient-style concurrency limit. Each window of completed requests
+ * compares the window's mean latency with a slowly moving baseline; when
+ * latency grows past {@code tolerance} times the baseline, or the caller
+ * reports downstream saturation, the limit shrinks, otherwise it grows by
+ * roughly {@code sqrt(limit)}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BASELINE_WEIGHT = 0.05;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double SATURATED_GRADIENT = 0.8;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int windowSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    private double baselineNanos;
+    private long windowSumNanos;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private boolean windowSaturated;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, int windowSize) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.windowSize = windowSize;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Admits the caller if fewer than {@code share * limit} requests are in
+     * flight. Lower-priority traffic passes a smaller share, so it is shed
+     * first as the limit tightens.
+     */
+    public boolean tryAcquire(double share) {
+        double threshold = limit * share;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= threshold) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long latencyNanos, boolean saturated) {
+        int current = inFlight.getAndDecrement();
+        record(latencyNanos, current, saturated);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void record(long latencyNanos, int inFlightAtCompletion, boolean saturated) {
+        windowSumNanos += latencyNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtCompletion);
+        windowSaturated |= saturated;
+        if (windowCount < windowSize) {
+            return;
+        }
+
+        double sampleNanos = (double) windowSumNanos / windowCount;
+        if (baselineNanos == 0) {
+            baselineNanos = sampleNanos;
+        } else {
+            baselineNanos = baselineNanos * (1 - BASELINE_WEIGHT) + sampleNanos * BASELINE_WEIGHT;
+            if (baselineNanos > sampleNanos * 2) {
+                // Let the baseline follow a sustained drop in latency.
+                baselineNanos = sampleNanos * 2;
+            }
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineNanos / sampleNanos));
+        double current = limit;
+        double target;
+        if (windowSaturated) {
+            target = current * Math.min(gradient, SATURATED_GRADIENT);
+        } else {
+            target = current * gradient + Math.sqrt(current);
+            if (windowMaxInFlight < current / 2) {
+                // Traffic never came close to the limit, so it has not been tested; don't raise it.
+                target = Math.min(target, current);
+            }
+        }
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+
+        windowSumNanos = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+        windowSaturated = false;
+    }
+}
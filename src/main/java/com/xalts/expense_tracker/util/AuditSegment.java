@@ -0,0 +1,291 @@
+package com.xalts.expense_tracker.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * One fixed-size, memory-mapped file of an append-only log. A record is
+ * {@code [length][crc][timestamp][userId][body]}, padded to 8 bytes.
+ * Writers reserve space with a single atomic add and fill their own range,
+ * so concurrent appends never wait for each other. A writer first marks its
+ * slot as pending by storing the negated slot size where the length goes,
+ * and replaces that with the length last, with release semantics, so a
+ * reader that sees the length sees the whole record. If the process dies
+ * mid-append, recovery steps over the pending slot, or over a slot still
+ * all zeros if it died before marking it, and keeps the complete records
+ * that other writers finished after it. Alongside the file the segment keeps its time range and the offsets of
+ * each user's records, written to an {@code .idx} file when it is sealed
+ * and rebuilt by scanning otherwise.
+ */
+public final class AuditSegment {
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final int HEADER = 24;
+    private static final int INDEX_MAGIC = 0x41554458;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final AtomicLong position;
+    private final AtomicLong minTimestamp = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxTimestamp = new AtomicLong(Long.MIN_VALUE);
+    private final Map<Long, Postings> postings = new ConcurrentHashMap<>();
+    private final AtomicInteger writers = new AtomicInteger();
+    private volatile boolean sealed;
+
+    private AuditSegment(Path file, MappedByteBuffer buffer, int capacity, long position) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.position = new AtomicLong(position);
+    }
+
+    public static AuditSegment create(Path file, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new AuditSegment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity, 0);
+        }
+    }
+
+    /**
+     * Opens an existing segment. A sealed one loads its index file; an
+     * unsealed one is scanned for complete records, stepping over slots
+     * left unfinished by a crash, up to the first damaged record. Anything
+     * after a damaged record is cleared so later appends start clean.
+     */
+    public static AuditSegment open(Path file) throws IOException {
+        Path indexFile = indexFileOf(file);
+        boolean sealed = Files.exists(indexFile);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int capacity = (int) channel.size();
+            FileChannel.MapMode mode = sealed ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+            AuditSegment segment = new AuditSegment(file, channel.map(mode, 0, capacity), capacity, 0);
+            if (!sealed || !segment.loadIndex(indexFile)) {
+                segment.recover();
+            }
+            segment.sealed = sealed;
+            return segment;
+        }
+    }
+
+    /**
+     * Appends a record and returns its offset, or -1 if the segment has no
+     * room left for it; the caller then moves on to a new segment.
+     */
+    public int append(long timestamp, long userId, byte[] body) {
+        int length = HEADER + body.length;
+        int reserved = (length + 7) & ~7;
+        writers.incrementAndGet();
+        try {
+            if (sealed) {
+                return -1;
+            }
+            long start = position.getAndAdd(reserved);
+            if (start + reserved > capacity) {
+                return -1;
+            }
+            int offset = (int) start;
+            INT.setRelease(buffer, offset, -reserved);
+            // The marker must reach memory before any of the record, or a dead writer's slot could look unclaimed.
+            VarHandle.storeStoreFence();
+            buffer.putLong(offset + 8, timestamp);
+            buffer.putLong(offset + 16, userId);
+            buffer.put(offset + HEADER, body);
+            buffer.putInt(offset + 4, checksum(offset, length));
+            INT.setRelease(buffer, offset, length);
+            minTimestamp.accumulateAndGet(timestamp, Math::min);
+            maxTimestamp.accumulateAndGet(timestamp, Math::max);
+            postings.computeIfAbsent(userId, id -> new Postings()).add(offset);
+            return offset;
+        } finally {
+            writers.decrementAndGet();
+        }
+    }
+
+    /** Whether the segment may hold records of {@code userId} within the range, inclusive. */
+    public boolean mayContain(long userId, long fromTimestamp, long toTimestamp) {
+        return postings.containsKey(userId)
+                && minTimestamp.get() <= toTimestamp && maxTimestamp.get() >= fromTimestamp;
+    }
+
+    /** The records of {@code userId} within the range, inclusive, in append order. */
+    public List<Entry> read(long userId, long fromTimestamp, long toTimestamp) {
+        Postings userPostings = postings.get(userId);
+        List<Entry> entries = new ArrayList<>();
+        if (userPostings == null) {
+            return entries;
+        }
+        for (int offset : userPostings.toArray()) {
+            long timestamp = buffer.getLong(offset + 8);
+            if (timestamp >= fromTimestamp && timestamp <= toTimestamp) {
+                int length = (int) INT.getAcquire(buffer, offset);
+                byte[] body = new byte[length - HEADER];
+                buffer.get(offset + HEADER, body);
+                entries.add(new Entry(timestamp, userId, body));
+            }
+        }
+        return entries;
+    }
+
+    /** Flushes appended records to the storage device. */
+    public void force() {
+        if (!sealed) {
+            buffer.force();
+        }
+    }
+
+    /** Stops appends, flushes the file and writes its index next to it. */
+    public void seal() throws IOException {
+        if (sealed) {
+            return;
+        }
+        sealed = true;
+        // Appends that got past the check before it flipped are finishing their records.
+        while (writers.get() != 0) {
+            Thread.onSpinWait();
+        }
+        buffer.force();
+        Path indexFile = indexFileOf(file);
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+            data.writeInt(INDEX_MAGIC);
+            data.writeLong(minTimestamp.get());
+            data.writeLong(maxTimestamp.get());
+            data.writeInt(postings.size());
+            for (Map.Entry<Long, Postings> user : postings.entrySet()) {
+                int[] offsets = user.getValue().toArray();
+                data.writeLong(user.getKey());
+                data.writeInt(offsets.length);
+                for (int offset : offsets) {
+                    data.writeInt(offset);
+                }
+            }
+        }
+        Files.move(temp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public static Path indexFileOf(Path segmentFile) {
+        return segmentFile.resolveSibling(segmentFile.getFileName() + ".idx");
+    }
+
+    private boolean loadIndex(Path indexFile) throws IOException {
+        try (InputStream in = Files.newInputStream(indexFile);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            if (data.readInt() != INDEX_MAGIC) {
+                return false;
+            }
+            minTimestamp.set(data.readLong());
+            maxTimestamp.set(data.readLong());
+            int users = data.readInt();
+            for (int i = 0; i < users; i++) {
+                long userId = data.readLong();
+                int count = data.readInt();
+                Postings userPostings = new Postings();
+                for (int j = 0; j < count; j++) {
+                    userPostings.add(data.readInt());
+                }
+                postings.put(userId, userPostings);
+            }
+            position.set(capacity);
+            return true;
+        } catch (IOException e) {
+            postings.clear();
+            return false;
+        }
+    }
+
+    private void recover() {
+        int offset = 0;
+        int end = 0;
+        boolean damaged = false;
+        while (offset + 4 <= capacity) {
+            int word = buffer.getInt(offset);
+            if (word == 0) {
+                // Never written, or reserved by a writer that died before marking it; records may still follow.
+                offset += 8;
+                continue;
+            }
+            // A negative word is a pending slot's size, a positive one a finished record's length.
+            int size = word > 0 ? (word + 7) & ~7 : word != Integer.MIN_VALUE && (-word & 7) == 0 ? -word : 0;
+            if (size < HEADER || offset + size > capacity
+                    || (word > 0 && buffer.getInt(offset + 4) != checksum(offset, word))) {
+                damaged = true;
+                break;
+            }
+            if (word > 0) {
+                long timestamp = buffer.getLong(offset + 8);
+                minTimestamp.accumulateAndGet(timestamp, Math::min);
+                maxTimestamp.accumulateAndGet(timestamp, Math::max);
+                postings.computeIfAbsent(buffer.getLong(offset + 16), id -> new Postings()).add(offset);
+            }
+            offset += size;
+            end = offset;
+        }
+        position.set(damaged ? offset : end);
+        if (damaged && !buffer.isReadOnly()) {
+            // Without a trustworthy length nothing after this can be told apart from the damage.
+            for (int i = offset; i < capacity; i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private int checksum(int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    public record Entry(long timestamp, long userId, byte[] body) {
+    }
+
+    private static final class Postings {
+        private int[] offsets = new int[8];
+        private int size;
+
+        synchronized void add(int offset) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = offset;
+        }
+
+        synchronized int[] toArray() {
+            int[] copy = Arrays.copyOf(offsets, size);
+            // Concurrent writers may index their records slightly out of order.
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
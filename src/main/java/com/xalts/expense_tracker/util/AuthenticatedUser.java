@@ -0,0 +1,16 @@
+package com.xalts.expense_tracker.util;
+
+import java.security.Principal;
+
+/**
+ * Principal built from token claims alone. It carries what request handling
+ * needs to scope data to the caller, so authenticating a request does not
+ * load the user row; code that needs the entity asks {@code UserService}.
+ */
+public record AuthenticatedUser(Long id, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
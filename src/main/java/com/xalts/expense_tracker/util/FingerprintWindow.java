@@ -0,0 +1,107 @@
+package com.xalts.expense_tracker.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One user's most recently written expenses, as fingerprints in a ring of
+ * fixed capacity. The oldest entry is overwritten once the ring is full.
+ * Exact matches are a hash lookup; near matches scan the ring, which at a
+ * few hundred entries of primitive arrays takes well under a microsecond.
+ * Not thread-safe.
+ */
+public final class FingerprintWindow {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] expenseIds;
+    private final long[] fingerprints;
+    private final long[] amountKeys;
+    private final int[] epochDays;
+    private final Map<Long, Long> expenseByFingerprint = new HashMap<>();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private int next;
+
+    public FingerprintWindow(int capacity) {
+        expenseIds = new long[capacity];
+        fingerprints = new long[capacity];
+        amountKeys = new long[capacity];
+        epochDays = new int[capacity];
+        Arrays.fill(expenseIds, EMPTY);
+    }
+
+    /** Adds an expense, or moves it to the newest position with its new values if already present. */
+    public void put(long expenseId, long fingerprint, long amountKey, int epochDay) {
+        remove(expenseId);
+        int slot = next;
+        next = (next + 1) % expenseIds.length;
+        if (expenseIds[slot] != EMPTY) {
+            clear(slot);
+        }
+        expenseIds[slot] = expenseId;
+        fingerprints[slot] = fingerprint;
+        amountKeys[slot] = amountKey;
+        epochDays[slot] = epochDay;
+        slots.put(expenseId, slot);
+        expenseByFingerprint.put(fingerprint, expenseId);
+    }
+
+    public void remove(long expenseId) {
+        Integer slot = slots.get(expenseId);
+        if (slot != null) {
+            clear(slot);
+        }
+    }
+
+    /** Id of an expense in the window with this fingerprint other than {@code excludedId}, or -1. */
+    public long exactMatch(long fingerprint, long excludedId) {
+        Long expenseId = expenseByFingerprint.get(fingerprint);
+        if (expenseId != null && expenseId != excludedId) {
+            return expenseId;
+        }
+        return -1;
+    }
+
+    /**
+     * Ids of expenses in the window other than {@code excludedId} with the same
+     * amount key, dated at most {@code days} away from {@code epochDay}, most
+     * recently written first.
+     */
+    public long[] nearMatches(long amountKey, int epochDay, int days, long excludedId) {
+        long[] matches = new long[4];
+        int count = 0;
+        for (int i = 1; i <= expenseIds.length; i++) {
+            int slot = Math.floorMod(next - i, expenseIds.length);
+            long expenseId = expenseIds[slot];
+            if (expenseId != EMPTY && expenseId != excludedId && amountKeys[slot] == amountKey
+                    && Math.abs(epochDays[slot] - epochDay) <= days) {
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = expenseId;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private void clear(int slot) {
+        long expenseId = expenseIds[slot];
+        long fingerprint = fingerprints[slot];
+        slots.remove(expenseId);
+        expenseIds[slot] = EMPTY;
+        // A duplicate saved on purpose may share the fingerprint; it then takes over the mapping.
+        if (expenseByFingerprint.remove(fingerprint, expenseId)) {
+            for (int i = 0; i < expenseIds.length; i++) {
+                if (expenseIds[i] != EMPTY && fingerprints[i] == fingerprint) {
+                    expenseByFingerprint.put(fingerprint, expenseIds[i]);
+                    break;
+                }
+            }
+        }
+    }
+}
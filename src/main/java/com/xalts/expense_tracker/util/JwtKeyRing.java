@@ -0,0 +1,183 @@
+package com.xalts.expense_tracker.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * HMAC keys for signing and verifying tokens, identified by key id. Keys are
+ * read from a properties file shared by every instance:
+ *
+ * <pre>
+ * active=2026-10
+ * keys.2026-09=&lt;base64, at least 64 bytes&gt;
+ * keys.2026-10=&lt;base64, at least 64 bytes&gt;
+ * retired.2026-08=&lt;base64&gt;
+ * retired.2026-08.until=2026-09-02T00:00:00Z
+ * </pre>
+ *
+ * New tokens are signed with the active key and name it in their
+ * {@code kid} header; every listed key verifies. The file is re-read when it
+ * changes, so rotating is a matter of adding a key and pointing
+ * {@code active} at it. To retire a key without cutting short the tokens it
+ * signed, move it to {@code retired.<id>} with an {@code until} at least one
+ * token lifetime away; it verifies until then. Retirement is kept in the
+ * file rather than in memory so every instance, including one started
+ * after the rotation, enforces the same window. A key dropped from the file
+ * altogether stops verifying at once. Without a file the ring holds a single
+ * random key, and tokens do not survive a restart.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final String GENERATED_KEY_ID = "generated";
+    private static final int MIN_KEY_BYTES = 64;
+
+    private final Path file;
+    private final Clock clock;
+    private volatile Ring ring;
+    private FileTime loadedModifiedTime;
+
+    @Autowired
+    public JwtKeyRing(@Value("${expense-tracker.auth.key-ring-file:}") String file) {
+        this(file.isBlank() ? null : Path.of(file), Clock.systemUTC());
+    }
+
+    JwtKeyRing(Path file, Clock clock) {
+        this.file = file;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void load() {
+        if (file == null) {
+            logger.warn("No JWT key ring configured; signing with a random key, so tokens will not survive a restart "
+                    + "or verify on other instances");
+            SecretKey key = Jwts.SIG.HS512.key().build();
+            ring = new Ring(new SigningKey(GENERATED_KEY_ID, key), Map.of(GENERATED_KEY_ID, key), Map.of());
+            return;
+        }
+        // A broken key file at startup is a deployment error; refuse to start rather than issue unverifiable tokens.
+        reload();
+        logger.info("Loaded JWT key ring with {} keys, active key {}", ring.keys().size(), ring.active().id());
+    }
+
+    /** Re-reads the key file if it changed since the last load. */
+    @Scheduled(fixedDelayString = "${expense-tracker.auth.key-ring-refresh-interval:30000}")
+    public synchronized void refresh() {
+        if (file == null) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(file).equals(loadedModifiedTime)) {
+                String previous = ring.active().id();
+                reload();
+                if (!previous.equals(ring.active().id())) {
+                    logger.info("Rotated JWT signing key from {} to {}", previous, ring.active().id());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Keep signing with the keys we have; a half-written or broken file must not lock everyone out.
+            logger.error("Could not reload JWT key ring from {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** The key new tokens are signed with, together with its id. */
+    public SigningKey getSigningKey() {
+        return ring.active();
+    }
+
+    /** The key for {@code keyId}, or {@code null} if it is unknown or its retirement has ended. */
+    public SecretKey getKey(String keyId) {
+        Ring current = ring;
+        SecretKey key = current.keys().get(keyId);
+        if (key != null) {
+            return key;
+        }
+        Retired retired = current.retired().get(keyId);
+        return retired != null && clock.instant().isBefore(retired.until()) ? retired.key() : null;
+    }
+
+    private synchronized void reload() {
+        FileTime modifiedTime;
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            modifiedTime = Files.getLastModifiedTime(file);
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read JWT key ring " + file, e);
+        }
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        Map<String, Retired> retired = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith("keys.")) {
+                keys.put(name.substring("keys.".length()), decode(name, properties.getProperty(name)));
+            } else if (name.startsWith("retired.") && !name.endsWith(".until")) {
+                retired.put(name.substring("retired.".length()), new Retired(decode(name, properties.getProperty(name)),
+                        until(name, properties.getProperty(name + ".until"))));
+            }
+        }
+        String activeKeyId = properties.getProperty("active");
+        if (activeKeyId == null || !keys.containsKey(activeKeyId)) {
+            throw new RuntimeException("JWT key ring " + file + " has no key for active id " + activeKeyId);
+        }
+        ring = new Ring(new SigningKey(activeKeyId, keys.get(activeKeyId)), Map.copyOf(keys), Map.copyOf(retired));
+        loadedModifiedTime = modifiedTime;
+    }
+
+    private static SecretKey decode(String name, String value) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Key " + name + " is not valid base64");
+        }
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new RuntimeException("Key " + name + " is " + bytes.length + " bytes; HS512 needs at least "
+                    + MIN_KEY_BYTES);
+        }
+        return Keys.hmacShaKeyFor(bytes);
+    }
+
+    private static Instant until(String name, String value) {
+        if (value == null) {
+            throw new RuntimeException("Key " + name + " has no " + name + ".until");
+        }
+        try {
+            return Instant.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new RuntimeException(name + ".until is not an ISO-8601 instant: " + value);
+        }
+    }
+
+    public record SigningKey(String id, SecretKey key) {
+    }
+
+    private record Ring(SigningKey active, Map<String, SecretKey> keys, Map<String, Retired> retired) {
+    }
+
+    private record Retired(SecretKey key, Instant until) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.xalts.expense_tracker.util;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Quantile sketch over positive amounts with logarithmic buckets (the
+ * DDSketch layout). Bucket {@code i} holds values in
+ * {@code (gamma^(i-1), gamma^i]}, so any quantile is answered within
+ * {@link #RELATIVE_ACCURACY} of the true value. A sketch is nothing but
+ * bucket counts: merging adds counts, removing a value decrements its
+ * bucket, and since values are clamped to {@code [MIN_VALUE, MAX_VALUE]}
+ * a sketch never holds more than about 1,300 buckets however much data
+ * goes into it.
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+    public static final double MIN_VALUE = 0.01;
+    public static final double MAX_VALUE = 1e9;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private final NavigableMap<Integer, Long> counts = new TreeMap<>();
+    private long count;
+
+    public static int bucketOf(double value) {
+        double clamped = Math.min(Math.max(value, MIN_VALUE), MAX_VALUE);
+        return (int) Math.ceil(Math.log(clamped) / LOG_GAMMA);
+    }
+
+    /** The value reported for bucket {@code index}; it is within the relative accuracy of every value in the bucket. */
+    public static double valueOf(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    public void add(double value) {
+        add(bucketOf(value), 1);
+    }
+
+    /** Adds {@code delta} to a bucket; a negative delta removes values, and buckets never drop below zero. */
+    public void add(int index, long delta) {
+        long current = counts.getOrDefault(index, 0L);
+        long updated = Math.max(0, current + delta);
+        if (updated == 0) {
+            counts.remove(index);
+        } else {
+            counts.put(index, updated);
+        }
+        count += updated - current;
+    }
+
+    public void merge(QuantileSketch other) {
+        other.counts.forEach(this::add);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getBucketCount() {
+        return counts.size();
+    }
+
+    /** @param q quantile in {@code [0, 1]} */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            throw new IllegalStateException("Sketch is empty");
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : counts.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) {
+                return valueOf(bucket.getKey());
+            }
+        }
+        return valueOf(counts.lastKey());
+    }
+}
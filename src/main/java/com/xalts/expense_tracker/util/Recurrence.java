@@ -0,0 +1,91 @@
+package com.xalts.expense_tracker.util;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Occurrence arithmetic for a recurrence of {@code interval} units anchored
+ * at {@code start}. Occurrence {@code k} is always computed from the anchor,
+ * so month-end anchors clamp per month without drifting (Jan 31, Feb 28,
+ * Mar 31, ...), and counts over a range take constant time however many
+ * occurrences fall inside it.
+ */
+public final class Recurrence {
+
+    public enum Frequency {
+        DAILY(ChronoUnit.DAYS),
+        WEEKLY(ChronoUnit.WEEKS),
+        MONTHLY(ChronoUnit.MONTHS),
+        YEARLY(ChronoUnit.YEARS);
+
+        private final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    private final LocalDate start;
+    private final LocalDate end;
+    private final Frequency frequency;
+    private final int interval;
+
+    public Recurrence(LocalDate start, LocalDate end, Frequency frequency, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be at least 1");
+        }
+        this.start = start;
+        this.end = end;
+        this.frequency = frequency;
+        this.interval = interval;
+    }
+
+    public LocalDate occurrence(long index) {
+        return start.plus(index * interval, frequency.unit);
+    }
+
+    /** Index of the first occurrence on or after {@code date}, ignoring the end date. */
+    public long firstIndexOnOrAfter(LocalDate date) {
+        if (!date.isAfter(start)) {
+            return 0;
+        }
+        long index = frequency.unit.between(start, date) / interval;
+        while (index > 0 && !occurrence(index - 1).isBefore(date)) {
+            index--;
+        }
+        while (occurrence(index).isBefore(date)) {
+            index++;
+        }
+        return index;
+    }
+
+    /** Index of the last occurrence on or before {@code date}, or -1 if there is none. */
+    public long lastIndexOnOrBefore(LocalDate date) {
+        return firstIndexOnOrAfter(date.plusDays(1)) - 1;
+    }
+
+    /** Number of occurrences within {@code [from, to]}, honouring the start and end dates. */
+    public long count(LocalDate from, LocalDate to) {
+        LocalDate lo = from.isAfter(start) ? from : start;
+        LocalDate hi = end != null && end.isBefore(to) ? end : to;
+        if (lo.isAfter(hi)) {
+            return 0;
+        }
+        return Math.max(0, lastIndexOnOrBefore(hi) - firstIndexOnOrAfter(lo) + 1);
+    }
+
+    public boolean isOccurrence(LocalDate date) {
+        if (date.isBefore(start) || (end != null && date.isAfter(end))) {
+            return false;
+        }
+        return occurrence(firstIndexOnOrAfter(date)).equals(date);
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,83 @@
+package com.xalts.expense_tracker.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Computes transfers that clear a set of net balances. Finding the true
+ * minimum number of transfers is NP-hard (it needs the largest partition
+ * into zero-sum subsets), so this pairs debtors and creditors whose amounts
+ * cancel exactly and then settles the rest greedily, largest debtor against
+ * largest creditor. The result never has more than {@code n - 1} transfers
+ * and takes {@code O(n log n)} time.
+ */
+public final class SettleUp {
+
+    public record Transfer(Long from, Long to, long amountCents) {
+    }
+
+    private SettleUp() {
+    }
+
+    /**
+     * @param balancesCents net balance per member; positive means the member
+     *                      is owed money. The balances must sum to zero.
+     */
+    public static List<Transfer> transfers(Map<Long, Long> balancesCents) {
+        long sum = 0;
+        for (long balance : balancesCents.values()) {
+            sum += balance;
+        }
+        if (sum != 0) {
+            throw new IllegalArgumentException("Balances must sum to zero");
+        }
+
+        List<Transfer> transfers = new ArrayList<>();
+        Map<Long, Deque<Long>> debtorsByAmount = new HashMap<>();
+        balancesCents.entrySet().stream()
+                .filter(entry -> entry.getValue() < 0)
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> debtorsByAmount.computeIfAbsent(-entry.getValue(), amount -> new ArrayDeque<>())
+                        .add(entry.getKey()));
+
+        Comparator<long[]> largestFirst = Comparator.<long[]>comparingLong(entry -> -entry[1])
+                .thenComparingLong(entry -> entry[0]);
+        PriorityQueue<long[]> creditors = new PriorityQueue<>(largestFirst);
+        balancesCents.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Deque<Long> match = debtorsByAmount.get(entry.getValue());
+                    if (match != null && !match.isEmpty()) {
+                        transfers.add(new Transfer(match.poll(), entry.getKey(), entry.getValue()));
+                    } else {
+                        creditors.add(new long[]{entry.getKey(), entry.getValue()});
+                    }
+                });
+
+        PriorityQueue<long[]> debtors = new PriorityQueue<>(largestFirst);
+        debtorsByAmount.forEach((amount, members) -> members.forEach(member -> debtors.add(new long[]{member, amount})));
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            long[] creditor = creditors.poll();
+            long[] debtor = debtors.poll();
+            long amount = Math.min(creditor[1], debtor[1]);
+            transfers.add(new Transfer(debtor[0], creditor[0], amount));
+            creditor[1] -= amount;
+            debtor[1] -= amount;
+            if (creditor[1] > 0) {
+                creditors.add(creditor);
+            }
+            if (debtor[1] > 0) {
+                debtors.add(debtor);
+            }
+        }
+        return transfers;
+    }
+}
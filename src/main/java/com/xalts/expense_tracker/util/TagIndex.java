@@ -0,0 +1,185 @@
+package com.xalts.expense_tracker.util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * One user's expenses by tag. Each expense gets a dense ordinal in the
+ * order it was added, and each tag maps to a {@link CompressedBitmap} of
+ * the ordinals carrying it; amounts, currencies and dates sit in arrays by
+ * ordinal. A
+ * tag filter is then a handful of bitmap operations, and a total over the
+ * matches reads the arrays without touching the database. Amounts are kept
+ * in their own currency and converted by the caller while totalling. Ordinals of
+ * removed expenses are not reused; rebuilding the index compacts them. Not
+ * thread-safe.
+ */
+public final class TagIndex {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Map<String, CompressedBitmap> tags = new HashMap<>();
+    private final CompressedBitmap live = new CompressedBitmap();
+    private long[] expenseIds = new long[INITIAL_CAPACITY];
+    private double[] amounts = new double[INITIAL_CAPACITY];
+    private String[] currencies = new String[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int next;
+
+    /** Adds or updates an expense. With {@code expenseTags} null an existing expense keeps its tags. */
+    public void put(long expenseId, double amount, String currency, LocalDate date, Collection<String> expenseTags) {
+        Integer existing = ordinals.get(expenseId);
+        int ordinal = existing != null ? existing : append(expenseId);
+        amounts[ordinal] = amount;
+        currencies[ordinal] = currency != null ? currency.intern() : null;
+        epochDays[ordinal] = (int) date.toEpochDay();
+        if (expenseTags == null) {
+            return;
+        }
+        if (existing != null) {
+            untag(ordinal);
+        }
+        for (String tag : expenseTags) {
+            tags.computeIfAbsent(tag, t -> new CompressedBitmap()).add(ordinal);
+        }
+    }
+
+    /** Adds one tag to an expense already in the index; ignored for unknown expenses. */
+    public void addTag(long expenseId, String tag) {
+        Integer ordinal = ordinals.get(expenseId);
+        if (ordinal != null) {
+            tags.computeIfAbsent(tag, t -> new CompressedBitmap()).add(ordinal);
+        }
+    }
+
+    public void remove(long expenseId) {
+        Integer ordinal = ordinals.remove(expenseId);
+        if (ordinal != null) {
+            live.remove(ordinal);
+            untag(ordinal);
+        }
+    }
+
+    /**
+     * Ordinals of expenses carrying every tag in {@code all}, at least one
+     * in {@code any} (when given) and none in {@code none}.
+     */
+    public CompressedBitmap match(Collection<String> all, Collection<String> any, Collection<String> none) {
+        CompressedBitmap matches = live;
+        for (String tag : all) {
+            matches = CompressedBitmap.and(matches, tags.getOrDefault(tag, new CompressedBitmap()));
+        }
+        if (!any.isEmpty()) {
+            CompressedBitmap union = new CompressedBitmap();
+            for (String tag : any) {
+                union = CompressedBitmap.or(union, tags.getOrDefault(tag, new CompressedBitmap()));
+            }
+            matches = CompressedBitmap.and(matches, union);
+        }
+        for (String tag : none) {
+            CompressedBitmap excluded = tags.get(tag);
+            if (excluded != null) {
+                matches = CompressedBitmap.andNot(matches, excluded);
+            }
+        }
+        return matches == live ? live.copy() : matches;
+    }
+
+    /** Sum of amounts of the matched expenses dated within the range, inclusive, each passed through {@code converter}. */
+    public double total(CompressedBitmap matches, LocalDate startDate, LocalDate endDate, Converter converter) {
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        double[] total = {0};
+        matches.forEach(ordinal -> {
+            if (epochDays[ordinal] >= start && epochDays[ordinal] <= end) {
+                total[0] += converter.convert(amounts[ordinal], currencies[ordinal], LocalDate.ofEpochDay(epochDays[ordinal]));
+            }
+        });
+        return total[0];
+    }
+
+    /** Ids of the matched expenses, most recently added first, at most {@code limit}. */
+    public long[] expenseIds(CompressedBitmap matches, int limit) {
+        int[] matched = matches.toArray();
+        long[] ids = new long[Math.min(limit, matched.length)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = expenseIds[matched[matched.length - 1 - i]];
+        }
+        return ids;
+    }
+
+    public Set<String> tagsOf(long expenseId) {
+        Integer ordinal = ordinals.get(expenseId);
+        Set<String> expenseTags = new TreeSet<>();
+        if (ordinal != null) {
+            tags.forEach((tag, bitmap) -> {
+                if (bitmap.contains(ordinal)) {
+                    expenseTags.add(tag);
+                }
+            });
+        }
+        return expenseTags;
+    }
+
+    /** Number of expenses carrying each tag. */
+    public Map<String, Integer> tagCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        tags.forEach((tag, bitmap) -> counts.put(tag, bitmap.cardinality()));
+        return counts;
+    }
+
+    public int size() {
+        return ordinals.size();
+    }
+
+    /** Bytes held by the arrays and bitmaps, excluding maps and fixed per-object overhead. */
+    public long memoryBytes() {
+        // Currency codes are interned, so only the references count.
+        long bytes = expenseIds.length * 8L + amounts.length * 8L + currencies.length * 8L + epochDays.length * 4L
+                + live.memoryBytes();
+        for (CompressedBitmap bitmap : tags.values()) {
+            bytes += bitmap.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private int append(long expenseId) {
+        if (next == expenseIds.length) {
+            int capacity = expenseIds.length * 2;
+            expenseIds = Arrays.copyOf(expenseIds, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            currencies = Arrays.copyOf(currencies, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+        }
+        int ordinal = next++;
+        expenseIds[ordinal] = expenseId;
+        ordinals.put(expenseId, ordinal);
+        live.add(ordinal);
+        return ordinal;
+    }
+
+    /** Converts one expense's amount for {@link #total}. */
+    @FunctionalInterface
+    public interface Converter {
+        double convert(double amount, String currency, LocalDate date);
+    }
+
+    private void untag(int ordinal) {
+        Iterator<CompressedBitmap> bitmaps = tags.values().iterator();
+        while (bitmaps.hasNext()) {
+            CompressedBitmap bitmap = bitmaps.next();
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.xalts.expense_tracker.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory set of revoked token ids. Entries are grouped into generations
+ * by token expiry, so a lookup only consults the generation its token could
+ * be in, and a whole generation is dropped once its tokens have expired.
+ * Each generation is an exact open-addressing table of 128-bit ids (16 bytes
+ * per slot, at most three quarters full) with a blocked Bloom filter in
+ * front. The filter is a sixteenth the size of the table and answers from a
+ * single word, so the common case of a token that was never revoked costs
+ * one cache line and never touches the table. Lookups are lock-free unless
+ * they race with a writer.
+ */
+public final class TokenDenylist {
+
+    private final long generationMillis;
+    // Copy-on-write: generations come and go about once per generation period, lookups happen on every request.
+    private volatile Map<Long, Generation> generations = Map.of();
+
+    public TokenDenylist(Duration generation) {
+        this.generationMillis = generation.toMillis();
+    }
+
+    public void add(UUID tokenId, long expiresAtMillis) {
+        long index = expiresAtMillis / generationMillis;
+        Generation generation = generations.get(index);
+        if (generation == null) {
+            generation = addGeneration(index);
+        }
+        generation.add(tokenId.getMostSignificantBits(), tokenId.getLeastSignificantBits());
+    }
+
+    public boolean contains(UUID tokenId, long expiresAtMillis) {
+        Generation generation = generations.get(expiresAtMillis / generationMillis);
+        return generation != null
+                && generation.contains(tokenId.getMostSignificantBits(), tokenId.getLeastSignificantBits());
+    }
+
+    /** Drops every generation whose tokens have all expired by {@code nowMillis}. */
+    public synchronized void expire(long nowMillis) {
+        long current = nowMillis / generationMillis;
+        Map<Long, Generation> live = new HashMap<>(generations);
+        if (live.keySet().removeIf(index -> index < current)) {
+            generations = live;
+        }
+    }
+
+    public long size() {
+        return generations.values().stream().mapToLong(Generation::size).sum();
+    }
+
+    /** Bytes held by the tables and filters, excluding fixed per-object overhead. */
+    public long memoryBytes() {
+        return generations.values().stream().mapToLong(Generation::memoryBytes).sum();
+    }
+
+    private synchronized Generation addGeneration(long index) {
+        Generation generation = generations.get(index);
+        if (generation == null) {
+            Map<Long, Generation> grown = new HashMap<>(generations);
+            generation = new Generation();
+            grown.put(index, generation);
+            generations = grown;
+        }
+        return generation;
+    }
+
+    private static final class Generation {
+
+        private static final int INITIAL_SLOTS = 64;
+        private static final int HASHES = 7;
+
+        private final StampedLock lock = new StampedLock();
+        // Interleaved (msb, lsb) pairs; an all-zero pair marks an empty slot, which a random UUID never is.
+        private long[] table = new long[INITIAL_SLOTS * 2];
+        private long[] bloom = new long[INITIAL_SLOTS / 8];
+        private int size;
+
+        void add(long msb, long lsb) {
+            long stamp = lock.writeLock();
+            try {
+                if (probe(table, msb, lsb) >= 0) {
+                    return;
+                }
+                if ((size + 1) * 4L > table.length / 2 * 3L) {
+                    resize();
+                }
+                insert(table, msb, lsb);
+                setBits(bloom, msb, lsb);
+                size++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        boolean contains(long msb, long lsb) {
+            long stamp = lock.tryOptimisticRead();
+            boolean found = lookup(msb, lsb);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    found = lookup(msb, lsb);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return found;
+        }
+
+        long size() {
+            return size;
+        }
+
+        long memoryBytes() {
+            return (table.length + bloom.length) * (long) Long.BYTES;
+        }
+
+        private boolean lookup(long msb, long lsb) {
+            // Read each array once; a racing resize may swap them, in which case validation fails and we retry.
+            long[] currentBloom = bloom;
+            long[] currentTable = table;
+            return mightContain(currentBloom, msb, lsb) && probe(currentTable, msb, lsb) >= 0;
+        }
+
+        private void resize() {
+            long[] grown = new long[table.length * 2];
+            long[] grownBloom = new long[bloom.length * 2];
+            for (int i = 0; i < table.length; i += 2) {
+                if (table[i] != 0 || table[i + 1] != 0) {
+                    insert(grown, table[i], table[i + 1]);
+                    setBits(grownBloom, table[i], table[i + 1]);
+                }
+            }
+            bloom = grownBloom;
+            table = grown;
+        }
+
+        private static int probe(long[] table, long msb, long lsb) {
+            int mask = table.length / 2 - 1;
+            for (int slot = (int) mix(msb ^ lsb) & mask; ; slot = (slot + 1) & mask) {
+                long storedMsb = table[slot * 2];
+                long storedLsb = table[slot * 2 + 1];
+                if (storedMsb == msb && storedLsb == lsb) {
+                    return slot;
+                }
+                if (storedMsb == 0 && storedLsb == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        private static void insert(long[] table, long msb, long lsb) {
+            int mask = table.length / 2 - 1;
+            int slot = (int) mix(msb ^ lsb) & mask;
+            while (table[slot * 2] != 0 || table[slot * 2 + 1] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot * 2 + 1] = lsb;
+            table[slot * 2] = msb;
+        }
+
+        private static void setBits(long[] bloom, long msb, long lsb) {
+            bloom[(int) mix(msb) & (bloom.length - 1)] |= bits(lsb);
+        }
+
+        private static boolean mightContain(long[] bloom, long msb, long lsb) {
+            long bits = bits(lsb);
+            return (bloom[(int) mix(msb) & (bloom.length - 1)] & bits) == bits;
+        }
+
+        /** The filter bits for an id, all within one word so a lookup reads a single cache line. */
+        private static long bits(long lsb) {
+            long hash = mix(lsb);
+            long bits = 0;
+            for (int i = 0; i < HASHES; i++) {
+                bits |= 1L << (hash >>> (i * 6));
+            }
+            return bits;
+        }
+
+        /** Stafford variant 13 of the SplitMix64 finalizer. */
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
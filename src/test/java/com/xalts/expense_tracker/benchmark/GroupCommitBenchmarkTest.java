@@ -0,0 +1,156 @@
+package com.xalts.expense_tracker.benchmark;
+
+import com.xalts.expense_tracker.ExpenseTrackerApplication;
+import com.xalts.expense_tracker.dto.ExpenseDTO;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.UserRepository;
+import com.xalts.expense_tracker.service.ExpenseService;
+import com.xalts.expense_tracker.util.AuthenticatedUser;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Expense creation throughput with one transaction per request against group
+ * commit, with many threads creating concurrently. Each mode boots its own
+ * application on the embedded database. An in-memory database has no commit
+ * flush to amortize, so this shows the overhead side of group commit; point
+ * {@code -Dbenchmark.datasourceUrl} at a file database that writes on every
+ * commit ({@code jdbc:h2:file:...;WRITE_DELAY=0}) or at MySQL (with
+ * {@code .datasourceUsername} and {@code .datasourcePassword}) to see the
+ * commit savings. Run with
+ * {@code mvn test -Pbenchmark}; tune with {@code -Dbenchmark.threads} and
+ * {@code -Dbenchmark.seconds}.
+ */
+@Tag("benchmark")
+class GroupCommitBenchmarkTest {
+
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 64);
+    private static final int SECONDS = Integer.getInteger("benchmark.seconds", 10);
+    private static final int WARMUP_SECONDS = 5;
+
+    @Test
+    void compareThroughput() throws Exception {
+        System.out.println("mode              threads   creates/s   p50-ms   p99-ms");
+        for (boolean groupCommit : new boolean[]{false, true}) {
+            Result result = run(groupCommit);
+            System.out.printf("%-16s  %7d  %10.0f  %7.2f  %7.2f%n", groupCommit ? "group-commit" : "per-request",
+                    THREADS, result.throughput(), result.p50Millis(), result.p99Millis());
+            assertTrue(result.throughput() > 0);
+        }
+    }
+
+    private Result run(boolean groupCommit) throws Exception {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "expense-tracker.warmup.enabled=false",
+                "expense-tracker.admission.enabled=false",
+                "expense-tracker.group-commit.enabled=" + groupCommit,
+                "spring.datasource.hikari.maximum-pool-size=" + Math.min(THREADS, 50),
+                "logging.level.root=WARN"));
+        String url = System.getProperty("benchmark.datasourceUrl");
+        if (url != null) {
+            properties.add("spring.datasource.url=" + url);
+            if (url.startsWith("jdbc:mysql:")) {
+                properties.add("spring.datasource.driverClassName=com.mysql.cj.jdbc.Driver");
+                properties.add("spring.datasource.username=" + System.getProperty("benchmark.datasourceUsername", "root"));
+                properties.add("spring.datasource.password=" + System.getProperty("benchmark.datasourcePassword", ""));
+            }
+            properties.add("spring.jpa.hibernate.ddl-auto=create");
+        } else {
+            properties.add("spring.datasource.url=jdbc:h2:mem:group-commit-" + groupCommit
+                    + ";MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                .profiles("embedded").properties(properties.toArray(String[]::new)).run()) {
+            ExpenseService expenseService = context.getBean(ExpenseService.class);
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                User user = new User();
+                user.setName("Bench " + i);
+                user.setEmail("bench-" + groupCommit + "-" + i + "-" + System.nanoTime() + "@example.com");
+                user.setPassword("unused");
+                users.add(userRepository.save(user));
+            }
+
+            drive(expenseService, users, WARMUP_SECONDS);
+            return drive(expenseService, users, SECONDS);
+        }
+    }
+
+    private Result drive(ExpenseService expenseService, List<User> users, int seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(users.size());
+        AtomicBoolean stop = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(users.size());
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[users.size()];
+        for (int t = 0; t < users.size(); t++) {
+            int thread = t;
+            User user = users.get(t);
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            pool.execute(() -> {
+                SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                        new AuthenticatedUser(user.getId(), user.getEmail()), null, user.getAuthorities()));
+                try {
+                    while (!stop.get()) {
+                        ExpenseDTO dto = new ExpenseDTO();
+                        dto.setAmount(5 + counts[thread] % 200);
+                        dto.setCategory(counts[thread] % 2 == 0 ? "Food" : "Travel");
+                        dto.setDescription("Bench");
+                        dto.setDate(LocalDate.of(2025, 1, 1).plusDays(counts[thread] % 365));
+                        long start = System.nanoTime();
+                        expenseService.createExpense(dto);
+                        if (counts[thread] < samples.length) {
+                            samples[counts[thread]] = System.nanoTime() - start;
+                        }
+                        counts[thread]++;
+                    }
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    done.countDown();
+                }
+            });
+        }
+        Thread.sleep(seconds * 1000L);
+        stop.set(true);
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < counts.length; t++) {
+            int n = Math.min(counts[t], latencies.get(t).length);
+            System.arraycopy(latencies.get(t), 0, all, offset, n);
+            offset += n;
+        }
+        long[] sorted = Arrays.copyOf(all, offset);
+        Arrays.sort(sorted);
+        return new Result(total / (double) seconds, percentile(sorted, 0.5), percentile(sorted, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(quantile * sorted.length) - 1] / 1e6;
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis) {
+    }
+}
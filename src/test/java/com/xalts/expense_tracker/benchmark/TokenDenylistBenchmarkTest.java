@@ -0,0 +1,130 @@
+package com.xalts.expense_tracker.benchmark;
+
+import com.xalts.expense_tracker.util.TokenDenylist;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.time.Duration;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Memory and lookup cost of the token denylist against a concurrent
+ * {@code Set<UUID>} at millions of revoked tokens, spread over a 10-hour
+ * expiry window. Heap figures are measured after a GC and are approximate.
+ * Run with {@code mvn test -Pbenchmark}; set {@code -Dbenchmark.revoked} to
+ * change the sizes (comma separated).
+ */
+@Tag("benchmark")
+class TokenDenylistBenchmarkTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final int LOOKUPS = 5_000_000;
+
+    @Test
+    void compareWithHashSet() {
+        String sizes = System.getProperty("benchmark.revoked", "1000000,2000000,4000000");
+        System.out.println("revoked     structure        heap-MB   bytes/id   hit-ns   miss-ns");
+        for (String size : sizes.split(",")) {
+            int revoked = Integer.parseInt(size.trim());
+            UUID[] ids = randomIds(revoked, 1);
+            UUID[] misses = randomIds(LOOKUPS, 2);
+
+            long before = usedHeap();
+            TokenDenylist denylist = new TokenDenylist(Duration.ofHours(1));
+            for (int i = 0; i < ids.length; i++) {
+                denylist.add(ids[i], expiry(i));
+            }
+            long denylistHeap = usedHeap() - before;
+            Reference.reachabilityFence(denylist);
+            double denylistHit = time(() -> {
+                int found = 0;
+                for (int i = 0; i < LOOKUPS; i++) {
+                    int index = i % ids.length;
+                    found += denylist.contains(ids[index], expiry(index)) ? 1 : 0;
+                }
+                return found;
+            });
+            double denylistMiss = time(() -> {
+                int found = 0;
+                for (int i = 0; i < LOOKUPS; i++) {
+                    found += denylist.contains(misses[i], expiry(i)) ? 1 : 0;
+                }
+                return found;
+            });
+            report(revoked, "denylist", denylistHeap, denylistHit, denylistMiss);
+            assertTrue(denylist.memoryBytes() / revoked < 48);
+
+            before = usedHeap();
+            Set<UUID> set = ConcurrentHashMap.newKeySet();
+            for (UUID id : ids) {
+                // The set keeps its own id objects, as it would after loading them from the database.
+                set.add(new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits()));
+            }
+            long setHeap = usedHeap() - before;
+            Reference.reachabilityFence(set);
+            double setHit = time(() -> {
+                int found = 0;
+                for (int i = 0; i < LOOKUPS; i++) {
+                    found += set.contains(ids[i % ids.length]) ? 1 : 0;
+                }
+                return found;
+            });
+            double setMiss = time(() -> {
+                int found = 0;
+                for (int i = 0; i < LOOKUPS; i++) {
+                    found += set.contains(misses[i]) ? 1 : 0;
+                }
+                return found;
+            });
+            report(revoked, "ConcurrentHashSet", setHeap, setHit, setMiss);
+            Reference.reachabilityFence(denylist);
+            assertTrue(denylistHeap < setHeap);
+        }
+    }
+
+    private static long expiry(int index) {
+        return (index % 10) * HOUR + 1;
+    }
+
+    private static UUID[] randomIds(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        UUID[] ids = new UUID[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = new UUID(random.nextLong() | 1, random.nextLong());
+        }
+        return ids;
+    }
+
+    /** Nanoseconds per lookup, best of five runs after a warmup run. */
+    private static double time(java.util.function.IntSupplier lookups) {
+        lookups.getAsInt();
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            sink += lookups.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertTrue(sink >= 0);
+        return (double) best / LOOKUPS;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(int revoked, String structure, long heap, double hitNs, double missNs) {
+        System.out.printf("%-11d %-16s %8.1f %10.1f %8.1f %9.1f%n", revoked, structure,
+                heap / (1024.0 * 1024.0), (double) heap / revoked, hitNs, missNs);
+    }
+}
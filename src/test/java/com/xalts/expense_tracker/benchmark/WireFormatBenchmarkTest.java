@@ -0,0 +1,113 @@
+package com.xalts.expense_tracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xalts.expense_tracker.dto.MonthlyReportDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes on the wire and serialization time per format for a large expense
+ * page and a monthly report. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class WireFormatBenchmarkTest {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 2_000;
+
+    private ObjectMapper json;
+    private ObjectMapper smile;
+    private ObjectMapper cbor;
+    private Page<Expense> page;
+    private MonthlyReportDTO report;
+
+    @BeforeEach
+    void setUp() {
+        json = Jackson2ObjectMapperBuilder.json().build();
+        smile = Jackson2ObjectMapperBuilder.smile().build();
+        cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+        User user = new User();
+        user.setId(1L);
+        user.setName("Bench User");
+        user.setEmail("bench@example.com");
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQ");
+
+        String[] categories = {"Food", "Travel", "Rent", "Utilities", "Entertainment", "Health"};
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Expense expense = new Expense();
+            expense.setId((long) i + 1);
+            expense.setAmount(5 + (i * 37 % 500) + 0.99);
+            expense.setDescription("Expense number " + i);
+            expense.setCategory(categories[i % categories.length]);
+            expense.setDate(LocalDate.of(2025, 1, 1).plusDays(i % 365));
+            expense.setUser(user);
+            expenses.add(expense);
+        }
+        page = new PageImpl<>(expenses, PageRequest.of(0, PAGE_SIZE), 50_000);
+
+        Map<String, Double> byCategory = new LinkedHashMap<>();
+        for (String category : categories) {
+            byCategory.put(category, 1234.56);
+        }
+        report = new MonthlyReportDTO();
+        report.setTotalExpenses(7407.36);
+        report.setExpensesByCategory(byCategory);
+    }
+
+    @Test
+    void compareFormats() throws IOException {
+        System.out.println("payload            format       bytes   gzip-bytes   us/op");
+        long pageJson = measure("page(1000)", "json", json, page);
+        long pageSmile = measure("page(1000)", "smile", smile, page);
+        long pageCbor = measure("page(1000)", "cbor", cbor, page);
+        measure("monthly-report", "json", json, report);
+        measure("monthly-report", "smile", smile, report);
+        measure("monthly-report", "cbor", cbor, report);
+
+        assertTrue(pageSmile < pageJson);
+        assertTrue(pageCbor < pageJson);
+    }
+
+    private long measure(String payload, String format, ObjectMapper mapper, Object value) throws IOException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long start = System.nanoTime();
+        byte[] bytes = null;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(value);
+        }
+        double microsPerOp = (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+        System.out.printf("%-18s %-8s %9d %12d %7.1f%n", payload, format, bytes.length, gzip(bytes), microsPerOp);
+        return bytes.length;
+    }
+
+    private static int gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,62 @@
+package com.xalts.expense_tracker.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects latencies for one endpoint. Samples are kept raw and sorted once
+ * at the end, which is exact and cheap at load-test sample counts.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+    private long rejected;
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+
+    synchronized void record(long latencyNanos, int status) {
+        statuses.merge(status, 1L, Long::sum);
+        if (status == 503) {
+            rejected++;
+        } else if (status >= 400 || status == 0) {
+            errors++;
+        }
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = latencyNanos;
+    }
+
+    synchronized Map<String, Object> summary(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", size);
+        summary.put("errors", errors);
+        summary.put("rejected", rejected);
+        summary.put("throughputPerSecond", round(size / seconds));
+        summary.put("meanMs", round(size == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / 1e6));
+        summary.put("p50Ms", percentile(sorted, 0.50));
+        summary.put("p90Ms", percentile(sorted, 0.90));
+        summary.put("p99Ms", percentile(sorted, 0.99));
+        summary.put("p999Ms", percentile(sorted, 0.999));
+        summary.put("maxMs", size == 0 ? 0 : round(sorted[size - 1] / 1e6));
+        summary.put("statusCodes", new TreeMap<>(statuses));
+        return summary;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return round(sorted[Math.max(0, index)] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,254 @@
+package com.xalts.expense_tracker.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.UserRepository;
+import com.xalts.expense_tracker.util.JwtUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application on an in-memory database, seeds users and expenses,
+ * and drives a mixed workload at a fixed arrival rate. Latency is measured
+ * from each request's scheduled start, so a slow server shows up as latency
+ * instead of quietly lowering the offered load. Results go to
+ * {@code target/loadtest/}. Run with {@code mvn test -Ploadtest}; tune with
+ * {@code -Dloadtest.users}, {@code -Dloadtest.expensesPerUser},
+ * {@code -Dloadtest.rate}, {@code -Dloadtest.durationSeconds},
+ * {@code -Dloadtest.warmupSeconds} and {@code -Dloadtest.seed}.
+ */
+@Tag("loadtest")
+@ActiveProfiles("embedded")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MixedWorkloadLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final String[] CATEGORIES = {"Food", "Travel", "Rent", "Utilities", "Entertainment", "Health"};
+    private static final int MAX_IN_FLIGHT = 2_000;
+
+    /** Operation mix in percent; weights add up to 100. */
+    private static final Map<String, Integer> MIX = new LinkedHashMap<>();
+
+    static {
+        MIX.put("login", 5);
+        MIX.put("create", 20);
+        MIX.put("list", 35);
+        MIX.put("total", 25);
+        MIX.put("monthlyReport", 15);
+    }
+
+    private final int users = Integer.getInteger("loadtest.users", 50);
+    private final int expensesPerUser = Integer.getInteger("loadtest.expensesPerUser", 500);
+    private final int rate = Integer.getInteger("loadtest.rate", 100);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(16))
+            .build();
+
+    @Test
+    void mixedWorkload() throws Exception {
+        long seedStart = System.nanoTime();
+        List<User> seeded = seed();
+        double seedSeconds = (System.nanoTime() - seedStart) / 1e9;
+        List<String> tokens = seeded.stream().map(jwtUtil::generateToken).toList();
+
+        run(seeded, tokens, warmupSeconds, new ConcurrentHashMap<>());
+        Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+        MIX.keySet().forEach(operation -> recorders.put(operation, new LatencyRecorder()));
+        long dropped = run(seeded, tokens, durationSeconds, recorders);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", Instant.now().toString());
+        results.put("config", Map.of("users", users, "expensesPerUser", expensesPerUser, "rate", rate,
+                "durationSeconds", durationSeconds, "warmupSeconds", warmupSeconds, "seed", seed, "mix", MIX));
+        results.put("environment", Map.of("java", System.getProperty("java.version"),
+                "processors", Runtime.getRuntime().availableProcessors(),
+                "maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024)));
+        results.put("seedSeconds", Math.round(seedSeconds * 100) / 100.0);
+        results.put("droppedByGenerator", dropped);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            Map<String, Object> summary = entry.getValue().summary(durationSeconds);
+            endpoints.put(entry.getKey(), summary);
+            total += ((Number) summary.get("requests")).longValue();
+        }
+        results.put("endpoints", endpoints);
+        results.put("throughputPerSecond", Math.round(total * 100.0 / durationSeconds) / 100.0);
+
+        Path dir = Path.of("target", "loadtest");
+        Files.createDirectories(dir);
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        String json = mapper.writeValueAsString(results);
+        Files.writeString(dir.resolve("results-" + Instant.now().toEpochMilli() + ".json"), json);
+        Files.writeString(dir.resolve("results-latest.json"), json);
+        System.out.println(json);
+
+        assertTrue(total > 0, "No requests completed");
+    }
+
+    private List<User> seed() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        List<User> created = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setName("Load User " + i);
+            user.setEmail("load" + i + "@example.com");
+            user.setPassword(hash);
+            user.setSyncVersion(expensesPerUser);
+            created.add(user);
+        }
+        List<User> saved = userRepository.saveAll(created);
+
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        for (User user : saved) {
+            List<Object[]> rows = new ArrayList<>(expensesPerUser);
+            for (int i = 0; i < expensesPerUser; i++) {
+                rows.add(new Object[]{
+                        Math.round((1 + random.nextDouble() * 499) * 100) / 100.0,
+                        "Seeded expense " + i,
+                        CATEGORIES[random.nextInt(CATEGORIES.length)],
+                        Date.valueOf(today.minusDays(random.nextInt(730))),
+                        "USD",
+                        user.getId(),
+                        i + 1L
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO expense (amount, description, category, date, currency, user_id, change_version) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+        return saved;
+    }
+
+    /** Issues requests at {@code rate} per second for {@code seconds}; returns how many were skipped at the in-flight cap. */
+    private long run(List<User> seeded, List<String> tokens, int seconds,
+                     Map<String, LatencyRecorder> recorders) throws InterruptedException {
+        Random random = new Random(seed);
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        AtomicLong dropped = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * seconds;
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                dropped.incrementAndGet();
+                continue;
+            }
+            int userIndex = random.nextInt(seeded.size());
+            String operation = pick(random);
+            HttpRequest request = request(operation, seeded.get(userIndex), tokens.get(userIndex), random);
+            LatencyRecorder recorder = recorders.get(operation);
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (recorder != null) {
+                            recorder.record(System.nanoTime() - intended, error != null ? 0 : response.statusCode());
+                        }
+                    });
+        }
+        inFlight.acquire(MAX_IN_FLIGHT);
+        inFlight.release(MAX_IN_FLIGHT);
+        return dropped.get();
+    }
+
+    private HttpRequest request(String operation, User user, String token, Random random) {
+        String base = "http://localhost:" + port;
+        LocalDate today = LocalDate.now();
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+        switch (operation) {
+            case "login" -> builder.uri(URI.create(base + "/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"));
+            case "create" -> builder.uri(URI.create(base + "/api/expenses"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                            "{\"amount\":%.2f,\"category\":\"%s\",\"description\":\"Load test\",\"date\":\"%s\"}",
+                            1 + random.nextDouble() * 200, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                            today.minusDays(random.nextInt(30)))));
+            case "list" -> builder.uri(URI.create(base + "/api/expenses?page=" + random.nextInt(5) + "&size=20")).GET();
+            case "total" -> {
+                LocalDate end = today.minusDays(random.nextInt(365));
+                builder.uri(URI.create(base + "/api/expenses/total?startDate=" + end.minusDays(90) + "&endDate=" + end)).GET();
+            }
+            default -> {
+                YearMonth month = YearMonth.from(today).minusMonths(random.nextInt(24));
+                builder.uri(URI.create(base + "/api/expenses/report/monthly?year=" + month.getYear()
+                        + "&month=" + month.getMonthValue())).GET();
+            }
+        }
+        if (!operation.equals("login")) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static String pick(Random random) {
+        int roll = random.nextInt(100);
+        for (Map.Entry<String, Integer> entry : MIX.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return "list";
+    }
+}
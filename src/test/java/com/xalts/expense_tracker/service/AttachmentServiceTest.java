@@ -0,0 +1,193 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.Attachment;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.AttachmentsReleasedEvent;
+import com.xalts.expense_tracker.repository.AttachmentRepository;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentServiceTest {
+
+    private static final String HASH = "a".repeat(64);
+
+    @Mock
+    private AttachmentRepository attachmentRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private AttachmentStore attachmentStore;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AttachmentService attachmentService;
+    private User user;
+    private Expense expense;
+    private AttachmentStore.Staged staged;
+    private InputStream body;
+
+    @BeforeEach
+    void setUp() {
+        attachmentService = new AttachmentService(attachmentRepository, expenseRepository, userService, attachmentStore,
+                eventPublisher, DataSize.ofMegabytes(10), List.of("image/png", "application/pdf"));
+
+        user = new User();
+        user.setId(1L);
+        expense = new Expense();
+        expense.setId(5L);
+        expense.setUser(user);
+        staged = new AttachmentStore.Staged(Path.of("staged.part"), HASH, 7);
+        body = new ByteArrayInputStream("receipt".getBytes());
+    }
+
+    @Test
+    void upload_recordsAttachmentWhileTheFileIsCommitted() {
+        // Arrange
+        when(attachmentStore.stage(any(), eq(DataSize.ofMegabytes(10).toBytes()))).thenReturn(staged);
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(expense));
+        when(attachmentStore.commit(eq(staged), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+        when(attachmentRepository.save(any(Attachment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Attachment result = attachmentService.upload(5L, "image/png; name=receipt", "photos/receipt.png", 7, body);
+
+        // Assert
+        assertEquals(5L, result.getExpenseId());
+        assertEquals(1L, result.getUserId());
+        assertEquals(HASH, result.getContentHash());
+        assertEquals(7, result.getSize());
+        assertEquals("image/png", result.getContentType());
+        assertEquals("receipt.png", result.getFileName());
+        verify(attachmentStore).discard(staged);
+    }
+
+    @Test
+    void upload_unsupportedType_throwsBeforeReadingTheBody() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                attachmentService.upload(5L, "text/html", "receipt.html", 7, body));
+        assertEquals("Unsupported attachment type: text/html", exception.getMessage());
+        verifyNoInteractions(attachmentStore, attachmentRepository);
+    }
+
+    @Test
+    void upload_declaredLengthOverLimit_throwsBeforeReadingTheBody() {
+        // Act & Assert
+        assertThrows(RuntimeException.class, () ->
+                attachmentService.upload(5L, "image/png", "receipt.png", DataSize.ofMegabytes(11).toBytes(), body));
+        verifyNoInteractions(attachmentStore);
+    }
+
+    @Test
+    void upload_otherUsersExpense_throwsAndDiscardsTheStagedFile() {
+        // Arrange
+        User otherUser = new User();
+        otherUser.setId(2L);
+        when(attachmentStore.stage(any(), anyLong())).thenReturn(staged);
+        when(userService.getCurrentUser()).thenReturn(otherUser);
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(expense));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                attachmentService.upload(5L, "image/png", "receipt.png", 7, body));
+        assertEquals("Unauthorized access to expense", exception.getMessage());
+        verify(attachmentStore, never()).commit(any(), any());
+        verify(attachmentStore).discard(staged);
+    }
+
+    @Test
+    void getAttachment_otherUsersAttachment_throwsException() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(attachmentRepository.findByIdAndExpenseIdAndUserId(9L, 5L, 1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> attachmentService.getAttachment(5L, 9L));
+        assertEquals("Attachment not found", exception.getMessage());
+    }
+
+    @Test
+    void deleteForExpense_deletesRowsAndReleasesTheirHashes() {
+        // Arrange
+        Attachment first = attachment(HASH);
+        Attachment second = attachment(HASH);
+        Attachment third = attachment("b".repeat(64));
+        when(attachmentRepository.findByExpenseId(5L)).thenReturn(List.of(first, second, third));
+
+        // Act
+        attachmentService.deleteForExpense(5L);
+
+        // Assert
+        verify(attachmentRepository).deleteAllInBatch(List.of(first, second, third));
+        ArgumentCaptor<AttachmentsReleasedEvent> event = ArgumentCaptor.forClass(AttachmentsReleasedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(HASH, "b".repeat(64)), event.getValue().contentHashes());
+    }
+
+    @Test
+    void deleteForExpense_withoutAttachments_doesNothingMore() {
+        // Arrange
+        when(attachmentRepository.findByExpenseId(5L)).thenReturn(List.of());
+
+        // Act
+        attachmentService.deleteForExpense(5L);
+
+        // Assert
+        verify(attachmentRepository, never()).deleteAllInBatch(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void onAttachmentsReleased_deletesFilesNoRowReferences() {
+        // Arrange
+        when(attachmentRepository.existsByContentHash(HASH)).thenReturn(false);
+        when(attachmentStore.deleteIfUnreferenced(eq(HASH), any())).thenAnswer(invocation ->
+                !invocation.<BooleanSupplier>getArgument(1).getAsBoolean());
+
+        // Act
+        attachmentService.onAttachmentsReleased(new AttachmentsReleasedEvent(Set.of(HASH)));
+
+        // Assert
+        verify(attachmentRepository).existsByContentHash(HASH);
+        verify(attachmentStore).deleteIfUnreferenced(eq(HASH), any());
+    }
+
+    private static Attachment attachment(String contentHash) {
+        Attachment attachment = new Attachment();
+        attachment.setExpenseId(5L);
+        attachment.setContentHash(contentHash);
+        return attachment;
+    }
+}
@@ -0,0 +1,121 @@
+package com.xalts.expense_tracker.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttachmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private AttachmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new AttachmentStore(directory.toString());
+        store.init();
+    }
+
+    @Test
+    void stageAndCommit_storesContentUnderItsHash() throws Exception {
+        // Arrange
+        byte[] content = new byte[200_000];
+        new Random(7).nextBytes(content);
+
+        // Act
+        AttachmentStore.Staged staged = store.stage(channel(content), 1_000_000);
+        String result = store.commit(staged, () -> "recorded");
+
+        // Assert
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertEquals("recorded", result);
+        assertEquals(hash, staged.contentHash());
+        assertEquals(content.length, staged.size());
+        assertArrayEquals(content, Files.readAllBytes(store.resolve(hash)));
+        assertEquals(0, stagingFiles());
+    }
+
+    @Test
+    void commit_sameContentTwice_keepsOneFile() throws Exception {
+        // Arrange
+        byte[] content = "receipt".getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        AttachmentStore.Staged first = store.stage(channel(content), 100);
+        store.commit(first, () -> null);
+        AttachmentStore.Staged second = store.stage(channel(content), 100);
+        store.commit(second, () -> null);
+
+        // Assert
+        try (Stream<Path> files = Files.walk(directory.resolve("objects"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        assertEquals(0, stagingFiles());
+    }
+
+    @Test
+    void stage_overLimit_throwsAndLeavesNothingBehind() throws Exception {
+        // Arrange
+        byte[] content = new byte[101];
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> store.stage(channel(content), 100));
+        assertEquals("Attachment exceeds the limit of 100 bytes", exception.getMessage());
+        assertEquals(0, stagingFiles());
+    }
+
+    @Test
+    void commit_referenceFails_removesNewlyPlacedFile() {
+        // Arrange
+        AttachmentStore.Staged staged = store.stage(channel("receipt".getBytes(StandardCharsets.UTF_8)), 100);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> store.commit(staged, () -> {
+            throw new RuntimeException("insert failed");
+        }));
+        assertFalse(Files.exists(store.resolve(staged.contentHash())));
+    }
+
+    @Test
+    void deleteIfUnreferenced_onlyDeletesWhenNothingReferencesTheHash() {
+        // Arrange
+        AttachmentStore.Staged staged = store.stage(channel("receipt".getBytes(StandardCharsets.UTF_8)), 100);
+        store.commit(staged, () -> null);
+        Path file = store.resolve(staged.contentHash());
+
+        // Act & Assert
+        assertFalse(store.deleteIfUnreferenced(staged.contentHash(), () -> true));
+        assertTrue(Files.exists(file));
+        assertTrue(store.deleteIfUnreferenced(staged.contentHash(), () -> false));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void resolve_rejectsNonHashNames() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> store.resolve("../../etc/passwd"));
+    }
+
+    private static java.nio.channels.ReadableByteChannel channel(byte[] content) {
+        return Channels.newChannel(new ByteArrayInputStream(content));
+    }
+
+    private long stagingFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory.resolve("tmp"))) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.AuditEntryDTO;
+import com.xalts.expense_tracker.event.ExpenseAuditEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-04-22T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    private MutableClock clock;
+    private AuditLogService auditLogService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        auditLogService = newService();
+    }
+
+    @Test
+    void onExpenseAudit_recordsTheChangeForQuerying() {
+        // Act
+        auditLogService.onExpenseAudit(new ExpenseAuditEvent(ChangeType.CREATED, 1L, 5L, 12.5, "Food",
+                LocalDate.of(2025, 4, 20), "USD", null));
+
+        // Assert
+        List<AuditEntryDTO> entries = auditLogService.query(1L, null, null, 10);
+        assertEquals(1, entries.size());
+        AuditEntryDTO entry = entries.get(0);
+        assertEquals(NOW, entry.getTimestamp());
+        assertEquals(1L, entry.getUserId());
+        assertEquals(5L, entry.getExpenseId());
+        assertEquals(ChangeType.CREATED, entry.getType());
+        assertEquals(12.5, entry.getAmount());
+        assertEquals("Food", entry.getCategory());
+        assertEquals(LocalDate.of(2025, 4, 20), entry.getDate());
+        assertEquals("USD", entry.getCurrency());
+        assertNull(entry.getDescription());
+    }
+
+    @Test
+    void query_acrossRolledSegments_filtersByUserAndTime() throws Exception {
+        // Arrange
+        for (int i = 0; i < 40; i++) {
+            auditLogService.onExpenseAudit(event(i % 2 == 0 ? 1L : 2L, i));
+            clock.advanceSeconds(1);
+        }
+
+        // Act
+        List<AuditEntryDTO> entries = auditLogService.query(1L, NOW.plusSeconds(10), NOW.plusSeconds(29), 100);
+
+        // Assert
+        assertTrue(segmentCount() > 1);
+        assertEquals(List.of(10L, 12L, 14L, 16L, 18L, 20L, 22L, 24L, 26L, 28L),
+                entries.stream().map(AuditEntryDTO::getExpenseId).toList());
+        assertEquals(3, auditLogService.query(2L, null, null, 3).size());
+    }
+
+    @Test
+    void init_afterRestart_continuesTheExistingLog() throws Exception {
+        // Arrange
+        for (int i = 0; i < 25; i++) {
+            auditLogService.onExpenseAudit(event(1L, i));
+        }
+        auditLogService.shutdown();
+
+        // Act
+        AuditLogService restarted = newService();
+        restarted.onExpenseAudit(event(1L, 25));
+
+        // Assert
+        assertEquals(26, restarted.query(1L, null, null, 100).size());
+    }
+
+    @Test
+    void query_endBeforeStart_throwsException() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> auditLogService.query(1L, NOW, NOW.minusSeconds(1), 10));
+        assertEquals("End must not be before start", exception.getMessage());
+    }
+
+    private AuditLogService newService() {
+        AuditLogService service = new AuditLogService(directory.toString(), DataSize.ofBytes(1024), 10, clock);
+        service.init();
+        return service;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static ExpenseAuditEvent event(Long userId, long expenseId) {
+        return new ExpenseAuditEvent(ChangeType.UPDATED, userId, expenseId, 10.0, "Travel",
+                LocalDate.of(2025, 4, 1), "EUR", "Train ticket");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.DashboardDTO;
+import com.xalts.expense_tracker.dto.DashboardRequest;
+import com.xalts.expense_tracker.dto.DashboardWidget;
+import com.xalts.expense_tracker.dto.MonthlyReportDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 4, 1);
+    private static final LocalDate END = LocalDate.of(2025, 4, 30);
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    private DashboardService dashboardService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(expenseService, userService, fxRateService, 4, 10, Duration.ofMillis(500));
+        user = new User();
+        user.setId(1L);
+        lenient().when(userService.getCurrentUser()).thenReturn(user);
+        lenient().when(fxRateService.getBaseCurrency()).thenReturn("USD");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    @Test
+    void getDashboard_combinesAllWidgetsForOneResolvedUser() {
+        // Arrange
+        Expense expense = new Expense();
+        MonthlyReportDTO report = new MonthlyReportDTO();
+        when(expenseService.getRecentExpenses(user, 5)).thenReturn(List.of(expense));
+        when(expenseService.getTotalExpenses(user, START, END, "USD")).thenReturn(150.0);
+        when(expenseService.getExpensesByCategory(user, START, END, "USD")).thenReturn(Map.of("Food", 150.0));
+        when(expenseService.getMonthlyReport(user, 2025, 3, "USD")).thenReturn(report);
+        DashboardRequest request = request(DashboardWidget.RECENT, DashboardWidget.TOTAL, DashboardWidget.BY_CATEGORY,
+                DashboardWidget.MONTHLY_REPORT);
+        request.setRecentSize(5);
+        request.setMonth(YearMonth.of(2025, 3));
+
+        // Act
+        DashboardDTO result = dashboardService.getDashboard(request);
+
+        // Assert
+        assertEquals(List.of(expense), result.getRecent());
+        assertEquals("USD", result.getCurrency());
+        assertEquals(150.0, result.getTotal());
+        assertEquals(Map.of("Food", 150.0), result.getByCategory());
+        assertSame(report, result.getMonthlyReport());
+        assertTrue(result.getErrors().isEmpty());
+        verify(userService, times(1)).getCurrentUser();
+    }
+
+    @Test
+    void getDashboard_failingWidget_degradesOnlyThatWidget() {
+        // Arrange
+        when(expenseService.getTotalExpenses(user, START, END, "EUR")).thenThrow(new RuntimeException("No FX rate for EUR"));
+        when(expenseService.getExpensesByCategory(user, START, END, "EUR")).thenReturn(Map.of("Food", 10.0));
+        DashboardRequest request = request(DashboardWidget.TOTAL, DashboardWidget.BY_CATEGORY);
+        request.setCurrency("EUR");
+
+        // Act
+        DashboardDTO result = dashboardService.getDashboard(request);
+
+        // Assert
+        assertNull(result.getTotal());
+        assertEquals(Map.of("Food", 10.0), result.getByCategory());
+        assertEquals(Map.of(DashboardWidget.TOTAL, "No FX rate for EUR"), result.getErrors());
+    }
+
+    @Test
+    void getDashboard_slowWidget_timesOutWithoutHoldingBackTheOthers() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseService.getTotalExpenses(user, START, END, "USD")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1.0;
+        });
+        when(expenseService.getExpensesByCategory(user, START, END, "USD")).thenReturn(Map.of());
+
+        // Act
+        long start = System.nanoTime();
+        DashboardDTO result = dashboardService.getDashboard(request(DashboardWidget.TOTAL, DashboardWidget.BY_CATEGORY));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert
+        assertNull(result.getTotal());
+        assertEquals(Map.of(), result.getByCategory());
+        assertEquals(Map.of(DashboardWidget.TOTAL, "Timed out"), result.getErrors());
+        assertTrue(elapsedMillis < 2000, "Took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void getDashboard_monthlyReportDefaultsToTheMonthOfTheEndDate() {
+        // Arrange
+        when(expenseService.getMonthlyReport(user, 2025, 4, "USD")).thenReturn(new MonthlyReportDTO());
+
+        // Act
+        DashboardDTO result = dashboardService.getDashboard(request(DashboardWidget.MONTHLY_REPORT));
+
+        // Assert
+        assertNotNull(result.getMonthlyReport());
+    }
+
+    @Test
+    void getDashboard_endBeforeStart_throwsException() {
+        // Arrange
+        DashboardRequest request = request(DashboardWidget.TOTAL);
+        request.setEndDate(START.minusDays(1));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> dashboardService.getDashboard(request));
+        assertEquals("End date must not be before start date", exception.getMessage());
+        verifyNoInteractions(expenseService);
+    }
+
+    private static DashboardRequest request(DashboardWidget... widgets) {
+        DashboardRequest request = new DashboardRequest();
+        request.setWidgets(List.of(widgets));
+        request.setStartDate(START);
+        request.setEndDate(END);
+        return request;
+    }
+}
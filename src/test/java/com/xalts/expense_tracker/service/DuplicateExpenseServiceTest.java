@@ -0,0 +1,124 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseAuditEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateExpenseServiceTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 10);
+
+    private DuplicateExpenseService duplicateExpenseService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        duplicateExpenseService = new DuplicateExpenseService(16, 3, 100);
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void fingerprint_ignoresCaseAndWhitespaceButNotAmountOrDate() {
+        long fingerprint = DuplicateExpenseService.fingerprint(12.5, "USD", DATE, "Food", "Corner  cafe");
+
+        assertEquals(fingerprint, DuplicateExpenseService.fingerprint(12.5, "USD", DATE, " food", "corner cafe "));
+        assertNotEquals(fingerprint, DuplicateExpenseService.fingerprint(12.51, "USD", DATE, "Food", "Corner cafe"));
+        assertNotEquals(fingerprint, DuplicateExpenseService.fingerprint(12.5, "EUR", DATE, "Food", "Corner cafe"));
+        assertNotEquals(fingerprint, DuplicateExpenseService.fingerprint(12.5, "USD", DATE.plusDays(1), "Food",
+                "Corner cafe"));
+        assertNotEquals(DuplicateExpenseService.fingerprint(1, "USD", DATE, "ab", "c"),
+                DuplicateExpenseService.fingerprint(1, "USD", DATE, "a", "bc"));
+    }
+
+    @Test
+    void screen_unknownUser_setsTheFingerprintOnly() {
+        Expense expense = expense(null, 12.5, DATE, "Corner cafe");
+
+        duplicateExpenseService.screen(expense, false);
+
+        assertEquals(DuplicateExpenseService.fingerprint(12.5, "USD", DATE, "Food", "Corner cafe"),
+                expense.getFingerprint());
+        assertNull(expense.getPossibleDuplicates());
+    }
+
+    @Test
+    void screen_identicalToACommittedExpense_throwsException() {
+        duplicateExpenseService.onExpenseAudit(created(7L, 12.5, DATE, "Corner cafe"));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> duplicateExpenseService.screen(expense(null, 12.5, DATE, "corner cafe"), false));
+        assertEquals("Duplicate of expense 7", exception.getMessage());
+    }
+
+    @Test
+    void screen_allowedDuplicate_isKeptWithoutFingerprintAndFlagged() {
+        duplicateExpenseService.onExpenseAudit(created(7L, 12.5, DATE, "Corner cafe"));
+        Expense expense = expense(null, 12.5, DATE, "Corner cafe");
+
+        duplicateExpenseService.screen(expense, true);
+
+        assertNull(expense.getFingerprint());
+        assertEquals(List.of(7L), expense.getPossibleDuplicates());
+    }
+
+    @Test
+    void screen_sameAmountWithinNearDays_listsPossibleDuplicates() {
+        duplicateExpenseService.onExpenseAudit(created(7L, 12.5, DATE, "Corner cafe"));
+        duplicateExpenseService.onExpenseAudit(created(8L, 12.5, DATE.plusDays(5), "Corner cafe"));
+        Expense expense = expense(null, 12.5, DATE.plusDays(2), "Bakery");
+
+        duplicateExpenseService.screen(expense, false);
+
+        assertNotNull(expense.getFingerprint());
+        assertEquals(List.of(8L, 7L), expense.getPossibleDuplicates());
+    }
+
+    @Test
+    void screen_updateOfTheMatchedExpenseItself_isNotADuplicate() {
+        duplicateExpenseService.onExpenseAudit(created(7L, 12.5, DATE, "Corner cafe"));
+        Expense expense = expense(7L, 12.5, DATE, "Corner cafe");
+
+        duplicateExpenseService.screen(expense, false);
+
+        assertNotNull(expense.getFingerprint());
+        assertNull(expense.getPossibleDuplicates());
+    }
+
+    @Test
+    void onExpenseAudit_deletedExpenseNoLongerMatches() {
+        duplicateExpenseService.onExpenseAudit(created(7L, 12.5, DATE, "Corner cafe"));
+        duplicateExpenseService.onExpenseAudit(new ExpenseAuditEvent(ChangeType.DELETED, 1L, 7L, 12.5, "Food",
+                DATE, "USD", "Corner cafe"));
+        Expense expense = expense(null, 12.5, DATE, "Corner cafe");
+
+        duplicateExpenseService.screen(expense, false);
+
+        assertNotNull(expense.getFingerprint());
+        assertNull(expense.getPossibleDuplicates());
+    }
+
+    private Expense expense(Long id, double amount, LocalDate date, String description) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setAmount(amount);
+        expense.setCurrency("USD");
+        expense.setCategory("Food");
+        expense.setDate(date);
+        expense.setDescription(description);
+        expense.setUser(user);
+        return expense;
+    }
+
+    private static ExpenseAuditEvent created(Long expenseId, double amount, LocalDate date, String description) {
+        return new ExpenseAuditEvent(ChangeType.CREATED, 1L, expenseId, amount, "Food", date, "USD", description);
+    }
+}
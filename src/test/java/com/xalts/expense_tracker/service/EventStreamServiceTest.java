@@ -0,0 +1,119 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventStreamServiceTest {
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    private EventStreamService eventStreamService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        eventStreamService = new EventStreamService(expenseService, userService, fxRateService, new SimpleMeterRegistry(),
+                Duration.ofMinutes(1), 4, 2, 2, 1, 1, 10, Duration.ofSeconds(5));
+        user = new User();
+        user.setId(1L);
+        when(userService.getCurrentUser()).thenReturn(user);
+        lenient().when(fxRateService.getBaseCurrency()).thenReturn("USD");
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStreamService.shutdown();
+    }
+
+    @Test
+    void subscribe_withRanges_pushesTotalsOnConnectAndAfterChanges() {
+        // Arrange
+        LocalDate start = LocalDate.of(2025, 4, 1);
+        LocalDate end = LocalDate.of(2025, 4, 30);
+        when(expenseService.getTotalExpenses(user, start, end, "USD")).thenReturn(100.0);
+
+        // Act
+        eventStreamService.subscribe(List.of("2025-04-01/2025-04-30"), null);
+        verify(expenseService, timeout(2_000)).getTotalExpenses(user, start, end, "USD");
+        eventStreamService.onExpenseChanged(new ExpenseChangedEvent(1L, 7L, ExpenseChangedEvent.ChangeType.CREATED));
+
+        // Assert
+        verify(expenseService, timeout(2_000).times(2)).getTotalExpenses(user, start, end, "USD");
+        assertEquals(1, eventStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_withRanges_computesTotalsOffTheSendPool() {
+        // Arrange
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(expenseService.getTotalExpenses(eq(user), any(), any(), eq("USD"))).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return 0.0;
+        });
+
+        // Act
+        eventStreamService.subscribe(List.of("2025-04-01/2025-04-30"), null);
+
+        // Assert
+        verify(expenseService, timeout(2_000)).getTotalExpenses(eq(user), any(), any(), eq("USD"));
+        assertTrue(thread.get().startsWith("event-totals-"));
+    }
+
+    @Test
+    void onExpenseChanged_otherUser_computesNothing() {
+        // Arrange
+        eventStreamService.subscribe(List.of("2025-04-01/2025-04-30"), null);
+        verify(expenseService, timeout(2_000)).getTotalExpenses(eq(user), any(), any(), eq("USD"));
+
+        // Act
+        eventStreamService.onExpenseChanged(new ExpenseChangedEvent(2L, 7L, ExpenseChangedEvent.ChangeType.CREATED));
+
+        // Assert
+        verify(expenseService, after(200).times(1)).getTotalExpenses(eq(user), any(), any(), eq("USD"));
+    }
+
+    @Test
+    void subscribe_overPerUserLimit_throwsException() {
+        // Arrange
+        eventStreamService.subscribe(null, null);
+        eventStreamService.subscribe(null, null);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> eventStreamService.subscribe(null, null));
+        assertEquals("Too many open event streams", exception.getMessage());
+        assertEquals(2, eventStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_invalidRange_throwsException() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> eventStreamService.subscribe(List.of("2025-04-30/2025-04-01"), null));
+        assertEquals("Invalid range: 2025-04-30/2025-04-01", exception.getMessage());
+        assertEquals(0, eventStreamService.getSubscriberCount());
+    }
+}
@@ -3,14 +3,22 @@ package com.xalts.expense_tracker.service;
 import com.xalts.expense_tracker.dto.ExpenseDTO;
 import com.xalts.expense_tracker.dto.MonthlyReportDTO;
 import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.entity.RecurringExpense;
 import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseAuditEvent;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent;
 import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.util.Recurrence;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -18,9 +26,12 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +43,33 @@ class ExpenseServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private RecurringExpenseService recurringExpenseService;
+
+    @Mock
+    private SyncService syncService;
+
+    @Mock
+    private SpendingStatsService spendingStatsService;
+
+    @Mock
+    private GroupCommitExecutor groupCommitExecutor;
+
+    @Mock
+    private AttachmentService attachmentService;
+
+    @Mock
+    private ExpenseTagService expenseTagService;
+
+    @Mock
+    private DuplicateExpenseService duplicateExpenseService;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -62,6 +100,10 @@ class ExpenseServiceTest {
         expenseDTO.setCategory("Food");
         expenseDTO.setDate(LocalDate.of(2025, 4, 22));
 
+        // Run submitted writes inline, as the executor does when group commit is off.
+        lenient().when(groupCommitExecutor.submit(anyLong(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+
         pageable = PageRequest.of(0, 10);
         startDate = LocalDate.of(2025, 4, 1);
         endDate = LocalDate.of(2025, 4, 30);
@@ -87,6 +129,102 @@ class ExpenseServiceTest {
         verify(expenseRepository).save(any(Expense.class));
     }
 
+    @Test
+    void createExpense_writesThroughGroupCommitKeyedByUser() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        expenseService.createExpense(expenseDTO);
+
+        // Assert
+        InOrder inOrder = inOrder(groupCommitExecutor, syncService, expenseRepository);
+        inOrder.verify(groupCommitExecutor).submit(eq(1L), any());
+        inOrder.verify(syncService).nextVersion(user);
+        inOrder.verify(expenseRepository).save(any(Expense.class));
+    }
+
+    @Test
+    void createExpense_duplicate_isRejectedBeforeQueueing() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        doThrow(new RuntimeException("Duplicate of expense 7"))
+                .when(duplicateExpenseService).screen(any(Expense.class), eq(false));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> expenseService.createExpense(expenseDTO));
+        assertEquals("Duplicate of expense 7", exception.getMessage());
+        verify(groupCommitExecutor, never()).submit(anyLong(), any());
+        verify(expenseRepository, never()).save(any(Expense.class));
+    }
+
+    @Test
+    void createExpense_fingerprintConstraintViolation_reportsDuplicate() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.save(any(Expense.class))).thenThrow(new DataIntegrityViolationException("unique"));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> expenseService.createExpense(expenseDTO));
+        assertEquals("Duplicate of an existing expense", exception.getMessage());
+    }
+
+    @Test
+    void createExpense_warmupUser_publishesNoChange() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(userService.isWarmupUser(1L)).thenReturn(true);
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        expenseService.createExpense(expenseDTO);
+
+        // Assert
+        verify(expenseRepository).save(any(Expense.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void createExpense_flagsAnomalyBeforeRecordingSketch() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(spendingStatsService.isAnomalous(any(Expense.class))).thenReturn(true);
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Expense result = expenseService.createExpense(expenseDTO);
+
+        // Assert
+        assertTrue(result.getAnomalous());
+        InOrder inOrder = inOrder(spendingStatsService, expenseRepository);
+        inOrder.verify(spendingStatsService).isAnomalous(result);
+        inOrder.verify(spendingStatsService).record(result);
+        inOrder.verify(expenseRepository).save(result);
+    }
+
+    @Test
+    void updateExpense_movesExpenseBetweenSketches() {
+        // Arrange
+        expenseDTO.setCategory("Travel");
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        List<String> categories = new ArrayList<>();
+        doAnswer(invocation -> categories.add(((Expense) invocation.getArgument(0)).getCategory()))
+                .when(spendingStatsService).forget(expense);
+        doAnswer(invocation -> categories.add(((Expense) invocation.getArgument(0)).getCategory()))
+                .when(spendingStatsService).record(expense);
+        when(expenseRepository.save(expense)).thenReturn(expense);
+
+        // Act
+        expenseService.updateExpense(1L, expenseDTO);
+
+        // Assert
+        assertEquals(List.of("Food", "Travel"), categories);
+    }
+
     @Test
     void createExpense_nullDate_setsCurrentDate() {
         // Arrange
@@ -144,6 +282,64 @@ class ExpenseServiceTest {
         verify(expenseRepository).findByUser(user, pageable);
     }
 
+    @Test
+    void getRecentExpenses_readsOnlyTheFirstSliceWithoutCounting() {
+        // Arrange
+        when(expenseRepository.findByUserOrderByDateDescIdDesc(user, PageRequest.of(0, 5))).thenReturn(List.of(expense));
+
+        // Act
+        List<Expense> result = expenseService.getRecentExpenses(user, 5);
+
+        // Assert
+        assertEquals(List.of(expense), result);
+        verifyNoMoreInteractions(expenseRepository);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void createExpense_withTags_storesThemNormalized() {
+        // Arrange
+        expenseDTO.setTags(List.of("Client-X", "reimbursable", "client-x"));
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Expense result = expenseService.createExpense(expenseDTO);
+
+        // Assert
+        assertEquals(Set.of("client-x", "reimbursable"), result.getTags());
+        verify(expenseTagService).created(result);
+    }
+
+    @Test
+    void updateExpense_withoutTags_leavesTagsUnchanged() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        expenseService.updateExpense(1L, expenseDTO);
+
+        // Assert
+        verify(expenseTagService).updated(expense, null);
+    }
+
+    @Test
+    void updateExpense_withEmptyTags_clearsThem() {
+        // Arrange
+        expenseDTO.setTags(List.of());
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        expenseService.updateExpense(1L, expenseDTO);
+
+        // Assert
+        verify(expenseTagService).updated(expense, Set.of());
+    }
+
     @Test
     void updateExpense_successfulUpdate() {
         // Arrange
@@ -227,6 +423,8 @@ class ExpenseServiceTest {
         verify(userService).getCurrentUser();
         verify(expenseRepository).findById(1L);
         verify(expenseRepository).deleteById(1L);
+        verify(attachmentService).deleteForExpense(1L);
+        verify(expenseTagService).deleted(1L, 1L);
     }
 
     @Test
@@ -261,6 +459,8 @@ class ExpenseServiceTest {
         verify(userService).getCurrentUser();
         verify(expenseRepository).findById(1L);
         verifyNoMoreInteractions(expenseRepository);
+        verifyNoInteractions(attachmentService);
+        verifyNoInteractions(expenseTagService);
     }
 
     @Test
@@ -274,9 +474,13 @@ class ExpenseServiceTest {
         expense2.setDate(LocalDate.of(2025, 4, 23));
         expense2.setUser(user);
 
-        List<Expense> expenses = Arrays.asList(expense, expense2);
+        List<Object[]> results = Arrays.asList(
+                new Object[]{"USD", expense.getDate(), expense.getAmount()},
+                new Object[]{"USD", expense2.getDate(), expense2.getAmount()}
+        );
         when(userService.getCurrentUser()).thenReturn(user);
-        when(expenseRepository.findByUserAndDateBetween(user, startDate, endDate)).thenReturn(expenses);
+        stubBaseCurrency();
+        when(expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(results);
 
         // Act
         double result = expenseService.getTotalExpenses(startDate, endDate);
@@ -284,14 +488,15 @@ class ExpenseServiceTest {
         // Assert
         assertEquals(150.0, result);
         verify(userService).getCurrentUser();
-        verify(expenseRepository).findByUserAndDateBetween(user, startDate, endDate);
+        verify(expenseRepository).findTotalByCurrencyAndDateForUser(user, startDate, endDate);
     }
 
     @Test
     void getTotalExpenses_emptyList_returnsZero() {
         // Arrange
         when(userService.getCurrentUser()).thenReturn(user);
-        when(expenseRepository.findByUserAndDateBetween(user, startDate, endDate)).thenReturn(Collections.emptyList());
+        stubBaseCurrency();
+        when(expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(Collections.emptyList());
 
         // Act
         double result = expenseService.getTotalExpenses(startDate, endDate);
@@ -299,18 +504,19 @@ class ExpenseServiceTest {
         // Assert
         assertEquals(0.0, result);
         verify(userService).getCurrentUser();
-        verify(expenseRepository).findByUserAndDateBetween(user, startDate, endDate);
+        verify(expenseRepository).findTotalByCurrencyAndDateForUser(user, startDate, endDate);
     }
 
     @Test
     void getExpensesByCategory_returnsCategoryTotals() {
         // Arrange
         List<Object[]> results = Arrays.asList(
-                new Object[]{"Food", 100.0},
-                new Object[]{"Travel", 50.0}
+                new Object[]{"Food", "USD", startDate, 100.0},
+                new Object[]{"Travel", "USD", startDate, 50.0}
         );
         when(userService.getCurrentUser()).thenReturn(user);
-        when(expenseRepository.findTotalByCategoryForUser(user, startDate, endDate)).thenReturn(results);
+        stubBaseCurrency();
+        when(expenseRepository.findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(results);
 
         // Act
         Map<String, Double> result = expenseService.getExpensesByCategory(startDate, endDate);
@@ -321,14 +527,16 @@ class ExpenseServiceTest {
         assertEquals(100.0, result.get("Food"));
         assertEquals(50.0, result.get("Travel"));
         verify(userService).getCurrentUser();
-        verify(expenseRepository).findTotalByCategoryForUser(user, startDate, endDate);
+        verify(expenseRepository).findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate);
     }
 
     @Test
     void getExpensesByCategory_emptyList_returnsEmptyMap() {
         // Arrange
         when(userService.getCurrentUser()).thenReturn(user);
-        when(expenseRepository.findTotalByCategoryForUser(user, startDate, endDate)).thenReturn(Collections.emptyList());
+        stubBaseCurrency();
+        when(expenseRepository.findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate))
+                .thenReturn(Collections.emptyList());
 
         // Act
         Map<String, Double> result = expenseService.getExpensesByCategory(startDate, endDate);
@@ -337,17 +545,16 @@ class ExpenseServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
         verify(userService).getCurrentUser();
-        verify(expenseRepository).findTotalByCategoryForUser(user, startDate, endDate);
+        verify(expenseRepository).findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate);
     }
 
     @Test
     void getMonthlyReport_returnsReport() {
         // Arrange
-        List<Expense> expenses = Arrays.asList(expense);
-        List<Object[]> categoryResults = Collections.singletonList(new Object[]{"Food", 100.0}); // Fixed to List<Object[]>
+        List<Object[]> categoryResults = Collections.singletonList(new Object[]{"Food", "USD", startDate, 100.0});
         when(userService.getCurrentUser()).thenReturn(user);
-        when(expenseRepository.findByUserAndDateBetween(user, startDate, endDate)).thenReturn(expenses);
-        when(expenseRepository.findTotalByCategoryForUser(user, startDate, endDate)).thenReturn(categoryResults);
+        stubBaseCurrency();
+        when(expenseRepository.findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(categoryResults);
 
         // Act
         MonthlyReportDTO result = expenseService.getMonthlyReport(2025, 4);
@@ -358,17 +565,18 @@ class ExpenseServiceTest {
         assertNotNull(result.getExpensesByCategory());
         assertEquals(1, result.getExpensesByCategory().size());
         assertEquals(100.0, result.getExpensesByCategory().get("Food"));
-        verify(userService, times(3)).getCurrentUser(); // Expect 3 calls
-        verify(expenseRepository).findByUserAndDateBetween(user, startDate, endDate);
-        verify(expenseRepository).findTotalByCategoryForUser(user, startDate, endDate);
+        assertEquals("USD", result.getCurrency());
+        verify(userService, times(1)).getCurrentUser();
+        verify(expenseRepository).findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate);
     }
 
     @Test
     void getMonthlyReport_emptyData_returnsEmptyReport() {
         // Arrange
         when(userService.getCurrentUser()).thenReturn(user);
-        when(expenseRepository.findByUserAndDateBetween(user, startDate, endDate)).thenReturn(Collections.emptyList());
-        when(expenseRepository.findTotalByCategoryForUser(user, startDate, endDate)).thenReturn(Collections.emptyList());
+        stubBaseCurrency();
+        when(expenseRepository.findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate))
+                .thenReturn(Collections.emptyList());
 
         // Act
         MonthlyReportDTO result = expenseService.getMonthlyReport(2025, 4);
@@ -378,8 +586,252 @@ class ExpenseServiceTest {
         assertEquals(0.0, result.getTotalExpenses());
         assertNotNull(result.getExpensesByCategory());
         assertTrue(result.getExpensesByCategory().isEmpty());
-        verify(userService, times(3)).getCurrentUser(); // Expect 3 calls
-        verify(expenseRepository).findByUserAndDateBetween(user, startDate, endDate);
-        verify(expenseRepository).findTotalByCategoryForUser(user, startDate, endDate);
+        verify(userService, times(1)).getCurrentUser();
+        verify(expenseRepository).findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate);
+    }
+
+    @Test
+    void deleteExpense_publishesDeletedEvent() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        // Act
+        expenseService.deleteExpense(1L);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new ExpenseChangedEvent(1L, 1L, ExpenseChangedEvent.ChangeType.DELETED));
+    }
+
+    @Test
+    void deleteExpense_publishesAuditEventWithTheDeletedState() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        // Act
+        expenseService.deleteExpense(1L);
+
+        // Assert
+        verify(eventPublisher).publishEvent(new ExpenseAuditEvent(ExpenseChangedEvent.ChangeType.DELETED, 1L, 1L,
+                100.0, "Food", LocalDate.of(2025, 4, 22), null, "Lunch"));
+    }
+
+    @Test
+    void getExpensesByMonth_returnsSortedMonthTotals() {
+        // Arrange
+        List<Object[]> results = Arrays.asList(
+                new Object[]{"USD", LocalDate.of(2025, 4, 2), 60.0},
+                new Object[]{"EUR", LocalDate.of(2025, 4, 9), 20.0},
+                new Object[]{"USD", LocalDate.of(2025, 3, 30), 50.0}
+        );
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of(
+                fxRate("EUR", LocalDate.of(2025, 1, 1), 2.0))));
+        when(expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(results);
+
+        // Act
+        Map<String, Double> result = expenseService.getExpensesByMonth(user, startDate, endDate);
+
+        // Assert
+        assertEquals(List.of("2025-03", "2025-04"), new ArrayList<>(result.keySet()));
+        assertEquals(100.0, result.get("2025-04"), 1e-9);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void getTotalExpenses_withCurrency_convertsPerCurrencyDayGroup() {
+        // Arrange
+        List<Object[]> results = Arrays.asList(
+                new Object[]{"USD", LocalDate.of(2025, 4, 10), 100.0},
+                new Object[]{"EUR", LocalDate.of(2025, 4, 12), 50.0},
+                new Object[]{null, LocalDate.of(2025, 4, 15), 10.0}
+        );
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of(
+                fxRate("EUR", LocalDate.of(2025, 1, 1), 1.2),
+                fxRate("EUR", LocalDate.of(2025, 4, 11), 1.1))));
+        when(expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(results);
+
+        // Act
+        double result = expenseService.getTotalExpenses(startDate, endDate, "usd");
+
+        // Assert
+        assertEquals(165.0, result, 1e-9);
+    }
+
+    @Test
+    void getTotalExpenses_withoutCurrency_convertsIntoBaseCurrency() {
+        // Arrange
+        List<Object[]> results = Arrays.asList(
+                new Object[]{"USD", LocalDate.of(2025, 4, 10), 100.0},
+                new Object[]{"EUR", LocalDate.of(2025, 4, 12), 50.0}
+        );
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of(
+                fxRate("EUR", LocalDate.of(2025, 1, 1), 2.0))));
+        when(expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(results);
+
+        // Act
+        double result = expenseService.getTotalExpenses(startDate, endDate, null);
+
+        // Assert
+        assertEquals(200.0, result, 1e-9);
+    }
+
+    @Test
+    void getMonthlyReport_withCurrency_convertsCategoriesAndResolvesUserOnce() {
+        // Arrange
+        List<Object[]> results = Arrays.asList(
+                new Object[]{"Food", "EUR", LocalDate.of(2025, 4, 10), 10.0},
+                new Object[]{"Food", "USD", LocalDate.of(2025, 4, 10), 5.0},
+                new Object[]{"Travel", "USD", LocalDate.of(2025, 4, 11), 20.0}
+        );
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of(
+                fxRate("EUR", LocalDate.of(2025, 1, 1), 2.0))));
+        when(expenseRepository.findTotalByCategoryCurrencyAndDateForUser(user, startDate, endDate)).thenReturn(results);
+
+        // Act
+        MonthlyReportDTO result = expenseService.getMonthlyReport(2025, 4, "EUR");
+
+        // Assert
+        assertEquals("EUR", result.getCurrency());
+        assertEquals(12.5, result.getExpensesByCategory().get("Food"), 1e-9);
+        assertEquals(10.0, result.getExpensesByCategory().get("Travel"), 1e-9);
+        assertEquals(22.5, result.getTotalExpenses(), 1e-9);
+        verify(userService, times(1)).getCurrentUser();
+    }
+
+    @Test
+    void createExpense_withoutCurrency_usesBaseCurrency() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Expense result = expenseService.createExpense(expenseDTO);
+
+        // Assert
+        assertEquals("USD", result.getCurrency());
+    }
+
+    @Test
+    void getTotalExpenses_includesVirtualRecurringTotal() {
+        // Arrange
+        FxRateSnapshot snapshot = new FxRateSnapshot("USD", List.of());
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(snapshot);
+        when(expenseRepository.findTotalByCurrencyAndDateForUser(user, startDate, endDate))
+                .thenReturn(List.<Object[]>of(new Object[]{"USD", expense.getDate(), 100.0}));
+        when(recurringExpenseService.getVirtualTotal(user, startDate, endDate, "USD", snapshot)).thenReturn(40.0);
+
+        // Act
+        double result = expenseService.getTotalExpenses(user, startDate, endDate);
+
+        // Assert
+        assertEquals(140.0, result);
+    }
+
+    @Test
+    void deleteExpense_recordsTombstone() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        // Act
+        expenseService.deleteExpense(1L);
+
+        // Assert
+        verify(syncService).recordDeletion(user, 1L);
+    }
+
+    @Test
+    void updateExpense_assignsNextChangeVersion() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        when(syncService.nextVersion(user)).thenReturn(42L);
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Expense result = expenseService.updateExpense(1L, expenseDTO);
+
+        // Assert
+        assertEquals(42L, result.getChangeVersion());
+    }
+
+    @Test
+    void deleteExpense_groupExpense_throwsException() {
+        // Arrange
+        expense.setGroupId(10L);
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> expenseService.deleteExpense(1L));
+        assertEquals("Group expenses must be changed through their group", exception.getMessage());
+        verify(expenseRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void materializeOccurrence_createsLinkedExpense() {
+        // Arrange
+        RecurringExpense recurringExpense = recurringExpense();
+        LocalDate occurrenceDate = LocalDate.of(2025, 2, 28);
+        expenseDTO.setDate(null);
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(recurringExpenseService.getOwned(user, 5L)).thenReturn(recurringExpense);
+        when(expenseRepository.existsByRecurringExpenseIdAndOccurrenceDate(5L, occurrenceDate)).thenReturn(false);
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Expense result = expenseService.materializeOccurrence(5L, occurrenceDate, expenseDTO);
+
+        // Assert
+        assertEquals(5L, result.getRecurringExpenseId());
+        assertEquals(occurrenceDate, result.getOccurrenceDate());
+        assertEquals(occurrenceDate, result.getDate());
+        verify(eventPublisher).publishEvent(any(ExpenseChangedEvent.class));
+    }
+
+    @Test
+    void materializeOccurrence_notAnOccurrence_throwsException() {
+        // Arrange
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(recurringExpenseService.getOwned(user, 5L)).thenReturn(recurringExpense());
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> expenseService.materializeOccurrence(5L, LocalDate.of(2025, 2, 27), expenseDTO));
+        assertEquals("Date is not an occurrence of the recurring expense", exception.getMessage());
+        verify(expenseRepository, never()).save(any(Expense.class));
+    }
+
+    private RecurringExpense recurringExpense() {
+        RecurringExpense recurringExpense = new RecurringExpense();
+        recurringExpense.setId(5L);
+        recurringExpense.setAmount(50.0);
+        recurringExpense.setCategory("Rent");
+        recurringExpense.setFrequency(Recurrence.Frequency.MONTHLY);
+        recurringExpense.setStartDate(LocalDate.of(2025, 1, 31));
+        recurringExpense.setUser(user);
+        return recurringExpense;
+    }
+
+    private void stubBaseCurrency() {
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of()));
+    }
+
+    private static FxRate fxRate(String currency, LocalDate effectiveDate, double rateToBase) {
+        FxRate fxRate = new FxRate();
+        fxRate.setCurrency(currency);
+        fxRate.setEffectiveDate(effectiveDate);
+        fxRate.setRateToBase(rateToBase);
+        return fxRate;
     }
 }
\ No newline at end of file
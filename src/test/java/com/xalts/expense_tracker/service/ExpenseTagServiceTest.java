@@ -0,0 +1,200 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseTag;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.TagIndexUpdateEvent;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseTagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseTagServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 4, 10);
+
+    @Mock
+    private ExpenseTagRepository tagRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExpenseTagService expenseTagService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        expenseTagService = new ExpenseTagService(tagRepository, expenseRepository, userService, fxRateService, eventPublisher,
+                transactionManager, 2, false);
+        user = new User();
+        user.setId(1L);
+        lenient().when(userService.getCurrentUser()).thenReturn(user);
+    }
+
+    @Test
+    void created_storesOneRowPerTagAndPublishesTheIndexUpdate() {
+        // Arrange
+        Expense expense = expense(5L, 40.0, DAY);
+        expense.setTags(Set.of("client-x", "reimbursable"));
+
+        // Act
+        expenseTagService.created(expense);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ExpenseTag>> rows = ArgumentCaptor.forClass(List.class);
+        verify(tagRepository).saveAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertSame(expense, rows.getValue().get(0).getExpense());
+        assertEquals(1L, rows.getValue().get(0).getUserId());
+        verify(eventPublisher).publishEvent(new TagIndexUpdateEvent(1L, 5L, 40.0, "USD", DAY, expense.getTags(), false));
+    }
+
+    @Test
+    void updated_withNullTags_keepsTheStoredRows() {
+        // Arrange
+        Expense expense = expense(5L, 40.0, DAY);
+
+        // Act
+        expenseTagService.updated(expense, null);
+
+        // Assert
+        verifyNoInteractions(tagRepository);
+        verify(eventPublisher).publishEvent(new TagIndexUpdateEvent(1L, 5L, 40.0, "USD", DAY, null, false));
+    }
+
+    @Test
+    void updated_withTags_replacesTheStoredRows() {
+        // Arrange
+        Expense expense = expense(5L, 40.0, DAY);
+
+        // Act
+        expenseTagService.updated(expense, Set.of("travel"));
+
+        // Assert
+        verify(tagRepository).deleteByExpenseId(5L);
+        verify(tagRepository).saveAll(anyList());
+        assertEquals(Set.of("travel"), expense.getTags());
+    }
+
+    @Test
+    void findTagged_buildsTheIndexOnceAndAppliesLaterWrites() {
+        // Arrange
+        stubStoredExpenses();
+        when(expenseRepository.findAllById(List.of(11L))).thenReturn(new ArrayList<>(List.of(expense(11L, 20.0, DAY))));
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of()));
+
+        // Act
+        List<Expense> before = expenseTagService.findTagged(List.of("Client-X"), null, List.of("personal"), 10);
+        expenseTagService.onTagIndexUpdate(new TagIndexUpdateEvent(1L, 10L, 0, null, null, null, true));
+        double total = expenseTagService.getTaggedTotal(List.of("client-x"), null, null, null, null);
+
+        // Assert
+        assertEquals(List.of(11L), before.stream().map(Expense::getId).toList());
+        assertEquals(Set.of("client-x"), before.get(0).getTags());
+        assertEquals(20.0, total);
+        verify(expenseRepository, times(1)).findIdAmountCurrencyAndDateByUserId(1L);
+    }
+
+    @Test
+    void getTaggedTotal_convertsIntoTheBaseCurrency() {
+        // Arrange
+        stubStoredExpenses();
+        FxRate eur = new FxRate();
+        eur.setCurrency("EUR");
+        eur.setEffectiveDate(DAY);
+        eur.setRateToBase(1.5);
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of(eur)));
+
+        // Act
+        double total = expenseTagService.getTaggedTotal(List.of("client-x"), null, null, null, null);
+
+        // Assert
+        assertEquals(170.0, total);
+    }
+
+    @Test
+    void onTagIndexUpdate_beforeTheIndexIsBuilt_isLeftForTheBuild() {
+        // Act
+        expenseTagService.onTagIndexUpdate(new TagIndexUpdateEvent(1L, 10L, 5.0, "USD", DAY, Set.of("travel"), false));
+
+        // Assert
+        verifyNoInteractions(expenseRepository, tagRepository);
+    }
+
+    @Test
+    void getTagCounts_countsExpensesPerTag() {
+        // Arrange
+        stubStoredExpenses();
+
+        // Act
+        Map<String, Integer> counts = expenseTagService.getTagCounts();
+
+        // Assert
+        assertEquals(Map.of("client-x", 2, "personal", 1, "reimbursable", 1), counts);
+    }
+
+    @Test
+    void findTagged_withoutTagsToMatch_throwsException() {
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> expenseTagService.findTagged(null, List.of(" "), List.of("personal"), 10));
+        assertEquals("At least one tag to match is required", exception.getMessage());
+        verifyNoInteractions(expenseRepository);
+    }
+
+    private void stubStoredExpenses() {
+        when(expenseRepository.findIdAmountCurrencyAndDateByUserId(1L)).thenReturn(List.of(
+                new Object[]{10L, 100.0, "EUR", DAY},
+                new Object[]{11L, 20.0, "USD", DAY},
+                new Object[]{12L, 7.0, "USD", DAY}));
+        when(tagRepository.findExpenseIdAndTagByUserId(1L)).thenReturn(List.of(
+                new Object[]{10L, "reimbursable"},
+                new Object[]{10L, "client-x"},
+                new Object[]{10L, "personal"},
+                new Object[]{11L, "client-x"},
+                new Object[]{99L, "client-x"}));
+    }
+
+    private Expense expense(Long id, double amount, LocalDate date) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setAmount(amount);
+        expense.setDate(date);
+        expense.setCurrency("USD");
+        expense.setUser(user);
+        return expense;
+    }
+}
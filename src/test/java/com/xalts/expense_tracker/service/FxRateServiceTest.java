@@ -0,0 +1,103 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.FxRateDTO;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.repository.FxRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FxRateServiceTest {
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    private FxRateService fxRateService;
+    private List<FxRate> table;
+
+    @BeforeEach
+    void setUp() {
+        fxRateService = new FxRateService(fxRateRepository, "usd");
+        table = new ArrayList<>();
+        table.add(fxRate("EUR", LocalDate.of(2025, 1, 1), 1.2));
+        table.add(fxRate("EUR", LocalDate.of(2025, 3, 1), 1.1));
+        table.add(fxRate("GBP", LocalDate.of(2025, 1, 1), 1.25));
+    }
+
+    @Test
+    void getSnapshot_loadsOnceAndReusesSnapshot() {
+        when(fxRateRepository.findAll()).thenReturn(table);
+
+        FxRateSnapshot first = fxRateService.getSnapshot();
+        FxRateSnapshot second = fxRateService.getSnapshot();
+
+        assertSame(first, second);
+        assertEquals("USD", first.getBaseCurrency());
+        verify(fxRateRepository, times(1)).findAll();
+    }
+
+    @Test
+    void snapshot_usesRateEffectiveOnDate() {
+        when(fxRateRepository.findAll()).thenReturn(table);
+        FxRateSnapshot snapshot = fxRateService.getSnapshot();
+
+        assertEquals(1.2, snapshot.rateToBase("EUR", LocalDate.of(2025, 2, 28)));
+        assertEquals(1.1, snapshot.rateToBase("EUR", LocalDate.of(2025, 3, 1)));
+        assertEquals(1.0, snapshot.rateToBase("USD", LocalDate.of(2020, 1, 1)));
+        assertEquals(110.0, snapshot.convert(100.0, "EUR", "USD", LocalDate.of(2025, 4, 1)), 1e-9);
+        assertEquals(88.0, snapshot.convert(100.0, "EUR", "GBP", LocalDate.of(2025, 4, 1)), 1e-9);
+    }
+
+    @Test
+    void snapshot_missingRate_throwsException() {
+        when(fxRateRepository.findAll()).thenReturn(table);
+        FxRateSnapshot snapshot = fxRateService.getSnapshot();
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> snapshot.rateToBase("EUR", LocalDate.of(2024, 12, 31)));
+        assertEquals("No FX rate for EUR on 2024-12-31", exception.getMessage());
+    }
+
+    @Test
+    void saveRate_swapsInNewSnapshotWithoutTouchingOldOne() {
+        when(fxRateRepository.findAll()).thenReturn(table);
+        FxRateSnapshot before = fxRateService.getSnapshot();
+        FxRateDTO dto = new FxRateDTO();
+        dto.setCurrency("eur");
+        dto.setEffectiveDate(LocalDate.of(2025, 4, 1));
+        dto.setRateToBase(1.05);
+        when(fxRateRepository.findByCurrencyAndEffectiveDate("EUR", LocalDate.of(2025, 4, 1))).thenReturn(Optional.empty());
+        when(fxRateRepository.save(any(FxRate.class))).thenAnswer(invocation -> {
+            FxRate saved = invocation.getArgument(0);
+            table.add(saved);
+            return saved;
+        });
+
+        fxRateService.saveRate(dto);
+        FxRateSnapshot after = fxRateService.getSnapshot();
+
+        assertNotSame(before, after);
+        assertEquals(1.1, before.rateToBase("EUR", LocalDate.of(2025, 4, 2)));
+        assertEquals(1.05, after.rateToBase("EUR", LocalDate.of(2025, 4, 2)));
+    }
+
+    private static FxRate fxRate(String currency, LocalDate effectiveDate, double rateToBase) {
+        FxRate fxRate = new FxRate();
+        fxRate.setCurrency(currency);
+        fxRate.setEffectiveDate(effectiveDate);
+        fxRate.setRateToBase(rateToBase);
+        return fxRate;
+    }
+}
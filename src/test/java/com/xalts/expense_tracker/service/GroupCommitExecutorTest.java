@@ -0,0 +1,116 @@
+package com.xalts.expense_tracker.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private GroupCommitExecutor executor;
+    private final ExecutorService callers = Executors.newFixedThreadPool(20);
+
+    @AfterEach
+    void tearDown() throws Exception {
+        callers.shutdownNow();
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    @Test
+    void submit_disabled_runsOnCallerThreadInItsOwnTransaction() {
+        // Arrange
+        executor = new GroupCommitExecutor(transactionManager, entityManager, false, 100, Duration.ofMillis(2), 100);
+        executor.start();
+
+        // Act
+        String thread = executor.submit(1L, () -> Thread.currentThread().getName());
+
+        // Assert
+        assertEquals(Thread.currentThread().getName(), thread);
+        verify(transactionManager).getTransaction(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void submit_concurrentWritesShareTransactions() throws Exception {
+        // Arrange
+        executor = new GroupCommitExecutor(transactionManager, entityManager, true, 100, Duration.ofMillis(50), 100);
+        executor.start();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Hold the writer in the first unit so the rest queue up behind it.
+        Future<Integer> first = callers.submit(() -> executor.submit(0L, () -> {
+            firstStarted.countDown();
+            await(release);
+            return 0;
+        }));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            int value = i;
+            results.add(callers.submit(() -> executor.submit(value, () -> value * 10)));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        // Assert
+        assertEquals(0, first.get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals((i + 1) * 10, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void submit_failingWriteInBatch_failsOnlyItsCaller() throws Exception {
+        // Arrange
+        executor = new GroupCommitExecutor(transactionManager, entityManager, true, 100, Duration.ofMillis(200), 100);
+        executor.start();
+
+        // Act
+        Future<String> good = callers.submit(() -> executor.submit(1L, () -> "saved"));
+        Future<String> bad = callers.submit(() -> executor.submit(2L, () -> {
+            throw new RuntimeException("Invalid expense");
+        }));
+
+        // Assert
+        assertEquals("saved", good.get(5, TimeUnit.SECONDS));
+        Exception exception = assertThrows(Exception.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertEquals("Invalid expense", exception.getCause().getMessage());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
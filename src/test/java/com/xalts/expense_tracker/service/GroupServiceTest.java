@@ -0,0 +1,225 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.GroupExpenseDTO;
+import com.xalts.expense_tracker.dto.SettlementDTO;
+import com.xalts.expense_tracker.dto.SplitType;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseShare;
+import com.xalts.expense_tracker.entity.GroupMember;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseGroupRepository;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseShareRepository;
+import com.xalts.expense_tracker.repository.GroupMemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupServiceTest {
+
+    @Mock
+    private ExpenseGroupRepository groupRepository;
+
+    @Mock
+    private GroupMemberRepository memberRepository;
+
+    @Mock
+    private ExpenseShareRepository shareRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @InjectMocks
+    private GroupService groupService;
+
+    private User user;
+    private GroupExpenseDTO expenseDTO;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+
+        expenseDTO = new GroupExpenseDTO();
+        expenseDTO.setAmount(100.0);
+        expenseDTO.setCategory("Food");
+        expenseDTO.setDate(LocalDate.of(2025, 4, 22));
+
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(memberRepository.existsByGroupIdAndUserId(10L, 1L)).thenReturn(true);
+    }
+
+    @Test
+    void addExpense_equalSplit_adjustsBalancesWithoutLosingCents() {
+        // Arrange
+        stubExpenseCreation();
+        when(memberRepository.findByGroupId(10L)).thenReturn(List.of(member(1L, 0), member(2L, 0), member(3L, 0)));
+        expenseDTO.setSplitType(SplitType.EQUAL);
+
+        // Act
+        groupService.addExpense(10L, expenseDTO);
+
+        // Assert
+        verify(memberRepository).adjustBalance(10L, 1L, 10000L - 3334L);
+        verify(memberRepository).adjustBalance(10L, 2L, -3333L);
+        verify(memberRepository).adjustBalance(10L, 3L, -3333L);
+    }
+
+    @Test
+    void addExpense_percentageSplit_appliesLargestRemainder() {
+        // Arrange
+        stubExpenseCreation();
+        when(memberRepository.countByGroupIdAndUserIdIn(eq(10L), anyCollection())).thenReturn(2L);
+        expenseDTO.setAmount(0.05);
+        expenseDTO.setSplitType(SplitType.PERCENTAGE);
+        expenseDTO.setShares(Map.of(2L, 50.0, 3L, 50.0));
+
+        // Act
+        groupService.addExpense(10L, expenseDTO);
+
+        // Assert
+        verify(memberRepository).adjustBalance(10L, 1L, 5L);
+        verify(memberRepository).adjustBalance(10L, 2L, -3L);
+        verify(memberRepository).adjustBalance(10L, 3L, -2L);
+    }
+
+    @Test
+    void addExpense_exactSharesNotMatchingAmount_throwsException() {
+        // Arrange
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of()));
+        when(memberRepository.countByGroupIdAndUserIdIn(eq(10L), anyCollection())).thenReturn(2L);
+        expenseDTO.setSplitType(SplitType.EXACT);
+        expenseDTO.setShares(Map.of(1L, 40.0, 2L, 50.0));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> groupService.addExpense(10L, expenseDTO));
+        assertEquals("Exact shares must add up to the expense amount", exception.getMessage());
+        verify(expenseService, never()).createGroupExpense(any(), any(), any());
+    }
+
+    @Test
+    void addExpense_negativePercentage_throwsException() {
+        // Arrange
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of()));
+        expenseDTO.setSplitType(SplitType.PERCENTAGE);
+        expenseDTO.setShares(Map.of(1L, 150.0, 2L, -50.0));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> groupService.addExpense(10L, expenseDTO));
+        assertEquals("Shares must be positive", exception.getMessage());
+        verify(expenseService, never()).createGroupExpense(any(), any(), any());
+        verify(memberRepository, never()).adjustBalance(any(), any(), anyLong());
+    }
+
+    @Test
+    void addExpense_negativeExactShare_throwsException() {
+        // Arrange
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of()));
+        expenseDTO.setSplitType(SplitType.EXACT);
+        expenseDTO.setShares(Map.of(1L, 130.0, 2L, -30.0));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> groupService.addExpense(10L, expenseDTO));
+        assertEquals("Shares must be positive", exception.getMessage());
+        verify(expenseService, never()).createGroupExpense(any(), any(), any());
+        verify(memberRepository, never()).adjustBalance(any(), any(), anyLong());
+    }
+
+    @Test
+    void addExpense_nonMember_throwsException() {
+        // Arrange
+        when(memberRepository.existsByGroupIdAndUserId(10L, 1L)).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> groupService.addExpense(10L, expenseDTO));
+        assertEquals("Group not found", exception.getMessage());
+    }
+
+    @Test
+    void deleteExpense_reversesStoredShares() {
+        // Arrange
+        Expense expense = new Expense();
+        expense.setId(7L);
+        expense.setGroupId(10L);
+        expense.setUser(user);
+        when(expenseRepository.findById(7L)).thenReturn(Optional.of(expense));
+        when(shareRepository.findByExpenseId(7L)).thenReturn(List.of(share(1L, 5000L), share(2L, 5000L)));
+
+        // Act
+        groupService.deleteExpense(10L, 7L);
+
+        // Assert
+        verify(memberRepository).adjustBalance(10L, 1L, 5000L - 10000L);
+        verify(memberRepository).adjustBalance(10L, 2L, 5000L);
+        verify(expenseService).deleteGroupExpense(user, expense);
+    }
+
+    @Test
+    void getSettleUp_usesStoredBalances() {
+        // Arrange
+        when(memberRepository.findByGroupId(10L)).thenReturn(List.of(member(1L, 2500), member(2L, -2500), member(3L, 0)));
+
+        // Act
+        List<SettlementDTO> settlements = groupService.getSettleUp(10L);
+
+        // Assert
+        assertEquals(1, settlements.size());
+        assertEquals(2L, settlements.get(0).getFromUserId());
+        assertEquals(1L, settlements.get(0).getToUserId());
+        assertEquals(25.0, settlements.get(0).getAmount());
+        verify(expenseRepository, never()).findById(anyLong());
+    }
+
+    private void stubExpenseCreation() {
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of()));
+        Expense saved = new Expense();
+        saved.setId(7L);
+        when(expenseService.createGroupExpense(user, 10L, expenseDTO)).thenReturn(saved);
+    }
+
+    private static GroupMember member(Long userId, long balanceCents) {
+        GroupMember member = new GroupMember();
+        member.setGroupId(10L);
+        member.setUserId(userId);
+        member.setBalanceCents(balanceCents);
+        return member;
+    }
+
+    private static ExpenseShare share(Long userId, long amountCents) {
+        ExpenseShare share = new ExpenseShare();
+        share.setExpenseId(7L);
+        share.setUserId(userId);
+        share.setAmountCents(amountCents);
+        return share;
+    }
+}
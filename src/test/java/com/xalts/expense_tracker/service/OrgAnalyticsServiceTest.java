@@ -0,0 +1,216 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.AnalyticsJobDTO;
+import com.xalts.expense_tracker.dto.AnalyticsJobDTO.Status;
+import com.xalts.expense_tracker.dto.OrgAnalyticsDTO;
+import com.xalts.expense_tracker.dto.OrgAnalyticsRequest;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrgAnalyticsServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate END = LocalDate.of(2025, 4, 30);
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    private OrgAnalyticsService orgAnalyticsService;
+
+    @AfterEach
+    void tearDown() {
+        if (orgAnalyticsService != null) {
+            orgAnalyticsService.shutdown();
+        }
+    }
+
+    @Test
+    void submit_mergesTheTotalsOfEveryRange() throws Exception {
+        // Arrange
+        orgAnalyticsService = newService(4, 2);
+        stubSnapshot();
+        when(expenseRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 35L}));
+        when(expenseRepository.findTotalsInIdRange(anyLong(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            long fromId = invocation.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{1L, "Finance", "Travel", null, LocalDate.of(2025, 3, 5), 100.0, 2L});
+            if (fromId == 11L) {
+                rows.add(new Object[]{2L, null, "Food", "EUR", LocalDate.of(2025, 4, 2), 10.0, 1L});
+            }
+            return rows;
+        });
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user(1L, "Ann", "Finance")));
+
+        // Act
+        AnalyticsJobDTO job = await(orgAnalyticsService.submit(request()).getId());
+
+        // Assert
+        assertEquals(Status.COMPLETED, job.getStatus());
+        assertEquals(4, job.getPartitions());
+        assertEquals(4, job.getPartitionsDone());
+        verify(expenseRepository).findTotalsInIdRange(1L, 10L, START, END);
+        verify(expenseRepository).findTotalsInIdRange(31L, 40L, START, END);
+        OrgAnalyticsDTO result = job.getResult();
+        assertEquals("USD", result.getCurrency());
+        assertEquals(9, result.getExpenseCount());
+        assertEquals(420.0, result.getTotal(), 1e-9);
+        assertEquals(Map.of("2025-03", 400.0), result.getByCategoryMonth().get("Travel"));
+        assertEquals(Map.of("2025-04", 20.0), result.getByCategoryMonth().get("Food"));
+        assertEquals(Map.of("Finance", 400.0, "Unassigned", 20.0), result.getByDepartment());
+        assertEquals(List.of(1L, 2L), result.getTopSpenders().stream().map(spender -> spender.getUserId()).toList());
+        assertEquals("Ann", result.getTopSpenders().get(0).getName());
+    }
+
+    @Test
+    void submit_queriesAtMostDbConcurrencyRangesAtOnce() throws Exception {
+        // Arrange
+        orgAnalyticsService = newService(4, 1);
+        stubSnapshot();
+        when(expenseRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 80L}));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(expenseRepository.findTotalsInIdRange(anyLong(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return List.of();
+        });
+
+        // Act
+        AnalyticsJobDTO job = await(orgAnalyticsService.submit(request()).getId());
+
+        // Assert
+        assertEquals(Status.COMPLETED, job.getStatus());
+        assertEquals(8, job.getPartitionsDone());
+        assertEquals(1, maxInFlight.get());
+    }
+
+    @Test
+    void cancel_stopsTheRunBeforeItsRemainingRanges() throws Exception {
+        // Arrange
+        orgAnalyticsService = newService(1, 1);
+        stubSnapshot();
+        when(expenseRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 100L}));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseRepository.findTotalsInIdRange(anyLong(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        String jobId = orgAnalyticsService.submit(request()).getId();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        orgAnalyticsService.cancel(jobId);
+        release.countDown();
+        AnalyticsJobDTO job = await(jobId);
+
+        // Assert
+        assertEquals(Status.CANCELLED, job.getStatus());
+        assertTrue(job.getPartitionsDone() < job.getPartitions());
+        assertNull(job.getResult());
+    }
+
+    @Test
+    void submit_beyondMaxRunning_throwsException() throws Exception {
+        // Arrange
+        orgAnalyticsService = newService(1, 1);
+        stubSnapshot();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseRepository.findIdRange()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        orgAnalyticsService.submit(request());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> orgAnalyticsService.submit(request()));
+        assertEquals("Too many analytics runs in progress", exception.getMessage());
+        release.countDown();
+    }
+
+    @Test
+    void submit_endBeforeStart_throwsException() {
+        // Arrange
+        orgAnalyticsService = newService(1, 1);
+        OrgAnalyticsRequest request = request();
+        request.setEndDate(START.minusDays(1));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> orgAnalyticsService.submit(request));
+        assertEquals("End date must not be before start date", exception.getMessage());
+        verifyNoInteractions(expenseRepository);
+    }
+
+    private OrgAnalyticsService newService(int parallelism, int dbConcurrency) {
+        return new OrgAnalyticsService(expenseRepository, userRepository, fxRateService, parallelism, dbConcurrency,
+                10, 1, Duration.ofMinutes(5));
+    }
+
+    private void stubSnapshot() {
+        FxRate eur = new FxRate();
+        eur.setCurrency("EUR");
+        eur.setEffectiveDate(LocalDate.of(2025, 1, 1));
+        eur.setRateToBase(2.0);
+        when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        lenient().when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of(eur)));
+    }
+
+    private AnalyticsJobDTO await(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        AnalyticsJobDTO job = orgAnalyticsService.getJob(jobId);
+        while ((job.getStatus() == Status.PENDING || job.getStatus() == Status.RUNNING) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = orgAnalyticsService.getJob(jobId);
+        }
+        return job;
+    }
+
+    private static OrgAnalyticsRequest request() {
+        OrgAnalyticsRequest request = new OrgAnalyticsRequest();
+        request.setStartDate(START);
+        request.setEndDate(END);
+        return request;
+    }
+
+    private static User user(Long id, String name, String department) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setDepartment(department);
+        return user;
+    }
+}
@@ -0,0 +1,114 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.PurgeRunDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.RecurringExpense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.RecurringExpenseRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import com.xalts.expense_tracker.util.Recurrence;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a retention purge against the embedded database, on its own schema
+ * and checkpoint directory so no earlier run is resumed.
+ */
+@ActiveProfiles("embedded")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:purge_it;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1",
+        "expense-tracker.purge.directory=${java.io.tmpdir}/expense-tracker-purge-it-${random.uuid}",
+        "expense-tracker.purge.pause=0ms"
+})
+class PurgeServiceIntegrationTest {
+
+    @Autowired
+    private PurgeService purgeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @Autowired
+    private FxRateService fxRateService;
+
+    @Test
+    void purge_keepsMaterializedOccurrences() throws Exception {
+        // Arrange
+        LocalDate occurrence = LocalDate.of(2010, 3, 1);
+        User user = new User();
+        user.setName("Purge User");
+        user.setEmail("purge-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        user = userRepository.save(user);
+
+        RecurringExpense rent = new RecurringExpense();
+        rent.setAmount(1000.0);
+        rent.setCategory("Rent");
+        rent.setCurrency("USD");
+        rent.setFrequency(Recurrence.Frequency.MONTHLY);
+        rent.setStartDate(LocalDate.of(2010, 1, 1));
+        rent.setUser(user);
+        rent = recurringExpenseRepository.save(rent);
+
+        Expense edited = expense(user, 1200.0, "Rent", occurrence);
+        edited.setRecurringExpenseId(rent.getId());
+        edited.setOccurrenceDate(occurrence);
+        edited = expenseRepository.save(edited);
+        Expense plain = expenseRepository.save(expense(user, 10.0, "Food", occurrence.plusDays(4)));
+
+        // Act
+        purgeService.submit();
+        PurgeRunDTO run = awaitFinished();
+
+        // Assert
+        assertEquals(PurgeRunDTO.Status.COMPLETED, run.getStatus());
+        assertFalse(expenseRepository.existsById(plain.getId()));
+        assertTrue(expenseRepository.existsById(edited.getId()));
+        Map<String, Double> virtual = recurringExpenseService.getVirtualByUserAndCategory(List.of(user.getId()),
+                occurrence, occurrence.withDayOfMonth(31), "USD", fxRateService.getSnapshot())
+                .getOrDefault(user.getId(), Map.of());
+        assertEquals(0.0, virtual.getOrDefault("Rent", 0.0), 0.001);
+    }
+
+    private PurgeRunDTO awaitFinished() throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            PurgeRunDTO run = purgeService.getRun();
+            if (run.getStatus() != PurgeRunDTO.Status.PENDING && run.getStatus() != PurgeRunDTO.Status.RUNNING) {
+                return run;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Purge run did not finish");
+    }
+
+    private static Expense expense(User user, double amount, String category, LocalDate date) {
+        Expense expense = new Expense();
+        expense.setUser(user);
+        expense.setAmount(amount);
+        expense.setCategory(category);
+        expense.setCurrency("USD");
+        expense.setDate(date);
+        return expense;
+    }
+}
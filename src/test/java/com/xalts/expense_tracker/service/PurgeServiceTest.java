@@ -0,0 +1,294 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.PurgeRunDTO;
+import com.xalts.expense_tracker.dto.PurgeRunDTO.Phase;
+import com.xalts.expense_tracker.dto.PurgeRunDTO.Status;
+import com.xalts.expense_tracker.event.ExpensesPurgedEvent;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseTombstoneRepository;
+import com.xalts.expense_tracker.repository.GroupMemberRepository;
+import com.xalts.expense_tracker.repository.RecurringExpenseRepository;
+import com.xalts.expense_tracker.repository.SpendingBucketRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PurgeServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-15T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDate CUTOFF = LocalDate.of(2019, 1, 15);
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Mock
+    private ExpenseTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private SpendingBucketRepository bucketRepository;
+
+    @Mock
+    private GroupMemberRepository memberRepository;
+
+    @Mock
+    private AttachmentService attachmentService;
+
+    @Mock
+    private SpendingStatsService spendingStatsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<DataSource> dataSourceProvider;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private PurgeService purgeService;
+
+    @AfterEach
+    void tearDown() {
+        if (purgeService != null) {
+            purgeService.shutdown();
+        }
+    }
+
+    @Test
+    void submit_deletesExpiredExpensesRangeByRange() throws Exception {
+        // Arrange
+        purgeService = purgeService(Period.ofYears(7), null);
+        when(expenseRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 5L}));
+        when(expenseRepository.findPurgeableInIdRange(anyLong(), anyLong(), eq(CUTOFF))).thenReturn(List.of());
+        when(expenseRepository.findPurgeableInIdRange(1L, 2L, CUTOFF)).thenReturn(List.of(
+                new Object[]{1L, 7L, "Food", LocalDate.of(2018, 3, 4), 12},
+                new Object[]{2L, 8L, "Rent", LocalDate.of(2018, 3, 1), null}));
+        when(expenseRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+        when(userRepository.findSyncVersion(7L)).thenReturn(41L);
+        when(userRepository.findSyncVersion(8L)).thenReturn(3L);
+
+        // Act
+        PurgeRunDTO run = await(purgeService.submit());
+
+        // Assert
+        assertEquals(Status.COMPLETED, run.getStatus());
+        assertEquals(Phase.DONE, run.getPhase());
+        assertEquals(CUTOFF, run.getCutoff());
+        assertEquals(2, run.getExpensesDeleted());
+        verify(expenseRepository).findPurgeableInIdRange(3L, 4L, CUTOFF);
+        verify(expenseRepository).findPurgeableInIdRange(5L, 5L, CUTOFF);
+        verify(expenseRepository, times(1)).deleteByIdIn(any());
+        verify(attachmentService).deleteForExpenses(List.of(1L, 2L));
+        verify(spendingStatsService).forget(7L, "Food", LocalDate.of(2018, 3, 1), 12, 1);
+        verifyNoMoreInteractions(spendingStatsService);
+        // Clients resync rather than keep expenses deleted without tombstones.
+        verify(userRepository).incrementSyncVersion(7L, 1);
+        verify(userRepository).raiseSyncFloor(7L, 41L);
+        verify(userRepository).raiseSyncFloor(8L, 3L);
+        verify(eventPublisher).publishEvent(new ExpensesPurgedEvent(7L, List.of(1L)));
+        verify(eventPublisher).publishEvent(new ExpensesPurgedEvent(8L, List.of(2L)));
+        assertEquals("true", checkpoint().getProperty("complete"));
+    }
+
+    @Test
+    void submit_deactivatedUsers_deletesTheirDataAndAccountsWithoutGroupRecords() throws Exception {
+        // Arrange
+        purgeService = purgeService(Period.ZERO, null);
+        Instant deactivatedBefore = CLOCK.instant().minus(Duration.ofDays(30));
+        when(userRepository.findDeactivatedAfter(eq(0L), eq(deactivatedBefore), any(Pageable.class)))
+                .thenReturn(List.of(9L, 10L));
+        when(userRepository.findDeactivatedAfter(eq(10L), eq(deactivatedBefore), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(expenseRepository.findPersonalByUserId(eq(9L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{20L, 9L, "Food", LocalDate.of(2025, 6, 1), null}))
+                .thenReturn(List.of());
+        when(expenseRepository.findPersonalByUserId(eq(10L), any(Pageable.class))).thenReturn(List.of());
+        when(expenseRepository.deleteByIdIn(List.of(20L))).thenReturn(1);
+        when(memberRepository.existsByUserId(9L)).thenReturn(false);
+        when(memberRepository.existsByUserId(10L)).thenReturn(true);
+
+        // Act
+        PurgeRunDTO run = await(purgeService.submit());
+
+        // Assert
+        assertEquals(Status.COMPLETED, run.getStatus());
+        assertNull(run.getCutoff());
+        assertEquals(1, run.getExpensesDeleted());
+        assertEquals(2, run.getUsersPurged());
+        verify(expenseRepository, never()).findIdRange();
+        verify(recurringExpenseRepository).deleteByUserId(9L);
+        verify(tombstoneRepository).deleteByUserId(9L);
+        verify(bucketRepository).deleteByUserId(9L);
+        verify(recurringExpenseRepository).deleteByUserId(10L);
+        verify(userRepository).deleteById(9L);
+        verify(userRepository, never()).deleteById(10L);
+    }
+
+    @Test
+    void cancel_keepsTheCheckpointAndSubmitResumesAfterIt() throws Exception {
+        // Arrange
+        purgeService = purgeService(Period.ofYears(7), null);
+        when(expenseRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 6L}));
+        when(expenseRepository.findPurgeableInIdRange(anyLong(), anyLong(), eq(CUTOFF))).thenAnswer(invocation -> {
+            purgeService.cancel();
+            return List.of();
+        });
+        PurgeRunDTO cancelled = await(purgeService.submit());
+        Properties checkpoint = checkpoint();
+        when(expenseRepository.findPurgeableInIdRange(anyLong(), anyLong(), eq(CUTOFF))).thenReturn(List.of());
+
+        // Act
+        PurgeRunDTO resumed = await(purgeService.submit());
+
+        // Assert
+        assertEquals(Status.CANCELLED, cancelled.getStatus());
+        assertEquals("2", checkpoint.getProperty("lastExpenseId"));
+        assertEquals("true", checkpoint.getProperty("cancelled"));
+        assertEquals(Status.COMPLETED, resumed.getStatus());
+        verify(expenseRepository, times(1)).findIdRange();
+        verify(expenseRepository, times(1)).findPurgeableInIdRange(1L, 2L, CUTOFF);
+        verify(expenseRepository).findPurgeableInIdRange(3L, 4L, CUTOFF);
+        verify(expenseRepository).findPurgeableInIdRange(5L, 6L, CUTOFF);
+    }
+
+    @Test
+    void submit_interruptedRun_resumesWithItsOriginalCutoff() throws Exception {
+        // Arrange
+        Files.createDirectories(directory);
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("cutoff", "2018-06-30");
+        checkpoint.setProperty("deactivatedBefore", "2025-12-01T00:00:00Z");
+        checkpoint.setProperty("phase", "RETENTION");
+        checkpoint.setProperty("maxExpenseId", "6");
+        checkpoint.setProperty("lastExpenseId", "4");
+        checkpoint.setProperty("lastUserId", "0");
+        checkpoint.setProperty("expensesDeleted", "17");
+        checkpoint.setProperty("usersPurged", "0");
+        checkpoint.setProperty("complete", "false");
+        checkpoint.setProperty("cancelled", "false");
+        try (OutputStream out = Files.newOutputStream(directory.resolve("checkpoint.properties"))) {
+            checkpoint.store(out, null);
+        }
+        purgeService = purgeService(Period.ofYears(7), null);
+        LocalDate cutoff = LocalDate.of(2018, 6, 30);
+        when(expenseRepository.findPurgeableInIdRange(5L, 6L, cutoff)).thenReturn(List.of());
+
+        // Act
+        assertEquals(Status.INTERRUPTED, purgeService.getRun().getStatus());
+        PurgeRunDTO run = await(purgeService.submit());
+
+        // Assert
+        assertEquals(Status.COMPLETED, run.getStatus());
+        assertEquals(cutoff, run.getCutoff());
+        assertEquals(17, run.getExpensesDeleted());
+        verify(expenseRepository, never()).findIdRange();
+        verify(expenseRepository, times(1)).findPurgeableInIdRange(anyLong(), anyLong(), any());
+        verify(userRepository).findDeactivatedAfter(eq(0L), eq(Instant.parse("2025-12-01T00:00:00Z")), any());
+    }
+
+    @Test
+    void submit_laggingReplicas_holdTheNextChunkBack() throws Exception {
+        // Arrange
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet result = mock(ResultSet.class);
+        when(dataSourceProvider.getIfAvailable()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SELECT lag")).thenReturn(result);
+        when(result.next()).thenReturn(true);
+        when(result.getDouble(1)).thenReturn(30.0, 30.0, 1.0);
+        purgeService = purgeService(Period.ofYears(7), "SELECT lag");
+        when(expenseRepository.findIdRange()).thenReturn(List.<Object[]>of(new Object[]{1L, 4L}));
+        when(expenseRepository.findPurgeableInIdRange(1L, 2L, CUTOFF))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 7L, "Food", LocalDate.of(2018, 3, 4), null}));
+        when(expenseRepository.findPurgeableInIdRange(3L, 4L, CUTOFF)).thenReturn(List.of());
+        when(expenseRepository.deleteByIdIn(List.of(1L))).thenReturn(1);
+
+        // Act
+        PurgeRunDTO run = await(purgeService.submit());
+
+        // Assert
+        assertEquals(Status.COMPLETED, run.getStatus());
+        verify(statement, times(3)).executeQuery("SELECT lag");
+    }
+
+    @Test
+    void getRun_noRun_throwsException() {
+        purgeService = purgeService(Period.ofYears(7), null);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> purgeService.getRun());
+
+        assertEquals("Purge run not found", exception.getMessage());
+    }
+
+    private PurgeService purgeService(Period retention, String replicaLagQuery) {
+        return new PurgeService(expenseRepository, userRepository, recurringExpenseRepository, tombstoneRepository,
+                bucketRepository, memberRepository, attachmentService, spendingStatsService, eventPublisher,
+                dataSourceProvider, transactionManager, directory.toString(), retention, Duration.ofDays(30), 2,
+                Duration.ofSeconds(5), Duration.ZERO, Duration.ofMillis(1), replicaLagQuery, Duration.ofSeconds(5),
+                true, CLOCK);
+    }
+
+    private PurgeRunDTO await(PurgeRunDTO submitted) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        PurgeRunDTO run = submitted;
+        while ((run.getStatus() == Status.PENDING || run.getStatus() == Status.RUNNING) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            run = purgeService.getRun();
+        }
+        return run;
+    }
+
+    private Properties checkpoint() throws IOException {
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(directory.resolve("checkpoint.properties"))) {
+            checkpoint.load(in);
+        }
+        return checkpoint;
+    }
+}
@@ -0,0 +1,199 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.RecurringOccurrenceDTO;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.entity.RecurringExpense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.RecurringExpenseRepository;
+import com.xalts.expense_tracker.util.Recurrence;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringExpenseServiceTest {
+
+    @Mock
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RecurringExpenseService recurringExpenseService;
+
+    private User user;
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+
+        startDate = LocalDate.of(2025, 1, 1);
+        endDate = LocalDate.of(2025, 12, 31);
+    }
+
+    @Test
+    void getVirtualByCategory_countsOccurrencesAndSkipsMaterialized() {
+        // Arrange
+        RecurringExpense rent = recurringExpense(1L, "Rent", 1000.0, "USD", Recurrence.Frequency.MONTHLY, LocalDate.of(2024, 6, 15));
+        RecurringExpense gym = recurringExpense(2L, "Health", 10.0, "USD", Recurrence.Frequency.WEEKLY, LocalDate.of(2025, 12, 1));
+        when(recurringExpenseRepository.findOverlapping(user, startDate, endDate)).thenReturn(List.of(rent, gym));
+        List<Object[]> materialized = new ArrayList<>();
+        materialized.add(new Object[]{1L, LocalDate.of(2025, 3, 15)});
+        when(expenseRepository.findMaterializedOccurrences(user, startDate, endDate)).thenReturn(materialized);
+
+        // Act
+        Map<String, Double> result = recurringExpenseService.getVirtualByCategory(user, startDate, endDate, "USD",
+                new FxRateSnapshot("USD", List.of()));
+
+        // Assert
+        assertEquals(11 * 1000.0, result.get("Rent"));
+        assertEquals(5 * 10.0, result.get("Health"));
+    }
+
+    @Test
+    void getVirtualByCategory_withCurrency_convertsPerRateSegment() {
+        // Arrange
+        RecurringExpense rent = recurringExpense(1L, "Rent", 100.0, "EUR", Recurrence.Frequency.MONTHLY, LocalDate.of(2025, 1, 1));
+        when(recurringExpenseRepository.findOverlapping(user, startDate, endDate)).thenReturn(List.of(rent));
+        when(expenseRepository.findMaterializedOccurrences(user, startDate, endDate)).thenReturn(List.of());
+        FxRateSnapshot snapshot = new FxRateSnapshot("USD", List.of(
+                fxRate("EUR", LocalDate.of(2024, 1, 1), 1.0),
+                fxRate("EUR", LocalDate.of(2025, 7, 1), 2.0)));
+
+        // Act
+        Map<String, Double> result = recurringExpenseService.getVirtualByCategory(user, startDate, endDate, "USD", snapshot);
+
+        // Assert
+        assertEquals(6 * 100.0 + 6 * 200.0, result.get("Rent"), 1e-9);
+    }
+
+    @Test
+    void getVirtualByUserAndCategory_groupsByOwnerWithTwoQueries() {
+        // Arrange
+        User other = new User();
+        other.setId(2L);
+        RecurringExpense rent = recurringExpense(1L, "Rent", 1000.0, "USD", Recurrence.Frequency.MONTHLY, LocalDate.of(2024, 6, 15));
+        RecurringExpense gym = recurringExpense(2L, "Health", 10.0, "USD", Recurrence.Frequency.WEEKLY, LocalDate.of(2025, 12, 1));
+        gym.setUser(other);
+        when(recurringExpenseRepository.findOverlappingForUsers(List.of(1L, 2L), startDate, endDate))
+                .thenReturn(List.of(rent, gym));
+        List<Object[]> materialized = new ArrayList<>();
+        materialized.add(new Object[]{1L, LocalDate.of(2025, 3, 15)});
+        when(expenseRepository.findMaterializedOccurrencesForUsers(List.of(1L, 2L), startDate, endDate))
+                .thenReturn(materialized);
+        FxRateSnapshot snapshot = new FxRateSnapshot("USD", List.of());
+
+        // Act
+        Map<Long, Map<String, Double>> result = recurringExpenseService.getVirtualByUserAndCategory(List.of(1L, 2L),
+                startDate, endDate, "USD", snapshot);
+
+        // Assert
+        assertEquals(Map.of(1L, Map.of("Rent", 11 * 1000.0), 2L, Map.of("Health", 5 * 10.0)), result);
+        verify(recurringExpenseRepository, never()).findOverlapping(any(), any(), any());
+    }
+
+    @Test
+    void getVirtualByMonth_splitsCountsByMonth() {
+        // Arrange
+        RecurringExpense coffee = recurringExpense(1L, "Food", 3.0, "USD", Recurrence.Frequency.DAILY, LocalDate.of(2025, 1, 30));
+        coffee.setEndDate(LocalDate.of(2025, 2, 2));
+        when(recurringExpenseRepository.findOverlapping(user, startDate, endDate)).thenReturn(List.of(coffee));
+        when(expenseRepository.findMaterializedOccurrences(user, startDate, endDate)).thenReturn(List.of());
+
+        // Act
+        Map<String, Double> result = recurringExpenseService.getVirtualByMonth(user, startDate, endDate, "USD",
+                new FxRateSnapshot("USD", List.of()));
+
+        // Assert
+        assertEquals(Map.of("2025-01", 6.0, "2025-02", 6.0), result);
+    }
+
+    @Test
+    void getOccurrences_mergesDefinitionsInDateOrder() {
+        // Arrange
+        RecurringExpense monthly = recurringExpense(1L, "Rent", 1000.0, "USD", Recurrence.Frequency.MONTHLY, LocalDate.of(2025, 1, 10));
+        RecurringExpense weekly = recurringExpense(2L, "Health", 10.0, "USD", Recurrence.Frequency.WEEKLY, LocalDate.of(2025, 1, 1));
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(recurringExpenseRepository.findOverlapping(user, startDate, endDate)).thenReturn(List.of(monthly, weekly));
+        List<Object[]> materialized = new ArrayList<>();
+        materialized.add(new Object[]{2L, LocalDate.of(2025, 1, 8)});
+        when(expenseRepository.findMaterializedOccurrences(user, startDate, endDate)).thenReturn(materialized);
+
+        // Act
+        Page<RecurringOccurrenceDTO> page = recurringExpenseService.getOccurrences(startDate, endDate, PageRequest.of(0, 3));
+
+        // Assert
+        assertEquals(12 + 53 - 1, page.getTotalElements());
+        assertEquals(List.of(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 10), LocalDate.of(2025, 1, 15)),
+                page.getContent().stream().map(RecurringOccurrenceDTO::getDate).toList());
+    }
+
+    @Test
+    void deleteRecurringExpense_otherUsersDefinition_throwsException() {
+        // Arrange
+        User otherUser = new User();
+        otherUser.setId(2L);
+        RecurringExpense rent = recurringExpense(1L, "Rent", 1000.0, "USD", Recurrence.Frequency.MONTHLY, startDate);
+        rent.setUser(otherUser);
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(recurringExpenseRepository.findById(1L)).thenReturn(Optional.of(rent));
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> recurringExpenseService.deleteRecurringExpense(1L));
+        assertEquals("Unauthorized access to recurring expense", exception.getMessage());
+        verify(recurringExpenseRepository, never()).delete(any());
+    }
+
+    private RecurringExpense recurringExpense(Long id, String category, double amount, String currency,
+                                              Recurrence.Frequency frequency, LocalDate start) {
+        RecurringExpense recurringExpense = new RecurringExpense();
+        recurringExpense.setId(id);
+        recurringExpense.setCategory(category);
+        recurringExpense.setAmount(amount);
+        recurringExpense.setCurrency(currency);
+        recurringExpense.setFrequency(frequency);
+        recurringExpense.setStartDate(start);
+        recurringExpense.setUser(user);
+        return recurringExpense;
+    }
+
+    private static FxRate fxRate(String currency, LocalDate effectiveDate, double rateToBase) {
+        FxRate fxRate = new FxRate();
+        fxRate.setCurrency(currency);
+        fxRate.setEffectiveDate(effectiveDate);
+        fxRate.setRateToBase(rateToBase);
+        return fxRate;
+    }
+}
@@ -0,0 +1,177 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.ReportGrouping;
+import com.xalts.expense_tracker.dto.ReportJobDTO;
+import com.xalts.expense_tracker.dto.ReportJobRequest;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.event.ExpenseChangedEvent;
+import com.xalts.expense_tracker.event.ExpensesPurgedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceTest {
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private UserService userService;
+
+    private ReportJobService reportJobService;
+    private User user;
+    private ReportJobRequest request;
+
+    @BeforeEach
+    void setUp() {
+        reportJobService = new ReportJobService(expenseService, userService, 2, 10, 1, Duration.ofMinutes(10));
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+
+        request = new ReportJobRequest();
+        request.setStartDate(LocalDate.of(2020, 1, 1));
+        request.setEndDate(LocalDate.of(2025, 12, 31));
+        request.setGrouping(ReportGrouping.CATEGORY);
+
+        when(userService.getCurrentUser()).thenReturn(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    void submit_runsJobAndPollReturnsResult() throws Exception {
+        // Arrange
+        when(expenseService.getExpensesByCategory(user, request.getStartDate(), request.getEndDate()))
+                .thenReturn(Map.of("Food", 100.0));
+
+        // Act
+        ReportJobDTO submitted = reportJobService.submit(request);
+        ReportJobDTO polled = reportJobService.poll(submitted.getId(), 5_000).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(submitted.getId());
+        assertEquals(ReportJobDTO.Status.COMPLETED, polled.getStatus());
+        assertEquals(Map.of("Food", 100.0), polled.getResult());
+        assertNotNull(polled.getCompletedAt());
+    }
+
+    @Test
+    void submit_identicalInFlightSpec_returnsSameJob() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseService.getExpensesByCategory(user, request.getStartDate(), request.getEndDate()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return Map.of("Food", 100.0);
+                });
+
+        // Act
+        ReportJobDTO first = reportJobService.submit(request);
+        ReportJobDTO second = reportJobService.submit(request);
+        release.countDown();
+        reportJobService.poll(first.getId(), 5_000).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(first.getId(), second.getId());
+        verify(expenseService, times(1)).getExpensesByCategory(user, request.getStartDate(), request.getEndDate());
+    }
+
+    @Test
+    void submit_overPerUserLimit_throwsException() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(expenseService.getExpensesByCategory(user, request.getStartDate(), request.getEndDate()))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Map.of();
+                });
+        ReportJobRequest other = new ReportJobRequest();
+        other.setStartDate(request.getStartDate());
+        other.setEndDate(request.getEndDate());
+        other.setGrouping(ReportGrouping.TOTAL);
+
+        // Act & Assert
+        reportJobService.submit(request);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> reportJobService.submit(other));
+        assertEquals("Too many report jobs in progress", exception.getMessage());
+        release.countDown();
+    }
+
+    @Test
+    void submit_completedSpec_servedFromCacheUntilExpenseChanges() throws Exception {
+        // Arrange
+        when(expenseService.getExpensesByCategory(user, request.getStartDate(), request.getEndDate()))
+                .thenReturn(Map.of("Food", 100.0));
+        ReportJobDTO first = reportJobService.submit(request);
+        reportJobService.poll(first.getId(), 5_000).get(5, TimeUnit.SECONDS);
+
+        // Act
+        ReportJobDTO cached = reportJobService.submit(request);
+        reportJobService.onExpenseChanged(new ExpenseChangedEvent(1L, 7L, ExpenseChangedEvent.ChangeType.CREATED));
+        ReportJobDTO recomputed = reportJobService.submit(request);
+        reportJobService.poll(recomputed.getId(), 5_000).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(first.getId(), cached.getId());
+        assertEquals(ReportJobDTO.Status.COMPLETED, cached.getStatus());
+        assertNotEquals(first.getId(), recomputed.getId());
+        verify(expenseService, times(2)).getExpensesByCategory(user, request.getStartDate(), request.getEndDate());
+    }
+
+    @Test
+    void submit_completedSpec_recomputedAfterPurge() throws Exception {
+        // Arrange
+        when(expenseService.getExpensesByCategory(user, request.getStartDate(), request.getEndDate()))
+                .thenReturn(Map.of("Food", 100.0));
+        ReportJobDTO first = reportJobService.submit(request);
+        reportJobService.poll(first.getId(), 5_000).get(5, TimeUnit.SECONDS);
+
+        // Act
+        reportJobService.onExpensesPurged(new ExpensesPurgedEvent(1L, List.of(7L)));
+        ReportJobDTO recomputed = reportJobService.submit(request);
+        reportJobService.poll(recomputed.getId(), 5_000).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotEquals(first.getId(), recomputed.getId());
+        verify(expenseService, times(2)).getExpensesByCategory(user, request.getStartDate(), request.getEndDate());
+    }
+
+    @Test
+    void poll_otherUsersJob_throwsException() throws Exception {
+        // Arrange
+        when(expenseService.getExpensesByCategory(user, request.getStartDate(), request.getEndDate()))
+                .thenReturn(Map.of());
+        ReportJobDTO submitted = reportJobService.submit(request);
+        reportJobService.poll(submitted.getId(), 5_000).get(5, TimeUnit.SECONDS);
+        User otherUser = new User();
+        otherUser.setId(2L);
+        when(userService.getCurrentUser()).thenReturn(otherUser);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> reportJobService.poll(submitted.getId(), 0));
+        assertEquals("Report job not found", exception.getMessage());
+    }
+}
@@ -0,0 +1,166 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.CategoryStatsDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.SpendingBucketRepository;
+import com.xalts.expense_tracker.util.QuantileSketch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendingStatsServiceTest {
+
+    @Mock
+    private SpendingBucketRepository bucketRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    private SpendingStatsService spendingStatsService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        spendingStatsService = new SpendingStatsService(bucketRepository, expenseRepository, fxRateService, 6, 20, 3.0);
+        user = new User();
+        user.setId(1L);
+        lenient().when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        lenient().when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of()));
+    }
+
+    @Test
+    void record_incrementsBucketForCategoryAndMonth() {
+        // Arrange
+        Expense expense = expense(42.0, "Food", LocalDate.of(2025, 3, 14));
+
+        // Act
+        spendingStatsService.record(expense);
+
+        // Assert
+        int bucket = QuantileSketch.bucketOf(42.0);
+        assertEquals(bucket, expense.getSketchBucket());
+        verify(bucketRepository).increment(1L, "Food", 202503, bucket, 1);
+    }
+
+    @Test
+    void forget_decrementsTheBucketItWasCountedIn() {
+        // Arrange
+        Expense expense = expense(42.0, "Food", LocalDate.of(2025, 3, 14));
+        expense.setSketchBucket(123);
+
+        // Act
+        spendingStatsService.forget(expense);
+
+        // Assert
+        verify(bucketRepository).increment(1L, "Food", 202503, 123, -1);
+        assertNull(expense.getSketchBucket());
+    }
+
+    @Test
+    void forget_unsketchedExpense_doesNothing() {
+        // Act
+        spendingStatsService.forget(expense(42.0, "Food", LocalDate.of(2025, 3, 14)));
+
+        // Assert
+        verifyNoInteractions(bucketRepository);
+    }
+
+    @Test
+    void isAnomalous_flagsAmountFarAboveUsualWithinLookback() {
+        // Arrange
+        when(bucketRepository.findMerged(1L, "Food", 202409, 202503))
+                .thenReturn(List.<Object[]>of(new Object[]{QuantileSketch.bucketOf(20.0), 30L}));
+
+        // Act & Assert
+        assertTrue(spendingStatsService.isAnomalous(expense(500.0, "Food", LocalDate.of(2025, 3, 14))));
+        assertFalse(spendingStatsService.isAnomalous(expense(50.0, "Food", LocalDate.of(2025, 3, 14))));
+    }
+
+    @Test
+    void isAnomalous_tooLittleHistory_neverFlags() {
+        // Arrange
+        when(bucketRepository.findMerged(eq(1L), eq("Food"), anyInt(), anyInt()))
+                .thenReturn(List.<Object[]>of(new Object[]{QuantileSketch.bucketOf(20.0), 5L}));
+
+        // Act & Assert
+        assertFalse(spendingStatsService.isAnomalous(expense(5_000.0, "Food", LocalDate.of(2025, 3, 14))));
+    }
+
+    @Test
+    void getCategoryStats_mergesBucketsPerCategory() {
+        // Arrange
+        when(expenseRepository.findUnsketched(eq(user), any(Pageable.class))).thenReturn(List.of());
+        List<Object[]> rows = new ArrayList<>();
+        for (int amount = 1; amount <= 100; amount++) {
+            rows.add(new Object[]{"Food", QuantileSketch.bucketOf(amount), 1L});
+        }
+        rows.add(new Object[]{"Rent", QuantileSketch.bucketOf(1_500.0), 2L});
+        when(bucketRepository.findMergedByCategory(1L, 202501, 202503)).thenReturn(rows);
+
+        // Act
+        List<CategoryStatsDTO> stats = spendingStatsService.getCategoryStats(user,
+                LocalDate.of(2025, 1, 15), LocalDate.of(2025, 3, 10));
+
+        // Assert
+        assertEquals(List.of("Food", "Rent"), stats.stream().map(CategoryStatsDTO::getCategory).toList());
+        CategoryStatsDTO food = stats.get(0);
+        assertEquals(100, food.getCount());
+        assertEquals(50.0, food.getMedian(), 50.0 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(90.0, food.getP90(), 90.0 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals(99.0, food.getP99(), 99.0 * QuantileSketch.RELATIVE_ACCURACY);
+        assertEquals("USD", food.getCurrency());
+        assertEquals(1_500.0, stats.get(1).getMedian(), 1_500.0 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void getCategoryStats_backfillsUnsketchedExpensesGroupedByBucket() {
+        // Arrange
+        Expense first = expense(10.0, "Food", LocalDate.of(2025, 1, 5));
+        first.setId(1L);
+        Expense second = expense(10.0, "Food", LocalDate.of(2025, 1, 20));
+        second.setId(2L);
+        when(expenseRepository.findUnsketched(eq(user), any(Pageable.class)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of());
+        when(expenseRepository.setSketchBucket(List.of(1L, 2L), QuantileSketch.bucketOf(10.0))).thenReturn(2);
+        when(bucketRepository.findMergedByCategory(anyLong(), anyInt(), anyInt())).thenReturn(List.of());
+
+        // Act
+        spendingStatsService.getCategoryStats(user, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31));
+
+        // Assert
+        verify(bucketRepository).increment(1L, "Food", 202501, QuantileSketch.bucketOf(10.0), 2);
+        verify(expenseRepository).setSketchBucket(anyCollection(), anyInt());
+    }
+
+    private Expense expense(double amount, String category, LocalDate date) {
+        Expense expense = new Expense();
+        expense.setAmount(amount);
+        expense.setCategory(category);
+        expense.setDate(date);
+        expense.setCurrency("USD");
+        expense.setUser(user);
+        return expense;
+    }
+}
@@ -0,0 +1,267 @@
+package com.xalts.expense_tracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xalts.expense_tracker.dto.StatementRunDTO;
+import com.xalts.expense_tracker.dto.StatementRunDTO.Status;
+import com.xalts.expense_tracker.dto.StatementRunRequest;
+import com.xalts.expense_tracker.entity.FxRate;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementBatchServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2025, 3);
+    private static final LocalDate START = MONTH.atDay(1);
+    private static final LocalDate END = MONTH.atEndOfMonth();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private RecurringExpenseService recurringExpenseService;
+
+    @Mock
+    private FxRateService fxRateService;
+
+    @Mock
+    private ObjectProvider<DataSource> dataSourceProvider;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StatementBatchService statementBatchService;
+
+    @BeforeEach
+    void setUp() {
+        statementBatchService = new StatementBatchService(userRepository, expenseRepository, recurringExpenseService,
+                fxRateService, objectMapper, dataSourceProvider, transactionManager, directory.toString(), 2, 2,
+                Duration.ZERO, Duration.ofMillis(10), true);
+        FxRate eur = new FxRate();
+        eur.setCurrency("EUR");
+        eur.setEffectiveDate(LocalDate.of(2025, 1, 1));
+        eur.setRateToBase(2.0);
+        lenient().when(fxRateService.getBaseCurrency()).thenReturn("USD");
+        lenient().when(fxRateService.getSnapshot()).thenReturn(new FxRateSnapshot("USD", List.of(eur)));
+        // Five active users, walked two at a time.
+        lenient().when(userRepository.findActiveAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int size = invocation.<Pageable>getArgument(1).getPageSize();
+            List<Object[]> users = new ArrayList<>();
+            for (long id = afterId + 1; id <= 5 && users.size() < size; id++) {
+                users.add(new Object[]{id, "User " + id, "user" + id + "@example.com"});
+            }
+            return users;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        statementBatchService.shutdown();
+    }
+
+    @Test
+    void submit_writesOneCompressedFilePerChunkOfUsers() throws Exception {
+        // Arrange
+        // Lenient, since the other chunks call the same methods with their own users.
+        lenient().when(expenseRepository.findTotalsForUsers(eq(List.of(1L, 2L)), eq(START), eq(END)))
+                .thenReturn(List.of(
+                        new Object[]{1L, "Food", "USD", LocalDate.of(2025, 3, 3), 30.0},
+                        new Object[]{1L, "Food", "EUR", LocalDate.of(2025, 3, 4), 5.0},
+                        new Object[]{2L, "Travel", null, LocalDate.of(2025, 3, 9), 100.0}));
+        lenient().when(recurringExpenseService.getVirtualByUserAndCategory(eq(List.of(1L, 2L)), eq(START), eq(END),
+                eq("USD"), any())).thenReturn(Map.of(1L, Map.of("Rent", 500.0)));
+
+        // Act
+        StatementRunDTO run = await(statementBatchService.submit(request()));
+
+        // Assert
+        assertEquals(Status.COMPLETED, run.getStatus());
+        assertEquals(5, run.getUsersDone());
+        assertEquals(3, run.getChunksDone());
+        Path runDirectory = directory.resolve("2025-03-USD");
+        List<JsonNode> statements = new ArrayList<>();
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            List<Path> chunks = files.filter(file -> file.toString().endsWith(".jsonl.gz")).sorted().toList();
+            assertEquals(3, chunks.size());
+            for (Path chunk : chunks) {
+                statements.addAll(readStatements(chunk));
+            }
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), statements.stream().map(node -> node.get("userId").asLong()).toList());
+        JsonNode first = statements.get(0);
+        assertEquals("user1@example.com", first.get("email").asText());
+        assertEquals("2025-03", first.get("month").asText());
+        assertEquals(540.0, first.get("totalExpenses").asDouble(), 1e-9);
+        assertEquals(40.0, first.get("expensesByCategory").get("Food").asDouble(), 1e-9);
+        assertEquals(500.0, first.get("expensesByCategory").get("Rent").asDouble(), 1e-9);
+        assertEquals(100.0, statements.get(1).get("totalExpenses").asDouble(), 1e-9);
+        assertEquals(0.0, statements.get(4).get("totalExpenses").asDouble());
+        assertEquals("true", checkpoint(runDirectory).getProperty("complete"));
+    }
+
+    @Test
+    void submit_completedRun_isNotRepeated() throws Exception {
+        // Arrange
+        await(statementBatchService.submit(request()));
+        clearInvocations(userRepository);
+
+        // Act
+        StatementRunDTO run = statementBatchService.submit(request());
+
+        // Assert
+        assertEquals(Status.COMPLETED, run.getStatus());
+        assertEquals(5, run.getUsersDone());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void submit_interruptedRun_resumesAfterTheCheckpoint() throws Exception {
+        // Arrange
+        Path runDirectory = Files.createDirectories(directory.resolve("2025-03-USD"));
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("month", "2025-03");
+        checkpoint.setProperty("currency", "USD");
+        checkpoint.setProperty("lastUserId", "2");
+        checkpoint.setProperty("usersDone", "2");
+        checkpoint.setProperty("chunksDone", "1");
+        checkpoint.setProperty("complete", "false");
+        try (var out = Files.newOutputStream(runDirectory.resolve("checkpoint.properties"))) {
+            checkpoint.store(out, null);
+        }
+        // A chunk finished out of order before the crash, and one cut off half-way.
+        Path stale = runDirectory.resolve(String.format("statements-%019d.jsonl.gz", 4));
+        Files.write(stale, new byte[]{1, 2, 3});
+        Files.write(runDirectory.resolve(String.format("statements-%019d.jsonl.gz.tmp", 3)), new byte[]{1});
+
+        // Act
+        StatementRunDTO run = await(statementBatchService.submit(request()));
+
+        // Assert
+        assertEquals(Status.COMPLETED, run.getStatus());
+        assertEquals(5, run.getUsersDone());
+        assertEquals(3, run.getChunksDone());
+        verify(userRepository, never()).findActiveAfter(eq(0L), any());
+        verify(userRepository).findActiveAfter(eq(2L), any());
+        verify(expenseRepository, never()).findTotalsForUsers(eq(List.of(1L, 2L)), any(), any());
+        assertFalse(Files.exists(stale));
+        assertEquals(List.of(3L, 4L), readStatements(runDirectory.resolve(String.format("statements-%019d.jsonl.gz", 3)))
+                .stream().map(node -> node.get("userId").asLong()).toList());
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void submit_failingChunk_failsTheRunAndKeepsTheCheckpointBeforeIt() throws Exception {
+        // Arrange
+        lenient().when(expenseRepository.findTotalsForUsers(eq(List.of(3L, 4L)), any(), any()))
+                .thenThrow(new RuntimeException("connection reset"));
+        statementBatchService = restartWithParallelism(1);
+
+        // Act
+        StatementRunDTO run = await(statementBatchService.submit(request()));
+
+        // Assert
+        assertEquals(Status.FAILED, run.getStatus());
+        assertEquals("connection reset", run.getError());
+        Properties checkpoint = checkpoint(directory.resolve("2025-03-USD"));
+        assertEquals("2", checkpoint.getProperty("lastUserId"));
+        assertEquals("false", checkpoint.getProperty("complete"));
+        verify(userRepository, never()).findActiveAfter(eq(4L), any());
+    }
+
+    @Test
+    void getRun_unknownRun_throwsException() {
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> statementBatchService.getRun(MONTH, "USD"));
+        assertEquals("Statement run not found", exception.getMessage());
+    }
+
+    private StatementBatchService restartWithParallelism(int parallelism) {
+        statementBatchService.shutdown();
+        return new StatementBatchService(userRepository, expenseRepository, recurringExpenseService, fxRateService,
+                objectMapper, dataSourceProvider, transactionManager, directory.toString(), 2, parallelism,
+                Duration.ZERO, Duration.ofMillis(10), true);
+    }
+
+    private StatementRunDTO await(StatementRunDTO submitted) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        YearMonth month = YearMonth.parse(submitted.getMonth());
+        StatementRunDTO run = statementBatchService.getRun(month, submitted.getCurrency());
+        while ((run.getStatus() == Status.PENDING || run.getStatus() == Status.RUNNING) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            run = statementBatchService.getRun(month, submitted.getCurrency());
+        }
+        return run;
+    }
+
+    private List<JsonNode> readStatements(Path chunk) throws IOException {
+        List<JsonNode> statements = new ArrayList<>();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(chunk));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                statements.add(objectMapper.readTree(line));
+            }
+        }
+        return statements;
+    }
+
+    private static Properties checkpoint(Path runDirectory) throws IOException {
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(runDirectory.resolve("checkpoint.properties"))) {
+            checkpoint.load(in);
+        }
+        return checkpoint;
+    }
+
+    private static StatementRunRequest request() {
+        StatementRunRequest request = new StatementRunRequest();
+        request.setMonth(MONTH);
+        return request;
+    }
+}
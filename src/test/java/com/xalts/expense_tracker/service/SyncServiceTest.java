@@ -0,0 +1,147 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.dto.SyncResponseDTO;
+import com.xalts.expense_tracker.entity.Expense;
+import com.xalts.expense_tracker.entity.ExpenseTombstone;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.ExpenseRepository;
+import com.xalts.expense_tracker.repository.ExpenseTombstoneRepository;
+import com.xalts.expense_tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ExpenseTombstoneRepository tombstoneRepository;
+
+    private SyncService syncService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new SyncService(userRepository, expenseRepository, tombstoneRepository,
+                Duration.ofDays(30), 1000, Clock.fixed(NOW, ZoneOffset.UTC));
+        user = new User();
+        user.setId(1L);
+    }
+
+    @Test
+    void changesSince_mergesUpsertsAndDeletesInVersionOrderUpToLimit() {
+        // Arrange
+        stubVersions(9L, 0L);
+        when(expenseRepository.findByUserAndChangeVersionGreaterThanOrderByChangeVersion(eq(user), eq(4L), any(Pageable.class)))
+                .thenReturn(List.of(expense(10L, 5L), expense(11L, 7L), expense(12L, 9L)));
+        when(tombstoneRepository.findByUserIdAndChangeVersionGreaterThanOrderByChangeVersion(eq(1L), eq(4L), any(Pageable.class)))
+                .thenReturn(List.of(tombstone(20L, 6L), tombstone(21L, 8L)));
+
+        // Act
+        SyncResponseDTO response = syncService.changesSince(user, 4L, 3);
+
+        // Assert
+        assertEquals(List.of(10L, 11L), response.getUpserts().stream().map(Expense::getId).toList());
+        assertEquals(List.of(20L), response.getDeletedIds());
+        assertEquals(7L, response.getVersion());
+        assertTrue(response.isHasMore());
+        assertFalse(response.isReset());
+    }
+
+    @Test
+    void changesSince_caughtUp_returnsCurrentVersion() {
+        // Arrange
+        stubVersions(12L, 0L);
+        when(expenseRepository.findByUserAndChangeVersionGreaterThanOrderByChangeVersion(eq(user), eq(12L), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(tombstoneRepository.findByUserIdAndChangeVersionGreaterThanOrderByChangeVersion(eq(1L), eq(12L), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // Act
+        SyncResponseDTO response = syncService.changesSince(user, 12L, 100);
+
+        // Assert
+        assertTrue(response.getUpserts().isEmpty());
+        assertEquals(12L, response.getVersion());
+        assertFalse(response.isHasMore());
+    }
+
+    @Test
+    void changesSince_olderThanCompactedTombstones_requestsReset() {
+        // Arrange
+        stubVersions(50L, 30L);
+        when(expenseRepository.findByUserAndChangeVersionGreaterThanOrderByChangeVersion(eq(user), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(expense(10L, 45L)));
+
+        // Act
+        SyncResponseDTO response = syncService.changesSince(user, 20L, 100);
+
+        // Assert
+        assertTrue(response.isReset());
+        assertEquals(50L, response.getVersion());
+        verify(tombstoneRepository, never()).findByUserIdAndChangeVersionGreaterThanOrderByChangeVersion(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void compactTombstones_raisesFloorBeforeDeleting() {
+        // Arrange
+        Instant cutoff = NOW.minus(Duration.ofDays(30));
+        List<Object[]> maxVersions = new ArrayList<>();
+        maxVersions.add(new Object[]{1L, 17L});
+        when(tombstoneRepository.findMaxVersionByUserDeletedBefore(cutoff)).thenReturn(maxVersions);
+        when(tombstoneRepository.deleteByDeletedAtBefore(cutoff)).thenReturn(3);
+
+        // Act
+        int removed = syncService.compactTombstones();
+
+        // Assert
+        assertEquals(3, removed);
+        var order = inOrder(userRepository, tombstoneRepository);
+        order.verify(userRepository).raiseSyncFloor(1L, 17L);
+        order.verify(tombstoneRepository).deleteByDeletedAtBefore(cutoff);
+    }
+
+    private void stubVersions(long current, long floor) {
+        when(expenseRepository.findUnversionedIds(eq(user), any(Pageable.class))).thenReturn(List.of());
+        when(userRepository.findSyncVersion(1L)).thenReturn(current);
+        when(userRepository.findSyncFloor(1L)).thenReturn(floor);
+    }
+
+    private static Expense expense(Long id, long changeVersion) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setChangeVersion(changeVersion);
+        return expense;
+    }
+
+    private static ExpenseTombstone tombstone(Long expenseId, long changeVersion) {
+        ExpenseTombstone tombstone = new ExpenseTombstone();
+        tombstone.setExpenseId(expenseId);
+        tombstone.setChangeVersion(changeVersion);
+        return tombstone;
+    }
+}
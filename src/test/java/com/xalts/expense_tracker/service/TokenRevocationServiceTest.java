@@ -0,0 +1,123 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.RevokedToken;
+import com.xalts.expense_tracker.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00.400Z");
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void revoke_rejectsThatTokenOnly() {
+        // Arrange
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Claims revoked = claims("a@example.com", NOW.minusSeconds(60));
+        Claims other = claims("a@example.com", NOW.minusSeconds(60));
+
+        // Act
+        tokenRevocationService.revoke(revoked);
+
+        // Assert
+        assertTrue(tokenRevocationService.isRevoked(revoked));
+        assertFalse(tokenRevocationService.isRevoked(other));
+        verify(revokedTokenRepository).save(argThat(row -> revoked.getId().equals(row.getTokenId())
+                && row.getExpiresAt().equals(revoked.getExpiration().toInstant())));
+    }
+
+    @Test
+    void revokeAll_rejectsTokensIssuedUpToTheRevokingSecond() {
+        // Arrange
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        tokenRevocationService.revokeAll("a@example.com");
+
+        // Assert
+        assertTrue(tokenRevocationService.isRevoked(claims("a@example.com", NOW.minusSeconds(3600))));
+        assertTrue(tokenRevocationService.isRevoked(claims("a@example.com", Instant.parse("2025-06-01T12:00:00Z"))));
+        assertFalse(tokenRevocationService.isRevoked(claims("a@example.com", Instant.parse("2025-06-01T12:00:01Z"))));
+        assertFalse(tokenRevocationService.isRevoked(claims("b@example.com", NOW.minusSeconds(3600))));
+    }
+
+    @Test
+    void refresh_appliesRevocationsPersistedByOtherInstances() {
+        // Arrange
+        Claims claims = claims("a@example.com", NOW.minusSeconds(60));
+        RevokedToken row = new RevokedToken();
+        row.setId(7L);
+        row.setTokenId(claims.getId());
+        row.setSubject("a@example.com");
+        row.setRevokedAt(NOW.minusSeconds(10));
+        row.setExpiresAt(claims.getExpiration().toInstant());
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqualAndIdGreaterThanOrderById(
+                any(Instant.class), eq(0L), any(Pageable.class))).thenReturn(List.of(row));
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqualAndIdGreaterThanOrderById(
+                any(Instant.class), eq(7L), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        tokenRevocationService.refresh();
+
+        // Assert
+        assertTrue(tokenRevocationService.isRevoked(claims));
+    }
+
+    @Test
+    void refresh_forgetsUserCutoffsOnceTheirTokensHaveExpired() {
+        // Arrange
+        RevokedToken row = new RevokedToken();
+        row.setId(1L);
+        row.setSubject("a@example.com");
+        row.setRevokedAt(NOW.minus(Duration.ofHours(11)));
+        row.setExpiresAt(NOW.minus(Duration.ofHours(1)));
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqualAndIdGreaterThanOrderById(
+                any(Instant.class), anyLong(), any(Pageable.class))).thenReturn(List.of(row)).thenReturn(List.of());
+
+        // Act
+        tokenRevocationService.refresh();
+
+        // Assert
+        assertFalse(tokenRevocationService.isRevoked(claims("a@example.com", NOW.minus(Duration.ofHours(12)))));
+    }
+
+    private static Claims claims(String subject, Instant issuedAt) {
+        return Jwts.claims()
+                .id(UUID.randomUUID().toString())
+                .subject(subject)
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(issuedAt.plus(Duration.ofHours(10))))
+                .build();
+    }
+}
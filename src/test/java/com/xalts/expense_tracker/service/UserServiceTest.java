@@ -1,16 +1,24 @@
 package com.xalts.expense_tracker.service;
 
+import com.xalts.expense_tracker.dto.ChangePasswordRequest;
+import com.xalts.expense_tracker.dto.DeactivatedUserDTO;
 import com.xalts.expense_tracker.dto.LoginRequest;
 import com.xalts.expense_tracker.dto.RegisterRequest;
+import com.xalts.expense_tracker.dto.UserDepartmentDTO;
 import com.xalts.expense_tracker.entity.User;
 import com.xalts.expense_tracker.repository.UserRepository;
+import com.xalts.expense_tracker.util.AuthenticatedUser;
 import com.xalts.expense_tracker.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,6 +41,9 @@ class UserServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private UserService userService;
 
@@ -115,6 +126,93 @@ class UserServiceTest {
         verifyNoInteractions(jwtUtil);
     }
 
+    @Test
+    void loginUser_deactivatedUser_throwsException() {
+        user.setActive(false);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> userService.loginUser(loginRequest));
+
+        assertEquals("Account is deactivated", exception.getMessage());
+        verifyNoInteractions(jwtUtil);
+    }
+
+    @Test
+    void logoutUser_revokesTheToken() {
+        Claims claims = Jwts.claims().id("token-id").subject("test@example.com").build();
+        when(jwtUtil.extractAllClaims("jwtToken")).thenReturn(claims);
+
+        userService.logoutUser("jwtToken");
+
+        verify(tokenRevocationService).revoke(claims);
+    }
+
+    @Test
+    void changePassword_revokesEveryExistingToken() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        ChangePasswordRequest request = new ChangePasswordRequest();
+        request.setCurrentPassword("password");
+        request.setNewPassword("newPassword");
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(passwordEncoder.encode("newPassword")).thenReturn("newEncodedPassword");
+
+        try {
+            userService.changePassword(request);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertEquals("newEncodedPassword", user.getPassword());
+        verify(userRepository).save(user);
+        verify(tokenRevocationService).revokeAll("test@example.com");
+    }
+
+    @Test
+    void deactivateUser_revokesEveryExistingToken() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        DeactivatedUserDTO result = userService.deactivateUser(1L);
+
+        assertEquals(1L, result.getId());
+        assertFalse(result.isActive());
+        assertNotNull(result.getDeactivatedAt());
+        verify(tokenRevocationService).revokeAll("test@example.com");
+    }
+
+    @Test
+    void setDepartment_trimsAndClearsBlankValues() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        UserDepartmentDTO updated = userService.setDepartment(1L, "  Finance ");
+        assertEquals(1L, updated.getId());
+        assertEquals("test@example.com", updated.getEmail());
+        assertEquals("Finance", updated.getDepartment());
+        assertNull(userService.setDepartment(1L, " ").getDepartment());
+    }
+
+    @Test
+    void getCurrentUser_tokenPrincipal_returnsReferenceWithoutQuery() {
+        User reference = new User();
+        reference.setId(1L);
+        when(userRepository.getReferenceById(1L)).thenReturn(reference);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(1L, "test@example.com"), null, user.getAuthorities()));
+
+        User result;
+        try {
+            result = userService.getCurrentUser();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertSame(reference, result);
+        verify(userRepository, never()).findByEmail(any());
+    }
+
     @Test
     void loadUserByUsername_success() {
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
@@ -0,0 +1,60 @@
+package com.xalts.expense_tracker.service;
+
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Saves a user loaded before a concurrent sync counter update, on its own
+ * schema, and checks the counters are not written back.
+ */
+@ActiveProfiles("embedded")
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:user_sync_it;MODE=MySQL;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1")
+class UserSyncCounterIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void save_ofAStaleUser_keepsConcurrentSyncCounterUpdates() {
+        // Arrange
+        User created = new User();
+        created.setName("Sync User");
+        created.setEmail("sync-" + UUID.randomUUID() + "@example.com");
+        created.setPassword("unused");
+        Long id = userRepository.save(created).getId();
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        TransactionTemplate inner = new TransactionTemplate(transactionManager);
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Act
+        outer.executeWithoutResult(status -> {
+            User user = userRepository.findById(id).orElseThrow();
+            inner.executeWithoutResult(nested -> {
+                userRepository.incrementSyncVersion(id, 3);
+                userRepository.raiseSyncFloor(id, 2);
+            });
+            user.setDepartment("Finance");
+            userRepository.save(user);
+        });
+
+        // Assert
+        assertEquals(3, userRepository.findSyncVersion(id));
+        assertEquals(2, userRepository.findSyncFloor(id));
+        assertEquals("Finance", userRepository.findById(id).orElseThrow().getDepartment());
+    }
+}
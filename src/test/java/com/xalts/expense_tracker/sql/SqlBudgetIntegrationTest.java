@@ -0,0 +1,233 @@
+package com.xalts.expense_tracker.sql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xalts.expense_tracker.entity.User;
+import com.xalts.expense_tracker.repository.UserRepository;
+import com.xalts.expense_tracker.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Guards the SQL issued by each {@code ExpenseController} and
+ * {@code AuthController} endpoint on the embedded database: every request
+ * must stay within a fixed statement budget, and every SELECT it issues must
+ * be answered through an index rather than a table scan. Raising a budget
+ * should be a deliberate change to this file, not a side effect.
+ */
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.xalts.expense_tracker.sql.StatementRecorder")
+class SqlBudgetIntegrationTest {
+
+    private static final String PASSWORD = "sql-budget-password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = new User();
+        user.setName("Budget User");
+        user.setEmail("budget-" + UUID.randomUUID() + "@example.com");
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user = userRepository.save(user);
+        token = jwtUtil.generateToken(user);
+
+        // Enough rows that the planner has a real choice between an index and a scan. Rows are
+        // already versioned, so the budgets measure steady state rather than one-off backfills.
+        List<Object[]> rows = new ArrayList<>();
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 200; i++) {
+            rows.add(new Object[]{10.0 + i, "Seed " + i, i % 2 == 0 ? "Food" : "Travel",
+                    Date.valueOf(start.plusDays(i)), "USD", user.getId(), i + 1L});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expense (amount, description, category, date, currency, user_id, "
+                + "change_version) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.update("UPDATE user SET sync_version = ? WHERE id = ?", rows.size(), user.getId());
+        // Reading stats once folds the seeded rows into the spending sketches.
+        mockMvc.perform(authorized(get("/api/expenses/stats").param("startDate", "2025-01-01")
+                .param("endDate", "2025-12-31")));
+    }
+
+    @Test
+    void register() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of(
+                "name", "New User", "email", "new-" + UUID.randomUUID() + "@example.com", "password", PASSWORD));
+        assertBudget(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(body), 1);
+    }
+
+    @Test
+    void login() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("email", user.getEmail(), "password", PASSWORD));
+        assertBudget(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(body), 1);
+    }
+
+    @Test
+    void logout_revokedTokenIsRejectedWithoutQueries() throws Exception {
+        assertBudget(authorized(post("/api/auth/logout")), 1);
+
+        StatementRecorder.start();
+        int status;
+        try {
+            status = mockMvc.perform(authorized(get("/api/expenses"))).andReturn().getResponse().getStatus();
+        } finally {
+            assertEquals(List.of(), StatementRecorder.stop());
+        }
+        assertEquals(403, status);
+    }
+
+    @Test
+    void createExpense() throws Exception {
+        assertBudget(authorized(post("/api/expenses").contentType(MediaType.APPLICATION_JSON)
+                .content(expenseJson(42.0, "Food"))), 5);
+    }
+
+    @Test
+    void listExpenses() throws Exception {
+        assertBudget(authorized(get("/api/expenses").param("page", "0").param("size", "20")), 2);
+    }
+
+    @Test
+    void sync() throws Exception {
+        assertBudget(authorized(get("/api/expenses/sync").param("since", "0")), 3);
+    }
+
+    @Test
+    void categoryStats() throws Exception {
+        assertBudget(authorized(get("/api/expenses/stats")
+                .param("startDate", "2025-01-01").param("endDate", "2025-03-31")), 2);
+    }
+
+    @Test
+    void updateExpense() throws Exception {
+        Long id = firstExpenseId();
+        assertBudget(authorized(put("/api/expenses/" + id).contentType(MediaType.APPLICATION_JSON)
+                .content(expenseJson(55.0, "Travel"))), 6);
+    }
+
+    @Test
+    void deleteExpense() throws Exception {
+        Long id = firstExpenseId();
+        // One more than update: the expense's attachments are looked up so their files can be released.
+        assertBudget(authorized(delete("/api/expenses/" + id)), 7);
+    }
+
+    @Test
+    void total() throws Exception {
+        assertBudget(authorized(get("/api/expenses/total")
+                .param("startDate", "2025-01-01").param("endDate", "2025-03-31")), 2);
+    }
+
+    @Test
+    void byCategory() throws Exception {
+        assertBudget(authorized(get("/api/expenses/by-category")
+                .param("startDate", "2025-01-01").param("endDate", "2025-03-31")), 2);
+    }
+
+    @Test
+    void monthlyReport() throws Exception {
+        assertBudget(authorized(get("/api/expenses/report/monthly").param("year", "2025").param("month", "2")), 4);
+    }
+
+    @Test
+    void authenticatedRead_doesNotReadTheUserTable() throws Exception {
+        StatementRecorder.start();
+        List<String> statements;
+        try {
+            mockMvc.perform(authorized(get("/api/expenses/report/monthly").param("year", "2025").param("month", "2")));
+        } finally {
+            statements = StatementRecorder.stop();
+        }
+        assertEquals(List.of(), statements.stream()
+                .filter(sql -> sql.toLowerCase().matches("(?s).*\\bfrom (`|\")?user(`|\")?\\b.*")).toList());
+    }
+
+    private void assertBudget(RequestBuilder request, int budget) throws Exception {
+        StatementRecorder.start();
+        MvcResult result;
+        List<String> statements;
+        try {
+            result = mockMvc.perform(request).andReturn();
+        } finally {
+            statements = StatementRecorder.stop();
+        }
+        int status = result.getResponse().getStatus();
+        assertTrue(status >= 200 && status < 300, "Unexpected status " + status + ": "
+                + result.getResponse().getContentAsString());
+        assertTrue(statements.size() <= budget, "Expected at most " + budget + " statements but got "
+                + statements.size() + ":\n" + String.join("\n", statements));
+        statements.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .forEach(this::assertIndexedPlan);
+    }
+
+    /** Fails when H2 plans the query as a full scan of any table it reads. */
+    private void assertIndexedPlan(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class,
+                Collections.nCopies(parameters, null).toArray()));
+        if (plan.contains("tableScan")) {
+            fail("Query plan uses a table scan:\n" + sql + "\n" + plan);
+        }
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private Long firstExpenseId() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM expense WHERE user_id = ?", Long.class, user.getId());
+    }
+
+    private String expenseJson(double amount, String category) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("amount", amount, "category", category,
+                "description", "Budget check", "date", "2025-02-10"));
+    }
+}
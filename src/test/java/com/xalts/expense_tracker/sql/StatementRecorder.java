@@ -0,0 +1,37 @@
+package com.xalts.expense_tracker.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector that records the SQL issued on the thread
+ * that called {@link #start()}, so statements from scheduled jobs and other
+ * background threads never count against a request.
+ */
+public class StatementRecorder implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+    private static volatile Thread recordingThread;
+
+    public static synchronized void start() {
+        statements.clear();
+        recordingThread = Thread.currentThread();
+    }
+
+    public static synchronized List<String> stop() {
+        recordingThread = null;
+        return new ArrayList<>(statements);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (Thread.currentThread() == recordingThread) {
+            synchronized (StatementRecorder.class) {
+                statements.add(sql);
+            }
+        }
+        return sql;
+    }
+}
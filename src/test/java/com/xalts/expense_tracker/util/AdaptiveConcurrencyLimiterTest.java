@@ -0,0 +1,101 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    @Test
+    void tryAcquire_respectsShareOfLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 2.0, 10);
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire(0.6));
+        }
+
+        assertFalse(limiter.tryAcquire(0.6));
+        assertTrue(limiter.tryAcquire(1.0));
+        assertEquals(7, limiter.getInFlight());
+    }
+
+    @Test
+    void release_decrementsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 2.0, 10);
+        limiter.tryAcquire(1.0);
+        limiter.tryAcquire(1.0);
+
+        limiter.release();
+        limiter.release(5 * MILLI, false);
+
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void latencyIncrease_shrinksLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 400, 1.5, 10);
+        runWindows(limiter, 100, 5 * MILLI, false, 5);
+        int before = limiter.getLimit();
+
+        runWindows(limiter, 100, 50 * MILLI, false, 5);
+
+        assertTrue(limiter.getLimit() < before);
+    }
+
+    @Test
+    void saturation_shrinksLimitEvenWithStableLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 400, 2.0, 10);
+
+        runWindows(limiter, 100, 5 * MILLI, true, 5);
+
+        assertTrue(limiter.getLimit() < 100);
+    }
+
+    @Test
+    void stableLatencyUnderLoad_growsLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 400, 2.0, 10);
+
+        runWindows(limiter, 20, 5 * MILLI, false, 10);
+
+        assertTrue(limiter.getLimit() > 20);
+    }
+
+    @Test
+    void lightLoad_doesNotGrowLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 400, 2.0, 10);
+
+        runWindows(limiter, 5, 5 * MILLI, false, 10);
+
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    void limit_neverDropsBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 400, 2.0, 10);
+
+        runWindows(limiter, 10, 5 * MILLI, true, 100);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    private static void runWindows(AdaptiveConcurrencyLimiter limiter, int concurrency, long latencyNanos,
+                                   boolean saturated, int windows) {
+        for (int w = 0; w < windows; w++) {
+            for (int i = 0; i < 10; i++) {
+                int admitted = 0;
+                while (admitted < concurrency && limiter.tryAcquire(1.0)) {
+                    admitted++;
+                }
+                for (int j = 0; j < admitted; j++) {
+                    if (j == 0) {
+                        limiter.release(latencyNanos, saturated);
+                    } else {
+                        limiter.release();
+                    }
+                }
+            }
+        }
+    }
+}
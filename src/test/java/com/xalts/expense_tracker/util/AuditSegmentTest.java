@@ -0,0 +1,146 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_concurrentWritersAllLandIntact() throws Exception {
+        AuditSegment segment = AuditSegment.create(directory.resolve("0.seg"), 1 << 20);
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long userId = t;
+            Thread writer = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perThread; i++) {
+                    assertTrue(segment.append(i, userId, ("record-" + userId + "-" + i).getBytes()) >= 0);
+                }
+            });
+            writer.start();
+            writers.add(writer);
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        for (long userId = 0; userId < threads; userId++) {
+            List<AuditSegment.Entry> entries = segment.read(userId, Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(perThread, entries.size());
+            for (int i = 0; i < perThread; i++) {
+                assertEquals(i, entries.get(i).timestamp());
+                assertEquals("record-" + userId + "-" + i, new String(entries.get(i).body()));
+            }
+        }
+    }
+
+    @Test
+    void append_fullSegment_returnsMinusOne() throws Exception {
+        AuditSegment segment = AuditSegment.create(directory.resolve("0.seg"), 64);
+
+        assertEquals(0, segment.append(1, 1, new byte[16]));
+        assertEquals(-1, segment.append(2, 1, new byte[16]));
+    }
+
+    @Test
+    void open_unsealed_recoversUpToTheFirstDamagedRecord() throws Exception {
+        Path file = directory.resolve("0.seg");
+        AuditSegment segment = AuditSegment.create(file, 4096);
+        segment.append(10, 1, "first".getBytes());
+        int second = segment.append(20, 1, "second".getBytes());
+        segment.append(30, 2, "third".getBytes());
+        segment.force();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), second + 24);
+        }
+
+        AuditSegment reopened = AuditSegment.open(file);
+
+        assertEquals(List.of("first"), reopened.read(1, Long.MIN_VALUE, Long.MAX_VALUE).stream()
+                .map(entry -> new String(entry.body())).toList());
+        assertFalse(reopened.mayContain(2, Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(second, reopened.append(40, 3, "fourth".getBytes()));
+        assertEquals(1, AuditSegment.open(file).read(3, 0, 100).size());
+    }
+
+    @Test
+    void open_unsealed_skipsARecordWhoseWriterDiedAndKeepsLaterOnes() throws Exception {
+        Path file = directory.resolve("0.seg");
+        AuditSegment segment = AuditSegment.create(file, 4096);
+        segment.append(10, 1, "first".getBytes());
+        int second = segment.append(20, 1, "second".getBytes());
+        int third = segment.append(30, 2, "third".getBytes());
+        segment.force();
+        // As left by a writer that marked its slot and died before publishing the length.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, second - third), second);
+        }
+
+        AuditSegment reopened = AuditSegment.open(file);
+
+        assertEquals(List.of("first"), reopened.read(1, Long.MIN_VALUE, Long.MAX_VALUE).stream()
+                .map(entry -> new String(entry.body())).toList());
+        assertEquals(List.of("third"), reopened.read(2, Long.MIN_VALUE, Long.MAX_VALUE).stream()
+                .map(entry -> new String(entry.body())).toList());
+        assertTrue(reopened.append(40, 3, "fourth".getBytes()) > third);
+    }
+
+    @Test
+    void open_unsealed_skipsASlotReservedButNeverMarked() throws Exception {
+        Path file = directory.resolve("0.seg");
+        AuditSegment segment = AuditSegment.create(file, 4096);
+        segment.append(10, 1, "first".getBytes());
+        int second = segment.append(20, 1, "second".getBytes());
+        int third = segment.append(30, 2, "third".getBytes());
+        segment.force();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(third - second), second);
+        }
+
+        AuditSegment reopened = AuditSegment.open(file);
+
+        assertEquals(1, reopened.read(1, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertEquals(1, reopened.read(2, Long.MIN_VALUE, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void seal_writesAnIndexThatReopeningUses() throws Exception {
+        Path file = directory.resolve("0.seg");
+        AuditSegment segment = AuditSegment.create(file, 4096);
+        segment.append(100, 7, "a".getBytes());
+        segment.append(200, 8, "b".getBytes());
+        segment.seal();
+
+        AuditSegment reopened = AuditSegment.open(file);
+
+        assertTrue(Files.exists(AuditSegment.indexFileOf(file)));
+        assertTrue(reopened.isSealed());
+        assertEquals(-1, reopened.append(300, 7, "c".getBytes()));
+        assertTrue(reopened.mayContain(7, 50, 150));
+        assertFalse(reopened.mayContain(7, 250, 300));
+        assertFalse(reopened.mayContain(9, 0, 1000));
+        assertEquals(1, reopened.read(8, 0, 1000).size());
+    }
+}
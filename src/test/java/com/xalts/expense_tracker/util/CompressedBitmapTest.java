@@ -0,0 +1,92 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedBitmapTest {
+
+    @Test
+    void operations_matchSetSemanticsAcrossSparseAndDenseChunks() {
+        Random random = new Random(11);
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        // Chunk 0 dense in both, chunk 1 sparse in both, chunk 2 dense against sparse.
+        for (int i = 0; i < 20_000; i++) {
+            int dense = random.nextInt(65_536);
+            int sparse = 65_536 + random.nextInt(65_536);
+            int mixed = 131_072 + random.nextInt(65_536);
+            if (i % 2 == 0) {
+                left.add(dense);
+                a.add(dense);
+                left.add(mixed);
+                a.add(mixed);
+            } else {
+                right.add(dense);
+                b.add(dense);
+            }
+            if (i % 10 == 0) {
+                left.add(sparse);
+                a.add(sparse);
+            } else if (i % 10 == 1) {
+                right.add(sparse);
+                b.add(sparse);
+                right.add(mixed);
+                b.add(mixed);
+            }
+        }
+
+        TreeSet<Integer> intersection = new TreeSet<>(left);
+        intersection.retainAll(right);
+        TreeSet<Integer> union = new TreeSet<>(left);
+        union.addAll(right);
+        TreeSet<Integer> difference = new TreeSet<>(left);
+        difference.removeAll(right);
+
+        assertArrayEquals(toArray(intersection), CompressedBitmap.and(a, b).toArray());
+        assertArrayEquals(toArray(union), CompressedBitmap.or(a, b).toArray());
+        assertArrayEquals(toArray(difference), CompressedBitmap.andNot(a, b).toArray());
+        assertEquals(left.size(), a.cardinality());
+    }
+
+    @Test
+    void remove_shrinksDenseChunkBackAndDropsEmptyChunks() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 5000; i++) {
+            bitmap.add(i);
+        }
+        long dense = bitmap.memoryBytes();
+        for (int i = 100; i < 5000; i++) {
+            bitmap.remove(i);
+        }
+
+        assertEquals(100, bitmap.cardinality());
+        assertTrue(bitmap.memoryBytes() < dense);
+        for (int i = 0; i < 100; i++) {
+            bitmap.remove(i);
+        }
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void copy_isIndependentOfTheOriginal() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(3);
+        CompressedBitmap copy = bitmap.copy();
+
+        copy.add(4);
+        bitmap.remove(3);
+
+        assertArrayEquals(new int[]{3, 4}, copy.toArray());
+        assertFalse(bitmap.contains(3));
+    }
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,70 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintWindowTest {
+
+    private static final int DAY = 20_000;
+
+    @Test
+    void exactMatch_findsOtherExpensesWithTheFingerprint() {
+        FingerprintWindow window = new FingerprintWindow(8);
+        window.put(1, 111, 5, DAY);
+
+        assertEquals(1, window.exactMatch(111, -1));
+        assertEquals(-1, window.exactMatch(111, 1));
+        assertEquals(-1, window.exactMatch(222, -1));
+    }
+
+    @Test
+    void nearMatches_sameAmountKeyWithinTheDays_newestFirst() {
+        FingerprintWindow window = new FingerprintWindow(8);
+        window.put(1, 111, 5, DAY);
+        window.put(2, 222, 5, DAY + 2);
+        window.put(3, 333, 5, DAY + 10);
+        window.put(4, 444, 6, DAY);
+
+        assertArrayEquals(new long[]{2, 1}, window.nearMatches(5, DAY + 1, 3, -1));
+        assertArrayEquals(new long[]{1}, window.nearMatches(5, DAY + 1, 3, 2));
+    }
+
+    @Test
+    void put_overwritesTheOldestOnceFull() {
+        FingerprintWindow window = new FingerprintWindow(2);
+        window.put(1, 111, 5, DAY);
+        window.put(2, 222, 5, DAY);
+        window.put(3, 333, 5, DAY);
+
+        assertEquals(2, window.size());
+        assertEquals(-1, window.exactMatch(111, -1));
+        assertArrayEquals(new long[]{3, 2}, window.nearMatches(5, DAY, 0, -1));
+    }
+
+    @Test
+    void put_existingExpenseReplacesItsFingerprint() {
+        FingerprintWindow window = new FingerprintWindow(4);
+        window.put(1, 111, 5, DAY);
+        window.put(1, 222, 6, DAY);
+
+        assertEquals(1, window.size());
+        assertEquals(-1, window.exactMatch(111, -1));
+        assertEquals(1, window.exactMatch(222, -1));
+        assertArrayEquals(new long[0], window.nearMatches(5, DAY, 3, -1));
+    }
+
+    @Test
+    void remove_handsTheFingerprintToAKeptDuplicate() {
+        FingerprintWindow window = new FingerprintWindow(4);
+        window.put(1, 111, 5, DAY);
+        window.put(2, 111, 5, DAY);
+
+        window.remove(2);
+
+        assertEquals(1, window.exactMatch(111, -1));
+        window.remove(1);
+        assertEquals(-1, window.exactMatch(111, -1));
+        assertEquals(0, window.size());
+    }
+}
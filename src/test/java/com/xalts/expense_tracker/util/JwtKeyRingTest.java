@@ -0,0 +1,171 @@
+package com.xalts.expense_tracker.util;
+
+import com.xalts.expense_tracker.entity.User;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtKeyRingTest {
+
+    private static final Duration OVERLAP = Duration.ofHours(10);
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private Clock clock;
+    private Instant now;
+    private int writes;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("jwt-keys.properties");
+        now = Instant.parse("2026-10-01T00:00:00Z");
+        clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@example.com");
+    }
+
+    @Test
+    void tokensVerifyOnAnotherInstanceSharingTheKeyFile() throws Exception {
+        writeKeys("k1", "k1");
+        JwtUtil first = new JwtUtil(loadedRing());
+        JwtUtil second = new JwtUtil(loadedRing());
+
+        String token = first.generateToken(user);
+
+        assertEquals("test@example.com", second.extractUsername(token));
+    }
+
+    @Test
+    void refresh_rotatesWithoutRestartAndOldTokensStillVerify() throws Exception {
+        writeKeys("k1", "k1");
+        JwtKeyRing ring = loadedRing();
+        JwtUtil jwtUtil = new JwtUtil(ring);
+        String oldToken = jwtUtil.generateToken(user);
+
+        writeKeys("k2", "k1", "k2");
+        ring.refresh();
+        String newToken = jwtUtil.generateToken(user);
+
+        assertEquals("k2", ring.getSigningKey().id());
+        assertEquals("test@example.com", jwtUtil.extractUsername(oldToken));
+        assertEquals("test@example.com", jwtUtil.extractUsername(newToken));
+    }
+
+    @Test
+    void retiredKey_verifiesUntilItsRetirementEndsOnEveryInstance() throws Exception {
+        writeKeys("k1", "k1");
+        JwtKeyRing ring = loadedRing();
+        JwtUtil jwtUtil = new JwtUtil(ring);
+        String oldToken = jwtUtil.generateToken(user);
+
+        writeKeys("k2", "k2");
+        appendRetired("k1", now.plus(OVERLAP));
+        ring.refresh();
+        // Started after the rotation, so it never saw k1 as a signing key.
+        JwtUtil laterInstance = new JwtUtil(loadedRing());
+        now = now.plus(OVERLAP.minusMinutes(1));
+
+        assertNotNull(ring.getKey("k1"));
+        assertEquals("test@example.com", jwtUtil.extractUsername(oldToken));
+        assertEquals("test@example.com", laterInstance.extractUsername(oldToken));
+
+        now = now.plus(Duration.ofMinutes(2));
+
+        assertNull(ring.getKey("k1"));
+        assertThrows(JwtException.class, () -> jwtUtil.extractUsername(oldToken));
+        assertThrows(JwtException.class, () -> laterInstance.extractUsername(oldToken));
+    }
+
+    @Test
+    void removedKey_stopsVerifyingAtOnce() throws Exception {
+        writeKeys("k1", "k1");
+        JwtKeyRing ring = loadedRing();
+        JwtUtil jwtUtil = new JwtUtil(ring);
+        String oldToken = jwtUtil.generateToken(user);
+
+        writeKeys("k2", "k2");
+        ring.refresh();
+
+        assertNull(ring.getKey("k1"));
+        assertThrows(JwtException.class, () -> jwtUtil.extractUsername(oldToken));
+    }
+
+    @Test
+    void load_retiredKeyWithoutUntil_throwsException() throws Exception {
+        writeKeys("k2", "k2");
+        Files.writeString(file, "retired.k1=" + key("k1") + "\n", StandardOpenOption.APPEND);
+
+        JwtKeyRing ring = new JwtKeyRing(file, clock);
+
+        assertThrows(RuntimeException.class, ring::load);
+    }
+
+    @Test
+    void refresh_brokenFile_keepsCurrentKeys() throws Exception {
+        writeKeys("k1", "k1");
+        JwtKeyRing ring = loadedRing();
+
+        Files.writeString(file, "active=missing\n");
+        Files.setLastModifiedTime(file, FileTime.from(now.plusSeconds(++writes)));
+        ring.refresh();
+
+        assertEquals("k1", ring.getSigningKey().id());
+    }
+
+    @Test
+    void load_shortKey_throwsException() throws Exception {
+        Files.writeString(file, "active=k1\nkeys.k1=" + Base64.getEncoder().encodeToString(new byte[32]) + "\n");
+
+        JwtKeyRing ring = new JwtKeyRing(file, clock);
+
+        assertThrows(RuntimeException.class, ring::load);
+    }
+
+    private JwtKeyRing loadedRing() {
+        JwtKeyRing ring = new JwtKeyRing(file, clock);
+        ring.load();
+        return ring;
+    }
+
+    private void writeKeys(String active, String... keyIds) throws Exception {
+        StringBuilder content = new StringBuilder("active=" + active + "\n");
+        for (String keyId : keyIds) {
+            content.append("keys.").append(keyId).append('=').append(key(keyId)).append('\n');
+        }
+        Files.writeString(file, content);
+        // Modification times can be coarse; make every write visible to the change check.
+        Files.setLastModifiedTime(file, FileTime.from(now.plusSeconds(++writes)));
+    }
+
+    private void appendRetired(String keyId, Instant until) throws Exception {
+        Files.writeString(file, "retired." + keyId + "=" + key(keyId) + "\nretired." + keyId + ".until=" + until + "\n",
+                StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, FileTime.from(now.plusSeconds(++writes)));
+    }
+
+    private static String key(String keyId) {
+        byte[] bytes = new byte[64];
+        new Random(keyId.hashCode()).nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
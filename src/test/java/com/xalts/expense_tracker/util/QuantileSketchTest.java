@@ -0,0 +1,79 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantile_staysWithinRelativeAccuracy() {
+        Random random = new Random(7);
+        double[] values = new double[10_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2 + 3);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.0, 0.5, 0.9, 0.99, 1.0}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            double estimate = sketch.quantile(q);
+            assertTrue(Math.abs(estimate - exact) <= exact * QuantileSketch.RELATIVE_ACCURACY * 1.0001,
+                    "q=" + q + " exact=" + exact + " estimate=" + estimate);
+        }
+    }
+
+    @Test
+    void merge_equalsSketchOfCombinedValues() {
+        QuantileSketch january = new QuantileSketch();
+        QuantileSketch february = new QuantileSketch();
+        QuantileSketch combined = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) {
+            (i % 2 == 0 ? january : february).add(i * 3.5);
+            combined.add(i * 3.5);
+        }
+
+        january.merge(february);
+
+        assertEquals(combined.getCount(), january.getCount());
+        for (double q : new double[]{0.1, 0.5, 0.9, 0.99}) {
+            assertEquals(combined.quantile(q), january.quantile(q));
+        }
+    }
+
+    @Test
+    void add_negativeDelta_removesValueExactly() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(10.0);
+        sketch.add(20.0);
+        sketch.add(5_000.0);
+
+        sketch.add(QuantileSketch.bucketOf(5_000.0), -1);
+
+        assertEquals(2, sketch.getCount());
+        assertEquals(2, sketch.getBucketCount());
+        assertEquals(20.0, sketch.quantile(1.0), 20.0 * QuantileSketch.RELATIVE_ACCURACY);
+    }
+
+    @Test
+    void bucketOf_clampsSoBucketsStayBounded() {
+        int lowest = QuantileSketch.bucketOf(QuantileSketch.MIN_VALUE);
+        int highest = QuantileSketch.bucketOf(QuantileSketch.MAX_VALUE);
+
+        assertEquals(lowest, QuantileSketch.bucketOf(0.0001));
+        assertEquals(highest, QuantileSketch.bucketOf(1e15));
+        assertTrue(highest - lowest + 1 < 1_300);
+    }
+
+    @Test
+    void quantile_emptySketch_throwsException() {
+        QuantileSketch sketch = new QuantileSketch();
+
+        assertThrows(IllegalStateException.class, () -> sketch.quantile(0.5));
+    }
+}
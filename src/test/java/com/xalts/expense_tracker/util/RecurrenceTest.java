@@ -0,0 +1,54 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceTest {
+
+    @Test
+    void occurrence_monthEndAnchor_clampsWithoutDrifting() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2024, 1, 31), null, Recurrence.Frequency.MONTHLY, 1);
+
+        assertEquals(LocalDate.of(2024, 2, 29), recurrence.occurrence(1));
+        assertEquals(LocalDate.of(2024, 3, 31), recurrence.occurrence(2));
+        assertEquals(LocalDate.of(2024, 4, 30), recurrence.occurrence(3));
+    }
+
+    @Test
+    void count_matchesEnumeration() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2024, 1, 31), LocalDate.of(2026, 6, 15),
+                Recurrence.Frequency.MONTHLY, 2);
+        LocalDate from = LocalDate.of(2023, 12, 1);
+        LocalDate to = LocalDate.of(2027, 1, 1);
+
+        long enumerated = 0;
+        for (long k = 0; !recurrence.occurrence(k).isAfter(LocalDate.of(2026, 6, 15)); k++) {
+            enumerated++;
+        }
+
+        assertEquals(enumerated, recurrence.count(from, to));
+        assertEquals(0, recurrence.count(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 30)));
+        assertEquals(1, recurrence.count(LocalDate.of(2024, 3, 31), LocalDate.of(2024, 3, 31)));
+    }
+
+    @Test
+    void count_weeklyOverLongRange_isArithmetic() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2000, 1, 3), null, Recurrence.Frequency.WEEKLY, 1);
+
+        assertEquals(522, recurrence.count(LocalDate.of(2000, 1, 1), LocalDate.of(2009, 12, 31)));
+    }
+
+    @Test
+    void isOccurrence_respectsScheduleAndBounds() {
+        Recurrence recurrence = new Recurrence(LocalDate.of(2025, 1, 10), LocalDate.of(2025, 1, 20),
+                Recurrence.Frequency.DAILY, 5);
+
+        assertTrue(recurrence.isOccurrence(LocalDate.of(2025, 1, 15)));
+        assertFalse(recurrence.isOccurrence(LocalDate.of(2025, 1, 16)));
+        assertFalse(recurrence.isOccurrence(LocalDate.of(2025, 1, 5)));
+        assertFalse(recurrence.isOccurrence(LocalDate.of(2025, 1, 25)));
+    }
+}
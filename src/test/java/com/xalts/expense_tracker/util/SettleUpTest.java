@@ -0,0 +1,57 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettleUpTest {
+
+    @Test
+    void transfers_pairsExactMatchesFirst() {
+        Map<Long, Long> balances = Map.of(1L, 500L, 2L, -500L, 3L, 300L, 4L, -200L, 5L, -100L);
+
+        List<SettleUp.Transfer> transfers = SettleUp.transfers(balances);
+
+        assertTrue(transfers.contains(new SettleUp.Transfer(2L, 1L, 500L)));
+        assertEquals(3, transfers.size());
+        assertSettles(balances, transfers);
+    }
+
+    @Test
+    void transfers_unbalancedInput_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> SettleUp.transfers(Map.of(1L, 10L, 2L, -5L)));
+    }
+
+    @Test
+    void transfers_largeGroup_settlesWithAtMostNMinusOneTransfers() {
+        Random random = new Random(42);
+        Map<Long, Long> balances = new HashMap<>();
+        long sum = 0;
+        for (long member = 1; member < 500; member++) {
+            long balance = random.nextInt(200_001) - 100_000;
+            balances.put(member, balance);
+            sum += balance;
+        }
+        balances.put(500L, -sum);
+
+        List<SettleUp.Transfer> transfers = SettleUp.transfers(balances);
+
+        assertTrue(transfers.size() <= balances.size() - 1);
+        assertSettles(balances, transfers);
+    }
+
+    private static void assertSettles(Map<Long, Long> balances, List<SettleUp.Transfer> transfers) {
+        Map<Long, Long> remaining = new HashMap<>(balances);
+        for (SettleUp.Transfer transfer : transfers) {
+            assertTrue(transfer.amountCents() > 0);
+            remaining.merge(transfer.from(), transfer.amountCents(), Long::sum);
+            remaining.merge(transfer.to(), -transfer.amountCents(), Long::sum);
+        }
+        remaining.values().forEach(balance -> assertEquals(0L, balance));
+    }
+}
@@ -0,0 +1,86 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TagIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 4, 10);
+    private static final TagIndex.Converter AS_STORED = (amount, currency, date) -> amount;
+
+    private TagIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TagIndex();
+        index.put(10, 100.0, "USD", DAY, List.of("reimbursable", "client-x"));
+        index.put(11, 20.0, "EUR", DAY.plusDays(1), List.of("reimbursable", "client-x", "personal"));
+        index.put(12, 5.0, "USD", DAY.plusDays(2), List.of("client-y"));
+        index.put(13, 7.0, "USD", DAY.plusDays(3), null);
+    }
+
+    @Test
+    void match_combinesAllAnyAndNone() {
+        CompressedBitmap matches = index.match(List.of("reimbursable", "client-x"), List.of(), List.of("personal"));
+
+        assertArrayEquals(new long[]{10}, index.expenseIds(matches, 10));
+        assertArrayEquals(new long[]{12, 11, 10},
+                index.expenseIds(index.match(List.of(), List.of("client-x", "client-y"), List.of()), 10));
+        assertArrayEquals(new long[0], index.expenseIds(index.match(List.of("unknown"), List.of(), List.of()), 10));
+    }
+
+    @Test
+    void total_sumsMatchesWithinTheDateRange() {
+        CompressedBitmap matches = index.match(List.of("reimbursable"), List.of(), List.of());
+
+        assertEquals(120.0, index.total(matches, LocalDate.MIN, LocalDate.MAX, AS_STORED));
+        assertEquals(20.0, index.total(matches, DAY.plusDays(1), DAY.plusDays(1), AS_STORED));
+    }
+
+    @Test
+    void total_convertsEachMatchWithItsCurrencyAndDate() {
+        CompressedBitmap matches = index.match(List.of("reimbursable"), List.of(), List.of());
+
+        double total = index.total(matches, LocalDate.MIN, LocalDate.MAX,
+                (amount, currency, date) -> currency.equals("EUR") && date.equals(DAY.plusDays(1)) ? amount * 2 : amount);
+
+        assertEquals(140.0, total);
+    }
+
+    @Test
+    void put_withNullTagsKeepsThemAndWithTagsReplacesThem() {
+        index.put(10, 150.0, "USD", DAY, null);
+        assertEquals(Set.of("client-x", "reimbursable"), index.tagsOf(10));
+        assertEquals(170.0, index.total(index.match(List.of("reimbursable"), List.of(), List.of()),
+                LocalDate.MIN, LocalDate.MAX, AS_STORED));
+
+        index.put(12, 5.0, "USD", DAY, List.of("personal"));
+
+        assertEquals(Map.of("client-x", 2, "personal", 2, "reimbursable", 2), index.tagCounts());
+    }
+
+    @Test
+    void remove_dropsTheExpenseFromEveryTag() {
+        index.remove(11);
+        index.remove(99);
+
+        assertEquals(Map.of("client-x", 1, "client-y", 1, "reimbursable", 1), index.tagCounts());
+        assertEquals(3, index.size());
+        assertTrue(index.tagsOf(11).isEmpty());
+    }
+
+    @Test
+    void addTag_ignoresUnknownExpenses() {
+        index.addTag(13, "travel");
+        index.addTag(42, "travel");
+
+        assertEquals(1, index.tagCounts().get("travel"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.xalts.expense_tracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDenylistTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Test
+    void contains_onlyRevokedIds() {
+        TokenDenylist denylist = new TokenDenylist(Duration.ofHours(1));
+        UUID revoked = UUID.randomUUID();
+
+        denylist.add(revoked, 5 * HOUR + 10);
+
+        assertTrue(denylist.contains(revoked, 5 * HOUR + 10));
+        assertFalse(denylist.contains(UUID.randomUUID(), 5 * HOUR + 10));
+    }
+
+    @Test
+    void add_manyIds_neverLosesOneAcrossResizes() {
+        TokenDenylist denylist = new TokenDenylist(Duration.ofHours(1));
+        Random random = new Random(11);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            UUID id = new UUID(random.nextLong() | 1, random.nextLong());
+            ids.add(id);
+            denylist.add(id, (i % 10) * HOUR);
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertTrue(denylist.contains(ids.get(i), (i % 10) * HOUR));
+        }
+        assertEquals(100_000, denylist.size());
+        assertTrue(denylist.memoryBytes() / denylist.size() < 48, "bytes per id: " + denylist.memoryBytes() / denylist.size());
+    }
+
+    @Test
+    void add_duplicate_isStoredOnce() {
+        TokenDenylist denylist = new TokenDenylist(Duration.ofHours(1));
+        UUID id = UUID.randomUUID();
+
+        denylist.add(id, HOUR);
+        denylist.add(id, HOUR);
+
+        assertEquals(1, denylist.size());
+    }
+
+    @Test
+    void expire_dropsGenerationsWhoseTokensHaveAllExpired() {
+        TokenDenylist denylist = new TokenDenylist(Duration.ofHours(1));
+        UUID expired = UUID.randomUUID();
+        UUID live = UUID.randomUUID();
+        denylist.add(expired, 2 * HOUR + 100);
+        denylist.add(live, 3 * HOUR + 100);
+
+        denylist.expire(3 * HOUR + 50);
+
+        assertFalse(denylist.contains(expired, 2 * HOUR + 100));
+        assertTrue(denylist.contains(live, 3 * HOUR + 100));
+        assertEquals(1, denylist.size());
+    }
+}